@@ -0,0 +1,111 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The JSON fixtures the benchmarks run on: the definitions and executions used by the tests, and larger variants
+ * generated from them by repeating their tasks.
+ */
+final class Fixtures {
+
+    static final ObjectMapper MAPPER = new ObjectMapperProvider().getObjectMapper();
+
+    static final String KITCHENSINK = "/workflows/kitchensink.json";
+
+    static final String WORKFLOW_RUN = "/test_data/workflow1_run.json";
+
+    private Fixtures() {
+    }
+
+    static JsonNode readTree(String path) throws IOException {
+        try (InputStream inputStream = Fixtures.class.getResourceAsStream(path)) {
+            if (inputStream == null) {
+                throw new IOException("No file found at " + path);
+            }
+            return MAPPER.readTree(inputStream);
+        }
+    }
+
+    /**
+     * @param copies number of times the tasks of the kitchensink workflow are repeated
+     */
+    static ObjectNode workflowDef(int copies) throws IOException {
+        ObjectNode def = (ObjectNode) readTree(KITCHENSINK);
+        def.set("tasks", repeat((ArrayNode) def.get("tasks"), copies));
+        return def;
+    }
+
+    /**
+     * @param copies number of times the task executions of workflow1_run.json are repeated, its embedded definition
+     *               is repeated as many times
+     */
+    static ObjectNode workflow(int copies) throws IOException {
+        ObjectNode workflow = (ObjectNode) readTree(WORKFLOW_RUN);
+        workflow.set("tasks", repeat((ArrayNode) workflow.get("tasks"), copies));
+        ObjectNode def = (ObjectNode) workflow.get("workflowDefinition");
+        if (def != null) {
+            def.set("tasks", repeat((ArrayNode) def.get("tasks"), copies));
+        }
+        return workflow;
+    }
+
+    private static ArrayNode repeat(ArrayNode tasks, int copies) {
+        if (copies <= 1) {
+            return tasks;
+        }
+        ArrayNode repeated = MAPPER.createArrayNode();
+        for (int i = 0; i < copies; i++) {
+            for (JsonNode task : tasks) {
+                JsonNode copy = task.deepCopy();
+                suffixIdentifiers(copy, "_" + i);
+                repeated.add(copy);
+            }
+        }
+        return repeated;
+    }
+
+    /**
+     * Keeps the reference names (and task ids of executions) unique, as they are on a real workflow.
+     */
+    private static void suffixIdentifiers(JsonNode node, String suffix) {
+        if (node.isObject()) {
+            ObjectNode object = (ObjectNode) node;
+            for (String field : new String[]{"taskReferenceName", "referenceTaskName", "taskId"}) {
+                JsonNode value = object.get(field);
+                if (value != null && value.isTextual()) {
+                    object.put(field, value.asText() + suffix);
+                }
+            }
+            Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+            while (fields.hasNext()) {
+                suffixIdentifiers(fields.next().getValue(), suffix);
+            }
+        } else if (node.isArray()) {
+            for (JsonNode element : node) {
+                suffixIdentifiers(element, suffix);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.run.Workflow;
+
+import static io.orkes.conductor.cicd.benchmarks.Fixtures.MAPPER;
+
+/**
+ * Jackson (de)serialization of workflow definitions and executions with the {@code ObjectMapperProvider} mapper, as
+ * done by the client on every metadata and workflow call.  <code>copies</code> 1 is the fixture as is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "20", "200"})
+    public int copies;
+
+    private byte[] workflowDefJson;
+
+    private byte[] workflowJson;
+
+    private WorkflowDef workflowDef;
+
+    private Workflow workflow;
+
+    @Setup
+    public void setup() throws IOException {
+        workflowDefJson = MAPPER.writeValueAsBytes(Fixtures.workflowDef(copies));
+        workflowJson = MAPPER.writeValueAsBytes(Fixtures.workflow(copies));
+        workflowDef = MAPPER.readValue(workflowDefJson, WorkflowDef.class);
+        workflow = MAPPER.readValue(workflowJson, Workflow.class);
+    }
+
+    @Benchmark
+    public WorkflowDef readWorkflowDef() throws IOException {
+        return MAPPER.readValue(workflowDefJson, WorkflowDef.class);
+    }
+
+    @Benchmark
+    public byte[] writeWorkflowDef() throws IOException {
+        return MAPPER.writeValueAsBytes(workflowDef);
+    }
+
+    @Benchmark
+    public Workflow readWorkflow() throws IOException {
+        return MAPPER.readValue(workflowJson, Workflow.class);
+    }
+
+    @Benchmark
+    public byte[] writeWorkflow() throws IOException {
+        return MAPPER.writeValueAsBytes(workflow);
+    }
+}
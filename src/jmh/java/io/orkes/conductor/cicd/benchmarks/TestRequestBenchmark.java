@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+
+import io.orkes.conductor.cicd.definitions.DefinitionRegistry;
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import static io.orkes.conductor.cicd.benchmarks.Fixtures.MAPPER;
+
+/**
+ * Cost of building the mocked {@link WorkflowTestRequest} of a workflow, what <code>getWorkflowTestRequest</code> does
+ * at the start of every workflow test.  The cold variant starts from an empty {@link DefinitionRegistry}, so it
+ * includes parsing the sub-workflow definitions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TestRequestBenchmark {
+
+    @Param({"1", "20"})
+    public int copies;
+
+    private WorkflowDef workflowDef;
+
+    private DefinitionRegistry registry;
+
+    @Setup
+    public void setup() throws IOException {
+        workflowDef = MAPPER.treeToValue(Fixtures.workflowDef(copies), WorkflowDef.class);
+        registry = new DefinitionRegistry(MAPPER);
+        registry.newTestRequest(workflowDef);
+    }
+
+    @Benchmark
+    public WorkflowTestRequest newTestRequest() throws IOException {
+        return registry.newTestRequest(workflowDef);
+    }
+
+    @Benchmark
+    public WorkflowTestRequest newTestRequestColdRegistry() throws IOException {
+        return new DefinitionRegistry(MAPPER).newTestRequest(workflowDef);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+
+import io.orkes.conductor.cicd.workers.AnnotatedWorker;
+import io.orkes.conductor.cicd.workers.AppWorkres;
+
+import static io.orkes.conductor.cicd.benchmarks.Fixtures.MAPPER;
+
+/**
+ * The worker methods, called directly and through the {@link AnnotatedWorker} adapter used by the worker host (input
+ * conversion, reflective call and output mapping).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkerBenchmark {
+
+    private AppWorkres workers;
+
+    private AnnotatedWorker greetings;
+
+    private Task task;
+
+    private String name;
+
+    @Setup
+    public void setup() {
+        workers = new AppWorkres();
+        greetings = AnnotatedWorker.scan(workers, MAPPER).stream()
+                .filter(worker -> worker.getTaskType().equals("greetings"))
+                .findFirst()
+                .orElseThrow();
+        name = "Orkes";
+        task = new Task();
+        task.setTaskId("benchmark");
+        task.setInputData(Map.of("name", name));
+    }
+
+    @Benchmark
+    public String greetings() {
+        return workers.greetings(name);
+    }
+
+    @Benchmark
+    public TaskResult greetingsTask() {
+        return greetings.execute(task);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.analysis;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Findings and shape of the analyzed workflow definitions.
+ */
+public class AnalysisReport {
+
+    private final List<WorkflowStats> stats = new ArrayList<>();
+
+    private final List<Finding> findings = new ArrayList<>();
+
+    public void add(WorkflowStats workflowStats) {
+        stats.add(workflowStats);
+    }
+
+    public void add(Finding finding) {
+        findings.add(finding);
+    }
+
+    public List<WorkflowStats> getStats() {
+        return stats;
+    }
+
+    public List<Finding> getFindings() {
+        return findings;
+    }
+
+    public List<Finding> getFindings(Finding.Severity atLeast) {
+        return findings.stream().filter(f -> f.getSeverity().compareTo(atLeast) >= 0).collect(Collectors.toList());
+    }
+
+    public void print(PrintStream out) {
+        for (WorkflowStats workflowStats : stats) {
+            out.println(workflowStats);
+            for (Finding finding : findings) {
+                if (finding.getWorkflow().equals(workflowStats.getWorkflow())) {
+                    out.println("  " + finding);
+                }
+            }
+        }
+        out.printf("Analyzed %d workflow(s): %d error(s), %d warning(s)%n", stats.size(),
+                count(Finding.Severity.ERROR), count(Finding.Severity.WARNING));
+    }
+
+    private long count(Finding.Severity severity) {
+        return findings.stream().filter(f -> f.getSeverity() == severity).count();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.analysis;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+
+import io.orkes.conductor.cicd.deploy.MetadataDeployer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Analyzes the workflow definitions under <code>workflows/</code> and exits with 1 when a finding is at least as severe
+ * as <code>--fail-on</code>.  See {@link AnalyzerOptions} for the supported arguments.
+ */
+public class AnalyzerMain {
+
+    public static void main(String[] args) throws IOException {
+        AnalyzerOptions options = AnalyzerOptions.parse(args);
+        ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+        List<WorkflowDef> defs = new ArrayList<>();
+        Path workflowsDir = options.getResourcesDir().resolve(MetadataDeployer.WORKFLOWS_DIR);
+        for (Path file : MetadataDeployer.listJsonFiles(workflowsDir)) {
+            defs.add(objectMapper.readValue(file.toFile(), WorkflowDef.class));
+        }
+
+        AnalysisReport report = new WorkflowAnalyzer(options, defs).analyze(defs);
+        report.print(System.out);
+        List<Finding> failures = report.getFindings(options.getFailOn());
+        if (!failures.isEmpty()) {
+            System.err.println(failures.size() + " finding(s) at or above " + options.getFailOn()
+                    + " in " + workflowsDir);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.analysis;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static io.orkes.conductor.cicd.CommandLineArgs.value;
+
+/**
+ * Command line options of the workflow analyzer.  A finding is an ERROR when a threshold is exceeded.
+ * <pre>
+ *   --resources &lt;dir&gt;              directory containing workflows/ (default: src/main/resources)
+ *   --max-loop-iterations &lt;n&gt;      DO_WHILE bound (default: 1000)
+ *   --max-http-timeout &lt;ms&gt;        HTTP connection and read timeouts (default: 30000)
+ *   --max-fan-out &lt;n&gt;              tasks started by a FORK_JOIN_DYNAMIC (default: 100)
+ *   --max-sub-workflow-depth &lt;n&gt;   nesting of sub-workflows (default: 5)
+ *   --max-critical-path &lt;n&gt;        tasks on the longest path of a workflow (default: 500)
+ *   --max-parallelism &lt;n&gt;          tasks of a workflow scheduled at the same time (default: 200)
+ *   --fail-on &lt;severity&gt;           warning or error (default: error)
+ * </pre>
+ */
+public class AnalyzerOptions {
+
+    private Path resourcesDir = Paths.get("src/main/resources");
+
+    private int maxLoopIterations = 1000;
+
+    private int maxHttpTimeoutMillis = 30_000;
+
+    private int maxFanOut = 100;
+
+    private int maxSubWorkflowDepth = 5;
+
+    private int maxCriticalPath = 500;
+
+    private int maxParallelism = 200;
+
+    private Finding.Severity failOn = Finding.Severity.ERROR;
+
+    public static AnalyzerOptions parse(String[] args) {
+        AnalyzerOptions options = new AnalyzerOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--resources":
+                    options.setResourcesDir(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--max-loop-iterations":
+                    options.setMaxLoopIterations(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--max-http-timeout":
+                    options.setMaxHttpTimeoutMillis(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--max-fan-out":
+                    options.setMaxFanOut(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--max-sub-workflow-depth":
+                    options.setMaxSubWorkflowDepth(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--max-critical-path":
+                    options.setMaxCriticalPath(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--max-parallelism":
+                    options.setMaxParallelism(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--fail-on":
+                    options.setFailOn(Finding.Severity.valueOf(value(args, ++i, arg).toUpperCase()));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        return options;
+    }
+
+    public Path getResourcesDir() {
+        return resourcesDir;
+    }
+
+    public void setResourcesDir(Path resourcesDir) {
+        this.resourcesDir = resourcesDir;
+    }
+
+    public int getMaxLoopIterations() {
+        return maxLoopIterations;
+    }
+
+    public void setMaxLoopIterations(int maxLoopIterations) {
+        this.maxLoopIterations = maxLoopIterations;
+    }
+
+    public int getMaxHttpTimeoutMillis() {
+        return maxHttpTimeoutMillis;
+    }
+
+    public void setMaxHttpTimeoutMillis(int maxHttpTimeoutMillis) {
+        this.maxHttpTimeoutMillis = maxHttpTimeoutMillis;
+    }
+
+    public int getMaxFanOut() {
+        return maxFanOut;
+    }
+
+    public void setMaxFanOut(int maxFanOut) {
+        this.maxFanOut = maxFanOut;
+    }
+
+    public int getMaxSubWorkflowDepth() {
+        return maxSubWorkflowDepth;
+    }
+
+    public void setMaxSubWorkflowDepth(int maxSubWorkflowDepth) {
+        this.maxSubWorkflowDepth = maxSubWorkflowDepth;
+    }
+
+    public int getMaxCriticalPath() {
+        return maxCriticalPath;
+    }
+
+    public void setMaxCriticalPath(int maxCriticalPath) {
+        this.maxCriticalPath = maxCriticalPath;
+    }
+
+    public int getMaxParallelism() {
+        return maxParallelism;
+    }
+
+    public void setMaxParallelism(int maxParallelism) {
+        this.maxParallelism = maxParallelism;
+    }
+
+    public Finding.Severity getFailOn() {
+        return failOn;
+    }
+
+    public void setFailOn(Finding.Severity failOn) {
+        this.failOn = failOn;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.analysis;
+
+/**
+ * A performance hazard found in a workflow definition.
+ */
+public class Finding {
+
+    public enum Severity {
+        INFO, WARNING, ERROR
+    }
+
+    private final Severity severity;
+
+    private final String workflow;
+
+    private final String taskReferenceName;
+
+    private final String rule;
+
+    private final String message;
+
+    public Finding(Severity severity, String workflow, String taskReferenceName, String rule, String message) {
+        this.severity = severity;
+        this.workflow = workflow;
+        this.taskReferenceName = taskReferenceName;
+        this.rule = rule;
+        this.message = message;
+    }
+
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    /**
+     * @return name:version of the workflow
+     */
+    public String getWorkflow() {
+        return workflow;
+    }
+
+    /**
+     * @return the task the finding is about, null if it is about the whole workflow
+     */
+    public String getTaskReferenceName() {
+        return taskReferenceName;
+    }
+
+    public String getRule() {
+        return rule;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return severity + " " + workflow + (taskReferenceName == null ? "" : " [" + taskReferenceName + "]") + " "
+                + rule + ": " + message;
+    }
+}
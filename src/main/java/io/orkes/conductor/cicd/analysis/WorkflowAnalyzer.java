@@ -0,0 +1,432 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.analysis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+
+import static io.orkes.conductor.cicd.definitions.DefinitionKeys.key;
+
+/**
+ * Looks for performance hazards in workflow definitions without running them:
+ * <ul>
+ *     <li>DO_WHILE loops whose condition does not bound the iteration count, or bounds it above
+ *     {@link AnalyzerOptions#getMaxLoopIterations()}</li>
+ *     <li>HTTP tasks without connection/read timeouts or with timeouts above
+ *     {@link AnalyzerOptions#getMaxHttpTimeoutMillis()}, or with neither a task nor a workflow timeout</li>
+ *     <li>WAIT and HUMAN tasks on the critical path</li>
+ *     <li>FORK_JOIN_DYNAMIC tasks whose fan-out is above {@link AnalyzerOptions#getMaxFanOut()}</li>
+ *     <li>sub-workflows nested deeper than {@link AnalyzerOptions#getMaxSubWorkflowDepth()}, or recursively</li>
+ *     <li>critical paths and parallelism above {@link AnalyzerOptions#getMaxCriticalPath()} and
+ *     {@link AnalyzerOptions#getMaxParallelism()}</li>
+ * </ul>
+ * Sub-workflows referenced by name are resolved among the definitions given to the constructor, inline ones are
+ * analyzed as part of their parent.
+ */
+public class WorkflowAnalyzer {
+
+    private static final String LOOP_RULE = "loop-bound";
+
+    private static final String HTTP_RULE = "http-timeout";
+
+    private static final String WAIT_RULE = "wait-on-critical-path";
+
+    private static final String FAN_OUT_RULE = "dynamic-fan-out";
+
+    private static final String DEPTH_RULE = "sub-workflow-depth";
+
+    private static final String PATH_RULE = "critical-path";
+
+    private static final String PARALLELISM_RULE = "parallelism";
+
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+
+    private static final Pattern INPUT_REFERENCE = Pattern.compile("\\$\\.(\\w+)");
+
+    private final AnalyzerOptions options;
+
+    private final Map<String, WorkflowDef> definitions = new HashMap<>();
+
+    public WorkflowAnalyzer(AnalyzerOptions options, Collection<WorkflowDef> knownDefinitions) {
+        this.options = options;
+        for (WorkflowDef def : knownDefinitions) {
+            definitions.put(key(def.getName(), def.getVersion()), def);
+            WorkflowDef latest = definitions.get(key(def.getName(), null));
+            if (latest == null || latest.getVersion() < def.getVersion()) {
+                definitions.put(key(def.getName(), null), def);
+            }
+        }
+    }
+
+    public AnalysisReport analyze(Collection<WorkflowDef> defs) {
+        AnalysisReport report = new AnalysisReport();
+        for (WorkflowDef def : defs) {
+            analyze(def, report);
+        }
+        return report;
+    }
+
+    public WorkflowStats analyze(WorkflowDef def, AnalysisReport report) {
+        String workflow = key(def.getName(), def.getVersion());
+        checkTasks(workflow, def, report);
+
+        Set<String> stack = new HashSet<>();
+        stack.add(def.getName());
+        Shape shape = sequence(workflow, def.getTasks(), "", 0, stack, report);
+
+        List<String> criticalPath = new ArrayList<>();
+        for (PathEntry entry : shape.path) {
+            criticalPath.add(entry.ref);
+            String type = entry.task.getType();
+            if (TaskType.WAIT.name().equals(type) || TaskType.HUMAN.name().equals(type)) {
+                report.add(new Finding(Finding.Severity.WARNING, workflow, entry.ref, WAIT_RULE,
+                        type + " task on the critical path" + waitDuration(entry.task)
+                                + ", every run is held until it is completed"));
+            }
+        }
+        if (shape.length > options.getMaxCriticalPath()) {
+            report.add(new Finding(Finding.Severity.ERROR, workflow, null, PATH_RULE, "critical path of "
+                    + shape.length + " tasks is above " + options.getMaxCriticalPath()));
+        }
+        if (shape.parallelism > options.getMaxParallelism()) {
+            report.add(new Finding(Finding.Severity.ERROR, workflow, null, PARALLELISM_RULE, shape.parallelism
+                    + " tasks may be scheduled at the same time, above " + options.getMaxParallelism()));
+        }
+        if (shape.depth > options.getMaxSubWorkflowDepth()) {
+            report.add(new Finding(Finding.Severity.ERROR, workflow, null, DEPTH_RULE, "sub-workflows are nested "
+                    + shape.depth + " levels deep, above " + options.getMaxSubWorkflowDepth()));
+        }
+
+        WorkflowStats stats = new WorkflowStats(workflow, shape.length, criticalPath, shape.parallelism, shape.depth);
+        report.add(stats);
+        return stats;
+    }
+
+    /**
+     * Checks every task of the definition, including the tasks of loops, forks, switch cases and inline
+     * sub-workflows.
+     */
+    private void checkTasks(String workflow, WorkflowDef def, AnalysisReport report) {
+        for (WorkflowTask task : collectTasks(def)) {
+            String type = task.getType();
+            if (TaskType.DO_WHILE.name().equals(type)) {
+                checkLoop(workflow, task, report);
+            } else if (TaskType.HTTP.name().equals(type)) {
+                checkHttp(workflow, def, task, report);
+            } else if (TaskType.FORK_JOIN_DYNAMIC.name().equals(type)) {
+                checkFanOut(workflow, task, report);
+            }
+        }
+    }
+
+    private void checkLoop(String workflow, WorkflowTask task, AnalysisReport report) {
+        LoopBound bound = loopBound(task);
+        if (bound.iterations == null) {
+            report.add(new Finding(Finding.Severity.WARNING, workflow, task.getTaskReferenceName(), LOOP_RULE,
+                    bound.reason));
+        } else if (bound.iterations > options.getMaxLoopIterations()) {
+            report.add(new Finding(Finding.Severity.ERROR, workflow, task.getTaskReferenceName(), LOOP_RULE,
+                    "runs up to " + bound.iterations + " iterations, above " + options.getMaxLoopIterations()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void checkHttp(String workflow, WorkflowDef def, WorkflowTask task, AnalysisReport report) {
+        Map<String, Object> input = task.getInputParameters() == null ? Map.of() : task.getInputParameters();
+        Object httpRequest = input.get("http_request");
+        Map<String, Object> request = httpRequest instanceof Map ? (Map<String, Object>) httpRequest : input;
+        for (String timeout : new String[]{"connectionTimeOut", "readTimeOut"}) {
+            Object value = request.get(timeout);
+            Long millis = asLong(value);
+            if (value == null || (millis != null && millis <= 0)) {
+                report.add(new Finding(Finding.Severity.WARNING, workflow, task.getTaskReferenceName(), HTTP_RULE,
+                        "no " + timeout + ", the server default applies"));
+            } else if (millis != null && millis > options.getMaxHttpTimeoutMillis()) {
+                report.add(new Finding(Finding.Severity.ERROR, workflow, task.getTaskReferenceName(), HTTP_RULE,
+                        timeout + " of " + millis + "ms is above " + options.getMaxHttpTimeoutMillis() + "ms"));
+            }
+        }
+        TaskDef taskDef = task.getTaskDefinition();
+        boolean taskTimeout = taskDef != null && taskDef.getTimeoutSeconds() > 0;
+        if (!taskTimeout && def.getTimeoutSeconds() <= 0) {
+            report.add(new Finding(Finding.Severity.WARNING, workflow, task.getTaskReferenceName(), HTTP_RULE,
+                    "neither the task nor the workflow has a timeoutSeconds, retries of an unresponsive endpoint"
+                            + " are unbounded in time"));
+        }
+    }
+
+    private void checkFanOut(String workflow, WorkflowTask task, AnalysisReport report) {
+        Integer fanOut = fanOut(task);
+        if (fanOut == null) {
+            report.add(new Finding(Finding.Severity.INFO, workflow, task.getTaskReferenceName(), FAN_OUT_RULE,
+                    "fan-out is only known at runtime"));
+        } else if (fanOut > options.getMaxFanOut()) {
+            report.add(new Finding(Finding.Severity.ERROR, workflow, task.getTaskReferenceName(), FAN_OUT_RULE,
+                    "forks " + fanOut + " tasks, above " + options.getMaxFanOut()));
+        }
+    }
+
+    private Shape sequence(String workflow, List<WorkflowTask> tasks, String prefix, int depth, Set<String> stack,
+                           AnalysisReport report) {
+        Shape shape = new Shape();
+        if (tasks == null) {
+            return shape;
+        }
+        for (WorkflowTask task : tasks) {
+            Shape taskShape = shape(workflow, task, prefix, depth, stack, report);
+            shape.length += taskShape.length;
+            shape.path.addAll(taskShape.path);
+            shape.parallelism = Math.max(shape.parallelism, taskShape.parallelism);
+            shape.depth = Math.max(shape.depth, taskShape.depth);
+        }
+        return shape;
+    }
+
+    private Shape shape(String workflow, WorkflowTask task, String prefix, int depth, Set<String> stack,
+                        AnalysisReport report) {
+        Shape shape = Shape.of(task, prefix);
+        String type = task.getType();
+        if (TaskType.FORK_JOIN.name().equals(type)) {
+            int parallelism = 0;
+            Shape longest = new Shape();
+            for (List<WorkflowTask> branch : task.getForkTasks()) {
+                Shape branchShape = sequence(workflow, branch, prefix, depth, stack, report);
+                parallelism += Math.max(1, branchShape.parallelism);
+                longest = branchShape.length > longest.length ? branchShape : longest;
+                shape.depth = Math.max(shape.depth, branchShape.depth);
+            }
+            shape.append(longest);
+            shape.parallelism = Math.max(1, parallelism);
+        } else if (TaskType.SWITCH.name().equals(type) || TaskType.DECISION.name().equals(type)) {
+            List<List<WorkflowTask>> cases = new ArrayList<>(task.getDecisionCases().values());
+            cases.add(task.getDefaultCase());
+            Shape longest = new Shape();
+            for (List<WorkflowTask> branch : cases) {
+                Shape branchShape = sequence(workflow, branch, prefix, depth, stack, report);
+                longest = branchShape.length > longest.length ? branchShape : longest;
+                shape.parallelism = Math.max(shape.parallelism, branchShape.parallelism);
+                shape.depth = Math.max(shape.depth, branchShape.depth);
+            }
+            shape.append(longest);
+        } else if (TaskType.DO_WHILE.name().equals(type)) {
+            Shape body = sequence(workflow, task.getLoopOver(), prefix, depth, stack, report);
+            Integer iterations = loopBound(task).iterations;
+            shape.append(body);
+            long repeated = (long) body.length * (Math.max(1, iterations == null ? 1 : iterations) - 1);
+            shape.length = (int) Math.min(Integer.MAX_VALUE, shape.length + repeated);
+            shape.parallelism = Math.max(1, body.parallelism);
+            shape.depth = body.depth;
+        } else if (TaskType.FORK_JOIN_DYNAMIC.name().equals(type)) {
+            Integer fanOut = fanOut(task);
+            // The forked tasks run in parallel, one of them is on the path
+            shape.length++;
+            shape.parallelism = fanOut == null ? 1 : Math.max(1, fanOut);
+        } else if (TaskType.SUB_WORKFLOW.name().equals(type)) {
+            WorkflowDef subWorkflow = subWorkflow(task.getSubWorkflowParam());
+            if (subWorkflow != null) {
+                if (!stack.add(subWorkflow.getName())) {
+                    report.add(new Finding(Finding.Severity.ERROR, workflow, task.getTaskReferenceName(), DEPTH_RULE,
+                            "sub-workflow " + subWorkflow.getName() + " starts itself recursively"));
+                    return shape;
+                }
+                Shape sub = sequence(workflow, subWorkflow.getTasks(), prefix + task.getTaskReferenceName() + "/",
+                        depth + 1, stack, report);
+                stack.remove(subWorkflow.getName());
+                shape.append(sub);
+                shape.parallelism = Math.max(1, sub.parallelism);
+                shape.depth = sub.depth + 1;
+            } else {
+                shape.depth = 1;
+            }
+        }
+        return shape;
+    }
+
+    private WorkflowDef subWorkflow(SubWorkflowParams params) {
+        if (params == null) {
+            return null;
+        }
+        Object inline = params.getWorkflowDefinition();
+        if (inline instanceof WorkflowDef) {
+            return (WorkflowDef) inline;
+        }
+        return definitions.get(key(params.getName(), params.getVersion()));
+    }
+
+    /**
+     * @return the tasks of the definition and of its inline sub-workflows
+     */
+    private static List<WorkflowTask> collectTasks(WorkflowDef def) {
+        List<WorkflowTask> tasks = new ArrayList<>();
+        for (WorkflowTask task : def.collectTasks()) {
+            tasks.add(task);
+            SubWorkflowParams params = task.getSubWorkflowParam();
+            if (params != null && params.getWorkflowDefinition() instanceof WorkflowDef) {
+                tasks.addAll(collectTasks((WorkflowDef) params.getWorkflowDefinition()));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Recognizes conditions of the form <code>$.ref['iteration'] &lt; N</code> (or <code>$.ref.iteration</code>, or
+     * <code>&lt;=</code>), where N is a number or a constant input parameter of the loop.  A condition with
+     * <code>||</code> is only bounded when each of its alternatives is, by the largest of their bounds.
+     */
+    static LoopBound loopBound(WorkflowTask task) {
+        String condition = task.getLoopCondition();
+        if (condition == null || condition.isBlank()) {
+            return LoopBound.unknown("no loop condition");
+        }
+        int iterations = 0;
+        for (String alternative : condition.split("\\|\\|")) {
+            LoopBound bound = iterationBound(task, alternative);
+            if (bound.iterations == null) {
+                return bound;
+            }
+            iterations = Math.max(iterations, bound.iterations);
+        }
+        return new LoopBound(iterations, null);
+    }
+
+    private static LoopBound iterationBound(WorkflowTask task, String condition) {
+        Pattern iterationCheck = Pattern.compile("\\$\\." + Pattern.quote(task.getTaskReferenceName())
+                + "(?:\\[\\s*['\"]iteration['\"]\\s*]|\\.iteration)\\s*(<=?)\\s*([\\w.$]+)");
+        Matcher matcher = iterationCheck.matcher(condition);
+        if (!matcher.find()) {
+            String part = condition.equals(task.getLoopCondition()) ? "the loop condition" :
+                    "the alternative '" + condition.trim() + "' of the loop condition";
+            return LoopBound.unknown(part + " does not bound the iteration count");
+        }
+        String limit = matcher.group(2);
+        Long value = null;
+        if (NUMBER.matcher(limit).matches()) {
+            value = Long.parseLong(limit);
+        } else {
+            Matcher input = INPUT_REFERENCE.matcher(limit);
+            if (input.matches() && task.getInputParameters() != null) {
+                value = asLong(task.getInputParameters().get(input.group(1)));
+            }
+        }
+        if (value == null) {
+            return LoopBound.unknown("the iteration count is bounded by " + limit + ", only known at runtime");
+        }
+        long iterations = matcher.group(1).equals("<=") ? value + 1 : value;
+        return new LoopBound((int) Math.min(Integer.MAX_VALUE, iterations), null);
+    }
+
+    /**
+     * @return the number of tasks forked when the fork inputs are constant, null otherwise
+     */
+    static Integer fanOut(WorkflowTask task) {
+        Map<String, Object> input = task.getInputParameters() == null ? Map.of() : task.getInputParameters();
+        Object forkInputs = input.get("forkTaskInputs");
+        if (forkInputs instanceof List) {
+            return ((List<?>) forkInputs).size();
+        }
+        if (task.getDynamicForkTasksParam() != null) {
+            Object forkTasks = input.get(task.getDynamicForkTasksParam());
+            if (forkTasks instanceof List) {
+                return ((List<?>) forkTasks).size();
+            }
+        }
+        return null;
+    }
+
+    private static String waitDuration(WorkflowTask task) {
+        if (task.getInputParameters() == null) {
+            return "";
+        }
+        Object duration = task.getInputParameters().get("duration");
+        Object until = task.getInputParameters().get("until");
+        if (duration != null) {
+            return " (" + duration + ")";
+        }
+        return until != null ? " (until " + until + ")" : " (waiting for an external signal)";
+    }
+
+    private static Long asLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String && NUMBER.matcher((String) value).matches()) {
+            return Long.parseLong((String) value);
+        }
+        return null;
+    }
+
+    static class LoopBound {
+
+        final Integer iterations;
+
+        final String reason;
+
+        LoopBound(Integer iterations, String reason) {
+            this.iterations = iterations;
+            this.reason = reason;
+        }
+
+        static LoopBound unknown(String reason) {
+            return new LoopBound(null, reason);
+        }
+    }
+
+    private static class PathEntry {
+
+        final String ref;
+
+        final WorkflowTask task;
+
+        PathEntry(String ref, WorkflowTask task) {
+            this.ref = ref;
+            this.task = task;
+        }
+    }
+
+    private static class Shape {
+
+        int length;
+
+        final List<PathEntry> path = new ArrayList<>();
+
+        int parallelism;
+
+        int depth;
+
+        static Shape of(WorkflowTask task, String prefix) {
+            Shape shape = new Shape();
+            shape.length = 1;
+            shape.path.add(new PathEntry(prefix + task.getTaskReferenceName(), task));
+            shape.parallelism = 1;
+            return shape;
+        }
+
+        void append(Shape next) {
+            length += next.length;
+            path.addAll(next.path);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.analysis;
+
+import java.util.List;
+
+/**
+ * Shape of a workflow definition: the longest chain of tasks a run goes through, the largest number of tasks that can
+ * be scheduled at the same time and how deep sub-workflows are nested.
+ * <p>
+ * Loops count for their bound when it is known, once otherwise; dynamic forks count for their fan-out when it is
+ * known, one otherwise.
+ */
+public class WorkflowStats {
+
+    private final String workflow;
+
+    private final int criticalPathLength;
+
+    private final List<String> criticalPath;
+
+    private final int maxParallelism;
+
+    private final int subWorkflowDepth;
+
+    public WorkflowStats(String workflow, int criticalPathLength, List<String> criticalPath, int maxParallelism,
+                         int subWorkflowDepth) {
+        this.workflow = workflow;
+        this.criticalPathLength = criticalPathLength;
+        this.criticalPath = criticalPath;
+        this.maxParallelism = maxParallelism;
+        this.subWorkflowDepth = subWorkflowDepth;
+    }
+
+    public String getWorkflow() {
+        return workflow;
+    }
+
+    /**
+     * @return number of tasks executed one after the other on the longest path
+     */
+    public int getCriticalPathLength() {
+        return criticalPathLength;
+    }
+
+    /**
+     * @return reference names of the tasks on the longest path, tasks of sub-workflows are prefixed with the reference
+     * of the SUB_WORKFLOW task
+     */
+    public List<String> getCriticalPath() {
+        return criticalPath;
+    }
+
+    public int getMaxParallelism() {
+        return maxParallelism;
+    }
+
+    public int getSubWorkflowDepth() {
+        return subWorkflowDepth;
+    }
+
+    @Override
+    public String toString() {
+        return workflow + ": critical path " + criticalPathLength + " task(s), max parallelism " + maxParallelism
+                + ", sub-workflow depth " + subWorkflowDepth;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.capture;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.run.SearchResult;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.common.run.WorkflowSummary;
+
+import io.orkes.conductor.client.ApiClient;
+import io.orkes.conductor.client.OrkesClients;
+import io.orkes.conductor.client.WorkflowClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Searches the recent executions of a workflow on the server identified by <code>CONDUCTOR_SERVER_URL</code>, samples
+ * them with {@link ExecutionSampler} and writes the sample as a fixture file.  See {@link CaptureOptions} for the
+ * supported arguments.
+ */
+public class CaptureMain {
+
+    private static final Logger log = LoggerFactory.getLogger(CaptureMain.class);
+
+    private static final int PAGE_SIZE = 100;
+
+    public static void main(String[] args) throws IOException {
+        CaptureOptions options = CaptureOptions.parse(args);
+
+        String serverURL = System.getenv("CONDUCTOR_SERVER_URL");
+        if (serverURL == null || serverURL.isBlank()) {
+            System.err.println("CONDUCTOR_SERVER_URL is not set");
+            System.exit(2);
+        }
+        ApiClient apiClient = new ApiClient(serverURL, System.getenv("CONDUCTOR_AUTH_KEY"),
+                System.getenv("CONDUCTOR_AUTH_SECRET"));
+        WorkflowClient workflowClient = new OrkesClients(apiClient).getWorkflowClient();
+        ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+        ExecutionSampler sampler = new ExecutionSampler(options.getMaxSamples(), options.getMaxPerPath());
+        ExecutionFixtureWriter writer = new ExecutionFixtureWriter(objectMapper);
+        String query = "workflowType IN (" + options.getWorkflowName() + ") AND status IN ("
+                + String.join(",", options.getStatuses()) + ")";
+
+        int examined = 0;
+        for (int start = 0; start < options.getSearchLimit() && !sampler.isFull(); start += PAGE_SIZE) {
+            int size = Math.min(PAGE_SIZE, options.getSearchLimit() - start);
+            SearchResult<WorkflowSummary> page = workflowClient.search(start, size, "startTime:DESC", "*", query);
+            if (page.getResults() == null || page.getResults().isEmpty()) {
+                break;
+            }
+            for (WorkflowSummary summary : page.getResults()) {
+                if (options.getVersion() != null && summary.getVersion() != options.getVersion()) {
+                    continue;
+                }
+                examined++;
+                Workflow execution = workflowClient.getWorkflow(summary.getWorkflowId(), true);
+                if (sampler.offer(execution)) {
+                    writer.add(execution);
+                    log.info("Sampled {} ({})", execution.getWorkflowId(), execution.getStatus());
+                }
+                if (sampler.isFull()) {
+                    break;
+                }
+            }
+        }
+
+        writer.write(options.getOutputFile());
+        System.out.printf("Sampled %d of %d execution(s) of %s, %d distinct task output(s) out of %d, %d bytes"
+                        + " written to %s%n", writer.getExecutionCount(), examined, options.getWorkflowName(),
+                writer.getDistinctOutputCount(), writer.getTaskOutputCount(), Files.size(options.getOutputFile()),
+                options.getOutputFile());
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.capture;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static io.orkes.conductor.cicd.CommandLineArgs.value;
+
+/**
+ * Command line options of the execution capture tool.
+ * <pre>
+ *   --workflow &lt;name&gt;         workflow to capture executions of (required)
+ *   --version &lt;n&gt;             only executions of this version (default: any)
+ *   --statuses &lt;s1,s2&gt;        terminal statuses searched (default: COMPLETED,FAILED,TIMED_OUT,TERMINATED)
+ *   --search-limit &lt;n&gt;        most recent executions examined (default: 1000)
+ *   --max-samples &lt;n&gt;         executions kept (default: 25)
+ *   --max-per-path &lt;n&gt;        executions kept with exactly the same outcome and path (default: 1)
+ *   --output &lt;file&gt;           fixture file (default: src/test/resources/fixtures/&lt;workflow&gt;.fixtures.json.gz)
+ * </pre>
+ */
+public class CaptureOptions {
+
+    private String workflowName;
+
+    private Integer version;
+
+    private List<String> statuses = List.of("COMPLETED", "FAILED", "TIMED_OUT", "TERMINATED");
+
+    private int searchLimit = 1000;
+
+    private int maxSamples = 25;
+
+    private int maxPerPath = 1;
+
+    private Path outputFile;
+
+    public static CaptureOptions parse(String[] args) {
+        CaptureOptions options = new CaptureOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--workflow":
+                    options.setWorkflowName(value(args, ++i, arg));
+                    break;
+                case "--version":
+                    options.setVersion(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--statuses":
+                    options.setStatuses(List.of(value(args, ++i, arg).toUpperCase().split(",")));
+                    break;
+                case "--search-limit":
+                    options.setSearchLimit(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--max-samples":
+                    options.setMaxSamples(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--max-per-path":
+                    options.setMaxPerPath(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--output":
+                    options.setOutputFile(Paths.get(value(args, ++i, arg)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (options.getWorkflowName() == null) {
+            throw new IllegalArgumentException("--workflow is required");
+        }
+        if (options.getOutputFile() == null) {
+            options.setOutputFile(Paths.get("src/test/resources/fixtures",
+                    options.getWorkflowName() + ".fixtures.json.gz"));
+        }
+        return options;
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    public void setWorkflowName(String workflowName) {
+        this.workflowName = workflowName;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public List<String> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(List<String> statuses) {
+        this.statuses = statuses;
+    }
+
+    public int getSearchLimit() {
+        return searchLimit;
+    }
+
+    public void setSearchLimit(int searchLimit) {
+        this.searchLimit = searchLimit;
+    }
+
+    public int getMaxSamples() {
+        return maxSamples;
+    }
+
+    public void setMaxSamples(int maxSamples) {
+        this.maxSamples = maxSamples;
+    }
+
+    public int getMaxPerPath() {
+        return maxPerPath;
+    }
+
+    public void setMaxPerPath(int maxPerPath) {
+        this.maxPerPath = maxPerPath;
+    }
+
+    public Path getOutputFile() {
+        return outputFile;
+    }
+
+    public void setOutputFile(Path outputFile) {
+        this.outputFile = outputFile;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.capture;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.cicd.definitions.ExecutionFixtureReader;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Writes sampled executions in the fixture format read by {@link ExecutionFixtureReader}.
+ * <p>
+ * Fields that change from run to run or are not needed to replay an execution (ids, timestamps, worker details,
+ * embedded definitions) are dropped, as are fields holding their default value.  Identical task outputs are stored
+ * once.  Files whose name ends with <code>.gz</code> are gzip compressed.
+ */
+public class ExecutionFixtureWriter {
+
+    static final Set<String> VOLATILE_WORKFLOW_FIELDS = Set.of("createTime", "updateTime", "createdBy", "updatedBy",
+            "ownerApp", "taskToDomain", "workflowDefinition", "lastRetriedTime", "endTime", "startTime",
+            "externalInputPayloadStoragePath", "externalOutputPayloadStoragePath", "event", "history");
+
+    static final Set<String> VOLATILE_TASK_FIELDS = Set.of("taskId", "workflowInstanceId", "workflowType",
+            "correlationId", "workerId", "pollCount", "scheduledTime", "startTime", "endTime", "updateTime",
+            "queueWaitTime", "callbackAfterSeconds", "callbackFromWorker", "workflowTask", "taskDefinition",
+            "responseTimeoutSeconds", "rateLimitPerFrequency", "rateLimitFrequencyInSeconds", "workflowPriority",
+            "startDelayInSeconds", "retriedTaskId", "executed", "domain", "isolationGroupId", "executionNameSpace",
+            "externalInputPayloadStoragePath", "externalOutputPayloadStoragePath");
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<JsonNode, Integer> outputIndex = new HashMap<>();
+
+    private final List<JsonNode> outputs = new ArrayList<>();
+
+    private final List<JsonNode> executions = new ArrayList<>();
+
+    private int taskOutputs;
+
+    public ExecutionFixtureWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void add(Workflow execution) {
+        ObjectNode node = objectMapper.valueToTree(execution);
+        compact(node, VOLATILE_WORKFLOW_FIELDS);
+        JsonNode tasks = node.get("tasks");
+        if (tasks != null) {
+            for (JsonNode task : tasks) {
+                ObjectNode taskNode = (ObjectNode) task;
+                compact(taskNode, VOLATILE_TASK_FIELDS);
+                JsonNode output = taskNode.remove("outputData");
+                if (output != null && output.size() > 0) {
+                    taskOutputs++;
+                    Integer index = outputIndex.get(output);
+                    if (index == null) {
+                        index = outputs.size();
+                        outputs.add(output);
+                        outputIndex.put(output, index);
+                    }
+                    taskNode.put(ExecutionFixtureReader.OUTPUT_REF, index);
+                }
+            }
+        }
+        executions.add(node);
+    }
+
+    public int getExecutionCount() {
+        return executions.size();
+    }
+
+    /**
+     * @return the number of distinct task outputs stored, out of {@link #getTaskOutputCount()}
+     */
+    public int getDistinctOutputCount() {
+        return outputs.size();
+    }
+
+    public int getTaskOutputCount() {
+        return taskOutputs;
+    }
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        OutputStream outputStream = Files.newOutputStream(file);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            outputStream = new GZIPOutputStream(outputStream, 64 * 1024);
+        }
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeNumberField("format", ExecutionFixtureReader.FORMAT);
+            generator.writeArrayFieldStart(ExecutionFixtureReader.OUTPUTS);
+            for (JsonNode output : outputs) {
+                generator.writeTree(output);
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart(ExecutionFixtureReader.EXECUTIONS);
+            for (JsonNode execution : executions) {
+                generator.writeTree(execution);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Removes the volatile fields, and the fields that bind to their default value: nulls, false, zero and empty
+     * containers.  Values nested in inputs and outputs are left as they are.
+     */
+    private static void compact(ObjectNode node, Set<String> volatileFields) {
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            boolean isDefault = value.isNull()
+                    || (value.isBoolean() && !value.booleanValue())
+                    || (value.isNumber() && value.doubleValue() == 0)
+                    || (value.isContainerNode() && value.size() == 0 && !field.getKey().equals("tasks"));
+            if (isDefault || volatileFields.contains(field.getKey())) {
+                fields.remove();
+            }
+        }
+    }
+}
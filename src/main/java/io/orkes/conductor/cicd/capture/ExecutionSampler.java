@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.capture;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.cicd.definitions.ExecutionReader;
+
+/**
+ * Keeps the executions that cover something new: an outcome, a SWITCH branch or a loop count that the executions
+ * sampled so far do not have, or a combination of those not seen yet.
+ * <p>
+ * Executions are offered one at a time (most recent first, typically), so that only the sampled ones are retained.
+ */
+public class ExecutionSampler {
+
+    private final int maxSamples;
+
+    private final int maxPerPath;
+
+    private final Set<String> coveredFeatures = new HashSet<>();
+
+    private final List<String> paths = new ArrayList<>();
+
+    /**
+     * @param maxSamples maximum number of executions sampled
+     * @param maxPerPath maximum number of executions sampled with exactly the same outcome and path
+     */
+    public ExecutionSampler(int maxSamples, int maxPerPath) {
+        this.maxSamples = maxSamples;
+        this.maxPerPath = maxPerPath;
+    }
+
+    /**
+     * @return true if the execution is sampled
+     */
+    public boolean offer(Workflow execution) {
+        if (isFull()) {
+            return false;
+        }
+        Set<String> features = features(execution);
+        String path = String.join(",", features);
+        boolean newFeature = !coveredFeatures.containsAll(features);
+        long samePath = paths.stream().filter(path::equals).count();
+        if (!newFeature && samePath >= maxPerPath) {
+            return false;
+        }
+        coveredFeatures.addAll(features);
+        paths.add(path);
+        return true;
+    }
+
+    public boolean isFull() {
+        return paths.size() >= maxSamples;
+    }
+
+    public int getSampled() {
+        return paths.size();
+    }
+
+    /**
+     * @return the outcome of the execution, the case taken by every SWITCH and the iteration count of every DO_WHILE
+     */
+    static Set<String> features(Workflow execution) {
+        Set<String> features = new TreeSet<>();
+        features.add("status=" + execution.getStatus());
+        List<Task> tasks = new ArrayList<>(execution.getTasks());
+        tasks.sort(Comparator.comparingInt(Task::getSeq));
+        for (Task task : tasks) {
+            String ref = ExecutionReader.baseRef(task.getReferenceTaskName());
+            String type = task.getTaskType();
+            if (TaskType.SWITCH.name().equals(type) || TaskType.DECISION.name().equals(type)) {
+                Object taken = task.getOutputData() == null ? null : task.getOutputData().get("caseOutput");
+                features.add(ref + "=" + taken);
+            } else if (TaskType.DO_WHILE.name().equals(type)) {
+                features.add(ref + "*" + task.getIteration());
+            } else if (task.getStatus() != null && !task.getStatus().isSuccessful()) {
+                features.add(ref + "!" + task.getStatus());
+            }
+        }
+        return features;
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.definitions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * The definition files of a resources directory, parsed at build time and stored in a single file that is memory
+ * mapped when loaded.
+ * <p>
+ * The file starts with the version of the hashing the definitions were hashed with, and an index of the entries: the path of the source file relative to the resources directory
+ * (e.g. <code>workflows/kitchensink.json</code>), its size and modification time, and the content hash of every
+ * definition it holds.  The parsed trees follow, in the binary Smile encoding of Jackson, and are only decoded when
+ * read, straight from the mapped memory.  Loading the bundle therefore costs a single read of the index, instead of
+ * listing and parsing every file.  The mapping is released when the bundle is garbage collected.
+ */
+public class DefinitionBundle {
+
+    private static final Logger log = LoggerFactory.getLogger(DefinitionBundle.class);
+
+    public static final String SYSTEM_PROPERTY = "conductor.definitions.bundle";
+
+    private static final int MAGIC = 0x4F444231;
+
+    private static final int FORMAT = 2;
+
+    private static final SmileFactory SMILE = new SmileFactory();
+
+    private final Path file;
+
+    private final int hashVersion;
+
+    private final ByteBuffer payload;
+
+    private final Map<String, Entry> entries;
+
+    private final Map<String, String> hashes;
+
+    private DefinitionBundle(Path file, int hashVersion, ByteBuffer payload, Map<String, Entry> entries) {
+        this.file = file;
+        this.hashVersion = hashVersion;
+        this.payload = payload;
+        this.entries = entries;
+        Map<String, String> hashes = new HashMap<>();
+        entries.values().forEach(entry -> hashes.putAll(entry.getHashes()));
+        this.hashes = hashes;
+    }
+
+    public static DefinitionBundle open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        DataInputStream in = new DataInputStream(new ByteBufferBackedInputStream(buffer));
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+            throw new IOException(file + " is not a definitions bundle of format " + FORMAT);
+        }
+        int hashVersion = in.readInt();
+        int count = in.readInt();
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String path = in.readUTF();
+            long size = in.readLong();
+            long lastModified = in.readLong();
+            int hashCount = in.readInt();
+            Map<String, String> hashes = new LinkedHashMap<>();
+            for (int j = 0; j < hashCount; j++) {
+                hashes.put(in.readUTF(), in.readUTF());
+            }
+            entries.put(path, new Entry(path, size, lastModified, hashes, in.readInt(), in.readInt()));
+        }
+        // The index was read through the buffer, which is now positioned at the first tree
+        return new DefinitionBundle(file, hashVersion, buffer.slice(), entries);
+    }
+
+    /**
+     * @return the bundle named by the <code>{@value #SYSTEM_PROPERTY}</code> system property, null if it is not set or
+     * the bundle cannot be read
+     */
+    public static DefinitionBundle fromSystemProperties() {
+        String file = System.getProperty(SYSTEM_PROPERTY);
+        if (file == null || file.isBlank() || !Files.isRegularFile(Path.of(file))) {
+            return null;
+        }
+        try {
+            return open(Path.of(file));
+        } catch (IOException e) {
+            log.warn("Ignoring definitions bundle {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return the version of the hashing of the definitions, see <code>DefinitionHasher.VERSION</code>
+     */
+    public int getHashVersion() {
+        return hashVersion;
+    }
+
+    public List<Entry> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * @param path relative to the resources directory, with <code>/</code> separators
+     * @return the entry of the file, null if the bundle does not have it
+     */
+    public Entry get(String path) {
+        return entries.get(path);
+    }
+
+    /**
+     * @return the content hash computed at build time of the definition with the given key, see
+     * <code>DefinitionHasher.key</code>
+     */
+    public String getHash(String key) {
+        return hashes.get(key);
+    }
+
+    public JsonNode readTree(ObjectMapper objectMapper, Entry entry) throws IOException {
+        // Each read gets its own view of the mapped memory, so that concurrent reads do not share a position
+        ByteBuffer content = payload.duplicate();
+        content.position(entry.offset).limit(entry.offset + entry.length);
+        try (JsonParser parser = SMILE.createParser(new ByteBufferBackedInputStream(content))) {
+            return objectMapper.readTree(parser);
+        }
+    }
+
+    /**
+     * @param hashVersion the version of the hashing the bundled hashes must have been computed with
+     * @return whether the bundle was hashed with that version and has exactly the <code>*.json</code> files of the
+     * directories, with the same size and modification time; only the file attributes are read
+     */
+    public boolean isCurrent(Path resourcesDir, List<String> dirs, int hashVersion) throws IOException {
+        if (hashVersion != this.hashVersion) {
+            return false;
+        }
+        int files = 0;
+        for (String dir : dirs) {
+            if (!Files.isDirectory(resourcesDir.resolve(dir))) {
+                continue;
+            }
+            List<Path> jsonFiles;
+            try (Stream<Path> list = Files.list(resourcesDir.resolve(dir))) {
+                jsonFiles = list.filter(f -> f.getFileName().toString().endsWith(".json")).collect(Collectors.toList());
+            }
+            for (Path jsonFile : jsonFiles) {
+                Entry entry = entries.get(dir + "/" + jsonFile.getFileName());
+                if (entry == null || entry.size != Files.size(jsonFile)
+                        || entry.lastModified != Files.getLastModifiedTime(jsonFile).toMillis()) {
+                    return false;
+                }
+                files++;
+            }
+        }
+        long bundled = entries.keySet().stream()
+                .filter(path -> dirs.stream().anyMatch(dir -> path.startsWith(dir + "/")))
+                .count();
+        return files == bundled;
+    }
+
+    /**
+     * A bundled file.
+     */
+    public static class Entry {
+
+        private final String path;
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final Map<String, String> hashes;
+
+        private final int offset;
+
+        private final int length;
+
+        Entry(String path, long size, long lastModified, Map<String, String> hashes, int offset, int length) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hashes = Collections.unmodifiableMap(hashes);
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return the content hash of every definition of the file, by definition key
+         */
+        public Map<String, String> getHashes() {
+            return hashes;
+        }
+    }
+
+    /**
+     * Collects the parsed files and writes the bundle.
+     */
+    public static class Writer {
+
+        private final ObjectMapper objectMapper;
+
+        private final int hashVersion;
+
+        private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        /**
+         * @param hashVersion the version of the hashing the hashes of the definitions are computed with
+         */
+        public Writer(ObjectMapper objectMapper, int hashVersion) {
+            this.objectMapper = objectMapper;
+            this.hashVersion = hashVersion;
+        }
+
+        /**
+         * @param path relative to the resources directory, with <code>/</code> separators
+         */
+        public Writer add(String path, long size, long lastModified, JsonNode content, Map<String, String> hashes)
+                throws IOException {
+            int offset = payload.size();
+            try (JsonGenerator generator = SMILE.createGenerator(payload)) {
+                objectMapper.writeTree(generator, content);
+            }
+            entries.add(new Entry(path, size, lastModified, hashes, offset, payload.size() - offset));
+            return this;
+        }
+
+        public Writer add(Path resourcesDir, Path file, JsonNode content, Map<String, String> hashes)
+                throws IOException {
+            String path = resourcesDir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            return add(path, Files.size(file), Files.getLastModifiedTime(file).toMillis(), content, hashes);
+        }
+
+        public int size() {
+            return entries.size();
+        }
+
+        /**
+         * Writes the bundle to a temporary file first, so that a reader never maps a partially written bundle.
+         */
+        public void write(Path file) throws IOException {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT);
+                    out.writeInt(hashVersion);
+                    out.writeInt(entries.size());
+                    for (Entry entry : entries) {
+                        out.writeUTF(entry.path);
+                        out.writeLong(entry.size);
+                        out.writeLong(entry.lastModified);
+                        out.writeInt(entry.hashes.size());
+                        for (Map.Entry<String, String> hash : entry.hashes.entrySet()) {
+                            out.writeUTF(hash.getKey());
+                            out.writeUTF(hash.getValue());
+                        }
+                        out.writeInt(entry.offset);
+                        out.writeInt(entry.length);
+                    }
+                    payload.writeTo(out);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.definitions;
+
+/**
+ * Keys of workflow definitions by name and version, as indexed by the registry, the deployer and the analyzer.
+ */
+public final class DefinitionKeys {
+
+    private DefinitionKeys() {
+    }
+
+    /**
+     * @param version null for the latest version
+     */
+    public static String key(String name, Integer version) {
+        return name + ":" + (version == null ? "latest" : version);
+    }
+}
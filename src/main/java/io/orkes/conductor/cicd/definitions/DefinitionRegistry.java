@@ -0,0 +1,331 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.definitions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static io.orkes.conductor.cicd.definitions.DefinitionKeys.key;
+
+/**
+ * Parses the classpath JSON resources (workflow definitions, executions, mock fixtures) once and hands out copies.
+ * <p>
+ * Each resource is read into a {@link JsonNode} tree the first time it is requested; later requests bind a fresh
+ * object from the cached tree, so callers can freely modify what they get without affecting other tests.
+ * Workflow definitions are indexed by name and version, and the {@link WorkflowTestRequest} tree of every
+ * sub-workflow referenced by name is computed once and copied on use.
+ * <p>
+ * With a {@link DefinitionBundle} (the shared registry uses the one named by the
+ * <code>{@value DefinitionBundle#SYSTEM_PROPERTY}</code> system property, which the Gradle test task sets), the
+ * resources it holds are decoded from it and the workflow definitions are indexed from its entries rather than by
+ * listing the classpath.
+ */
+public class DefinitionRegistry {
+
+    public static final String WORKFLOWS_DIR = "/workflows";
+
+    private static final DefinitionRegistry SHARED = new DefinitionRegistry(new ObjectMapperProvider().getObjectMapper(),
+            DefinitionBundle.fromSystemProperties());
+
+    private final ObjectMapper objectMapper;
+
+    private final DefinitionBundle bundle;
+
+    private final Map<String, JsonNode> resources = new ConcurrentHashMap<>();
+
+    private final Map<String, JsonNode> workflowDefs = new ConcurrentHashMap<>();
+
+    private final Map<String, JsonNode> subWorkflowTestRequests = new ConcurrentHashMap<>();
+
+    private final Map<String, List<JsonNode>> executionFixtures = new ConcurrentHashMap<>();
+
+    private volatile boolean workflowsScanned;
+
+    public DefinitionRegistry(ObjectMapper objectMapper) {
+        this(objectMapper, null);
+    }
+
+    /**
+     * @param bundle the bundle of the resources, null to read them from the classpath
+     */
+    public DefinitionRegistry(ObjectMapper objectMapper, DefinitionBundle bundle) {
+        this.objectMapper = objectMapper;
+        this.bundle = bundle;
+    }
+
+    /**
+     * @return the registry shared by all the tests of the JVM
+     */
+    public static DefinitionRegistry shared() {
+        return SHARED;
+    }
+
+    public WorkflowDef getWorkflowDef(String path) throws IOException {
+        WorkflowDef def = read(path, WorkflowDef.class);
+        workflowDefs.putIfAbsent(key(def.getName(), def.getVersion()), resource(path));
+        return def;
+    }
+
+    public Workflow getWorkflow(String path) throws IOException {
+        return read(path, Workflow.class);
+    }
+
+    public <T> T read(String path, Class<T> type) throws IOException {
+        return objectMapper.treeToValue(resource(path), type);
+    }
+
+    public <T> T read(String path, TypeReference<T> type) throws IOException {
+        return objectMapper.readerFor(type).readValue(resource(path));
+    }
+
+    /**
+     * @return copies of the executions of a fixture file written by the capture tool, decoded on first use
+     * @see ExecutionFixtureReader
+     */
+    public List<Workflow> getExecutions(String path) throws IOException {
+        List<Workflow> executions = new ArrayList<>();
+        for (JsonNode execution : executionFixture(path)) {
+            executions.add(objectMapper.treeToValue(execution, Workflow.class));
+        }
+        return executions;
+    }
+
+    /**
+     * @param version the version to look up, or null for the latest
+     * @return a copy of the workflow definition, looked up among the resources under {@value #WORKFLOWS_DIR}
+     * @throws IOException if no such definition exists
+     */
+    public WorkflowDef findWorkflowDef(String name, Integer version) throws IOException {
+        JsonNode node = findWorkflowDefNode(name, version);
+        if (node == null) {
+            // Fall back to the naming convention used by the tests, e.g. when the resources are not in a directory
+            WorkflowDef def = getWorkflowDef(WORKFLOWS_DIR + "/" + name + ".json");
+            if (version == null || version == def.getVersion()) {
+                return def;
+            }
+            throw new IOException("No workflow definition found for " + key(name, version));
+        }
+        return objectMapper.treeToValue(node, WorkflowDef.class);
+    }
+
+    /**
+     * @return a copy of every workflow definition under {@value #WORKFLOWS_DIR}, and of those read with
+     * {@link #getWorkflowDef(String)}
+     */
+    public List<WorkflowDef> getWorkflowDefs() throws IOException {
+        scanWorkflows();
+        List<WorkflowDef> defs = new ArrayList<>();
+        for (JsonNode node : workflowDefs.values()) {
+            defs.add(objectMapper.treeToValue(node, WorkflowDef.class));
+        }
+        return defs;
+    }
+
+    /**
+     * Builds a test request for the workflow with a COMPLETED mock (output <code>{"response": {}}</code>) for every
+     * task, and a sub-workflow test request for every SUB_WORKFLOW task, recursively.
+     */
+    public WorkflowTestRequest newTestRequest(WorkflowDef def) throws IOException {
+        WorkflowTestRequest testRequest = new WorkflowTestRequest();
+        testRequest.setInput(new HashMap<>());
+        testRequest.setName(def.getName());
+        testRequest.setVersion(def.getVersion());
+        testRequest.setWorkflowDef(def);
+
+        Map<String, List<WorkflowTestRequest.TaskMock>> taskRefToMockOutput = new HashMap<>();
+        for (WorkflowTask task : def.collectTasks()) {
+            List<WorkflowTestRequest.TaskMock> taskRuns = new ArrayList<>();
+            WorkflowTestRequest.TaskMock mock = new WorkflowTestRequest.TaskMock();
+            mock.setStatus(TaskResult.Status.COMPLETED);
+            Map<String, Object> output = new HashMap<>();
+
+            output.put("response", Map.of());
+            mock.setOutput(output);
+            taskRuns.add(mock);
+            taskRefToMockOutput.put(task.getTaskReferenceName(), taskRuns);
+
+            if (task.getType().equals(TaskType.SUB_WORKFLOW.name())) {
+                Object inlineSubWorkflowDefObj = task.getSubWorkflowParam().getWorkflowDefinition();
+                WorkflowTestRequest subWorkflowTestRequest;
+                if (inlineSubWorkflowDefObj != null) {
+                    //If not null, it represents WorkflowDef object
+                    subWorkflowTestRequest = newTestRequest((WorkflowDef) inlineSubWorkflowDefObj);
+                } else {
+                    subWorkflowTestRequest = subWorkflowTestRequest(task.getSubWorkflowParam().getName(),
+                            task.getSubWorkflowParam().getVersion());
+                }
+                testRequest.getSubWorkflowTestRequest().put(task.getTaskReferenceName(), subWorkflowTestRequest);
+            }
+        }
+        testRequest.setTaskRefToMockOutput(taskRefToMockOutput);
+        return testRequest;
+    }
+
+    private WorkflowTestRequest subWorkflowTestRequest(String name, Integer version) throws IOException {
+        // Not computeIfAbsent: building the template recursively visits the templates of nested sub-workflows
+        JsonNode template = subWorkflowTestRequests.get(key(name, version));
+        if (template == null) {
+            template = objectMapper.valueToTree(newTestRequest(findWorkflowDef(name, version)));
+            JsonNode existing = subWorkflowTestRequests.putIfAbsent(key(name, version), template);
+            template = existing == null ? template : existing;
+        }
+        return objectMapper.treeToValue(template, WorkflowTestRequest.class);
+    }
+
+    private JsonNode resource(String path) throws IOException {
+        try {
+            return resources.computeIfAbsent(path, p -> {
+                DefinitionBundle.Entry entry = bundle == null ? null : bundle.get(p.startsWith("/") ? p.substring(1) : p);
+                if (entry != null) {
+                    try {
+                        return bundle.readTree(objectMapper, entry);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                try (InputStream inputStream = DefinitionRegistry.class.getResourceAsStream(p)) {
+                    if (inputStream == null) {
+                        throw new IOException("No file found at " + p);
+                    }
+                    return objectMapper.readTree(inputStream);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private List<JsonNode> executionFixture(String path) throws IOException {
+        List<JsonNode> executions = executionFixtures.get(path);
+        if (executions == null) {
+            List<JsonNode> read = new ArrayList<>();
+            try (InputStream inputStream = DefinitionRegistry.class.getResourceAsStream(path)) {
+                if (inputStream == null) {
+                    throw new IOException("No file found at " + path);
+                }
+                new ExecutionFixtureReader(objectMapper).forEach(inputStream, read::add);
+            }
+            executions = executionFixtures.putIfAbsent(path, read);
+            executions = executions == null ? read : executions;
+        }
+        return executions;
+    }
+
+    private JsonNode findWorkflowDefNode(String name, Integer version) throws IOException {
+        if (version != null && workflowDefs.containsKey(key(name, version))) {
+            return workflowDefs.get(key(name, version));
+        }
+        scanWorkflows();
+        if (version != null) {
+            return workflowDefs.get(key(name, version));
+        }
+        return workflowDefs.entrySet().stream()
+                .filter(e -> e.getKey().startsWith(name + ":"))
+                .max(Comparator.comparingInt(e -> Integer.parseInt(e.getKey().substring(name.length() + 1))))
+                .map(Map.Entry::getValue)
+                .orElse(null);
+    }
+
+    /**
+     * Indexes every definition under {@value #WORKFLOWS_DIR}, whether the resources are in a directory or in a jar.
+     */
+    private void scanWorkflows() throws IOException {
+        if (workflowsScanned) {
+            return;
+        }
+        synchronized (this) {
+            if (workflowsScanned) {
+                return;
+            }
+            List<String> paths = bundle == null ? listResources(WORKFLOWS_DIR) : bundle.getEntries().stream()
+                    .map(entry -> "/" + entry.getPath())
+                    .filter(path -> path.startsWith(WORKFLOWS_DIR + "/"))
+                    .collect(Collectors.toList());
+            for (String path : paths) {
+                JsonNode node = resource(path);
+                JsonNode name = node.get("name");
+                JsonNode version = node.get("version");
+                if (name != null) {
+                    workflowDefs.putIfAbsent(key(name.asText(), version == null ? 1 : version.asInt()), node);
+                }
+            }
+            workflowsScanned = true;
+        }
+    }
+
+    private static List<String> listResources(String dir) throws IOException {
+        URL url = DefinitionRegistry.class.getResource(dir);
+        if (url == null) {
+            return List.of();
+        }
+        URI uri;
+        try {
+            uri = url.toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        if ("jar".equals(uri.getScheme())) {
+            FileSystem fs;
+            try {
+                fs = FileSystems.getFileSystem(uri);
+            } catch (FileSystemNotFoundException e) {
+                fs = FileSystems.newFileSystem(uri, Map.of());
+            }
+            return listJson(fs.getPath(dir), dir);
+        }
+        return listJson(Paths.get(uri), dir);
+    }
+
+    private static List<String> listJson(Path path, String dir) throws IOException {
+        try (Stream<Path> files = Files.list(path)) {
+            return files.map(f -> f.getFileName().toString())
+                    .filter(f -> f.endsWith(".json"))
+                    .sorted()
+                    .map(f -> dir + "/" + f)
+                    .collect(Collectors.toList());
+        }
+    }
+}
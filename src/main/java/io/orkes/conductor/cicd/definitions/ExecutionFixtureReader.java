@@ -0,0 +1,134 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.definitions;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import com.netflix.conductor.common.run.Workflow;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Reads the execution fixtures written by the capture tool (<code>*.fixtures.json.gz</code>):
+ * <pre>
+ * {
+ *   "format": 1,
+ *   "outputs": [ ...distinct task outputs... ],
+ *   "executions": [ ...executions whose tasks have an "outputRef" (index in outputs) instead of "outputData"... ]
+ * }
+ * </pre>
+ * Executions are read one at a time with the streaming parser, only the pool of distinct outputs is held for the whole
+ * file.
+ */
+public class ExecutionFixtureReader {
+
+    public static final int FORMAT = 1;
+
+    public static final String OUTPUTS = "outputs";
+
+    public static final String EXECUTIONS = "executions";
+
+    public static final String OUTPUT_REF = "outputRef";
+
+    public interface ExecutionHandler {
+        void accept(JsonNode execution) throws IOException;
+    }
+
+    private final ObjectMapper objectMapper;
+
+    public ExecutionFixtureReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public List<Workflow> read(InputStream inputStream) throws IOException {
+        List<Workflow> executions = new ArrayList<>();
+        forEach(inputStream, execution -> executions.add(objectMapper.treeToValue(execution, Workflow.class)));
+        return executions;
+    }
+
+    /**
+     * Calls the handler with every execution of the fixture file, with the task outputs restored.
+     *
+     * @param inputStream gzip compressed or plain JSON
+     */
+    public void forEach(InputStream inputStream, ExecutionHandler handler) throws IOException {
+        InputStream in = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+        in.mark(2);
+        int magic = in.read() | (in.read() << 8);
+        in.reset();
+        if (magic == GZIPInputStream.GZIP_MAGIC) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+
+        ArrayNode outputs = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Not an execution fixture file");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "format":
+                        if (parser.getIntValue() > FORMAT) {
+                            throw new IOException("Unsupported fixture format " + parser.getIntValue());
+                        }
+                        break;
+                    case OUTPUTS:
+                        outputs = objectMapper.readTree(parser);
+                        break;
+                    case EXECUTIONS:
+                        if (token != JsonToken.START_ARRAY) {
+                            throw new IOException("Expected an array of executions at " + parser.getCurrentLocation());
+                        }
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            ObjectNode execution = objectMapper.readTree(parser);
+                            handler.accept(restoreOutputs(execution, outputs));
+                        }
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static JsonNode restoreOutputs(ObjectNode execution, ArrayNode outputs) throws IOException {
+        JsonNode tasks = execution.get("tasks");
+        if (tasks == null) {
+            return execution;
+        }
+        for (JsonNode task : tasks) {
+            JsonNode ref = task.get(OUTPUT_REF);
+            if (ref != null) {
+                if (outputs == null || ref.asInt() >= outputs.size()) {
+                    throw new IOException("Unknown " + OUTPUT_REF + " " + ref + " in " + execution.get("workflowId"));
+                }
+                ObjectNode taskNode = (ObjectNode) task;
+                taskNode.remove(OUTPUT_REF);
+                taskNode.set("outputData", outputs.get(ref.asInt()).deepCopy());
+            }
+        }
+        return execution;
+    }
+}
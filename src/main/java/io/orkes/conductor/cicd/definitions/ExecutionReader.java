@@ -0,0 +1,214 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.definitions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads a workflow execution (as returned by the workflow API) one token at a time, so that golden runs with tens of
+ * thousands of tasks can be replayed without binding the whole {@link Workflow}.
+ * <p>
+ * Only the workflow status, input and output, the fields of {@link TaskSummary} and the task outputs (which become
+ * the mocks) are materialized; task inputs, embedded task and workflow definitions and every other field are skipped
+ * by the parser.  Memory use therefore grows with the task outputs only.
+ */
+public class ExecutionReader {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public ExecutionReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public ExecutionSummary read(String resourcePath) throws IOException {
+        try (InputStream inputStream = ExecutionReader.class.getResourceAsStream(resourcePath)) {
+            if (inputStream == null) {
+                throw new IOException("No file found at " + resourcePath);
+            }
+            return read(inputStream);
+        }
+    }
+
+    public ExecutionSummary read(InputStream inputStream) throws IOException {
+        return read(inputStream, task -> {
+        });
+    }
+
+    /**
+     * @param taskListener called for every task, in the order of the execution, as soon as it has been read
+     */
+    public ExecutionSummary read(InputStream inputStream, Consumer<TaskSummary> taskListener) throws IOException {
+        ExecutionSummary summary = new ExecutionSummary();
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "workflowId":
+                        summary.setWorkflowId(parser.getValueAsString());
+                        break;
+                    case "workflowName":
+                        summary.setWorkflowName(parser.getValueAsString());
+                        break;
+                    case "workflowVersion":
+                        summary.setWorkflowVersion(token == JsonToken.VALUE_NULL ? null : parser.getIntValue());
+                        break;
+                    case "status":
+                        String status = parser.getValueAsString();
+                        summary.setStatus(status == null ? null : Workflow.WorkflowStatus.valueOf(status));
+                        break;
+                    case "input":
+                        summary.setInput(readMap(parser, token));
+                        break;
+                    case "output":
+                        summary.setOutput(readMap(parser, token));
+                        break;
+                    case "tasks":
+                        readTasks(parser, token, summary, taskListener);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return summary;
+    }
+
+    private void readTasks(JsonParser parser, JsonToken token, ExecutionSummary summary,
+                           Consumer<TaskSummary> taskListener) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return;
+        }
+        expect(parser, token, JsonToken.START_ARRAY);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            TaskSummary task = new TaskSummary();
+            Map<String, Object> output = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "referenceTaskName":
+                        task.setReferenceTaskName(parser.getValueAsString());
+                        break;
+                    case "taskType":
+                        task.setTaskType(parser.getValueAsString());
+                        break;
+                    case "status":
+                        String status = parser.getValueAsString();
+                        task.setStatus(status == null ? null : Task.Status.valueOf(status));
+                        break;
+                    case "seq":
+                        task.setSeq(parser.getValueAsInt());
+                        break;
+                    case "iteration":
+                        task.setIteration(parser.getValueAsInt());
+                        break;
+                    case "scheduledTime":
+                        task.setScheduledTime(parser.getValueAsLong());
+                        break;
+                    case "startTime":
+                        task.setStartTime(parser.getValueAsLong());
+                        break;
+                    case "endTime":
+                        task.setEndTime(parser.getValueAsLong());
+                        break;
+                    case "reasonForIncompletion":
+                        task.setReasonForIncompletion(parser.getValueAsString());
+                        break;
+                    case "outputData":
+                        output = readMap(parser, value);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            if (task.getReferenceTaskName() == null) {
+                throw new IOException("Task without a referenceTaskName at " + parser.getCurrentLocation());
+            }
+            summary.addTask(task, mock(task, output));
+            taskListener.accept(task);
+        }
+    }
+
+    private Map<String, Object> readMap(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return objectMapper.readValue(parser, MAP_TYPE);
+    }
+
+    private static WorkflowTestRequest.TaskMock mock(TaskSummary task, Map<String, Object> output) {
+        WorkflowTestRequest.TaskMock mock = new WorkflowTestRequest.TaskMock();
+        mock.setStatus(mockStatus(task.getStatus()));
+        mock.setOutput(output);
+        return mock;
+    }
+
+    /**
+     * Maps the terminal status of a task to the status a worker (or a mock) can report.
+     */
+    public static TaskResult.Status mockStatus(Task.Status status) {
+        if (status == null) {
+            return TaskResult.Status.COMPLETED;
+        }
+        switch (status) {
+            case COMPLETED:
+            case COMPLETED_WITH_ERRORS:
+            case SKIPPED:
+                return TaskResult.Status.COMPLETED;
+            case FAILED_WITH_TERMINAL_ERROR:
+                return TaskResult.Status.FAILED_WITH_TERMINAL_ERROR;
+            case FAILED:
+            case TIMED_OUT:
+            case CANCELED:
+                return TaskResult.Status.FAILED;
+            default:
+                return TaskResult.Status.IN_PROGRESS;
+        }
+    }
+
+    /**
+     * Strips the <code>__N</code> suffix given to the tasks of a DO_WHILE iteration.
+     */
+    public static String baseRef(String ref) {
+        int index = ref.lastIndexOf("__");
+        if (index > 0 && index + 2 < ref.length() && ref.substring(index + 2).chars().allMatch(Character::isDigit)) {
+            return ref.substring(0, index);
+        }
+        return ref;
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but got " + actual + " at " + parser.getCurrentLocation());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.definitions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+/**
+ * What {@link ExecutionReader} keeps of a workflow execution: the workflow input, output and status, a
+ * {@link TaskSummary} per task and the output of every task as a mock.
+ */
+public class ExecutionSummary {
+
+    private String workflowId;
+
+    private String workflowName;
+
+    private Integer workflowVersion;
+
+    private Workflow.WorkflowStatus status;
+
+    private Map<String, Object> input;
+
+    private Map<String, Object> output;
+
+    private final List<TaskSummary> tasks = new ArrayList<>();
+
+    private final Map<String, List<WorkflowTestRequest.TaskMock>> taskRefToMockOutput = new HashMap<>();
+
+    public String getWorkflowId() {
+        return workflowId;
+    }
+
+    public void setWorkflowId(String workflowId) {
+        this.workflowId = workflowId;
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    public void setWorkflowName(String workflowName) {
+        this.workflowName = workflowName;
+    }
+
+    public Integer getWorkflowVersion() {
+        return workflowVersion;
+    }
+
+    public void setWorkflowVersion(Integer workflowVersion) {
+        this.workflowVersion = workflowVersion;
+    }
+
+    public Workflow.WorkflowStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Workflow.WorkflowStatus status) {
+        this.status = status;
+    }
+
+    public Map<String, Object> getInput() {
+        return input;
+    }
+
+    public void setInput(Map<String, Object> input) {
+        this.input = input;
+    }
+
+    public Map<String, Object> getOutput() {
+        return output;
+    }
+
+    public void setOutput(Map<String, Object> output) {
+        this.output = output;
+    }
+
+    public List<TaskSummary> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return the mocks replaying the execution, keyed by task reference; the runs of a task in a loop are listed in
+     * execution order under the reference of the task in the definition
+     */
+    public Map<String, List<WorkflowTestRequest.TaskMock>> getTaskRefToMockOutput() {
+        return taskRefToMockOutput;
+    }
+
+    void addTask(TaskSummary task, WorkflowTestRequest.TaskMock mock) {
+        tasks.add(task);
+        String ref = ExecutionReader.baseRef(task.getReferenceTaskName());
+        taskRefToMockOutput.computeIfAbsent(ref, key -> new ArrayList<>()).add(mock);
+    }
+}
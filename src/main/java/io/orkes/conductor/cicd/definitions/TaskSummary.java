@@ -0,0 +1,116 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.definitions;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+
+/**
+ * The fields of a task execution that regression tests assert on, without its input and output.
+ */
+public class TaskSummary {
+
+    private String referenceTaskName;
+
+    private String taskType;
+
+    private Task.Status status;
+
+    private int seq;
+
+    private int iteration;
+
+    private long scheduledTime;
+
+    private long startTime;
+
+    private long endTime;
+
+    private String reasonForIncompletion;
+
+    public String getReferenceTaskName() {
+        return referenceTaskName;
+    }
+
+    public void setReferenceTaskName(String referenceTaskName) {
+        this.referenceTaskName = referenceTaskName;
+    }
+
+    public String getTaskType() {
+        return taskType;
+    }
+
+    public void setTaskType(String taskType) {
+        this.taskType = taskType;
+    }
+
+    public Task.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Task.Status status) {
+        this.status = status;
+    }
+
+    public int getSeq() {
+        return seq;
+    }
+
+    public void setSeq(int seq) {
+        this.seq = seq;
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    public void setIteration(int iteration) {
+        this.iteration = iteration;
+    }
+
+    public long getScheduledTime() {
+        return scheduledTime;
+    }
+
+    public void setScheduledTime(long scheduledTime) {
+        this.scheduledTime = scheduledTime;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getReasonForIncompletion() {
+        return reasonForIncompletion;
+    }
+
+    public void setReasonForIncompletion(String reasonForIncompletion) {
+        this.reasonForIncompletion = reasonForIncompletion;
+    }
+
+    @Override
+    public String toString() {
+        return referenceTaskName + " (" + taskType + ") " + status;
+    }
+}
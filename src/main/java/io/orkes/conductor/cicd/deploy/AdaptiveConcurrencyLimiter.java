@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the number of calls in flight with a limit adjusted by AIMD (additive increase, multiplicative decrease).
+ * <p>
+ * Every call that completes under the latency threshold grows the limit by <code>1/limit</code>, i.e. by about one
+ * per round of calls; a call that the server rejected as overloaded (429, 503, ...) or that took longer than the
+ * threshold halves it.  Decreases are applied at most once per cooldown period, so that a burst of concurrent calls
+ * failing together only counts as one congestion signal.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final long DECREASE_COOLDOWN_NANOS = 1_000_000_000L;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyThresholdMillis;
+
+    private final LongSupplier nanoClock;
+
+    private double limit;
+
+    private int inFlight;
+
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMillis) {
+        this(initialLimit, minLimit, maxLimit, latencyThresholdMillis, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMillis,
+                               LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdMillis = latencyThresholdMillis;
+        this.nanoClock = nanoClock;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecrease = nanoClock.getAsLong() - DECREASE_COOLDOWN_NANOS;
+    }
+
+    /**
+     * Blocks until the number of calls in flight is below the current limit.
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * Blocks until the number of calls in flight is below the current limit, then acquires as many of the calls
+     * that can be started right now as needed.
+     *
+     * @return the number of calls acquired, between 1 and <code>max</code>
+     */
+    public synchronized int acquire(int max) throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        int acquired = Math.min(max, (int) limit - inFlight);
+        inFlight += acquired;
+        return acquired;
+    }
+
+    /**
+     * Gives back calls that were acquired but never started, without adjusting the limit.
+     */
+    public synchronized void cancel(int calls) {
+        inFlight -= calls;
+        notifyAll();
+    }
+
+    /**
+     * @param overloaded whether the server signalled that it is overloaded, or the call failed to connect
+     */
+    public synchronized void release(long latencyMillis, boolean overloaded) {
+        inFlight--;
+        if (overloaded || latencyMillis > latencyThresholdMillis) {
+            long now = nanoClock.getAsLong();
+            if (now - lastDecrease >= DECREASE_COOLDOWN_NANOS) {
+                limit = Math.max(minLimit, limit / 2);
+                lastDecrease = now;
+            }
+        } else {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
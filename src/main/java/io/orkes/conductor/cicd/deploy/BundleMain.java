@@ -0,0 +1,64 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+
+import io.orkes.conductor.cicd.definitions.DefinitionBundle;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Parses the task and workflow definitions of a resources directory into a {@link DefinitionBundle}, with the
+ * content hash of every definition.  See {@link BundleOptions} for the supported arguments.
+ */
+public class BundleMain {
+
+    public static void main(String[] args) throws IOException {
+        BundleOptions options = BundleOptions.parse(args);
+        ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+        DefinitionBundle.Writer writer = build(objectMapper, options.getResourcesDir());
+        writer.write(options.getOutputFile());
+        System.out.printf("Bundled %d file(s) from %s into %s, %d bytes%n", writer.size(), options.getResourcesDir(),
+                options.getOutputFile(), Files.size(options.getOutputFile()));
+    }
+
+    static DefinitionBundle.Writer build(ObjectMapper objectMapper, Path resourcesDir) throws IOException {
+        DefinitionHasher hasher = new DefinitionHasher(objectMapper);
+        DefinitionBundle.Writer writer = new DefinitionBundle.Writer(objectMapper, DefinitionHasher.VERSION);
+        for (Path file : MetadataDeployer.listJsonFiles(resourcesDir.resolve(MetadataDeployer.TASKS_DIR))) {
+            JsonNode content = objectMapper.readTree(file.toFile());
+            Map<String, String> hashes = new LinkedHashMap<>();
+            for (JsonNode element : content.isArray() ? content : objectMapper.createArrayNode().add(content)) {
+                TaskDef def = objectMapper.treeToValue(element, TaskDef.class);
+                hashes.put(DefinitionHasher.key(def), hasher.hash(def));
+            }
+            writer.add(resourcesDir, file, content, hashes);
+        }
+        for (Path file : MetadataDeployer.listJsonFiles(resourcesDir.resolve(MetadataDeployer.WORKFLOWS_DIR))) {
+            JsonNode content = objectMapper.readTree(file.toFile());
+            WorkflowDef def = objectMapper.treeToValue(content, WorkflowDef.class);
+            writer.add(resourcesDir, file, content, Map.of(DefinitionHasher.key(def), hasher.hash(def)));
+        }
+        return writer;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static io.orkes.conductor.cicd.CommandLineArgs.value;
+
+/**
+ * Command line options of the definitions bundle builder.
+ * <pre>
+ *   --resources &lt;dir&gt;     directory containing tasks/ and workflows/ (default: src/main/resources)
+ *   --output &lt;file&gt;       bundle to write (default: build/definitions.bundle)
+ * </pre>
+ */
+public class BundleOptions {
+
+    public static final Path DEFAULT_BUNDLE = Paths.get("build/definitions.bundle");
+
+    private Path resourcesDir = Paths.get("src/main/resources");
+
+    private Path outputFile = DEFAULT_BUNDLE;
+
+    public static BundleOptions parse(String[] args) {
+        BundleOptions options = new BundleOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--resources":
+                    options.setResourcesDir(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--output":
+                    options.setOutputFile(Paths.get(value(args, ++i, arg)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        return options;
+    }
+
+    public Path getResourcesDir() {
+        return resourcesDir;
+    }
+
+    public void setResourcesDir(Path resourcesDir) {
+        this.resourcesDir = resourcesDir;
+    }
+
+    public Path getOutputFile() {
+        return outputFile;
+    }
+
+    public void setOutputFile(Path outputFile) {
+        this.outputFile = outputFile;
+    }
+}
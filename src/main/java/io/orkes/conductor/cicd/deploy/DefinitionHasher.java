@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Computes a stable content hash of task and workflow definitions.
+ * <p>
+ * Definitions are normalized before hashing so that the same definition read from a local file and returned by the
+ * server hash to the same value: audit fields (<code>createTime</code>, <code>updateTime</code>, ...) are dropped,
+ * nulls and empty containers are removed, and object keys are sorted.
+ */
+public class DefinitionHasher {
+
+    /**
+     * Incremented whenever a definition may hash differently, so that stored hashes of another version are not used.
+     */
+    public static final int VERSION = 2;
+
+    static final Set<String> VOLATILE_FIELDS = Set.of("createTime", "updateTime", "createdBy", "updatedBy", "ownerApp");
+
+    private final ObjectMapper objectMapper;
+
+    public DefinitionHasher(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public String hash(WorkflowDef def) {
+        return hashNode(objectMapper.valueToTree(def));
+    }
+
+    public String hash(TaskDef def) {
+        return hashNode(objectMapper.valueToTree(def));
+    }
+
+    private String hashNode(JsonNode node) {
+        try {
+            byte[] canonical = objectMapper.writeValueAsBytes(normalize(node));
+            return toHex(MessageDigest.getInstance("SHA-256").digest(canonical));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize definition", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return a copy of the node with sorted keys and without nulls, empty containers or volatile fields at any depth,
+     * or null when the node itself is empty
+     */
+    private JsonNode normalize(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+        if (node.isObject()) {
+            List<String> names = new ArrayList<>();
+            node.fieldNames().forEachRemaining(names::add);
+            names.sort(null);
+            ObjectNode sorted = objectMapper.createObjectNode();
+            for (String name : names) {
+                if (VOLATILE_FIELDS.contains(name)) {
+                    continue;
+                }
+                JsonNode value = normalize(node.get(name));
+                if (value != null) {
+                    sorted.set(name, value);
+                }
+            }
+            return sorted.size() == 0 ? null : sorted;
+        }
+        if (node.isArray()) {
+            ArrayNode array = objectMapper.createArrayNode();
+            for (Iterator<JsonNode> it = node.elements(); it.hasNext(); ) {
+                JsonNode value = normalize(it.next());
+                array.add(value == null ? NullNode.getInstance() : value);
+            }
+            return array.size() == 0 ? null : array;
+        }
+        return node;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    public static String key(TaskDef def) {
+        return "task:" + def.getName();
+    }
+
+    public static String key(WorkflowDef def) {
+        return "workflow:" + def.getName() + ":" + def.getVersion();
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+
+import static io.orkes.conductor.cicd.definitions.DefinitionKeys.key;
+
+/**
+ * Dependencies between the workflow definition files of a deployment, through the sub-workflows they reference by
+ * name, and the task definitions they need.
+ * <p>
+ * The files are grouped in waves: every file only depends on files of earlier waves, so that the files of a wave can
+ * be pushed in parallel without a definition ever referencing one that is not deployed yet.  Files that are part of a
+ * cycle, or depend on one, are not in any wave; see {@link #getCycles()}.  Sub-workflows referenced by name but not
+ * defined by any file are reported by {@link #getMissingWorkflows()}, they may still exist on the server.
+ */
+public class DependencyGraph {
+
+    private final Map<Path, WorkflowDef> workflows;
+
+    private final Map<Path, Set<Path>> dependencies = new LinkedHashMap<>();
+
+    private final Map<Path, Set<String>> missingWorkflows = new LinkedHashMap<>();
+
+    private final Map<Path, Set<String>> taskDefReferences = new LinkedHashMap<>();
+
+    private final List<List<Path>> waves = new ArrayList<>();
+
+    private final List<List<String>> cycles = new ArrayList<>();
+
+    private final Set<Path> cyclic = new LinkedHashSet<>();
+
+    private DependencyGraph(Map<Path, WorkflowDef> workflows) {
+        this.workflows = workflows;
+    }
+
+    /**
+     * @param workflows the definitions to deploy, by file
+     */
+    public static DependencyGraph build(Map<Path, WorkflowDef> workflows) {
+        DependencyGraph graph = new DependencyGraph(workflows);
+        Map<String, Map<Integer, Path>> byName = new HashMap<>();
+        workflows.forEach((file, def) -> byName.computeIfAbsent(def.getName(), n -> new HashMap<>())
+                .put(def.getVersion(), file));
+
+        workflows.forEach((file, def) -> {
+            Set<Path> fileDependencies = new TreeSet<>();
+            for (SubWorkflowParams params : referencedWorkflows(def)) {
+                Path dependency = resolve(byName.get(params.getName()), params.getVersion());
+                if (dependency == null) {
+                    graph.missingWorkflows.computeIfAbsent(file, f -> new TreeSet<>())
+                            .add(key(params.getName(), params.getVersion()));
+                } else if (!dependency.equals(file)) {
+                    // A workflow starting itself as a sub-workflow only needs to exist once it runs
+                    fileDependencies.add(dependency);
+                }
+            }
+            graph.dependencies.put(file, fileDependencies);
+            graph.taskDefReferences.put(file, referencedTaskDefs(def));
+        });
+        graph.computeWaves();
+        return graph;
+    }
+
+    private static Path resolve(Map<Integer, Path> versions, Integer version) {
+        if (versions == null) {
+            return null;
+        }
+        if (version != null) {
+            return versions.get(version);
+        }
+        return versions.entrySet().stream()
+                .max(Map.Entry.comparingByKey())
+                .map(Map.Entry::getValue)
+                .orElse(null);
+    }
+
+    /**
+     * Kahn's algorithm, one wave per round of files whose dependencies are all in earlier waves.
+     */
+    private void computeWaves() {
+        Map<Path, Integer> pending = new HashMap<>();
+        Map<Path, List<Path>> dependents = new HashMap<>();
+        dependencies.forEach((file, fileDependencies) -> {
+            pending.put(file, fileDependencies.size());
+            for (Path dependency : fileDependencies) {
+                dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(file);
+            }
+        });
+
+        List<Path> wave = new ArrayList<>();
+        pending.forEach((file, count) -> {
+            if (count == 0) {
+                wave.add(file);
+            }
+        });
+        Set<Path> placed = new LinkedHashSet<>();
+        List<Path> current = wave;
+        while (!current.isEmpty()) {
+            Collections.sort(current);
+            waves.add(current);
+            placed.addAll(current);
+            List<Path> next = new ArrayList<>();
+            for (Path file : current) {
+                for (Path dependent : dependents.getOrDefault(file, List.of())) {
+                    if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            current = next;
+        }
+
+        for (Path file : dependencies.keySet()) {
+            if (!placed.contains(file)) {
+                cyclic.add(file);
+            }
+        }
+        findCycles();
+    }
+
+    /**
+     * Describes each cycle among the files left out of the waves, as the list of the definitions it goes through.
+     */
+    private void findCycles() {
+        Set<Path> reported = new LinkedHashSet<>();
+        for (Path start : new TreeSet<>(cyclic)) {
+            if (reported.contains(start)) {
+                continue;
+            }
+            // Follow dependencies that are themselves left out until a file repeats: that tail is a cycle
+            List<Path> path = new ArrayList<>();
+            Map<Path, Integer> index = new HashMap<>();
+            Path file = start;
+            while (file != null && !index.containsKey(file)) {
+                index.put(file, path.size());
+                path.add(file);
+                file = dependencies.get(file).stream().filter(cyclic::contains).min(Comparator.naturalOrder())
+                        .orElse(null);
+            }
+            if (file == null || reported.contains(file)) {
+                continue;
+            }
+            List<Path> cycle = path.subList(index.get(file), path.size());
+            List<String> names = new ArrayList<>();
+            for (Path member : cycle) {
+                names.add(key(workflows.get(member).getName(), workflows.get(member).getVersion()));
+            }
+            names.add(names.get(0));
+            cycles.add(names);
+            reported.addAll(cycle);
+        }
+    }
+
+    /**
+     * @return the files in deployment order, the files of each wave only depend on files of earlier waves
+     */
+    public List<List<Path>> getWaves() {
+        return waves;
+    }
+
+    /**
+     * @return the files defining the sub-workflows referenced by <code>file</code>
+     */
+    public Set<Path> getDependencies(Path file) {
+        return dependencies.getOrDefault(file, Set.of());
+    }
+
+    /**
+     * @return the dependency cycles, each as the <code>name:version</code> of the definitions it goes through, the
+     * first one repeated at the end
+     */
+    public List<List<String>> getCycles() {
+        return cycles;
+    }
+
+    /**
+     * @return the files that are part of a cycle or depend on one
+     */
+    public Set<Path> getCyclic() {
+        return cyclic;
+    }
+
+    /**
+     * @return by file, the sub-workflows (<code>name:version</code> or <code>name:latest</code>) that no file defines
+     */
+    public Map<Path, Set<String>> getMissingWorkflows() {
+        return missingWorkflows;
+    }
+
+    /**
+     * @return by file, the names of the task definitions its tasks need
+     */
+    public Map<Path, Set<String>> getTaskDefReferences() {
+        return taskDefReferences;
+    }
+
+    /**
+     * @return the SUB_WORKFLOW tasks referencing a definition by name, including those of inline sub-workflows
+     */
+    public static List<SubWorkflowParams> referencedWorkflows(WorkflowDef def) {
+        List<SubWorkflowParams> references = new ArrayList<>();
+        Deque<WorkflowDef> defs = new ArrayDeque<>(List.of(def));
+        while (!defs.isEmpty()) {
+            for (WorkflowTask task : defs.pop().collectTasks()) {
+                SubWorkflowParams params = task.getSubWorkflowParam();
+                if (!TaskType.SUB_WORKFLOW.name().equals(task.getType()) || params == null) {
+                    continue;
+                }
+                if (params.getWorkflowDefinition() instanceof WorkflowDef) {
+                    defs.push((WorkflowDef) params.getWorkflowDefinition());
+                } else if (params.getName() != null && !isExpression(params.getName())) {
+                    references.add(params);
+                }
+            }
+        }
+        return references;
+    }
+
+    /**
+     * @return the names of the task definitions needed by the SIMPLE tasks without an inline definition, and by the
+     * DYNAMIC and FORK_JOIN_DYNAMIC tasks whose task names are constants
+     */
+    public static Set<String> referencedTaskDefs(WorkflowDef def) {
+        Set<String> names = new TreeSet<>();
+        Deque<WorkflowDef> defs = new ArrayDeque<>(List.of(def));
+        while (!defs.isEmpty()) {
+            for (WorkflowTask task : defs.pop().collectTasks()) {
+                String type = task.getType();
+                Map<String, Object> input = task.getInputParameters() == null ? Map.of() : task.getInputParameters();
+                if (TaskType.SIMPLE.name().equals(type) && task.getTaskDefinition() == null) {
+                    names.add(task.getName());
+                } else if (TaskType.DYNAMIC.name().equals(type) && task.getDynamicTaskNameParam() != null) {
+                    addConstant(names, input.get(task.getDynamicTaskNameParam()));
+                } else if (TaskType.FORK_JOIN_DYNAMIC.name().equals(type)) {
+                    Object forkTaskType = input.getOrDefault("forkTaskType", TaskType.SIMPLE.name());
+                    if (TaskType.SIMPLE.name().equals(forkTaskType)) {
+                        addConstant(names, input.get("forkTaskName"));
+                    }
+                    Object forkTasks = task.getDynamicForkTasksParam() == null ? null :
+                            input.get(task.getDynamicForkTasksParam());
+                    if (forkTasks instanceof List) {
+                        for (Object forkTask : (List<?>) forkTasks) {
+                            if (forkTask instanceof Map && TaskType.SIMPLE.name().equals(
+                                    ((Map<?, ?>) forkTask).getOrDefault("type", TaskType.SIMPLE.name()))) {
+                                addConstant(names, ((Map<?, ?>) forkTask).get("name"));
+                            }
+                        }
+                    }
+                } else if (TaskType.SUB_WORKFLOW.name().equals(type) && task.getSubWorkflowParam() != null
+                        && task.getSubWorkflowParam().getWorkflowDefinition() instanceof WorkflowDef) {
+                    defs.push((WorkflowDef) task.getSubWorkflowParam().getWorkflowDefinition());
+                }
+            }
+        }
+        return names;
+    }
+
+    private static void addConstant(Set<String> names, Object value) {
+        if (value instanceof String && !isExpression((String) value)) {
+            names.add((String) value);
+        }
+    }
+
+    private static boolean isExpression(String value) {
+        return value.contains("${");
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static io.orkes.conductor.cicd.CommandLineArgs.value;
+
+/**
+ * Command line options of the deployer.
+ * <pre>
+ *   --resources &lt;dir&gt;     directory containing tasks/ and workflows/ (default: src/main/resources)
+ *   --concurrency &lt;n&gt;     max number of calls in flight, the actual limit adapts to the server (default: 8)
+ *   --latency-threshold &lt;ms&gt;  latency above which the concurrency is reduced (default: 2000)
+ *   --retries &lt;n&gt;         max attempts of a call rejected as overloaded or failing to connect (default: 5)
+ *   --compare &lt;mode&gt;      none, manifest or server, see {@link ChangeDetection} (default: server)
+ *   --manifest &lt;file&gt;     hash manifest to compare against and update with --compare manifest
+ *                           (default: src/main/metadata-manifest.json)
+ *   --force                 deploy everything, same as --compare none
+ *   --strict-references     fail the workflows needing task definitions that are neither local nor on the server
+ *   --outcomes &lt;file&gt;     where to write the outcome of every file (default: build/deploy-outcomes.json)
+ *   --bundle &lt;file&gt;       definitions bundle read instead of the files when up to date, see {@link BundleMain}
+ *                           (default: build/definitions.bundle, if it exists)
+ * </pre>
+ */
+public class DeployOptions {
+
+    private Path resourcesDir = Paths.get("src/main/resources");
+
+    private int concurrency = 8;
+
+    private long latencyThresholdMillis = 2000;
+
+    private int maxAttempts = 5;
+
+    private ChangeDetection changeDetection = ChangeDetection.SERVER;
+
+    private Path manifestFile = Paths.get("src/main/metadata-manifest.json");
+
+    private boolean strictReferences;
+
+    private Path outcomesFile = Paths.get("build/deploy-outcomes.json");
+
+    private Path bundleFile = BundleOptions.DEFAULT_BUNDLE;
+
+    public static DeployOptions parse(String[] args) {
+        DeployOptions options = new DeployOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--resources":
+                    options.setResourcesDir(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--concurrency":
+                    options.setConcurrency(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--latency-threshold":
+                    options.setLatencyThresholdMillis(Long.parseLong(value(args, ++i, arg)));
+                    break;
+                case "--retries":
+                    options.setMaxAttempts(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--compare":
+                    options.setChangeDetection(ChangeDetection.valueOf(value(args, ++i, arg).toUpperCase()));
+                    break;
+                case "--manifest":
+                    options.setManifestFile(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--strict-references":
+                    options.setStrictReferences(true);
+                    break;
+                case "--outcomes":
+                    options.setOutcomesFile(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--bundle":
+                    options.setBundleFile(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--force":
+                    options.setChangeDetection(ChangeDetection.NONE);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        return options;
+    }
+
+    public Path getResourcesDir() {
+        return resourcesDir;
+    }
+
+    public void setResourcesDir(Path resourcesDir) {
+        this.resourcesDir = resourcesDir;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public long getLatencyThresholdMillis() {
+        return latencyThresholdMillis;
+    }
+
+    public void setLatencyThresholdMillis(long latencyThresholdMillis) {
+        this.latencyThresholdMillis = latencyThresholdMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public ChangeDetection getChangeDetection() {
+        return changeDetection;
+    }
+
+    public void setChangeDetection(ChangeDetection changeDetection) {
+        this.changeDetection = changeDetection;
+    }
+
+    public Path getManifestFile() {
+        return manifestFile;
+    }
+
+    public void setManifestFile(Path manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    public boolean isStrictReferences() {
+        return strictReferences;
+    }
+
+    public void setStrictReferences(boolean strictReferences) {
+        this.strictReferences = strictReferences;
+    }
+
+    public Path getOutcomesFile() {
+        return outcomesFile;
+    }
+
+    public void setOutcomesFile(Path outcomesFile) {
+        this.outcomesFile = outcomesFile;
+    }
+
+    public Path getBundleFile() {
+        return bundleFile;
+    }
+
+    public void setBundleFile(Path bundleFile) {
+        this.bundleFile = bundleFile;
+    }
+}
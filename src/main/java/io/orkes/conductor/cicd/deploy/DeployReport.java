@@ -0,0 +1,105 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Collects the per-file results of a deployment run.
+ */
+public class DeployReport {
+
+    private final List<DeployResult> results = Collections.synchronizedList(new ArrayList<>());
+
+    private long totalMillis;
+
+    public void add(DeployResult result) {
+        results.add(result);
+    }
+
+    public List<DeployResult> getResults() {
+        synchronized (results) {
+            return new ArrayList<>(results);
+        }
+    }
+
+    public List<DeployResult> getFailures() {
+        return getResults().stream().filter(r -> !r.isSuccess()).collect(Collectors.toList());
+    }
+
+    public boolean hasFailures() {
+        return !getFailures().isEmpty();
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void setTotalMillis(long totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public String summary() {
+        List<DeployResult> all = getResults();
+        long failed = all.stream().filter(r -> !r.isSuccess()).count();
+        long unchanged = all.stream().filter(DeployResult::isSkipped).count();
+        return String.format("Deployed %d file(s), %d unchanged, %d failed, in %dms", all.size() - failed - unchanged,
+                unchanged, failed, totalMillis);
+    }
+
+    /**
+     * Writes the outcome of every file, and whether the deployment as a whole succeeded, so that CI can tell exactly
+     * which definitions are live after a partial failure.  The file is replaced atomically.
+     */
+    public void writeOutcomes(ObjectMapper objectMapper, Path file) throws IOException {
+        List<Map<String, Object>> outcomes = new ArrayList<>();
+        for (DeployResult result : getResults()) {
+            Map<String, Object> outcome = new LinkedHashMap<>();
+            outcome.put("file", result.getFile().toString());
+            outcome.put("kind", result.getKind());
+            outcome.put("names", result.getNames());
+            outcome.put("outcome", result.isSkipped() ? "UNCHANGED" : result.isSuccess() ? "DEPLOYED" : "FAILED");
+            outcome.put("latencyMillis", result.getLatencyMillis());
+            if (!result.isSuccess()) {
+                outcome.put("error", String.valueOf(result.getError().getMessage()));
+            }
+            outcomes.add(outcome);
+        }
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("status", hasFailures() ? "FAILED" : "SUCCEEDED");
+        document.put("summary", summary());
+        document.put("results", outcomes);
+
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(temp.toFile(), document);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Outcome of deploying a single metadata file.
+ */
+public class DeployResult {
+
+    public enum Kind {
+        TASK, WORKFLOW
+    }
+
+    private final Path file;
+
+    private final Kind kind;
+
+    private final List<String> names;
+
+    private final long latencyMillis;
+
+    private final Throwable error;
+
+    private final boolean skipped;
+
+    public DeployResult(Path file, Kind kind, List<String> names, long latencyMillis, Throwable error) {
+        this(file, kind, names, latencyMillis, error, false);
+    }
+
+    private DeployResult(Path file, Kind kind, List<String> names, long latencyMillis, Throwable error,
+                         boolean skipped) {
+        this.file = file;
+        this.kind = kind;
+        this.names = names;
+        this.latencyMillis = latencyMillis;
+        this.error = error;
+        this.skipped = skipped;
+    }
+
+    /**
+     * @return a successful result for a file whose definitions are already up-to-date on the server
+     */
+    public static DeployResult skipped(Path file, Kind kind, List<String> names, long latencyMillis) {
+        return new DeployResult(file, kind, names, latencyMillis, null, true);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public boolean isSkipped() {
+        return skipped;
+    }
+
+    @Override
+    public String toString() {
+        String outcome = skipped ? "UNCHANGED" : isSuccess() ? "OK" : "FAILED (" + error.getMessage() + ")";
+        return kind + " " + file + " " + names + " " + outcome + " in " + latencyMillis + "ms";
+    }
+}
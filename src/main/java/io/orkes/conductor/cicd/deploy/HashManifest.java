@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Content hashes of the last successfully deployed definitions, keyed by {@link DefinitionHasher#key}.
+ * Stored as a sorted JSON object so that the file diffs cleanly when committed.
+ */
+public class HashManifest {
+
+    private static final TypeReference<TreeMap<String, String>> MANIFEST_TYPE = new TypeReference<TreeMap<String, String>>() {
+    };
+
+    private final Map<String, String> hashes;
+
+    private boolean modified;
+
+    public HashManifest() {
+        this(new TreeMap<>());
+    }
+
+    private HashManifest(Map<String, String> hashes) {
+        this.hashes = hashes;
+    }
+
+    public static HashManifest load(ObjectMapper objectMapper, Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return new HashManifest();
+        }
+        return new HashManifest(objectMapper.readValue(file.toFile(), MANIFEST_TYPE));
+    }
+
+    public void save(ObjectMapper objectMapper, Path file) throws IOException {
+        synchronized (hashes) {
+            objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), hashes);
+            modified = false;
+        }
+    }
+
+    public String get(String key) {
+        synchronized (hashes) {
+            return hashes.get(key);
+        }
+    }
+
+    public void put(String key, String hash) {
+        synchronized (hashes) {
+            if (!hash.equals(hashes.put(key, hash))) {
+                modified = true;
+            }
+        }
+    }
+
+    public boolean isModified() {
+        synchronized (hashes) {
+            return modified;
+        }
+    }
+
+    public Map<String, String> asMap() {
+        synchronized (hashes) {
+            return new TreeMap<>(hashes);
+        }
+    }
+}
@@ -0,0 +1,517 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+
+import io.orkes.conductor.cicd.definitions.DefinitionBundle;
+import io.orkes.conductor.client.MetadataClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Deploys the task and workflow definitions found under a resources directory (<code>tasks/*.json</code> and
+ * <code>workflows/*.json</code>).
+ * <p>
+ * All task definitions are sent in a single batched <code>registerTaskDefs</code> call first.  Workflow definitions
+ * are then pushed in the waves of their {@link DependencyGraph}, each wave concurrently through a bounded executor,
+ * so that a sub-workflow is always deployed before the workflows referencing it.  Before anything is pushed, the
+ * files in a dependency cycle, and those referencing sub-workflows that neither a file nor the server defines, are
+ * failed along with the files depending on them.  So are the files needing a task definition whose registration
+ * failed.  Task definitions that are neither local nor on the server are logged, or fail the workflows needing them
+ * with <code>strictReferences</code>.
+ * A single {@link MetadataClient} (and hence a single authenticated <code>ApiClient</code>) is shared by all the
+ * calls.
+ * <p>
+ * Depending on the {@link ChangeDetection} mode, only definitions whose content hash differs from the server or from
+ * the local {@link HashManifest} are pushed.  When a {@link DefinitionBundle} of the resources directory is set and
+ * up to date, the definitions and their hashes are read from it rather than parsed and computed again.
+ */
+public class MetadataDeployer {
+
+    private static final Logger log = LoggerFactory.getLogger(MetadataDeployer.class);
+
+    public static final String TASKS_DIR = "tasks";
+
+    public static final String WORKFLOWS_DIR = "workflows";
+
+    private final MetadataClient metadataClient;
+
+    private final ObjectMapper objectMapper;
+
+    private final DefinitionHasher hasher;
+
+    private final int concurrency;
+
+    private final ChangeDetection changeDetection;
+
+    private final HashManifest manifest;
+
+    private boolean strictReferences;
+
+    private DefinitionBundle bundle;
+
+    private volatile DefinitionBundle currentBundle;
+
+    private volatile Path resourcesDir;
+
+    public MetadataDeployer(MetadataClient metadataClient, int concurrency) {
+        this(metadataClient, new ObjectMapperProvider().getObjectMapper(), concurrency, ChangeDetection.NONE, null);
+    }
+
+    /**
+     * @param manifest records the hash of every deployed definition, required when <code>changeDetection</code> is
+     *                 {@link ChangeDetection#MANIFEST}, optional otherwise
+     */
+    public MetadataDeployer(MetadataClient metadataClient, ObjectMapper objectMapper, int concurrency,
+                            ChangeDetection changeDetection, HashManifest manifest) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1, got " + concurrency);
+        }
+        if (changeDetection == ChangeDetection.MANIFEST && manifest == null) {
+            throw new IllegalArgumentException("A manifest is required for " + changeDetection + " change detection");
+        }
+        this.metadataClient = metadataClient;
+        this.objectMapper = objectMapper;
+        this.hasher = new DefinitionHasher(objectMapper);
+        this.concurrency = concurrency;
+        this.changeDetection = changeDetection;
+        this.manifest = manifest;
+    }
+
+    /**
+     * @param strictReferences whether a workflow needing a task definition that is neither deployed with it nor on
+     *                         the server fails, rather than only being logged
+     */
+    public void setStrictReferences(boolean strictReferences) {
+        this.strictReferences = strictReferences;
+    }
+
+    /**
+     * @param bundle the definitions bundle of the resources directory, ignored if it does not match the files
+     */
+    public void setBundle(DefinitionBundle bundle) {
+        this.bundle = bundle;
+    }
+
+    public DeployReport deploy(Path resourcesDir) throws IOException {
+        DeployReport report = new DeployReport();
+        long start = System.currentTimeMillis();
+        this.resourcesDir = resourcesDir;
+        this.currentBundle = null;
+        if (bundle != null) {
+            if (bundle.isCurrent(resourcesDir, List.of(TASKS_DIR, WORKFLOWS_DIR), DefinitionHasher.VERSION)) {
+                currentBundle = bundle;
+                log.info("Reading the definitions from {}", bundle.getFile());
+            } else {
+                log.info("{} is out of date, reading the definition files", bundle.getFile());
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            Set<String> failedTaskNames = new HashSet<>();
+            Set<String> taskNames = deployTasks(listJsonFiles(resourcesDir.resolve(TASKS_DIR)), failedTaskNames,
+                    report, executor);
+            deployWorkflows(listJsonFiles(resourcesDir.resolve(WORKFLOWS_DIR)), taskNames, failedTaskNames, report,
+                    executor);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        report.setTotalMillis(System.currentTimeMillis() - start);
+        return report;
+    }
+
+    /**
+     * @param failedTaskNames receives the names of the task definitions that failed to register
+     * @return the names of the task definitions read from the files and now on the server, deployed or unchanged
+     */
+    Set<String> deployTasks(List<Path> files, Set<String> failedTaskNames, DeployReport report,
+                            ExecutorService executor) {
+        Set<String> taskNames = new HashSet<>();
+        if (files.isEmpty()) {
+            return taskNames;
+        }
+        long start = System.currentTimeMillis();
+        List<Path> parsedFiles = new ArrayList<>();
+        List<List<TaskDef>> parsedDefs = new ArrayList<>();
+        for (Path file : files) {
+            try {
+                List<TaskDef> taskDefs = readTaskDefs(file);
+                parsedDefs.add(taskDefs);
+                parsedFiles.add(file);
+                taskNames.addAll(names(taskDefs));
+            } catch (IOException e) {
+                report.add(new DeployResult(file, DeployResult.Kind.TASK, List.of(), 0, e));
+            }
+        }
+
+        // Change detection may need a server round-trip per definition, run those in parallel
+        List<List<Future<String>>> changedHashes = new ArrayList<>();
+        for (List<TaskDef> taskDefs : parsedDefs) {
+            List<Future<String>> hashes = new ArrayList<>();
+            for (TaskDef taskDef : taskDefs) {
+                hashes.add(executor.submit(() -> changedHash(taskDef)));
+            }
+            changedHashes.add(hashes);
+        }
+
+        List<TaskDef> batch = new ArrayList<>();
+        List<List<TaskDef>> changedDefs = new ArrayList<>();
+        List<List<String>> changedDefHashes = new ArrayList<>();
+        for (int i = 0; i < parsedFiles.size(); i++) {
+            List<TaskDef> changed = new ArrayList<>();
+            List<String> hashes = new ArrayList<>();
+            for (int j = 0; j < parsedDefs.get(i).size(); j++) {
+                String hash = await(changedHashes.get(i).get(j));
+                if (hash != null) {
+                    changed.add(parsedDefs.get(i).get(j));
+                    hashes.add(hash);
+                }
+            }
+            batch.addAll(changed);
+            changedDefs.add(changed);
+            changedDefHashes.add(hashes);
+        }
+
+        Throwable error = null;
+        if (!batch.isEmpty()) {
+            log.info("Registering {} task definition(s) from {} file(s) in one batch", batch.size(), parsedFiles.size());
+            try {
+                metadataClient.registerTaskDefs(batch);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+        long latency = System.currentTimeMillis() - start;
+
+        for (int i = 0; i < parsedFiles.size(); i++) {
+            Path file = parsedFiles.get(i);
+            List<TaskDef> changed = changedDefs.get(i);
+            DeployResult result;
+            if (changed.isEmpty()) {
+                result = DeployResult.skipped(file, DeployResult.Kind.TASK, names(parsedDefs.get(i)), latency);
+            } else {
+                result = new DeployResult(file, DeployResult.Kind.TASK, names(changed), latency, error);
+                if (error != null) {
+                    failedTaskNames.addAll(names(changed));
+                } else if (manifest != null) {
+                    for (int j = 0; j < changed.size(); j++) {
+                        manifest.put(DefinitionHasher.key(changed.get(j)), changedDefHashes.get(i).get(j));
+                    }
+                }
+            }
+            log.info("{}", result);
+            report.add(result);
+        }
+        taskNames.removeAll(failedTaskNames);
+        return taskNames;
+    }
+
+    void deployWorkflows(List<Path> files, Set<String> taskNames, Set<String> failedTaskNames, DeployReport report,
+                         ExecutorService executor) {
+        Map<Path, WorkflowDef> defs = new LinkedHashMap<>();
+        for (Path file : files) {
+            try {
+                defs.put(file, readWorkflowDef(file));
+            } catch (IOException e) {
+                report.add(new DeployResult(file, DeployResult.Kind.WORKFLOW, List.of(), 0, e));
+            }
+        }
+        DependencyGraph graph = DependencyGraph.build(defs);
+
+        // Files that must not be pushed, with the reason
+        Map<Path, String> blocked = new HashMap<>();
+        for (List<String> cycle : graph.getCycles()) {
+            log.error("Dependency cycle between workflow definitions: {}", String.join(" -> ", cycle));
+        }
+        for (Path file : graph.getCyclic()) {
+            blocked.put(file, "Part of, or depends on, a sub-workflow cycle " + graph.getCycles());
+        }
+        checkReferences(graph, taskNames, failedTaskNames, blocked, executor);
+
+        Set<Path> failed = new HashSet<>();
+        int waveNumber = 0;
+        for (List<Path> wave : graph.getWaves()) {
+            waveNumber++;
+            Map<Path, Future<DeployResult>> futures = new LinkedHashMap<>();
+            for (Path file : wave) {
+                Path failedDependency = graph.getDependencies(file).stream()
+                        .filter(d -> blocked.containsKey(d) || failed.contains(d))
+                        .findFirst()
+                        .orElse(null);
+                if (failedDependency != null && !blocked.containsKey(file)) {
+                    blocked.put(file, "Depends on " + failedDependency + ", which was not deployed");
+                }
+                if (!blocked.containsKey(file)) {
+                    WorkflowDef def = defs.get(file);
+                    futures.put(file, executor.submit(() -> deployWorkflow(file, def)));
+                }
+            }
+            log.info("Deploying wave {} of {}: {} workflow definition(s)", waveNumber, graph.getWaves().size(),
+                    futures.size());
+            for (Map.Entry<Path, Future<DeployResult>> future : futures.entrySet()) {
+                DeployResult result = await(future.getValue());
+                if (!result.isSuccess()) {
+                    failed.add(future.getKey());
+                }
+                log.info("{}", result);
+                report.add(result);
+            }
+        }
+
+        // Report the files that were never pushed, in file order
+        for (Map.Entry<Path, WorkflowDef> entry : defs.entrySet()) {
+            String reason = blocked.get(entry.getKey());
+            if (reason != null) {
+                WorkflowDef def = entry.getValue();
+                DeployResult result = new DeployResult(entry.getKey(), DeployResult.Kind.WORKFLOW,
+                        List.of(def.getName() + ":" + def.getVersion()), 0, new IllegalStateException(reason));
+                log.info("{}", result);
+                report.add(result);
+            }
+        }
+    }
+
+    /**
+     * Blocks the files referencing a task definition that failed to register.  Looks up on the server the
+     * sub-workflows and task definitions that are referenced but not deployed here, and blocks the files referencing
+     * those that do not exist.
+     */
+    private void checkReferences(DependencyGraph graph, Set<String> taskNames, Set<String> failedTaskNames,
+                                 Map<Path, String> blocked, ExecutorService executor) {
+        graph.getTaskDefReferences().forEach((file, names) -> {
+            Set<String> failed = new TreeSet<>(names);
+            failed.retainAll(failedTaskNames);
+            if (!failed.isEmpty()) {
+                blocked.putIfAbsent(file, "Depends on task definition(s) " + failed + ", which were not deployed");
+            }
+        });
+
+        Map<String, Future<Boolean>> workflowExists = new HashMap<>();
+        graph.getMissingWorkflows().values().forEach(keys -> keys.forEach(key ->
+                workflowExists.computeIfAbsent(key, k -> executor.submit(() -> workflowExistsOnServer(k)))));
+        Map<String, Future<Boolean>> taskDefExists = new HashMap<>();
+        graph.getTaskDefReferences().values().forEach(names -> names.stream()
+                .filter(name -> !taskNames.contains(name) && !failedTaskNames.contains(name))
+                .forEach(name -> taskDefExists.computeIfAbsent(name,
+                        n -> executor.submit(() -> taskDefExistsOnServer(n)))));
+
+        graph.getMissingWorkflows().forEach((file, keys) -> {
+            Set<String> missing = new TreeSet<>();
+            for (String key : keys) {
+                if (!await(workflowExists.get(key))) {
+                    missing.add(key);
+                }
+            }
+            if (!missing.isEmpty()) {
+                blocked.putIfAbsent(file, "Missing sub-workflow definition(s) " + missing);
+            }
+        });
+        graph.getTaskDefReferences().forEach((file, names) -> {
+            Set<String> missing = new TreeSet<>();
+            for (String name : names) {
+                if (taskDefExists.containsKey(name) && !await(taskDefExists.get(name))) {
+                    missing.add(name);
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+            if (strictReferences) {
+                blocked.putIfAbsent(file, "Missing task definition(s) " + missing);
+            } else {
+                log.warn("{} references task definition(s) {} that are neither deployed nor on the server", file,
+                        missing);
+            }
+        });
+    }
+
+    private boolean workflowExistsOnServer(String key) {
+        String name = key.substring(0, key.lastIndexOf(':'));
+        String version = key.substring(key.lastIndexOf(':') + 1);
+        try {
+            return metadataClient.getWorkflowDef(name, "latest".equals(version) ? null : Integer.valueOf(version))
+                    != null;
+        } catch (RuntimeException e) {
+            log.debug("Unable to fetch workflow definition {}", key, e);
+            return false;
+        }
+    }
+
+    private boolean taskDefExistsOnServer(String name) {
+        try {
+            return metadataClient.getTaskDef(name) != null;
+        } catch (RuntimeException e) {
+            log.debug("Unable to fetch task definition {}", name, e);
+            return false;
+        }
+    }
+
+    private DeployResult deployWorkflow(Path file, WorkflowDef def) {
+        long start = System.currentTimeMillis();
+        List<String> names = List.of(def.getName() + ":" + def.getVersion());
+        try {
+            String hash = changedHash(def);
+            if (hash == null) {
+                return DeployResult.skipped(file, DeployResult.Kind.WORKFLOW, names, System.currentTimeMillis() - start);
+            }
+            metadataClient.registerWorkflowDef(def, true);
+            if (manifest != null) {
+                manifest.put(DefinitionHasher.key(def), hash);
+            }
+            return new DeployResult(file, DeployResult.Kind.WORKFLOW, names, System.currentTimeMillis() - start, null);
+        } catch (RuntimeException e) {
+            return new DeployResult(file, DeployResult.Kind.WORKFLOW, names, System.currentTimeMillis() - start, e);
+        }
+    }
+
+    /**
+     * @return the hash of the definition if it has to be deployed, null if it is unchanged
+     */
+    private String changedHash(TaskDef def) {
+        String hash = localHash(DefinitionHasher.key(def), () -> hasher.hash(def));
+        switch (changeDetection) {
+            case MANIFEST:
+                return hash.equals(manifest.get(DefinitionHasher.key(def))) ? null : hash;
+            case SERVER:
+                try {
+                    TaskDef current = metadataClient.getTaskDef(def.getName());
+                    if (current != null && hash.equals(hasher.hash(current))) {
+                        recordUnchanged(DefinitionHasher.key(def), hash);
+                        return null;
+                    }
+                } catch (RuntimeException e) {
+                    log.debug("Unable to fetch task definition {}, treating it as new", def.getName(), e);
+                }
+                return hash;
+            default:
+                return hash;
+        }
+    }
+
+    private String changedHash(WorkflowDef def) {
+        String hash = localHash(DefinitionHasher.key(def), () -> hasher.hash(def));
+        switch (changeDetection) {
+            case MANIFEST:
+                return hash.equals(manifest.get(DefinitionHasher.key(def))) ? null : hash;
+            case SERVER:
+                try {
+                    WorkflowDef current = metadataClient.getWorkflowDef(def.getName(), def.getVersion());
+                    if (current != null && hash.equals(hasher.hash(current))) {
+                        recordUnchanged(DefinitionHasher.key(def), hash);
+                        return null;
+                    }
+                } catch (RuntimeException e) {
+                    log.debug("Unable to fetch workflow definition {}, treating it as new", def.getName(), e);
+                }
+                return hash;
+            default:
+                return hash;
+        }
+    }
+
+    /**
+     * @return the hash computed when the bundle was built, or a freshly computed one
+     */
+    private String localHash(String key, Supplier<String> hash) {
+        DefinitionBundle bundle = currentBundle;
+        String bundled = bundle == null ? null : bundle.getHash(key);
+        return bundled != null ? bundled : hash.get();
+    }
+
+    private void recordUnchanged(String key, String hash) {
+        if (manifest != null) {
+            manifest.put(key, hash);
+        }
+    }
+
+    List<TaskDef> readTaskDefs(Path file) throws IOException {
+        JsonNode node = readTree(file);
+        List<TaskDef> taskDefs = new ArrayList<>();
+        if (node.isArray()) {
+            for (JsonNode element : node) {
+                taskDefs.add(objectMapper.treeToValue(element, TaskDef.class));
+            }
+        } else {
+            taskDefs.add(objectMapper.treeToValue(node, TaskDef.class));
+        }
+        return taskDefs;
+    }
+
+    WorkflowDef readWorkflowDef(Path file) throws IOException {
+        return objectMapper.treeToValue(readTree(file), WorkflowDef.class);
+    }
+
+    private JsonNode readTree(Path file) throws IOException {
+        DefinitionBundle bundle = currentBundle;
+        if (bundle != null) {
+            String path = resourcesDir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            DefinitionBundle.Entry entry = bundle.get(path);
+            if (entry != null) {
+                return bundle.readTree(objectMapper, entry);
+            }
+        }
+        return objectMapper.readTree(file.toFile());
+    }
+
+    private static List<String> names(List<TaskDef> taskDefs) {
+        return taskDefs.stream().map(TaskDef::getName).collect(Collectors.toList());
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while deploying", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected failure while deploying", e.getCause());
+        }
+    }
+
+    public static List<Path> listJsonFiles(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".json")).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.orkes.conductor.client.ApiClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+/**
+ * Makes the calls of an {@link ApiClient} safe to run at high concurrency against a busy server:
+ * <ul>
+ *     <li>the number of calls in flight is capped by an {@link AdaptiveConcurrencyLimiter}, which backs off when the
+ *     server slows down or rejects calls and probes for more capacity otherwise</li>
+ *     <li>idempotent calls that failed to connect or were rejected as overloaded are retried according to a
+ *     {@link RetryPolicy}; so are the metadata upserts, see {@link #isIdempotent(Request)}</li>
+ *     <li>a call rejected with 401 gets a new access token and is sent again once</li>
+ * </ul>
+ */
+public class ResilientInterceptor implements Interceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientInterceptor.class);
+
+    private static final String AUTHORIZATION_HEADER = "X-Authorization";
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
+    private static final String TASK_DEFS_PATH = "/metadata/taskdefs";
+
+    private static final String WORKFLOW_DEFS_PATH = "/metadata/workflow";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    private final RetryPolicy retryPolicy;
+
+    private final TokenRefresher tokenRefresher;
+
+    ResilientInterceptor(AdaptiveConcurrencyLimiter limiter, RetryPolicy retryPolicy, TokenRefresher tokenRefresher) {
+        this.limiter = limiter;
+        this.retryPolicy = retryPolicy;
+        this.tokenRefresher = tokenRefresher;
+    }
+
+    /**
+     * Adds the interceptor to the HTTP client of <code>apiClient</code>.  Token exchanges go through a copy of the
+     * client taken before, so they are not limited nor retried, but are seen by the interceptors installed earlier.
+     *
+     * @param keyId null if the server does not require authentication
+     */
+    public static ResilientInterceptor install(ApiClient apiClient, ObjectMapper objectMapper, String keyId,
+                                               String keySecret, AdaptiveConcurrencyLimiter limiter,
+                                               RetryPolicy retryPolicy) {
+        TokenRefresher tokenRefresher = keyId == null || keyId.isBlank() ? null :
+                new TokenRefresher(apiClient.getHttpClient().clone(), objectMapper, apiClient.getBasePath(), keyId,
+                        keySecret);
+        ResilientInterceptor interceptor = new ResilientInterceptor(limiter, retryPolicy, tokenRefresher);
+        apiClient.getHttpClient().interceptors().add(interceptor);
+        return interceptor;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = withToken(chain.request(), tokenRefresher == null ? null : tokenRefresher.current());
+        boolean retryable = isIdempotent(request);
+        boolean tokenRefreshed = false;
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            acquire();
+            long start = System.currentTimeMillis();
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (RuntimeException | Error e) {
+                limiter.release(System.currentTimeMillis() - start, true);
+                throw e;
+            } catch (IOException e) {
+                limiter.release(System.currentTimeMillis() - start, true);
+                if (!retryable || attempt >= retryPolicy.getMaxAttempts()) {
+                    throw e;
+                }
+                log.debug("{} {} failed on attempt {}, retrying", request.method(), request.httpUrl(), attempt, e);
+                sleep(retryPolicy.delayMillis(attempt, 0));
+                continue;
+            }
+            boolean overloaded = RetryPolicy.isRetryable(response.code());
+            limiter.release(System.currentTimeMillis() - start, overloaded);
+
+            if (response.code() == 401 && tokenRefresher != null && !tokenRefreshed) {
+                response.body().close();
+                request = withToken(request, tokenRefresher.refresh(request.header(AUTHORIZATION_HEADER)));
+                tokenRefreshed = true;
+                log.info("Refreshed the access token after {} {} was rejected", request.method(), request.httpUrl());
+                continue;
+            }
+            if (!overloaded || !retryable || attempt >= retryPolicy.getMaxAttempts()) {
+                return response;
+            }
+            long delay = retryPolicy.delayMillis(attempt, retryAfterMillis(response.header("Retry-After")));
+            log.debug("{} {} returned {} on attempt {}, retrying in {}ms", request.method(), request.httpUrl(),
+                    response.code(), attempt, delay);
+            response.body().close();
+            sleep(delay);
+        }
+    }
+
+    /**
+     * Besides the idempotent methods, two POSTs of the deployer are upserts that leave the server in the same state
+     * however many times they are sent: registering task definitions, and registering a workflow definition with
+     * <code>overwrite=true</code>.  Other POSTs, such as starting a workflow, are never retried since a call that timed
+     * out may still have been applied.
+     */
+    static boolean isIdempotent(Request request) {
+        if (IDEMPOTENT_METHODS.contains(request.method())) {
+            return true;
+        }
+        if (!"POST".equals(request.method())) {
+            return false;
+        }
+        String path = request.httpUrl().encodedPath();
+        return path.endsWith(TASK_DEFS_PATH)
+                || path.endsWith(WORKFLOW_DEFS_PATH) && "true".equals(request.httpUrl().queryParameter("overwrite"));
+    }
+
+    static long retryAfterMillis(String retryAfter) {
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(retryAfter.trim()) * 1000;
+        } catch (NumberFormatException e) {
+            // HTTP dates are not worth supporting here, the backoff applies
+            return 0;
+        }
+    }
+
+    private static Request withToken(Request request, String token) {
+        return token == null ? request : request.newBuilder().header(AUTHORIZATION_HEADER, token).build();
+    }
+
+    private void acquire() throws IOException {
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a call slot");
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter: the n-th retry waits a random time between 0 and
+ * <code>min(maxDelay, baseDelay * 2^(n-1))</code>, or at least as long as the server asked with
+ * <code>Retry-After</code>.
+ */
+public class RetryPolicy {
+
+    private final int maxAttempts;
+
+    private final long baseDelayMillis;
+
+    private final long maxDelayMillis;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1, got " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param retry           1 for the first retry
+     * @param retryAfterMillis the delay requested by the server, or 0
+     */
+    public long delayMillis(int retry, long retryAfterMillis) {
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(retry - 1, 30));
+        long jittered = ThreadLocalRandom.current().nextLong(cap + 1);
+        return Math.max(jittered, Math.min(retryAfterMillis, maxDelayMillis));
+    }
+
+    /**
+     * @return whether the status means the call may succeed later: timeouts, rate limiting and unavailability
+     */
+    public static boolean isRetryable(int statusCode) {
+        return statusCode == 408 || statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+}
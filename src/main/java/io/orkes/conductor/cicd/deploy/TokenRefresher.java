@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.RequestBody;
+import com.squareup.okhttp.Response;
+
+/**
+ * Exchanges the application key and secret for a new access token (<code>POST /token</code>), for calls rejected
+ * because the token expired during a long deployment.
+ */
+class TokenRefresher {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private final OkHttpClient httpClient;
+
+    private final ObjectMapper objectMapper;
+
+    private final String tokenUrl;
+
+    private final String keyId;
+
+    private final String keySecret;
+
+    private volatile String token;
+
+    TokenRefresher(OkHttpClient httpClient, ObjectMapper objectMapper, String basePath, String keyId,
+                   String keySecret) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.tokenUrl = basePath.replaceAll("/+$", "") + "/token";
+        this.keyId = keyId;
+        this.keySecret = keySecret;
+    }
+
+    /**
+     * @return the token obtained by the last refresh, null if none happened yet
+     */
+    String current() {
+        return token;
+    }
+
+    /**
+     * @param rejected the token the server rejected; when another thread already replaced it, its token is returned
+     *                 without a new exchange
+     */
+    synchronized String refresh(String rejected) throws IOException {
+        if (token != null && !token.equals(rejected)) {
+            return token;
+        }
+        String body = objectMapper.writeValueAsString(Map.of("keyId", keyId, "keySecret", keySecret));
+        Request request = new Request.Builder().url(tokenUrl).post(RequestBody.create(JSON, body)).build();
+        Response response = httpClient.newCall(request).execute();
+        String content = response.body().string();
+        if (!response.isSuccessful()) {
+            throw new IOException("Unable to refresh the access token: HTTP " + response.code() + " " + content);
+        }
+        JsonNode node = objectMapper.readTree(content);
+        if (node.get("token") == null) {
+            throw new IOException("Unable to refresh the access token: no token in the response");
+        }
+        token = node.get("token").asText();
+        return token;
+    }
+}
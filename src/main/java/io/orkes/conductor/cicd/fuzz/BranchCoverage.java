@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.fuzz;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.cicd.definitions.ExecutionReader;
+
+/**
+ * Counts how often each control flow path of a workflow was taken: every case of a SWITCH (or DECISION), its default
+ * case, and for every DO_WHILE whether it ran once or repeated.  Branches are named <code>ref=case</code>,
+ * <code>ref=default</code>, <code>ref*once</code> and <code>ref*repeated</code>.
+ */
+public class BranchCoverage {
+
+    private final Map<String, AtomicLong> branches = new ConcurrentHashMap<>();
+
+    private final Map<String, WorkflowTask> switches = new ConcurrentHashMap<>();
+
+    public BranchCoverage(WorkflowDef def) {
+        for (WorkflowTask task : def.collectTasks()) {
+            String ref = task.getTaskReferenceName();
+            if (TaskType.SWITCH.name().equals(task.getType()) || TaskType.DECISION.name().equals(task.getType())) {
+                switches.put(ref, task);
+                if (task.getDecisionCases() != null) {
+                    task.getDecisionCases().keySet().forEach(c -> branches.put(ref + "=" + c, new AtomicLong()));
+                }
+                branches.put(ref + "=default", new AtomicLong());
+            } else if (TaskType.DO_WHILE.name().equals(task.getType())) {
+                branches.put(ref + "*once", new AtomicLong());
+                branches.put(ref + "*repeated", new AtomicLong());
+            }
+        }
+    }
+
+    public void record(Workflow execution) {
+        if (execution == null || execution.getTasks() == null) {
+            return;
+        }
+        for (Task task : execution.getTasks()) {
+            String ref = ExecutionReader.baseRef(task.getReferenceTaskName());
+            String branch = null;
+            if (switches.containsKey(ref)) {
+                branch = ref + "=" + caseTaken(switches.get(ref), task);
+            } else if (TaskType.DO_WHILE.name().equals(task.getTaskType()) && task.getIteration() > 0) {
+                branch = ref + (task.getIteration() == 1 ? "*once" : "*repeated");
+            }
+            AtomicLong count = branch == null ? null : branches.get(branch);
+            if (count != null) {
+                count.incrementAndGet();
+            }
+        }
+    }
+
+    private static String caseTaken(WorkflowTask workflowTask, Task task) {
+        Map<String, Object> output = task.getOutputData();
+        if (output == null) {
+            return "default";
+        }
+        Object value = output.get("evaluationResult");
+        if (value instanceof List && !((List<?>) value).isEmpty()) {
+            value = ((List<?>) value).get(0);
+        } else if (value == null) {
+            value = output.get("caseOutput");
+            if (value instanceof List && !((List<?>) value).isEmpty()) {
+                value = ((List<?>) value).get(0);
+            }
+        }
+        String caseValue = String.valueOf(value);
+        return workflowTask.getDecisionCases() != null && workflowTask.getDecisionCases().containsKey(caseValue) ?
+                caseValue : "default";
+    }
+
+    /**
+     * @return the number of executions that took each branch, sorted by branch name
+     */
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        branches.forEach((branch, count) -> counts.put(branch, count.get()));
+        return counts;
+    }
+
+    public List<String> getUncovered() {
+        List<String> uncovered = new ArrayList<>();
+        getCounts().forEach((branch, count) -> {
+            if (count == 0) {
+                uncovered.add(branch);
+            }
+        });
+        return uncovered;
+    }
+
+    /**
+     * @return the fraction of the branches taken at least once, 1 when the workflow has no branch
+     */
+    public double getRatio() {
+        return branches.isEmpty() ? 1 : 1 - (double) getUncovered().size() / branches.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.0f%% of %d branches covered, uncovered: %s", getRatio() * 100, branches.size(),
+                getUncovered());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.fuzz;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+/**
+ * Generates {@link FuzzCase}s from an {@link InputModel}, deterministically from a seed.
+ * <p>
+ * Fields known to be read are generated with random values biased towards edge cases: missing fields, null, empty
+ * strings and collections, zero, negative and very large numbers, non-ASCII text, and the constants the workflow
+ * compares against.  Every mocked task gets a COMPLETED or FAILED outcome, possibly after failed attempts that count
+ * as retries, and the tasks inside loops get one mock per iteration.
+ */
+class CaseGenerator {
+
+    private static final List<Object> EDGE_VALUES = List.of(0L, 1L, -1L, 2_147_483_648L, -9_007_199_254_740_993L, 0.5,
+            -0.0, "", " ", "0", "null", "true", "\u00e9\u2713 \ud834\udd1e", "a'b\"c\\d", true, false);
+
+    private final InputModel model;
+
+    private final FuzzOptions options;
+
+    private final List<Object> constants;
+
+    CaseGenerator(InputModel model, FuzzOptions options) {
+        this.model = model;
+        this.options = options;
+        this.constants = model.getConstants();
+    }
+
+    FuzzCase generate(long seed) {
+        Random random = new Random(seed);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> input = (Map<String, Object>) value(model.getInput(), random, 0, true);
+
+        Map<String, List<WorkflowTestRequest.TaskMock>> mocks = new LinkedHashMap<>();
+        model.getOutputs().forEach((ref, shape) -> {
+            List<WorkflowTestRequest.TaskMock> taskMocks = new ArrayList<>();
+            int runs = model.getLoopedRefs().contains(ref) ? 1 + random.nextInt(Math.max(1, options.getMaxLoopMocks())) : 1;
+            for (int run = 0; run < runs; run++) {
+                while (random.nextDouble() < options.getRetryRate() && taskMocks.size() < runs + 3) {
+                    taskMocks.add(FuzzCase.mock(TaskResult.Status.FAILED, output(shape, random), random.nextInt(1000)));
+                }
+                TaskResult.Status status = random.nextDouble() < options.getFailureRate() ?
+                        TaskResult.Status.FAILED : TaskResult.Status.COMPLETED;
+                taskMocks.add(FuzzCase.mock(status, output(shape, random), random.nextInt(1000)));
+            }
+            mocks.put(ref, taskMocks);
+        });
+        return new FuzzCase(seed, input, mocks);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> output(InputModel.Shape shape, Random random) {
+        if (random.nextInt(20) == 0) {
+            return new LinkedHashMap<>();
+        }
+        return (Map<String, Object>) value(shape, random, 0, true);
+    }
+
+    /**
+     * @param object whether the value must be an object, as the workflow input and task outputs are
+     */
+    private Object value(InputModel.Shape shape, Random random, int depth, boolean object) {
+        if (shape.isLeaf() && !object) {
+            return leaf(random, depth);
+        }
+        Map<String, Object> value = new LinkedHashMap<>();
+        for (Map.Entry<String, InputModel.Shape> field : shape.getFields().entrySet()) {
+            // Missing fields are an edge case of their own
+            if (random.nextInt(10) > 0) {
+                value.put(field.getKey(), value(field.getValue(), random, depth + 1, false));
+            }
+        }
+        return value;
+    }
+
+    private Object leaf(Random random, int depth) {
+        int choice = random.nextInt(100);
+        if (choice < 5) {
+            return null;
+        } else if (choice < 30 && !constants.isEmpty()) {
+            return constants.get(random.nextInt(constants.size()));
+        } else if (choice < 45) {
+            return EDGE_VALUES.get(random.nextInt(EDGE_VALUES.size()));
+        } else if (choice < 60) {
+            return (long) random.nextInt(2001) - 1000;
+        } else if (choice < 70) {
+            return Math.round(random.nextDouble() * 1_000_000) / 100.0;
+        } else if (choice < 85) {
+            return string(random, random.nextInt(10) == 0 ? 500 : 1 + random.nextInt(20));
+        } else if (choice < 90) {
+            return random.nextBoolean();
+        } else if (choice < 95 && depth < 3) {
+            List<Object> list = new ArrayList<>();
+            int size = random.nextInt(4);
+            for (int i = 0; i < size; i++) {
+                list.add(leaf(random, depth + 1));
+            }
+            return list;
+        }
+        return new LinkedHashMap<>();
+    }
+
+    private static String string(Random random, int length) {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            value.append((char) ('a' + random.nextInt(26)));
+        }
+        return value.toString();
+    }
+}
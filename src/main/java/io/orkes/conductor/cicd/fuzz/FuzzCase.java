@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.fuzz;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One generated execution scenario: the workflow input and the mocked outcome of the tasks, retries included.
+ */
+public class FuzzCase {
+
+    private static final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+    private final long seed;
+
+    private final Map<String, Object> input;
+
+    private final Map<String, List<WorkflowTestRequest.TaskMock>> mocks;
+
+    public FuzzCase(long seed, Map<String, Object> input, Map<String, List<WorkflowTestRequest.TaskMock>> mocks) {
+        this.seed = seed;
+        this.input = input;
+        this.mocks = mocks;
+    }
+
+    /**
+     * @return the seed the case was generated from, which regenerates it with the same options
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public Map<String, Object> getInput() {
+        return input;
+    }
+
+    public Map<String, List<WorkflowTestRequest.TaskMock>> getMocks() {
+        return mocks;
+    }
+
+    /**
+     * @return a measure of the complexity of the case, which shrinking strictly decreases
+     */
+    public long weight() {
+        long weight = weight(input);
+        for (List<WorkflowTestRequest.TaskMock> taskMocks : mocks.values()) {
+            weight += taskMocks.size();
+            for (WorkflowTestRequest.TaskMock mock : taskMocks) {
+                weight += mock.getStatus() == TaskResult.Status.COMPLETED ? 0 : 1;
+                weight += weight(mock.getOutput());
+            }
+        }
+        return weight;
+    }
+
+    static long weight(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof Map) {
+            long weight = 1;
+            for (Object child : ((Map<?, ?>) value).values()) {
+                weight += 1 + weight(child);
+            }
+            return weight;
+        } else if (value instanceof List) {
+            long weight = 1;
+            for (Object child : (List<?>) value) {
+                weight += 1 + weight(child);
+            }
+            return weight;
+        } else if (value instanceof String) {
+            return 1 + ((String) value).length();
+        } else if (value instanceof Number) {
+            double number = Math.abs(((Number) value).doubleValue());
+            return number == 0 ? 1 : 2 + (long) Math.ceil(Math.log10(number + 1));
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 2 : 1;
+        }
+        return 1;
+    }
+
+    /**
+     * @return a deep copy of the maps and lists of a JSON-like value
+     */
+    @SuppressWarnings("unchecked")
+    static Object copy(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            ((Map<String, Object>) value).forEach((k, v) -> copy.put(k, copy(v)));
+            return copy;
+        } else if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            ((List<Object>) value).forEach(v -> copy.add(copy(v)));
+            return copy;
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    FuzzCase copy() {
+        Map<String, List<WorkflowTestRequest.TaskMock>> mocksCopy = new LinkedHashMap<>();
+        mocks.forEach((ref, taskMocks) -> {
+            List<WorkflowTestRequest.TaskMock> copies = new ArrayList<>();
+            for (WorkflowTestRequest.TaskMock mock : taskMocks) {
+                copies.add(mock(mock.getStatus(), (Map<String, Object>) copy(mock.getOutput()),
+                        mock.getExecutionTime()));
+            }
+            mocksCopy.put(ref, copies);
+        });
+        return new FuzzCase(seed, (Map<String, Object>) copy(input), mocksCopy);
+    }
+
+    static WorkflowTestRequest.TaskMock mock(TaskResult.Status status, Map<String, Object> output,
+                                             long executionTime) {
+        WorkflowTestRequest.TaskMock mock = new WorkflowTestRequest.TaskMock();
+        mock.setStatus(status);
+        mock.setOutput(output);
+        mock.setExecutionTime(executionTime);
+        return mock;
+    }
+
+    @Override
+    public String toString() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("seed", seed);
+        json.put("input", input);
+        json.put("taskRefToMockOutput", mocks);
+        try {
+            return objectMapper.writeValueAsString(json);
+        } catch (JsonProcessingException e) {
+            return "seed " + seed + ": " + input + " " + mocks;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.fuzz;
+
+/**
+ * A generated case that broke the property, with the smallest case found to break it the same way.
+ */
+public class FuzzFailure {
+
+    private final FuzzCase original;
+
+    private final FuzzCase shrunk;
+
+    private final Throwable error;
+
+    private final int shrinkRuns;
+
+    public FuzzFailure(FuzzCase original, FuzzCase shrunk, Throwable error, int shrinkRuns) {
+        this.original = original;
+        this.shrunk = shrunk;
+        this.error = error;
+        this.shrinkRuns = shrinkRuns;
+    }
+
+    public FuzzCase getOriginal() {
+        return original;
+    }
+
+    public FuzzCase getShrunk() {
+        return shrunk;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public int getShrinkRuns() {
+        return shrinkRuns;
+    }
+
+    @Override
+    public String toString() {
+        return "Seed " + original.getSeed() + " failed with " + error + "\n  shrunk from weight " + original.weight()
+                + " to " + shrunk.weight() + " in " + shrinkRuns + " run(s): " + shrunk;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.fuzz;
+
+/**
+ * Settings of a {@link WorkflowFuzzer} run.
+ */
+public class FuzzOptions {
+
+    private int cases = 1000;
+
+    private int parallelism = 4;
+
+    private long seed = 1;
+
+    private double failureRate = 0.1;
+
+    private double retryRate = 0.1;
+
+    private int maxLoopMocks = 5;
+
+    private int maxShrinkRuns = 500;
+
+    private int maxReportedFailures = 3;
+
+    public int getCases() {
+        return cases;
+    }
+
+    public void setCases(int cases) {
+        this.cases = cases;
+    }
+
+    /**
+     * @return number of cases executed concurrently
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the seed of the first case, case <code>i</code> uses <code>seed + i</code>
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return probability for a mocked task to end FAILED
+     */
+    public double getFailureRate() {
+        return failureRate;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * @return probability for a mocked task to fail (and be retried) before its final outcome
+     */
+    public double getRetryRate() {
+        return retryRate;
+    }
+
+    public void setRetryRate(double retryRate) {
+        this.retryRate = retryRate;
+    }
+
+    /**
+     * @return maximum number of mocks, one per iteration, generated for a task inside a DO_WHILE
+     */
+    public int getMaxLoopMocks() {
+        return maxLoopMocks;
+    }
+
+    public void setMaxLoopMocks(int maxLoopMocks) {
+        this.maxLoopMocks = maxLoopMocks;
+    }
+
+    /**
+     * @return maximum number of executions spent shrinking one failing case
+     */
+    public int getMaxShrinkRuns() {
+        return maxShrinkRuns;
+    }
+
+    public void setMaxShrinkRuns(int maxShrinkRuns) {
+        this.maxShrinkRuns = maxShrinkRuns;
+    }
+
+    /**
+     * @return number of failing cases shrunk and reported, the others are only counted
+     */
+    public int getMaxReportedFailures() {
+        return maxReportedFailures;
+    }
+
+    public void setMaxReportedFailures(int maxReportedFailures) {
+        this.maxReportedFailures = maxReportedFailures;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.fuzz;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a {@link WorkflowFuzzer} run.
+ */
+public class FuzzReport {
+
+    private final String workflowName;
+
+    private final int cases;
+
+    private final int failedCases;
+
+    private final List<FuzzFailure> failures;
+
+    private final BranchCoverage coverage;
+
+    private final long totalMillis;
+
+    public FuzzReport(String workflowName, int cases, int failedCases, List<FuzzFailure> failures,
+                      BranchCoverage coverage, long totalMillis) {
+        this.workflowName = workflowName;
+        this.cases = cases;
+        this.failedCases = failedCases;
+        this.failures = new ArrayList<>(failures);
+        this.coverage = coverage;
+        this.totalMillis = totalMillis;
+    }
+
+    public int getCases() {
+        return cases;
+    }
+
+    /**
+     * @return number of generated cases that broke the property, including those not shrunk
+     */
+    public int getFailedCases() {
+        return failedCases;
+    }
+
+    /**
+     * @return the first failing cases, shrunk
+     */
+    public List<FuzzFailure> getFailures() {
+        return failures;
+    }
+
+    public boolean hasFailures() {
+        return failedCases > 0;
+    }
+
+    public BranchCoverage getCoverage() {
+        return coverage;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public String summary() {
+        StringBuilder summary = new StringBuilder(String.format("%s: %d case(s), %d failed, in %dms; %s",
+                workflowName, cases, failedCases, totalMillis, coverage));
+        for (FuzzFailure failure : failures) {
+            summary.append('\n').append(failure);
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.fuzz;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * What the fuzzer can vary in an execution of a workflow, derived from its definition:
+ * <ul>
+ *     <li>the workflow input fields, from the <code>${workflow.input.*}</code> expressions and the declared input
+ *     parameters</li>
+ *     <li>the tasks whose outcome comes from a mock (worker, HTTP and event tasks, and the tasks a dynamic fork with
+ *     constant inputs creates), and the output fields read from them by <code>${ref.output.*}</code> expressions</li>
+ *     <li>the constants the control flow compares against: SWITCH case values and the numbers appearing in
+ *     expressions and loop conditions, which make good edge-case values</li>
+ * </ul>
+ */
+public class InputModel {
+
+    static final Set<String> MOCKED_TYPES = Set.of(TaskType.SIMPLE.name(), TaskType.HTTP.name(), TaskType.WAIT.name(),
+            TaskType.HUMAN.name(), TaskType.EVENT.name());
+
+    private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([^}]+)}");
+
+    private static final Pattern NUMBER = Pattern.compile("(?<![\\w.$'\"])-?\\d+(\\.\\d+)?(?![\\w'\"])");
+
+    /**
+     * The fields known to be read from a value, a leaf when there are none.
+     */
+    static final class Shape {
+
+        private final Map<String, Shape> fields = new TreeMap<>();
+
+        Shape field(String name) {
+            return fields.computeIfAbsent(name, n -> new Shape());
+        }
+
+        Map<String, Shape> getFields() {
+            return fields;
+        }
+
+        boolean isLeaf() {
+            return fields.isEmpty();
+        }
+    }
+
+    private final Shape input = new Shape();
+
+    private final Map<String, Shape> outputs = new TreeMap<>();
+
+    private final Set<String> loopedRefs = new LinkedHashSet<>();
+
+    private final Set<Object> constants = new LinkedHashSet<>();
+
+    private InputModel() {
+    }
+
+    public static InputModel of(WorkflowDef def, ObjectMapper objectMapper) {
+        InputModel model = new InputModel();
+        if (def.getInputParameters() != null) {
+            def.getInputParameters().forEach(model.input::field);
+        }
+
+        Deque<WorkflowDef> defs = new ArrayDeque<>(List.of(def));
+        while (!defs.isEmpty()) {
+            WorkflowDef current = defs.pop();
+            model.collectTasks(current.getTasks(), false);
+            for (WorkflowTask task : current.collectTasks()) {
+                Object inline = task.getSubWorkflowParam() == null ? null :
+                        task.getSubWorkflowParam().getWorkflowDefinition();
+                if (inline instanceof WorkflowDef) {
+                    defs.push((WorkflowDef) inline);
+                }
+            }
+        }
+        model.collectExpressions(objectMapper.valueToTree(def));
+        return model;
+    }
+
+    private void collectTasks(List<WorkflowTask> tasks, boolean looped) {
+        if (tasks == null) {
+            return;
+        }
+        for (WorkflowTask task : tasks) {
+            String type = task.getType();
+            String ref = task.getTaskReferenceName();
+            if (MOCKED_TYPES.contains(type)) {
+                outputs.computeIfAbsent(ref, r -> new Shape());
+                if (looped) {
+                    loopedRefs.add(ref);
+                }
+            } else if (TaskType.FORK_JOIN_DYNAMIC.name().equals(type)) {
+                collectDynamicForkTasks(task);
+            } else if (TaskType.SWITCH.name().equals(type) || TaskType.DECISION.name().equals(type)) {
+                if (task.getDecisionCases() != null) {
+                    task.getDecisionCases().keySet().forEach(this::addConstant);
+                }
+                addNumbers(task.getExpression());
+                addNumbers(task.getCaseExpression());
+            } else if (TaskType.DO_WHILE.name().equals(type)) {
+                addNumbers(task.getLoopCondition());
+            }
+            if (task.getDecisionCases() != null) {
+                task.getDecisionCases().values().forEach(branch -> collectTasks(branch, looped));
+            }
+            collectTasks(task.getDefaultCase(), looped);
+            if (task.getForkTasks() != null) {
+                task.getForkTasks().forEach(branch -> collectTasks(branch, looped));
+            }
+            collectTasks(task.getLoopOver(), looped || TaskType.DO_WHILE.name().equals(type));
+        }
+    }
+
+    /**
+     * A dynamic fork with a constant task name and a constant list of inputs creates one task per input, named
+     * <code>_name_i</code>; those need mocks like any other worker task.
+     */
+    private void collectDynamicForkTasks(WorkflowTask task) {
+        Map<String, Object> input = task.getInputParameters();
+        if (input == null) {
+            return;
+        }
+        Object name = input.get("forkTaskName");
+        Object forkInputs = input.get("forkTaskInputs");
+        if (name instanceof String && !((String) name).contains("${") && forkInputs instanceof List) {
+            for (int i = 0; i < ((List<?>) forkInputs).size(); i++) {
+                outputs.computeIfAbsent("_" + name + "_" + i, r -> new Shape());
+            }
+        }
+    }
+
+    private void collectExpressions(JsonNode node) {
+        if (node.isTextual()) {
+            Matcher matcher = EXPRESSION.matcher(node.asText());
+            while (matcher.find()) {
+                addReference(matcher.group(1).trim());
+            }
+        } else if (node.isContainerNode()) {
+            Iterator<JsonNode> children = node.elements();
+            while (children.hasNext()) {
+                collectExpressions(children.next());
+            }
+        }
+    }
+
+    private void addReference(String expression) {
+        List<String> path = new ArrayList<>();
+        for (String segment : expression.split("\\.")) {
+            int bracket = segment.indexOf('[');
+            path.add(bracket < 0 ? segment : segment.substring(0, bracket));
+        }
+        Shape shape;
+        if (path.size() >= 2 && path.get(0).equals("workflow") && path.get(1).equals("input")) {
+            shape = input;
+        } else if (path.size() >= 2 && path.get(1).equals("output") && outputs.containsKey(path.get(0))) {
+            shape = outputs.get(path.get(0));
+        } else {
+            return;
+        }
+        for (String field : path.subList(2, path.size())) {
+            if (!field.isEmpty()) {
+                shape = shape.field(field);
+            }
+        }
+    }
+
+    private void addConstant(String value) {
+        constants.add(value);
+        if (NUMBER.matcher(value).matches()) {
+            constants.add(new BigDecimal(value).longValue());
+        } else if ("true".equals(value) || "false".equals(value)) {
+            constants.add(Boolean.valueOf(value));
+        }
+    }
+
+    private void addNumbers(String expression) {
+        if (expression == null) {
+            return;
+        }
+        Matcher matcher = NUMBER.matcher(expression);
+        while (matcher.find()) {
+            BigDecimal number = new BigDecimal(matcher.group());
+            // The values on both sides of a comparison are the interesting ones
+            constants.add(number.longValue());
+            constants.add(number.longValue() - 1);
+            constants.add(number.longValue() + 1);
+        }
+    }
+
+    Shape getInput() {
+        return input;
+    }
+
+    /**
+     * @return the output shape of every task whose outcome is mocked, by reference name
+     */
+    Map<String, Shape> getOutputs() {
+        return outputs;
+    }
+
+    /**
+     * @return the mocked tasks that run inside a DO_WHILE, and need one mock per iteration
+     */
+    Set<String> getLoopedRefs() {
+        return loopedRefs;
+    }
+
+    List<Object> getConstants() {
+        return new ArrayList<>(constants);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.fuzz;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+/**
+ * Reduces a failing case to a smaller one that still fails, greedily: the first simplification that keeps the case
+ * failing is kept and the search starts again from it, until no simplification fails or the run budget is spent.
+ * <p>
+ * Simplifications remove input and output fields, list elements, failed attempts and extra loop mocks, turn FAILED
+ * outcomes into COMPLETED ones, and shorten strings and numbers.  Every candidate has a strictly lower
+ * {@link FuzzCase#weight()}, so shrinking always terminates.
+ */
+class Shrinker {
+
+    private final int maxRuns;
+
+    private int runs;
+
+    Shrinker(int maxRuns) {
+        this.maxRuns = maxRuns;
+    }
+
+    /**
+     * @param fails runs the case, true if it still fails the same way
+     */
+    FuzzCase shrink(FuzzCase failing, Predicate<FuzzCase> fails) {
+        FuzzCase smallest = failing;
+        boolean progress = true;
+        while (progress && runs < maxRuns) {
+            progress = false;
+            for (FuzzCase candidate : candidates(smallest)) {
+                if (runs >= maxRuns) {
+                    break;
+                }
+                if (candidate.weight() >= smallest.weight()) {
+                    continue;
+                }
+                runs++;
+                if (fails.test(candidate)) {
+                    smallest = candidate;
+                    progress = true;
+                    break;
+                }
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * @return the number of executions spent shrinking
+     */
+    int getRuns() {
+        return runs;
+    }
+
+    static List<FuzzCase> candidates(FuzzCase fuzzCase) {
+        List<FuzzCase> candidates = new ArrayList<>();
+        for (Object input : simplifications(fuzzCase.getInput())) {
+            FuzzCase candidate = fuzzCase.copy();
+            candidate.getInput().clear();
+            candidate.getInput().putAll(cast(input));
+            candidates.add(candidate);
+        }
+
+        for (String ref : fuzzCase.getMocks().keySet()) {
+            List<WorkflowTestRequest.TaskMock> mocks = fuzzCase.getMocks().get(ref);
+            for (int i = 0; i < mocks.size(); i++) {
+                WorkflowTestRequest.TaskMock mock = mocks.get(i);
+                if (mocks.size() > 1) {
+                    FuzzCase candidate = fuzzCase.copy();
+                    candidate.getMocks().get(ref).remove(i);
+                    candidates.add(candidate);
+                }
+                if (mock.getStatus() != TaskResult.Status.COMPLETED) {
+                    FuzzCase candidate = fuzzCase.copy();
+                    candidate.getMocks().get(ref).get(i).setStatus(TaskResult.Status.COMPLETED);
+                    candidates.add(candidate);
+                }
+                for (Object output : simplifications(mock.getOutput())) {
+                    FuzzCase candidate = fuzzCase.copy();
+                    candidate.getMocks().get(ref).get(i).setOutput(cast(output));
+                    candidates.add(candidate);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * @return simpler variants of a JSON-like value, the most drastic first
+     */
+    @SuppressWarnings("unchecked")
+    static List<Object> simplifications(Object value) {
+        List<Object> simpler = new ArrayList<>();
+        if (value instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) value;
+            for (String key : map.keySet()) {
+                Map<String, Object> removed = (Map<String, Object>) FuzzCase.copy(map);
+                removed.remove(key);
+                simpler.add(removed);
+            }
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                for (Object child : simplifications(entry.getValue())) {
+                    Map<String, Object> replaced = (Map<String, Object>) FuzzCase.copy(map);
+                    replaced.put(entry.getKey(), child);
+                    simpler.add(replaced);
+                }
+            }
+        } else if (value instanceof List) {
+            List<Object> list = (List<Object>) value;
+            for (int i = 0; i < list.size(); i++) {
+                List<Object> removed = (List<Object>) FuzzCase.copy(list);
+                removed.remove(i);
+                simpler.add(removed);
+            }
+            for (int i = 0; i < list.size(); i++) {
+                for (Object child : simplifications(list.get(i))) {
+                    List<Object> replaced = (List<Object>) FuzzCase.copy(list);
+                    replaced.set(i, child);
+                    simpler.add(replaced);
+                }
+            }
+        } else if (value instanceof String) {
+            String string = (String) value;
+            if (!string.isEmpty()) {
+                simpler.add("");
+            }
+            if (string.length() > 1) {
+                simpler.add(string.substring(0, string.length() / 2));
+            }
+        } else if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            boolean integral = value instanceof Long || value instanceof Integer;
+            if (number != 0) {
+                simpler.add(integral ? (Object) 0L : (Object) 0.0);
+            }
+            if (Math.abs(number) > 1) {
+                simpler.add(integral ? (Object) (((Number) value).longValue() / 2) : (Object) Math.floor(number / 2));
+            }
+        } else if (Boolean.TRUE.equals(value)) {
+            simpler.add(false);
+        }
+        return simpler;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> cast(Object value) {
+        return value == null ? new LinkedHashMap<>() : (Map<String, Object>) value;
+    }
+}
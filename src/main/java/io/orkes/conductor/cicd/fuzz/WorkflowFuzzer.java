@@ -0,0 +1,159 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.fuzz;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.cicd.definitions.DefinitionRegistry;
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Property-based testing of a workflow definition: runs thousands of generated executions (random workflow inputs
+ * and random task outcomes, see {@link CaseGenerator}) through <code>testWorkflow</code> in parallel, checks a
+ * property on each, shrinks the failing cases to minimal ones and measures the branch coverage reached.
+ * <p>
+ * Cases are generated from consecutive seeds, so a failure is reproduced by running the reported seed alone.
+ * The runner is typically <code>WorkflowClient::testWorkflow</code> or the {@link
+ * io.orkes.conductor.cicd.simulator.WorkflowSimulator}; it is called from {@link FuzzOptions#getParallelism()}
+ * threads.
+ */
+public class WorkflowFuzzer {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowFuzzer.class);
+
+    /**
+     * What must hold for every execution, it fails by throwing (e.g. a failed JUnit assertion).
+     */
+    @FunctionalInterface
+    public interface Property {
+        void check(FuzzCase fuzzCase, Workflow execution) throws Exception;
+    }
+
+    /**
+     * The execution completed or failed, rather than being left running or making the runner fail.
+     */
+    public static final Property TERMINATES = (fuzzCase, execution) -> {
+        if (execution == null || !execution.getStatus().isTerminal()) {
+            throw new AssertionError("Execution did not terminate: "
+                    + (execution == null ? null : execution.getStatus()));
+        }
+    };
+
+    private final DefinitionRegistry definitions;
+
+    private final ObjectMapper objectMapper;
+
+    private final Function<WorkflowTestRequest, Workflow> runner;
+
+    private final FuzzOptions options;
+
+    public WorkflowFuzzer(DefinitionRegistry definitions, ObjectMapper objectMapper,
+                          Function<WorkflowTestRequest, Workflow> runner, FuzzOptions options) {
+        this.definitions = definitions;
+        this.objectMapper = objectMapper;
+        this.runner = runner;
+        this.options = options;
+    }
+
+    public FuzzReport fuzz(WorkflowDef def, Property property) throws IOException {
+        long start = System.currentTimeMillis();
+        CaseGenerator generator = new CaseGenerator(InputModel.of(def, objectMapper), options);
+        BranchCoverage coverage = new BranchCoverage(def);
+
+        List<Future<Throwable>> outcomes = new ArrayList<>();
+        List<FuzzCase> cases = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(options.getParallelism());
+        try {
+            for (int i = 0; i < options.getCases(); i++) {
+                FuzzCase fuzzCase = generator.generate(options.getSeed() + i);
+                cases.add(fuzzCase);
+                outcomes.add(executor.submit(() -> run(def, fuzzCase, property, coverage)));
+            }
+
+            List<FuzzFailure> failures = new ArrayList<>();
+            int failedCases = 0;
+            for (int i = 0; i < outcomes.size(); i++) {
+                Throwable error = await(outcomes.get(i));
+                if (error == null) {
+                    continue;
+                }
+                failedCases++;
+                if (failures.size() < options.getMaxReportedFailures()) {
+                    failures.add(shrink(def, cases.get(i), error, property));
+                }
+            }
+            FuzzReport report = new FuzzReport(def.getName(), cases.size(), failedCases, failures, coverage,
+                    System.currentTimeMillis() - start);
+            log.info("{}", report.summary());
+            return report;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FuzzFailure shrink(WorkflowDef def, FuzzCase failing, Throwable error, Property property) {
+        Shrinker shrinker = new Shrinker(options.getMaxShrinkRuns());
+        FuzzCase shrunk = shrinker.shrink(failing, candidate -> {
+            Throwable candidateError = run(def, candidate, property, null);
+            return candidateError != null && candidateError.getClass().equals(error.getClass());
+        });
+        Throwable shrunkError = shrunk == failing ? error : run(def, shrunk, property, null);
+        return new FuzzFailure(failing, shrunk, shrunkError == null ? error : shrunkError, shrinker.getRuns());
+    }
+
+    /**
+     * @return why the case broke the property, null if it holds
+     */
+    private Throwable run(WorkflowDef def, FuzzCase fuzzCase, Property property, BranchCoverage coverage) {
+        try {
+            WorkflowTestRequest testRequest = definitions.newTestRequest(def);
+            FuzzCase copy = fuzzCase.copy();
+            testRequest.setInput(copy.getInput());
+            testRequest.getTaskRefToMockOutput().putAll(copy.getMocks());
+            Workflow execution = runner.apply(testRequest);
+            if (coverage != null) {
+                coverage.record(execution);
+            }
+            property.check(fuzzCase, execution);
+            return null;
+        } catch (Exception | AssertionError e) {
+            return e;
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fuzzing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected failure while fuzzing", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.instrumentation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+
+import io.orkes.conductor.client.ApiClient;
+
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Records metrics for every HTTP call made through an {@link ApiClient}: the registration of definitions,
+ * <code>testWorkflow</code>, token exchanges, polls and updates alike.
+ * <p>
+ * {@link #instrument(ApiClient)} adds interceptors to the client's OkHttp stack, so the typed clients built from it
+ * ({@link io.orkes.conductor.client.OrkesClients}) need no change.  The following meters are published to the
+ * {@link MeterRegistry}, tagged with the HTTP method and the route (the path with ids replaced by <code>{id}</code>):
+ * <ul>
+ *     <li><code>conductor.client.requests</code>: latency timer, also tagged with the status code and the outcome
+ *     (<code>SUCCESS</code>, <code>CLIENT_ERROR</code>, <code>SERVER_ERROR</code> or <code>IO_ERROR</code>)</li>
+ *     <li><code>conductor.client.request.size</code> and <code>conductor.client.response.size</code>: payload bytes</li>
+ *     <li><code>conductor.client.retries</code>: network attempts beyond the first one (connection retries,
+ *     redirects, authentication challenges)</li>
+ * </ul>
+ * When the <code>conductor.metrics.trace-file</code> system property is set, every call is also appended to that
+ * file as an OpenTelemetry-shaped span, one JSON object per line.
+ */
+public class ClientInstrumentation implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientInstrumentation.class);
+
+    public static final String TRACE_FILE_PROPERTY = "conductor.metrics.trace-file";
+
+    public static final String REQUESTS = "conductor.client.requests";
+
+    public static final String REQUEST_SIZE = "conductor.client.request.size";
+
+    public static final String RESPONSE_SIZE = "conductor.client.response.size";
+
+    public static final String RETRIES = "conductor.client.retries";
+
+    private final MeterRegistry registry;
+
+    private final TraceFileWriter traceFile;
+
+    private final ThreadLocal<int[]> attempts = ThreadLocal.withInitial(() -> new int[1]);
+
+    public ClientInstrumentation(MeterRegistry registry, Path traceFile) throws IOException {
+        this.registry = registry;
+        this.traceFile = traceFile == null ? null :
+                new TraceFileWriter(new ObjectMapperProvider().getObjectMapper(), traceFile);
+    }
+
+    /**
+     * @return an instrumentation recording to an in-memory registry, tracing to the file named by the
+     * {@value #TRACE_FILE_PROPERTY} system property if set
+     */
+    public static ClientInstrumentation fromSystemProperties() throws IOException {
+        String traceFile = System.getProperty(TRACE_FILE_PROPERTY);
+        return new ClientInstrumentation(new SimpleMeterRegistry(),
+                traceFile == null || traceFile.isBlank() ? null : Paths.get(traceFile));
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Adds the recording interceptors to the HTTP client of <code>apiClient</code>.
+     *
+     * @return the same client, for chaining
+     */
+    public ApiClient instrument(ApiClient apiClient) {
+        apiClient.getHttpClient().interceptors().add(this::intercept);
+        apiClient.getHttpClient().networkInterceptors().add(this::countAttempt);
+        return apiClient;
+    }
+
+    private Response intercept(Interceptor.Chain chain) throws IOException {
+        Request request = chain.request();
+        int[] attemptCount = attempts.get();
+        attemptCount[0] = 0;
+        long startEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        long start = System.nanoTime();
+        long requestBytes = request.body() == null ? 0 : request.body().contentLength();
+        String route = Routes.route(request.httpUrl().encodedPath());
+        try {
+            Response response = chain.proceed(request);
+            long responseBytes = response.body() == null ? -1 : response.body().contentLength();
+            record(request.method(), route, request.urlString(), response.code(), null, startEpochNanos,
+                    System.nanoTime() - start, requestBytes, responseBytes, attemptCount[0]);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            record(request.method(), route, request.urlString(), 0, e.toString(), startEpochNanos,
+                    System.nanoTime() - start, requestBytes, -1, attemptCount[0]);
+            throw e;
+        }
+    }
+
+    private Response countAttempt(Interceptor.Chain chain) throws IOException {
+        attempts.get()[0]++;
+        return chain.proceed(chain.request());
+    }
+
+    /**
+     * @param statusCode    0 if no response was received
+     * @param requestBytes  -1 if unknown
+     * @param responseBytes -1 if unknown, e.g. for chunked responses
+     */
+    void record(String method, String route, String url, int statusCode, String error, long startEpochNanos,
+                long durationNanos, long requestBytes, long responseBytes, int attempts) {
+        Timer.builder(REQUESTS)
+                .description("Latency of the Conductor API calls")
+                .tags("method", method, "route", route, "status", statusCode == 0 ? "NONE" : String.valueOf(statusCode),
+                        "outcome", outcome(statusCode))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        if (requestBytes >= 0) {
+            DistributionSummary.builder(REQUEST_SIZE).baseUnit("bytes").tags("method", method, "route", route)
+                    .register(registry).record(requestBytes);
+        }
+        if (responseBytes >= 0) {
+            DistributionSummary.builder(RESPONSE_SIZE).baseUnit("bytes").tags("method", method, "route", route)
+                    .register(registry).record(responseBytes);
+        }
+        if (attempts > 1) {
+            registry.counter(RETRIES, "method", method, "route", route).increment(attempts - 1);
+        }
+        if (traceFile != null) {
+            traceFile.write(method, route, url, statusCode, error, startEpochNanos, durationNanos, requestBytes,
+                    responseBytes, attempts);
+        }
+    }
+
+    static String outcome(int statusCode) {
+        if (statusCode == 0) {
+            return "IO_ERROR";
+        } else if (statusCode >= 500) {
+            return "SERVER_ERROR";
+        } else if (statusCode >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return "SUCCESS";
+    }
+
+    /**
+     * Prints one line per endpoint and status, the endpoints where the most time was spent first.
+     */
+    public void report(PrintStream out) {
+        List<Timer> timers = new ArrayList<>(registry.find(REQUESTS).timers());
+        if (timers.isEmpty()) {
+            return;
+        }
+        timers.sort(Comparator.comparingDouble((Timer t) -> t.totalTime(TimeUnit.MILLISECONDS)).reversed());
+        out.println(String.format("%-7s %-50s %6s %7s %9s %9s %9s %11s %9s", "METHOD", "ROUTE", "STATUS", "CALLS",
+                "MEAN ms", "P99 ms", "MAX ms", "TOTAL ms", "RETRIES"));
+        for (Timer timer : timers) {
+            String method = timer.getId().getTag("method");
+            String route = timer.getId().getTag("route");
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            out.println(String.format("%-7s %-50s %6s %7d %9.1f %9.1f %9.1f %11.1f %9.0f", method, route,
+                    timer.getId().getTag("status"), snapshot.count(), snapshot.mean(TimeUnit.MILLISECONDS),
+                    percentile(snapshot, 0.99), snapshot.max(TimeUnit.MILLISECONDS),
+                    snapshot.total(TimeUnit.MILLISECONDS), retries(method, route)));
+        }
+    }
+
+    private double retries(String method, String route) {
+        return registry.find(RETRIES).tags("method", method, "route", route).counters().stream()
+                .mapToDouble(c -> c.count())
+                .sum();
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    @Override
+    public void close() {
+        if (traceFile != null) {
+            try {
+                traceFile.close();
+            } catch (IOException e) {
+                log.warn("Unable to close the trace file", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.instrumentation;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes one JSON line per API call, shaped like an OpenTelemetry span (trace and span ids, start and end time in
+ * unix nanos, and <code>http.*</code> attributes from the semantic conventions), so that the file can be loaded into
+ * tracing tools or simply grepped for the slow calls.
+ */
+class TraceFileWriter implements Closeable {
+
+    private final ObjectMapper objectMapper;
+
+    private final BufferedWriter writer;
+
+    private final String traceId = hex(16);
+
+    TraceFileWriter(ObjectMapper objectMapper, Path file) throws IOException {
+        this.objectMapper = objectMapper;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    void write(String method, String route, String url, int statusCode, String error, long startEpochNanos,
+               long durationNanos, long requestBytes, long responseBytes, int attempts) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("http.method", method);
+        attributes.put("http.route", route);
+        attributes.put("http.url", url);
+        if (statusCode > 0) {
+            attributes.put("http.status_code", statusCode);
+        }
+        if (requestBytes >= 0) {
+            attributes.put("http.request_content_length", requestBytes);
+        }
+        if (responseBytes >= 0) {
+            attributes.put("http.response_content_length", responseBytes);
+        }
+        if (attempts > 1) {
+            attributes.put("http.resend_count", attempts - 1);
+        }
+
+        Map<String, Object> span = new LinkedHashMap<>();
+        span.put("traceId", traceId);
+        span.put("spanId", hex(8));
+        span.put("name", method + " " + route);
+        span.put("kind", "SPAN_KIND_CLIENT");
+        span.put("startTimeUnixNano", startEpochNanos);
+        span.put("endTimeUnixNano", startEpochNanos + durationNanos);
+        span.put("attributes", attributes);
+        span.put("status", error == null && statusCode < 400 ? Map.of("code", "STATUS_CODE_OK") :
+                Map.of("code", "STATUS_CODE_ERROR", "message", error == null ? "HTTP " + statusCode : error));
+        try {
+            String line = objectMapper.writeValueAsString(span);
+            synchronized (writer) {
+                writer.write(line);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            // tracing must never fail the call
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+
+    private static String hex(int bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < bytes; i++) {
+            hex.append(String.format("%02x", ThreadLocalRandom.current().nextInt(256)));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.conductor.common.metadata.workflow.StartWorkflowRequest;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.client.WorkflowClient;
+
+/**
+ * Starts workflows at a fixed rate and waits for them to complete.
+ * <p>
+ * Arrivals are open-loop: a pacing thread starts workflow number <code>n</code> at <code>n / rate</code> seconds
+ * regardless of how many earlier workflows are still running, the start and status calls themselves run on a
+ * separate pool.  Each started workflow is polled every <code>pollInterval</code> until it reaches a terminal state.
+ */
+public class LoadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private final WorkflowClient workflowClient;
+
+    private final LoadTestOptions options;
+
+    private final LongFunction<Map<String, Object>> inputs;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * @param inputs returns the input of the n-th workflow started
+     */
+    public LoadGenerator(WorkflowClient workflowClient, LoadTestOptions options, LongFunction<Map<String, Object>> inputs) {
+        this.workflowClient = workflowClient;
+        this.options = options;
+        this.inputs = inputs;
+    }
+
+    public LoadTestReport run() throws InterruptedException {
+        LoadTestReport report = new LoadTestReport();
+        ExecutorService calls = Executors.newFixedThreadPool(options.getThreads());
+        ScheduledExecutorService polls = Executors.newSingleThreadScheduledExecutor();
+
+        long total = (long) (options.getRate() * options.getDurationSeconds());
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        log.info("Starting {} workflow(s) of {} at {}/s", total, options.getWorkflowName(), options.getRate());
+
+        long start = System.nanoTime();
+        try {
+            for (long n = 0; n < total; n++) {
+                long intendedStart = start + (long) (n * intervalNanos);
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                long sequence = n;
+                calls.execute(() -> start(sequence, intendedStart, report, calls, polls));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getTimeoutSeconds());
+            while ((inFlight.get() > 0 || report.getStarted() + report.getStartErrors() + report.getRejected() < total)
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(options.getPollIntervalMillis());
+            }
+        } finally {
+            polls.shutdownNow();
+            calls.shutdownNow();
+        }
+        report.timedOut.addAndGet(inFlight.get());
+        report.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return report;
+    }
+
+    private void start(long sequence, long intendedStart, LoadTestReport report, ExecutorService calls,
+                       ScheduledExecutorService polls) {
+        if (inFlight.get() >= options.getMaxInFlight()) {
+            report.rejected.incrementAndGet();
+            return;
+        }
+        StartWorkflowRequest request = new StartWorkflowRequest();
+        request.setName(options.getWorkflowName());
+        request.setVersion(options.getVersion());
+        request.setInput(inputs.apply(sequence));
+        request.setCorrelationId("loadtest-" + sequence);
+        try {
+            String workflowId = workflowClient.startWorkflow(request);
+            inFlight.incrementAndGet();
+            report.started.incrementAndGet();
+            long deadline = intendedStart + TimeUnit.SECONDS.toNanos(options.getTimeoutSeconds());
+            schedulePoll(workflowId, intendedStart, deadline, report, calls, polls);
+        } catch (RuntimeException e) {
+            report.startErrors.incrementAndGet();
+            log.debug("Unable to start workflow {}", sequence, e);
+        }
+    }
+
+    private void schedulePoll(String workflowId, long intendedStart, long deadline, LoadTestReport report,
+                              ExecutorService calls, ScheduledExecutorService polls) {
+        polls.schedule(() -> calls.execute(() -> poll(workflowId, intendedStart, deadline, report, calls, polls)),
+                options.getPollIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void poll(String workflowId, long intendedStart, long deadline, LoadTestReport report,
+                      ExecutorService calls, ScheduledExecutorService polls) {
+        try {
+            Workflow workflow = workflowClient.getWorkflow(workflowId, false);
+            if (workflow.getStatus().isTerminal()) {
+                report.recordLatency(System.nanoTime() - intendedStart);
+                if (workflow.getStatus() == Workflow.WorkflowStatus.COMPLETED) {
+                    report.completed.incrementAndGet();
+                } else {
+                    report.failed.incrementAndGet();
+                }
+                inFlight.decrementAndGet();
+                return;
+            }
+        } catch (RuntimeException e) {
+            log.debug("Unable to get the status of workflow {}", workflowId, e);
+        }
+        if (System.nanoTime() > deadline) {
+            report.timedOut.incrementAndGet();
+            inFlight.decrementAndGet();
+            return;
+        }
+        schedulePoll(workflowId, intendedStart, deadline, report, calls, polls);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.loadtest;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+
+import io.orkes.conductor.cicd.deploy.DeployReport;
+import io.orkes.conductor.cicd.deploy.MetadataDeployer;
+import io.orkes.conductor.client.ApiClient;
+import io.orkes.conductor.client.MetadataClient;
+import io.orkes.conductor.client.OrkesClients;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drives a deployed workflow at a target rate and reports throughput and end-to-end latency percentiles.
+ * See {@link LoadTestOptions} for the supported arguments.
+ * <p>
+ * Runs against <code>CONDUCTOR_SERVER_URL</code>, or with <code>--local</code> against a server started in docker,
+ * with the definitions deployed and the worker tasks, including those of the sub-workflows, completed by
+ * {@link StubWorkers}.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+        LongFunction<Map<String, Object>> inputs = options.getInputFile() == null ? WorkflowInputs.loanInputs() :
+                WorkflowInputs.fromFile(objectMapper, options.getInputFile());
+
+        LoadTestReport report;
+        if (options.isLocal()) {
+            try (LocalConductorServer server = new LocalConductorServer()) {
+                String serverURL = server.start();
+                System.out.println("Started local server at " + serverURL);
+                OrkesClients clients = new OrkesClients(new ApiClient(serverURL));
+
+                DeployReport deployReport = new MetadataDeployer(clients.getMetadataClient(), 8)
+                        .deploy(options.getResourcesDir());
+                System.out.println(deployReport.summary());
+
+                WorkflowDef def = clients.getMetadataClient().getWorkflowDef(options.getWorkflowName(),
+                        options.getVersion());
+                MetadataClient metadataClient = clients.getMetadataClient();
+                Set<String> taskNames = StubWorkers.workerTaskNames(def,
+                        params -> subWorkflowDef(metadataClient, params));
+                try (StubWorkers ignored = new StubWorkers(clients.getTaskClient(), taskNames)) {
+                    report = new LoadGenerator(clients.getWorkflowClient(), options, inputs).run();
+                }
+            }
+        } else {
+            String serverURL = System.getenv("CONDUCTOR_SERVER_URL");
+            String authKey = System.getenv("CONDUCTOR_AUTH_KEY");
+            String authSecret = System.getenv("CONDUCTOR_AUTH_SECRET");
+            if (serverURL == null || serverURL.isBlank()) {
+                System.err.println("CONDUCTOR_SERVER_URL is not set, use --local to run against a local server");
+                System.exit(2);
+            }
+            OrkesClients clients = new OrkesClients(new ApiClient(serverURL, authKey, authSecret));
+            report = new LoadGenerator(clients.getWorkflowClient(), options, inputs).run();
+        }
+
+        report.print(System.out);
+        report.writeHistogram(options.getHistogramFile());
+        System.out.println("Latency distribution written to " + options.getHistogramFile());
+        System.exit(0);
+    }
+
+    private static WorkflowDef subWorkflowDef(MetadataClient metadataClient, SubWorkflowParams params) {
+        try {
+            return metadataClient.getWorkflowDef(params.getName(), params.getVersion());
+        } catch (RuntimeException e) {
+            System.err.println("Sub-workflow " + params.getName() + " not found, its tasks get no stub worker: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static io.orkes.conductor.cicd.CommandLineArgs.value;
+
+/**
+ * Command line options of the load test.
+ * <pre>
+ *   --workflow &lt;name&gt;        workflow to start (default: loan_calculate_workflow)
+ *   --version &lt;n&gt;            version to start (default: latest)
+ *   --rate &lt;n&gt;               workflow starts per second, open-loop (default: 10)
+ *   --duration &lt;s&gt;           how long to keep starting workflows (default: 60)
+ *   --max-in-flight &lt;n&gt;      starts beyond this many running workflows are rejected (default: 10000)
+ *   --poll-interval &lt;ms&gt;     how often a running workflow is checked for completion (default: 200)
+ *   --timeout &lt;s&gt;            a workflow not completed after this long is counted as timed out (default: 300)
+ *   --threads &lt;n&gt;            threads used for the start and status calls (default: 32)
+ *   --input &lt;file&gt;           JSON array of workflow inputs used round-robin (default: generated loan inputs)
+ *   --histogram &lt;file&gt;       where to write the latency distribution (default: build/loadtest/latency.hgrm)
+ *   --local                   run against a server started with testcontainers, with stub workers
+ *   --resources &lt;dir&gt;        definitions deployed to the local server (default: src/main/resources)
+ * </pre>
+ */
+public class LoadTestOptions {
+
+    private String workflowName = "loan_calculate_workflow";
+
+    private Integer version;
+
+    private double rate = 10;
+
+    private int durationSeconds = 60;
+
+    private int maxInFlight = 10_000;
+
+    private long pollIntervalMillis = 200;
+
+    private int timeoutSeconds = 300;
+
+    private int threads = 32;
+
+    private Path inputFile;
+
+    private Path histogramFile = Paths.get("build/loadtest/latency.hgrm");
+
+    private boolean local;
+
+    private Path resourcesDir = Paths.get("src/main/resources");
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--workflow":
+                    options.setWorkflowName(value(args, ++i, arg));
+                    break;
+                case "--version":
+                    options.setVersion(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--rate":
+                    options.setRate(Double.parseDouble(value(args, ++i, arg)));
+                    break;
+                case "--duration":
+                    options.setDurationSeconds(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--max-in-flight":
+                    options.setMaxInFlight(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--poll-interval":
+                    options.setPollIntervalMillis(Long.parseLong(value(args, ++i, arg)));
+                    break;
+                case "--timeout":
+                    options.setTimeoutSeconds(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--threads":
+                    options.setThreads(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--input":
+                    options.setInputFile(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--histogram":
+                    options.setHistogramFile(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--local":
+                    options.setLocal(true);
+                    break;
+                case "--resources":
+                    options.setResourcesDir(Paths.get(value(args, ++i, arg)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (options.getRate() <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        return options;
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    public void setWorkflowName(String workflowName) {
+        this.workflowName = workflowName;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+
+    public void setPollIntervalMillis(long pollIntervalMillis) {
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public void setTimeoutSeconds(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public Path getInputFile() {
+        return inputFile;
+    }
+
+    public void setInputFile(Path inputFile) {
+        this.inputFile = inputFile;
+    }
+
+    public Path getHistogramFile() {
+        return histogramFile;
+    }
+
+    public void setHistogramFile(Path histogramFile) {
+        this.histogramFile = histogramFile;
+    }
+
+    public boolean isLocal() {
+        return local;
+    }
+
+    public void setLocal(boolean local) {
+        this.local = local;
+    }
+
+    public Path getResourcesDir() {
+        return resourcesDir;
+    }
+
+    public void setResourcesDir(Path resourcesDir) {
+        this.resourcesDir = resourcesDir;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Counters and end-to-end latency distribution of a load test run.
+ * <p>
+ * Latencies are recorded in microseconds, from the time a workflow <em>should</em> have been started according to
+ * the target rate (not when the start call was actually made), so that a slow server does not hide its own latency
+ * (coordinated omission).
+ */
+public class LoadTestReport {
+
+    private final Histogram latency = new ConcurrentHistogram(3);
+
+    final AtomicLong started = new AtomicLong();
+
+    final AtomicLong startErrors = new AtomicLong();
+
+    final AtomicLong rejected = new AtomicLong();
+
+    final AtomicLong completed = new AtomicLong();
+
+    final AtomicLong failed = new AtomicLong();
+
+    final AtomicLong timedOut = new AtomicLong();
+
+    private long elapsedMillis;
+
+    void recordLatency(long nanos) {
+        latency.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public long getStarted() {
+        return started.get();
+    }
+
+    public long getStartErrors() {
+        return startErrors.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return workflows reaching a terminal state per second
+     */
+    public double getThroughput() {
+        return elapsedMillis == 0 ? 0 : (getCompleted() + getFailed()) * 1000.0 / elapsedMillis;
+    }
+
+    public double getLatencyMillisAtPercentile(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("started=%d completed=%d failed=%d timedOut=%d startErrors=%d rejected=%d in %.1fs%n",
+                getStarted(), getCompleted(), getFailed(), getTimedOut(), getStartErrors(), getRejected(),
+                elapsedMillis / 1000.0);
+        out.printf("throughput=%.1f workflows/s%n", getThroughput());
+        out.printf("latency ms: p50=%.1f p99=%.1f p999=%.1f max=%.1f%n", getLatencyMillisAtPercentile(50),
+                getLatencyMillisAtPercentile(99), getLatencyMillisAtPercentile(99.9), latency.getMaxValue() / 1000.0);
+    }
+
+    /**
+     * Writes the latency distribution in milliseconds, in the HdrHistogram percentile format (.hgrm) that can be
+     * plotted with the HdrHistogram plotter.
+     */
+    public void writeHistogram(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            latency.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
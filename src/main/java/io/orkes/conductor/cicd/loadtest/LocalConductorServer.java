@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.loadtest;
+
+import java.time.Duration;
+
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.HttpWaitStrategy;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * A Conductor server running in a local docker container, used as a stand-in for the real server.
+ * The image can be changed with the <code>conductor.image</code> system property.
+ */
+public class LocalConductorServer implements AutoCloseable {
+
+    public static final String DEFAULT_IMAGE = "orkesio/orkes-conductor-community-standalone:latest";
+
+    private static final int PORT = 8080;
+
+    private final GenericContainer<?> container;
+
+    public LocalConductorServer() {
+        this(System.getProperty("conductor.image", DEFAULT_IMAGE));
+    }
+
+    public LocalConductorServer(String image) {
+        container = new GenericContainer<>(DockerImageName.parse(image))
+                .withExposedPorts(PORT)
+                .waitingFor(new HttpWaitStrategy()
+                        .forPath("/health")
+                        .forPort(PORT)
+                        .withStartupTimeout(Duration.ofMinutes(5)));
+    }
+
+    /**
+     * @return the base URL of the API, e.g. <code>http://localhost:49153/api</code>
+     */
+    public String start() {
+        container.start();
+        return "http://" + container.getHost() + ":" + container.getMappedPort(PORT) + "/api";
+    }
+
+    @Override
+    public void close() {
+        container.stop();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.loadtest;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.conductor.client.http.TaskClient;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+
+/**
+ * Completes every polled task immediately with an empty output, so that workflows made of SIMPLE tasks can run on a
+ * local server without the real workers.
+ */
+public class StubWorkers implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StubWorkers.class);
+
+    private static final int BATCH_SIZE = 20;
+
+    private static final int POLL_TIMEOUT_MILLIS = 100;
+
+    private final TaskClient taskClient;
+
+    private final ExecutorService executor;
+
+    private volatile boolean running = true;
+
+    public StubWorkers(TaskClient taskClient, Collection<String> taskTypes) {
+        this.taskClient = taskClient;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, taskTypes.size()));
+        for (String taskType : taskTypes) {
+            executor.execute(() -> pollLoop(taskType));
+        }
+    }
+
+    /**
+     * @param subWorkflows looks up the definition of a sub-workflow referenced by name, returns null if unknown
+     * @return the task types polled by workers when the workflow runs: the SIMPLE tasks, and the constant task names
+     * of DYNAMIC and FORK_JOIN_DYNAMIC tasks, of the workflow and of its inline and named sub-workflows
+     */
+    public static Set<String> workerTaskNames(WorkflowDef def, Function<SubWorkflowParams, WorkflowDef> subWorkflows) {
+        Set<String> names = new TreeSet<>();
+        Set<String> visited = new HashSet<>();
+        Deque<WorkflowDef> defs = new ArrayDeque<>(List.of(def));
+        visited.add(def.getName() + ":" + def.getVersion());
+        while (!defs.isEmpty()) {
+            for (WorkflowTask task : defs.pop().collectTasks()) {
+                String type = task.getType();
+                Map<String, Object> input = task.getInputParameters() == null ? Map.of() : task.getInputParameters();
+                if (TaskType.SIMPLE.name().equals(type)) {
+                    names.add(task.getName());
+                } else if (TaskType.DYNAMIC.name().equals(type) && task.getDynamicTaskNameParam() != null) {
+                    addConstant(names, input.get(task.getDynamicTaskNameParam()));
+                } else if (TaskType.FORK_JOIN_DYNAMIC.name().equals(type)
+                        && TaskType.SIMPLE.name().equals(input.getOrDefault("forkTaskType", TaskType.SIMPLE.name()))) {
+                    addConstant(names, input.get("forkTaskName"));
+                } else if (TaskType.SUB_WORKFLOW.name().equals(type) && task.getSubWorkflowParam() != null) {
+                    SubWorkflowParams params = task.getSubWorkflowParam();
+                    WorkflowDef subWorkflow = params.getWorkflowDefinition() instanceof WorkflowDef ?
+                            (WorkflowDef) params.getWorkflowDefinition() : subWorkflows.apply(params);
+                    // Inline definitions are always visited, they may reuse the name of another inline definition
+                    if (subWorkflow != null && (params.getWorkflowDefinition() instanceof WorkflowDef
+                            || visited.add(subWorkflow.getName() + ":" + subWorkflow.getVersion()))) {
+                        defs.push(subWorkflow);
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private static void addConstant(Set<String> names, Object value) {
+        if (value instanceof String && !((String) value).contains("${")) {
+            names.add((String) value);
+        }
+    }
+
+    private void pollLoop(String taskType) {
+        while (running) {
+            try {
+                List<Task> tasks = taskClient.batchPollTasksByTaskType(taskType, "loadtest-stub", BATCH_SIZE,
+                        POLL_TIMEOUT_MILLIS);
+                for (Task task : tasks) {
+                    TaskResult result = new TaskResult(task);
+                    result.setStatus(TaskResult.Status.COMPLETED);
+                    taskClient.updateTask(result);
+                }
+            } catch (RuntimeException e) {
+                log.debug("Stub worker for {} failed", taskType, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        executor.shutdownNow();
+    }
+}
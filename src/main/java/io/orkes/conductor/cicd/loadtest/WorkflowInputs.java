@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.loadtest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Sources of workflow inputs for the load test.
+ */
+public final class WorkflowInputs {
+
+    private static final TypeReference<List<Map<String, Object>>> INPUTS_TYPE = new TypeReference<List<Map<String, Object>>>() {
+    };
+
+    private WorkflowInputs() {
+    }
+
+    /**
+     * @return inputs shaped like the ones of <code>loan_calculate_workflow</code>: a distinct <code>userEmail</code>
+     * and a loan amount between 1,000 and 50,000, deterministic for a given sequence number
+     */
+    public static LongFunction<Map<String, Object>> loanInputs() {
+        return sequence -> {
+            SplittableRandom random = new SplittableRandom(sequence);
+            Map<String, Object> input = new HashMap<>();
+            input.put("userEmail", "user-" + sequence + "@example.com");
+            input.put("loanAmount", BigDecimal.valueOf(random.nextInt(1_000, 50_001)));
+            return input;
+        };
+    }
+
+    /**
+     * @return the inputs of a JSON array file, used round-robin
+     */
+    public static LongFunction<Map<String, Object>> fromFile(ObjectMapper objectMapper, Path file) throws IOException {
+        List<Map<String, Object>> inputs = objectMapper.readValue(file.toFile(), INPUTS_TYPE);
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException(file + " does not contain any input");
+        }
+        return sequence -> new HashMap<>(inputs.get((int) (sequence % inputs.size())));
+    }
+}
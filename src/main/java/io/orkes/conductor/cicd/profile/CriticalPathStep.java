@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.profile;
+
+/**
+ * A task on the critical path of an execution, with the time the workflow spent getting to it.
+ */
+public class CriticalPathStep {
+
+    private final String stack;
+
+    private final String ref;
+
+    private final String taskType;
+
+    private final long gapMillis;
+
+    private final long queueMillis;
+
+    private final long executionMillis;
+
+    public CriticalPathStep(String stack, String ref, String taskType, long gapMillis, long queueMillis,
+            long executionMillis) {
+        this.stack = stack;
+        this.ref = ref;
+        this.taskType = taskType;
+        this.gapMillis = gapMillis;
+        this.queueMillis = queueMillis;
+        this.executionMillis = executionMillis;
+    }
+
+    /**
+     * @return the workflow and the sub-workflow tasks leading to the task, separated by <code>;</code>
+     */
+    public String getStack() {
+        return stack;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public String getTaskType() {
+        return taskType;
+    }
+
+    /**
+     * @return time between the end of the previous step (or the start of the workflow) and the scheduling of the task,
+     * i.e. spent by the server deciding what to run next
+     */
+    public long getGapMillis() {
+        return gapMillis;
+    }
+
+    public long getQueueMillis() {
+        return queueMillis;
+    }
+
+    /**
+     * @return execution time of the task, for an expanded sub-workflow the part not covered by its own steps
+     */
+    public long getExecutionMillis() {
+        return executionMillis;
+    }
+
+    public long getTotalMillis() {
+        return gapMillis + queueMillis + executionMillis;
+    }
+
+    /**
+     * @return the key of the task in the aggregated statistics
+     */
+    public String getKey() {
+        return stack + ";" + ref;
+    }
+
+    CriticalPathStep under(String prefix) {
+        return new CriticalPathStep(prefix + ";" + stack, ref, taskType, gapMillis, queueMillis, executionMillis);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s gap=%dms queue=%dms execution=%dms", getKey(), taskType, gapMillis, queueMillis,
+                executionMillis);
+    }
+}
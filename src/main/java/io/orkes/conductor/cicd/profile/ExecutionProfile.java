@@ -0,0 +1,144 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.profile;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the time of one execution went, see {@link ExecutionProfiler}.
+ */
+public class ExecutionProfile {
+
+    private final String workflowId;
+
+    private final String workflowName;
+
+    private final long durationMillis;
+
+    private final List<TaskTiming> tasks;
+
+    private final List<CriticalPathStep> criticalPath = new ArrayList<>();
+
+    private final List<ExecutionProfile> subWorkflows = new ArrayList<>();
+
+    private final Map<String, Long> foldedStacks = new LinkedHashMap<>();
+
+    private long waitMillis;
+
+    private long loopOverheadMillis;
+
+    ExecutionProfile(String workflowId, String workflowName, long durationMillis, List<TaskTiming> tasks) {
+        this.workflowId = workflowId;
+        this.workflowName = workflowName;
+        this.durationMillis = durationMillis;
+        this.tasks = tasks;
+    }
+
+    public String getWorkflowId() {
+        return workflowId;
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public List<TaskTiming> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return the chain of tasks that determined the duration of the execution, sub-workflows expanded when their
+     * execution was available
+     */
+    public List<CriticalPathStep> getCriticalPath() {
+        return criticalPath;
+    }
+
+    /**
+     * @return the profiles of the sub-workflow executions that were expanded
+     */
+    public List<ExecutionProfile> getSubWorkflows() {
+        return subWorkflows;
+    }
+
+    /**
+     * @return milliseconds per stack, in the folded format of flame graph tools, e.g.
+     * <code>loan_flow;credit_check;running</code>
+     */
+    public Map<String, Long> getFoldedStacks() {
+        return foldedStacks;
+    }
+
+    public long getCriticalPathMillis() {
+        return criticalPath.stream().mapToLong(CriticalPathStep::getTotalMillis).sum();
+    }
+
+    public long getCriticalQueueMillis() {
+        return criticalPath.stream().mapToLong(CriticalPathStep::getQueueMillis).sum();
+    }
+
+    public long getCriticalExecutionMillis() {
+        return criticalPath.stream().mapToLong(CriticalPathStep::getExecutionMillis).sum();
+    }
+
+    /**
+     * @return time between the tasks of the critical path, spent by the server scheduling them
+     */
+    public long getSchedulingMillis() {
+        return criticalPath.stream().mapToLong(CriticalPathStep::getGapMillis).sum();
+    }
+
+    /**
+     * @return time spent in WAIT and HUMAN tasks, including those of the expanded sub-workflows
+     */
+    public long getWaitMillis() {
+        return waitMillis;
+    }
+
+    void addWaitMillis(long millis) {
+        waitMillis += millis;
+    }
+
+    /**
+     * @return time during which a DO_WHILE loop was running none of its tasks, i.e. evaluating its condition and
+     * scheduling the next iteration, including the loops of the expanded sub-workflows
+     */
+    public long getLoopOverheadMillis() {
+        return loopOverheadMillis;
+    }
+
+    void addLoopOverheadMillis(long millis) {
+        loopOverheadMillis += millis;
+    }
+
+    void addFolded(String stack, long millis) {
+        if (millis > 0) {
+            foldedStacks.merge(stack, millis, Long::sum);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s: %dms, critical path %dms (queue %dms, execution %dms, scheduling %dms),"
+                        + " wait %dms, loop overhead %dms", workflowName, workflowId, durationMillis,
+                getCriticalPathMillis(), getCriticalQueueMillis(), getCriticalExecutionMillis(), getSchedulingMillis(),
+                waitMillis, loopOverheadMillis);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.profile;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.run.Workflow;
+
+/**
+ * Breaks the duration of an execution down from the timestamps of its tasks.
+ * <ul>
+ *   <li>queue wait (scheduled to started) and execution time (started to ended) of every task;</li>
+ *   <li>the critical path: walking back from the task that ended last, the predecessor of a task is the task that
+ *   ended last before it was scheduled, which through a JOIN is the slowest branch of the fork.  FORK, JOIN and
+ *   DO_WHILE tasks only span their children and are skipped, SUB_WORKFLOW tasks are expanded into the critical path
+ *   of their execution when the lookup returns it;</li>
+ *   <li>time spent in WAIT and HUMAN tasks, and in DO_WHILE loops between iterations;</li>
+ *   <li>folded stacks (<code>workflow;loop;task;queued 12</code>) for flame graph tools.</li>
+ * </ul>
+ * Tasks without timestamps, e.g. those of fixtures, count as zero.
+ */
+public class ExecutionProfiler {
+
+    static final Set<String> CONTAINERS = Set.of(TaskType.TASK_TYPE_FORK, TaskType.FORK_JOIN.name(),
+            TaskType.FORK_JOIN_DYNAMIC.name(), TaskType.TASK_TYPE_JOIN, TaskType.TASK_TYPE_EXCLUSIVE_JOIN,
+            TaskType.TASK_TYPE_DO_WHILE);
+
+    static final Set<String> WAITING = Set.of(TaskType.TASK_TYPE_WAIT, TaskType.TASK_TYPE_HUMAN);
+
+    private final Function<String, Workflow> subWorkflows;
+
+    /**
+     * A profiler that does not expand sub-workflows.
+     */
+    public ExecutionProfiler() {
+        this(id -> null);
+    }
+
+    /**
+     * @param subWorkflows looks up a sub-workflow execution by id, returns null when it is not available
+     */
+    public ExecutionProfiler(Function<String, Workflow> subWorkflows) {
+        this.subWorkflows = subWorkflows;
+    }
+
+    public ExecutionProfile profile(Workflow execution) {
+        return profile(execution, new HashSet<>());
+    }
+
+    private ExecutionProfile profile(Workflow execution, Set<String> visited) {
+        visited.add(execution.getWorkflowId());
+        List<TaskTiming> tasks = execution.getTasks().stream()
+                .map(TaskTiming::new)
+                .sorted(Comparator.comparingInt(TaskTiming::getSeq))
+                .collect(Collectors.toList());
+        long start = execution.getStartTime() > 0 ? execution.getStartTime() :
+                execution.getCreateTime() == null ? 0 : execution.getCreateTime();
+        long end = execution.getEndTime() > 0 ? execution.getEndTime() :
+                tasks.stream().mapToLong(TaskTiming::getEndTime).max().orElse(start);
+        ExecutionProfile profile = new ExecutionProfile(execution.getWorkflowId(), execution.getWorkflowName(),
+                start > 0 ? Math.max(0, end - start) : 0, tasks);
+
+        List<TaskTiming> loops = tasks.stream()
+                .filter(task -> TaskType.TASK_TYPE_DO_WHILE.equals(task.getTaskType()))
+                .collect(Collectors.toList());
+        Map<Integer, ExecutionProfile> expanded = new HashMap<>();
+        for (TaskTiming task : tasks) {
+            String stack = stack(execution.getWorkflowName(), task, loops) + ";" + task.getRef();
+            if (TaskType.TASK_TYPE_DO_WHILE.equals(task.getTaskType())) {
+                long overhead = loopOverhead(task, tasks);
+                profile.addLoopOverheadMillis(overhead);
+                profile.addFolded(stack + ";overhead", overhead);
+                continue;
+            }
+            if (CONTAINERS.contains(task.getTaskType())) {
+                continue;
+            }
+            if (WAITING.contains(task.getTaskType())) {
+                profile.addWaitMillis(task.getExecutionMillis());
+            }
+            profile.addFolded(stack + ";queued", task.getQueueMillis());
+            ExecutionProfile subWorkflow = subWorkflow(task, visited);
+            if (subWorkflow == null) {
+                profile.addFolded(stack + ";running", task.getExecutionMillis());
+                continue;
+            }
+            expanded.put(task.getSeq(), subWorkflow);
+            profile.getSubWorkflows().add(subWorkflow);
+            profile.addWaitMillis(subWorkflow.getWaitMillis());
+            profile.addLoopOverheadMillis(subWorkflow.getLoopOverheadMillis());
+            subWorkflow.getFoldedStacks()
+                    .forEach((subStack, millis) -> profile.addFolded(stack + ";" + subStack, millis));
+        }
+        profile.getCriticalPath().addAll(criticalPath(execution.getWorkflowName(), tasks, start, expanded));
+        return profile;
+    }
+
+    private ExecutionProfile subWorkflow(TaskTiming task, Set<String> visited) {
+        if (!TaskType.TASK_TYPE_SUB_WORKFLOW.equals(task.getTaskType()) || task.getSubWorkflowId() == null
+                || visited.contains(task.getSubWorkflowId())) {
+            return null;
+        }
+        Workflow execution = subWorkflows.apply(task.getSubWorkflowId());
+        return execution == null ? null : profile(execution, visited);
+    }
+
+    private static List<CriticalPathStep> criticalPath(String workflowName, List<TaskTiming> tasks, long start,
+            Map<Integer, ExecutionProfile> expanded) {
+        List<TaskTiming> leaves = tasks.stream()
+                .filter(task -> !CONTAINERS.contains(task.getTaskType()) && task.isFinished())
+                .sorted(Comparator.comparingLong(TaskTiming::getEndTime).thenComparingInt(TaskTiming::getSeq))
+                .collect(Collectors.toList());
+        LinkedList<CriticalPathStep> steps = new LinkedList<>();
+        Set<Integer> onPath = new HashSet<>();
+        int i = leaves.size() - 1;
+        TaskTiming current = i >= 0 ? leaves.get(i) : null;
+        while (current != null) {
+            onPath.add(current.getSeq());
+            long ready = current.getScheduledTime() > 0 ? current.getScheduledTime() : current.getStartTime();
+            // The time a task became ready never increases along the path, so the candidates only shrink
+            while (i >= 0 && (leaves.get(i).getEndTime() > ready || onPath.contains(leaves.get(i).getSeq()))) {
+                i--;
+            }
+            TaskTiming previous = i >= 0 ? leaves.get(i) : null;
+            long gap = previous != null ? ready - previous.getEndTime() : start > 0 ? ready - start : 0;
+
+            ExecutionProfile subWorkflow = expanded.get(current.getSeq());
+            long execution = current.getExecutionMillis();
+            if (subWorkflow != null) {
+                List<CriticalPathStep> subSteps = new ArrayList<>(subWorkflow.getCriticalPath());
+                for (int j = subSteps.size() - 1; j >= 0; j--) {
+                    steps.addFirst(subSteps.get(j).under(workflowName + ";" + current.getRef()));
+                }
+                execution = Math.max(0, execution - subWorkflow.getCriticalPathMillis());
+            }
+            steps.addFirst(new CriticalPathStep(workflowName, current.getRef(), current.getTaskType(), Math.max(0, gap),
+                    current.getQueueMillis(), execution));
+            current = previous;
+        }
+        return steps;
+    }
+
+    /**
+     * @return the workflow name followed by the loops the task is part of, outermost first
+     */
+    private static String stack(String workflowName, TaskTiming task, List<TaskTiming> loops) {
+        StringBuilder stack = new StringBuilder(workflowName);
+        for (TaskTiming loop : loops) {
+            if (task.getIteration() > 0 && task.isWithin(loop)) {
+                stack.append(';').append(loop.getRef());
+            }
+        }
+        return stack.toString();
+    }
+
+    /**
+     * @return the time the loop was running without any of its tasks being scheduled or running
+     */
+    static long loopOverhead(TaskTiming loop, List<TaskTiming> tasks) {
+        if (!loop.isFinished()) {
+            return 0;
+        }
+        List<long[]> intervals = tasks.stream()
+                .filter(task -> task.getIteration() > 0 && task.isWithin(loop))
+                .map(task -> new long[]{
+                        Math.max(loop.getStartTime(), task.getScheduledTime() > 0 ? task.getScheduledTime() :
+                                task.getStartTime()),
+                        task.getEndTime()})
+                .sorted(Comparator.comparingLong(interval -> interval[0]))
+                .collect(Collectors.toList());
+        long covered = 0;
+        long coveredUntil = loop.getStartTime();
+        for (long[] interval : intervals) {
+            long from = Math.max(interval[0], coveredUntil);
+            if (interval[1] > from) {
+                covered += interval[1] - from;
+                coveredUntil = interval[1];
+            }
+        }
+        return Math.max(0, loop.getExecutionMillis() - covered);
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.profile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Aggregates the profiles of a batch of executions: percentiles of the queue wait and execution time of every task,
+ * how often and for how long each task is on the critical path, and the folded stacks of all the executions.
+ * Times are in milliseconds.
+ */
+public class ProfileReport {
+
+    private final Map<String, Histogram> durations = new TreeMap<>();
+
+    private final Map<String, TaskStats> tasks = new TreeMap<>();
+
+    private final Map<String, Long> foldedStacks = new TreeMap<>();
+
+    private int executions;
+
+    private long criticalPathMillis;
+
+    private long schedulingMillis;
+
+    private long waitMillis;
+
+    private long loopOverheadMillis;
+
+    public void add(ExecutionProfile profile) {
+        executions++;
+        durations.computeIfAbsent(profile.getWorkflowName(), name -> new Histogram(3))
+                .recordValue(profile.getDurationMillis());
+        criticalPathMillis += profile.getCriticalPathMillis();
+        schedulingMillis += profile.getSchedulingMillis();
+        waitMillis += profile.getWaitMillis();
+        loopOverheadMillis += profile.getLoopOverheadMillis();
+        addTasks(profile, profile.getWorkflowName());
+        for (CriticalPathStep step : profile.getCriticalPath()) {
+            TaskStats stats = tasks.computeIfAbsent(step.getKey(), key -> new TaskStats(step.getTaskType()));
+            stats.criticalCount++;
+            stats.criticalMillis += step.getTotalMillis();
+        }
+        profile.getFoldedStacks().forEach((stack, millis) -> foldedStacks.merge(stack, millis, Long::sum));
+    }
+
+    /**
+     * Records the tasks under the same key as the critical path steps, i.e. prefixed by the workflow and the
+     * SUB_WORKFLOW tasks leading to it.
+     */
+    private void addTasks(ExecutionProfile profile, String stack) {
+        for (TaskTiming task : profile.getTasks()) {
+            if (ExecutionProfiler.CONTAINERS.contains(task.getTaskType()) || !task.isFinished()) {
+                continue;
+            }
+            TaskStats stats = tasks.computeIfAbsent(stack + ";" + task.getRef(),
+                    key -> new TaskStats(task.getTaskType()));
+            stats.queue.recordValue(task.getQueueMillis());
+            stats.execution.recordValue(task.getExecutionMillis());
+            stats.retries += task.getRetryCount() > 0 ? 1 : 0;
+        }
+        for (ExecutionProfile subWorkflow : profile.getSubWorkflows()) {
+            String subStack = profile.getTasks().stream()
+                    .filter(task -> subWorkflow.getWorkflowId().equals(task.getSubWorkflowId()))
+                    .findFirst()
+                    .map(task -> stack + ";" + task.getRef() + ";" + subWorkflow.getWorkflowName())
+                    .orElse(subWorkflow.getWorkflowName());
+            addTasks(subWorkflow, subStack);
+        }
+    }
+
+    public int getExecutions() {
+        return executions;
+    }
+
+    public Map<String, TaskStats> getTasks() {
+        return tasks;
+    }
+
+    public Map<String, Long> getFoldedStacks() {
+        return foldedStacks;
+    }
+
+    public String summary() {
+        return String.format("Profiled %d execution(s): critical path %dms, of which scheduling %dms; wait %dms,"
+                        + " loop overhead %dms", executions, criticalPathMillis, schedulingMillis, waitMillis,
+                loopOverheadMillis);
+    }
+
+    /**
+     * Prints the duration percentiles of every workflow and the task table, the tasks taking most of the critical
+     * path first.
+     */
+    public void print(PrintStream out) {
+        out.println(summary());
+        durations.forEach((name, histogram) -> out.printf("%s: %d execution(s), p50=%dms p90=%dms p99=%dms max=%dms%n",
+                name, histogram.getTotalCount(), histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90), histogram.getValueAtPercentile(99), histogram.getMaxValue()));
+        out.println(String.format("%-60s %-14s %7s %9s %11s %9s %9s %9s %9s %9s", "TASK", "TYPE", "RUNS",
+                "CRITICAL", "CRIT_MS", "QUEUE_P50", "QUEUE_P99", "EXEC_P50", "EXEC_P99", "EXEC_MAX"));
+        List<Map.Entry<String, TaskStats>> rows = new ArrayList<>(tasks.entrySet());
+        rows.sort(Comparator.comparingLong((Map.Entry<String, TaskStats> row) -> row.getValue().criticalMillis)
+                .reversed());
+        for (Map.Entry<String, TaskStats> row : rows) {
+            TaskStats stats = row.getValue();
+            out.println(String.format("%-60s %-14s %7d %9d %11d %9d %9d %9d %9d %9d", row.getKey(),
+                    stats.getTaskType(), stats.getRuns(), stats.getCriticalCount(), stats.getCriticalMillis(),
+                    stats.queue.getValueAtPercentile(50), stats.queue.getValueAtPercentile(99),
+                    stats.execution.getValueAtPercentile(50), stats.execution.getValueAtPercentile(99),
+                    stats.execution.getMaxValue()));
+        }
+    }
+
+    /**
+     * Writes the folded stacks, one <code>stack milliseconds</code> line each, the input of
+     * <code>flamegraph.pl</code> and speedscope.
+     */
+    public void writeFolded(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (Map.Entry<String, Long> stack : foldedStacks.entrySet()) {
+                writer.write(stack.getKey() + " " + stack.getValue());
+                writer.newLine();
+            }
+        }
+    }
+
+    public void write(ObjectMapper objectMapper, Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("summary", summary());
+        report.put("executions", executions);
+        report.put("criticalPathMillis", criticalPathMillis);
+        report.put("schedulingMillis", schedulingMillis);
+        report.put("waitMillis", waitMillis);
+        report.put("loopOverheadMillis", loopOverheadMillis);
+        Map<String, Object> workflows = new LinkedHashMap<>();
+        durations.forEach((name, histogram) -> workflows.put(name, percentiles(histogram)));
+        report.put("workflows", workflows);
+        Map<String, Object> taskReports = new LinkedHashMap<>();
+        tasks.forEach((key, stats) -> {
+            Map<String, Object> taskReport = new LinkedHashMap<>();
+            taskReport.put("taskType", stats.getTaskType());
+            taskReport.put("runs", stats.getRuns());
+            taskReport.put("retried", stats.getRetried());
+            taskReport.put("criticalCount", stats.getCriticalCount());
+            taskReport.put("criticalMillis", stats.getCriticalMillis());
+            taskReport.put("queue", percentiles(stats.queue));
+            taskReport.put("execution", percentiles(stats.execution));
+            taskReports.put(key, taskReport);
+        });
+        report.put("tasks", taskReports);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+    }
+
+    private static Map<String, Long> percentiles(Histogram histogram) {
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        percentiles.put("count", histogram.getTotalCount());
+        percentiles.put("p50", histogram.getValueAtPercentile(50));
+        percentiles.put("p90", histogram.getValueAtPercentile(90));
+        percentiles.put("p99", histogram.getValueAtPercentile(99));
+        percentiles.put("max", histogram.getMaxValue());
+        return percentiles;
+    }
+
+    /**
+     * Statistics of one task (by reference name, the iterations of a loop together) across the executions.
+     */
+    public static class TaskStats {
+
+        private final String taskType;
+
+        private final Histogram queue = new Histogram(3);
+
+        private final Histogram execution = new Histogram(3);
+
+        private int retries;
+
+        private int criticalCount;
+
+        private long criticalMillis;
+
+        TaskStats(String taskType) {
+            this.taskType = taskType;
+        }
+
+        public String getTaskType() {
+            return taskType;
+        }
+
+        public long getRuns() {
+            return queue.getTotalCount();
+        }
+
+        public int getRetried() {
+            return retries;
+        }
+
+        public Histogram getQueue() {
+            return queue;
+        }
+
+        public Histogram getExecution() {
+            return execution;
+        }
+
+        /**
+         * @return number of times the task was on the critical path, possibly more than once per execution in a loop
+         */
+        public int getCriticalCount() {
+            return criticalCount;
+        }
+
+        public long getCriticalMillis() {
+            return criticalMillis;
+        }
+    }
+}
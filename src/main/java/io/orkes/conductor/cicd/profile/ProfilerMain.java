@@ -0,0 +1,145 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.profile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.run.SearchResult;
+import com.netflix.conductor.common.run.Workflow;
+import com.netflix.conductor.common.run.WorkflowSummary;
+
+import io.orkes.conductor.cicd.definitions.ExecutionFixtureReader;
+import io.orkes.conductor.cicd.regression.ExecutionArchive;
+import io.orkes.conductor.client.ApiClient;
+import io.orkes.conductor.client.OrkesClients;
+import io.orkes.conductor.client.WorkflowClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Profiles recorded executions, or the recent executions of a workflow on the server identified by
+ * <code>CONDUCTOR_SERVER_URL</code>, and writes the aggregated {@link ProfileReport} and folded stacks.
+ * See {@link ProfilerOptions} for the supported arguments.
+ */
+public class ProfilerMain {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfilerMain.class);
+
+    private static final int PAGE_SIZE = 100;
+
+    public static void main(String[] args) throws IOException {
+        ProfilerOptions options = ProfilerOptions.parse(args);
+        ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+        ProfileReport report = new ProfileReport();
+        if (options.getExecutions() != null) {
+            profileArchive(options, objectMapper, report);
+        } else {
+            profileServer(options, report);
+        }
+
+        report.write(objectMapper, options.getReportFile());
+        report.writeFolded(options.getFoldedFile());
+        report.print(System.out);
+        System.out.println("Report written to " + options.getReportFile() + ", folded stacks to "
+                + options.getFoldedFile());
+    }
+
+    /**
+     * Reads the archive twice: first to keep the sub-workflow executions aside, then to profile the other ones with
+     * their sub-workflows expanded.
+     */
+    private static void profileArchive(ProfilerOptions options, ObjectMapper objectMapper, ProfileReport report)
+            throws IOException {
+        try (ExecutionArchive archive = ExecutionArchive.open(options.getExecutions())) {
+            Set<String> workflowIds = new HashSet<>();
+            Map<String, Workflow> children = new HashMap<>();
+            forEach(archive, objectMapper, execution -> {
+                workflowIds.add(execution.getWorkflowId());
+                if (execution.getParentWorkflowId() != null) {
+                    children.put(execution.getWorkflowId(), execution);
+                }
+            });
+
+            ExecutionProfiler profiler = new ExecutionProfiler(children::get);
+            forEach(archive, objectMapper, execution -> {
+                if (execution.getParentWorkflowId() == null || !workflowIds.contains(execution.getParentWorkflowId())) {
+                    ExecutionProfile profile = profiler.profile(execution);
+                    log.debug("{}", profile);
+                    report.add(profile);
+                }
+            });
+        }
+    }
+
+    private static void forEach(ExecutionArchive archive, ObjectMapper objectMapper, Consumer<Workflow> consumer)
+            throws IOException {
+        for (String name : archive.getNames()) {
+            try (InputStream inputStream = archive.open(name)) {
+                if (ExecutionArchive.isFixtureFile(name)) {
+                    new ExecutionFixtureReader(objectMapper).forEach(inputStream,
+                            execution -> consumer.accept(objectMapper.treeToValue(execution, Workflow.class)));
+                } else {
+                    consumer.accept(objectMapper.readValue(inputStream, Workflow.class));
+                }
+            }
+        }
+    }
+
+    private static void profileServer(ProfilerOptions options, ProfileReport report) {
+        String serverURL = System.getenv("CONDUCTOR_SERVER_URL");
+        if (serverURL == null || serverURL.isBlank()) {
+            System.err.println("CONDUCTOR_SERVER_URL is not set, use --executions to profile recorded executions");
+            System.exit(2);
+        }
+        ApiClient apiClient = new ApiClient(serverURL, System.getenv("CONDUCTOR_AUTH_KEY"),
+                System.getenv("CONDUCTOR_AUTH_SECRET"));
+        WorkflowClient workflowClient = new OrkesClients(apiClient).getWorkflowClient();
+        ExecutionProfiler profiler = new ExecutionProfiler(workflowId -> {
+            try {
+                return workflowClient.getWorkflow(workflowId, true);
+            } catch (RuntimeException e) {
+                log.warn("Sub-workflow {} not expanded: {}", workflowId, e.getMessage());
+                return null;
+            }
+        });
+
+        String query = "workflowType IN (" + options.getWorkflowName() + ") AND status IN ("
+                + String.join(",", options.getStatuses()) + ")";
+        for (int start = 0; start < options.getSearchLimit(); start += PAGE_SIZE) {
+            int size = Math.min(PAGE_SIZE, options.getSearchLimit() - start);
+            SearchResult<WorkflowSummary> page = workflowClient.search(start, size, "startTime:DESC", "*", query);
+            if (page.getResults() == null || page.getResults().isEmpty()) {
+                break;
+            }
+            for (WorkflowSummary summary : page.getResults()) {
+                if (options.getVersion() != null && summary.getVersion() != options.getVersion()) {
+                    continue;
+                }
+                ExecutionProfile profile = profiler.profile(workflowClient.getWorkflow(summary.getWorkflowId(), true));
+                log.info("{}", profile);
+                report.add(profile);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.profile;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static io.orkes.conductor.cicd.CommandLineArgs.value;
+
+/**
+ * Command line options of the execution profiler, which reads executions either from files or from the server.
+ * <pre>
+ *   --executions &lt;path&gt;       directory, zip archive or file of recorded executions
+ *   --workflow &lt;name&gt;         or: profile the recent executions of this workflow on CONDUCTOR_SERVER_URL
+ *   --version &lt;n&gt;             only executions of this version (default: any)
+ *   --statuses &lt;s1,s2&gt;        statuses searched (default: COMPLETED,FAILED,TIMED_OUT,TERMINATED)
+ *   --search-limit &lt;n&gt;        most recent executions profiled (default: 200)
+ *   --report &lt;file&gt;           JSON report (default: build/profile/report.json)
+ *   --folded &lt;file&gt;           folded stacks for flame graph tools (default: build/profile/executions.folded)
+ * </pre>
+ */
+public class ProfilerOptions {
+
+    private Path executions;
+
+    private String workflowName;
+
+    private Integer version;
+
+    private List<String> statuses = List.of("COMPLETED", "FAILED", "TIMED_OUT", "TERMINATED");
+
+    private int searchLimit = 200;
+
+    private Path reportFile = Paths.get("build/profile/report.json");
+
+    private Path foldedFile = Paths.get("build/profile/executions.folded");
+
+    public static ProfilerOptions parse(String[] args) {
+        ProfilerOptions options = new ProfilerOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--executions":
+                    options.setExecutions(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--workflow":
+                    options.setWorkflowName(value(args, ++i, arg));
+                    break;
+                case "--version":
+                    options.setVersion(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--statuses":
+                    options.setStatuses(List.of(value(args, ++i, arg).toUpperCase().split(",")));
+                    break;
+                case "--search-limit":
+                    options.setSearchLimit(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--report":
+                    options.setReportFile(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--folded":
+                    options.setFoldedFile(Paths.get(value(args, ++i, arg)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if ((options.getExecutions() == null) == (options.getWorkflowName() == null)) {
+            throw new IllegalArgumentException("Either --executions or --workflow is required");
+        }
+        return options;
+    }
+
+    public Path getExecutions() {
+        return executions;
+    }
+
+    public void setExecutions(Path executions) {
+        this.executions = executions;
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    public void setWorkflowName(String workflowName) {
+        this.workflowName = workflowName;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public List<String> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(List<String> statuses) {
+        this.statuses = statuses;
+    }
+
+    public int getSearchLimit() {
+        return searchLimit;
+    }
+
+    public void setSearchLimit(int searchLimit) {
+        this.searchLimit = searchLimit;
+    }
+
+    public Path getReportFile() {
+        return reportFile;
+    }
+
+    public void setReportFile(Path reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    public Path getFoldedFile() {
+        return foldedFile;
+    }
+
+    public void setFoldedFile(Path foldedFile) {
+        this.foldedFile = foldedFile;
+    }
+}
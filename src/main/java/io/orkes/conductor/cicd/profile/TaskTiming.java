@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.profile;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+
+import io.orkes.conductor.cicd.definitions.ExecutionReader;
+
+/**
+ * The timestamps of one task of an execution, and the durations derived from them.
+ */
+public class TaskTiming {
+
+    private final String ref;
+
+    private final String taskType;
+
+    private final int seq;
+
+    private final int iteration;
+
+    private final long scheduledTime;
+
+    private final long startTime;
+
+    private final long endTime;
+
+    private final int pollCount;
+
+    private final int retryCount;
+
+    private final String subWorkflowId;
+
+    public TaskTiming(Task task) {
+        this.ref = ExecutionReader.baseRef(task.getReferenceTaskName());
+        this.taskType = task.getTaskType();
+        this.seq = task.getSeq();
+        this.iteration = task.getIteration();
+        this.scheduledTime = task.getScheduledTime();
+        this.startTime = task.getStartTime() > 0 ? task.getStartTime() : task.getScheduledTime();
+        this.endTime = task.getEndTime();
+        this.pollCount = task.getPollCount();
+        this.retryCount = task.getRetryCount();
+        this.subWorkflowId = task.getSubWorkflowId();
+    }
+
+    /**
+     * @return the reference name, without the iteration suffix of the tasks of a loop
+     */
+    public String getRef() {
+        return ref;
+    }
+
+    public String getTaskType() {
+        return taskType;
+    }
+
+    public int getSeq() {
+        return seq;
+    }
+
+    public int getIteration() {
+        return iteration;
+    }
+
+    public long getScheduledTime() {
+        return scheduledTime;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public int getPollCount() {
+        return pollCount;
+    }
+
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    public String getSubWorkflowId() {
+        return subWorkflowId;
+    }
+
+    public boolean isFinished() {
+        return endTime > 0 && startTime > 0;
+    }
+
+    /**
+     * @return time between scheduling and the start of execution, e.g. waiting in the queue for a worker to poll
+     */
+    public long getQueueMillis() {
+        return scheduledTime > 0 ? Math.max(0, startTime - scheduledTime) : 0;
+    }
+
+    public long getExecutionMillis() {
+        return isFinished() ? Math.max(0, endTime - startTime) : 0;
+    }
+
+    public long getTotalMillis() {
+        return getQueueMillis() + getExecutionMillis();
+    }
+
+    /**
+     * @return whether this task ran during <code>other</code>, which is the case for the tasks of a loop
+     */
+    boolean isWithin(TaskTiming other) {
+        return seq > other.seq && startTime >= other.startTime && endTime > 0 && endTime <= other.endTime;
+    }
+}
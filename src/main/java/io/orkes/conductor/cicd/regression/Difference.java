@@ -0,0 +1,51 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.regression;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A value that differs between the recorded and the replayed execution.  A missing value is null.
+ */
+public class Difference {
+
+    private final String path;
+
+    private final JsonNode expected;
+
+    private final JsonNode actual;
+
+    public Difference(String path, JsonNode expected, JsonNode actual) {
+        this.path = path;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public JsonNode getExpected() {
+        return expected;
+    }
+
+    public JsonNode getActual() {
+        return actual;
+    }
+
+    @Override
+    public String toString() {
+        return path + ": expected " + (expected == null ? "<missing>" : expected) + " but was "
+                + (actual == null ? "<missing>" : actual);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.regression;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Recorded executions (<code>*.json</code> or <code>*.json.gz</code>, one {@code Workflow} per file, or
+ * <code>*.fixtures.json.gz</code> fixture files) in a directory tree, a zip archive or a single file.  Executions are
+ * opened one at a time, on demand.
+ */
+public class ExecutionArchive implements Closeable {
+
+    private final Path root;
+
+    private final ZipFile zipFile;
+
+    private final List<String> names;
+
+    private ExecutionArchive(Path root, ZipFile zipFile, List<String> names) {
+        this.root = root;
+        this.zipFile = zipFile;
+        this.names = names;
+    }
+
+    public static ExecutionArchive open(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.walk(path)) {
+                List<String> names = files.filter(Files::isRegularFile)
+                        .map(file -> path.relativize(file).toString())
+                        .filter(ExecutionArchive::isExecution)
+                        .sorted()
+                        .collect(Collectors.toList());
+                return new ExecutionArchive(path, null, names);
+            }
+        }
+        if (path.getFileName().toString().endsWith(".zip")) {
+            ZipFile zipFile = new ZipFile(path.toFile());
+            List<String> names = Collections.list(zipFile.entries()).stream()
+                    .filter(entry -> !entry.isDirectory())
+                    .map(ZipEntry::getName)
+                    .filter(ExecutionArchive::isExecution)
+                    .sorted()
+                    .collect(Collectors.toList());
+            return new ExecutionArchive(null, zipFile, names);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new IOException("No executions found at " + path);
+        }
+        // A bare file name has no parent
+        return new ExecutionArchive(path.toAbsolutePath().getParent(), null, List.of(path.getFileName().toString()));
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    public InputStream open(String name) throws IOException {
+        InputStream inputStream = zipFile != null ? zipFile.getInputStream(zipFile.getEntry(name)) :
+                Files.newInputStream(root.resolve(name));
+        return name.endsWith(".gz") ? new GZIPInputStream(inputStream, 64 * 1024) : inputStream;
+    }
+
+    private static boolean isExecution(String name) {
+        return name.endsWith(".json") || name.endsWith(".json.gz");
+    }
+
+    /**
+     * @return true for the fixture files written by the capture tool, which hold several executions
+     */
+    public static boolean isFixtureFile(String name) {
+        return name.endsWith(".fixtures.json") || name.endsWith(".fixtures.json.gz");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (zipFile != null) {
+            zipFile.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.regression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Structural comparison of two JSON trees.  Objects are compared key by key, arrays index by index and numbers by
+ * value (so that <code>1</code> and <code>1.0</code>, or an int and a long, are equal).  Paths matching one of the
+ * ignore patterns are skipped together with everything below them.
+ */
+public class JsonDiff {
+
+    private final List<PathPattern> ignored;
+
+    private final int maxDifferences;
+
+    /**
+     * @param maxDifferences the comparison stops after this many differences
+     */
+    public JsonDiff(List<PathPattern> ignored, int maxDifferences) {
+        this.ignored = ignored;
+        this.maxDifferences = maxDifferences;
+    }
+
+    public List<Difference> diff(JsonNode expected, JsonNode actual) {
+        List<Difference> differences = new ArrayList<>();
+        diff("", expected, actual, differences);
+        return differences;
+    }
+
+    private void diff(String path, JsonNode expected, JsonNode actual, List<Difference> differences) {
+        if (differences.size() >= maxDifferences || (!path.isEmpty() && PathPattern.matchesAny(ignored, path))) {
+            return;
+        }
+        expected = missingAsNull(expected);
+        actual = missingAsNull(actual);
+        if (expected == null && actual == null) {
+            return;
+        }
+        if (expected == null || actual == null) {
+            JsonNode present = expected == null ? actual : expected;
+            if (!present.isContainerNode()) {
+                differences.add(new Difference(path, expected, actual));
+                return;
+            }
+            // Compare with an empty container, so that ignored paths below are skipped
+            JsonNode empty = present.isObject() ? JsonNodeFactory.instance.objectNode() :
+                    JsonNodeFactory.instance.arrayNode();
+            expected = expected == null ? empty : expected;
+            actual = actual == null ? empty : actual;
+        }
+        if (expected.isObject() && actual.isObject()) {
+            TreeSet<String> fields = new TreeSet<>();
+            expected.fieldNames().forEachRemaining(fields::add);
+            actual.fieldNames().forEachRemaining(fields::add);
+            for (String field : fields) {
+                diff(path + "/" + field, expected.get(field), actual.get(field), differences);
+            }
+        } else if (expected.isArray() && actual.isArray()) {
+            int size = Math.max(expected.size(), actual.size());
+            for (int i = 0; i < size; i++) {
+                diff(path + "/" + i, expected.get(i), actual.get(i), differences);
+            }
+        } else if (expected.isNumber() && actual.isNumber()) {
+            if (expected.decimalValue().compareTo(actual.decimalValue()) != 0) {
+                differences.add(new Difference(path, expected, actual));
+            }
+        } else if (!expected.equals(actual)) {
+            differences.add(new Difference(path, expected, actual));
+        }
+    }
+
+    /**
+     * Treats absent values and JSON nulls alike, as the server omits null fields.
+     */
+    private static JsonNode missingAsNull(JsonNode node) {
+        return node == null || node.isNull() || node.isMissingNode() ? null : node;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.regression;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A pattern over the slash separated paths of {@link JsonDiff}, e.g. <code>/tasks/*&#47;outputData/timestamp</code>.
+ * <code>*</code> matches one path segment and <code>**</code> any number of segments.
+ */
+public class PathPattern {
+
+    private final String pattern;
+
+    private final String[] segments;
+
+    public PathPattern(String pattern) {
+        this.pattern = pattern;
+        this.segments = split(pattern);
+    }
+
+    public boolean matches(String path) {
+        return matches(segments, 0, split(path), 0);
+    }
+
+    public static boolean matchesAny(List<PathPattern> patterns, String path) {
+        if (patterns.isEmpty()) {
+            return false;
+        }
+        String[] pathSegments = split(path);
+        for (PathPattern pattern : patterns) {
+            if (matches(pattern.segments, 0, pathSegments, 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String[] pattern, int p, String[] path, int s) {
+        if (p == pattern.length) {
+            return s == path.length;
+        }
+        if (pattern[p].equals("**")) {
+            for (int skip = s; skip <= path.length; skip++) {
+                if (matches(pattern, p + 1, path, skip)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (s == path.length) {
+            return false;
+        }
+        return (pattern[p].equals("*") || pattern[p].equals(path[s])) && matches(pattern, p + 1, path, s + 1);
+    }
+
+    private static String[] split(String path) {
+        return Arrays.stream(path.split("/")).filter(segment -> !segment.isEmpty()).toArray(String[]::new);
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
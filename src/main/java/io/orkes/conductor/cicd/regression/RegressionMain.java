@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.regression;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.cicd.deploy.MetadataDeployer;
+import io.orkes.conductor.cicd.simulator.WorkflowSimulator;
+import io.orkes.conductor.client.ApiClient;
+import io.orkes.conductor.client.OrkesClients;
+import io.orkes.conductor.client.WorkflowClient;
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Replays recorded executions against the definitions under <code>workflows/</code>, on the server identified by
+ * <code>CONDUCTOR_SERVER_URL</code> or locally.  See {@link RegressionOptions} for the supported arguments.
+ */
+public class RegressionMain {
+
+    public static void main(String[] args) throws IOException {
+        RegressionOptions options = RegressionOptions.parse(args);
+        ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+        List<WorkflowDef> defs = new ArrayList<>();
+        Path workflowsDir = options.getResourcesDir().resolve(MetadataDeployer.WORKFLOWS_DIR);
+        for (Path file : MetadataDeployer.listJsonFiles(workflowsDir)) {
+            defs.add(objectMapper.readValue(file.toFile(), WorkflowDef.class));
+        }
+
+        Function<WorkflowTestRequest, Workflow> replayer;
+        if (options.isLocal()) {
+            WorkflowSimulator simulator = new WorkflowSimulator(objectMapper);
+            defs.forEach(simulator::registerWorkflowDef);
+            replayer = simulator::testWorkflow;
+        } else {
+            String serverURL = System.getenv("CONDUCTOR_SERVER_URL");
+            if (serverURL == null || serverURL.isBlank()) {
+                System.err.println("CONDUCTOR_SERVER_URL is not set, use --local to replay without a server");
+                System.exit(2);
+            }
+            ApiClient apiClient = new ApiClient(serverURL, System.getenv("CONDUCTOR_AUTH_KEY"),
+                    System.getenv("CONDUCTOR_AUTH_SECRET"));
+            WorkflowClient workflowClient = new OrkesClients(apiClient).getWorkflowClient();
+            replayer = workflowClient::testWorkflow;
+        }
+
+        RegressionRunner runner = new RegressionRunner(replayer, defs, objectMapper, options.getIgnored(),
+                options.getMaxDifferences(), options.getConcurrency());
+        RegressionReport report;
+        try (ExecutionArchive archive = ExecutionArchive.open(options.getExecutions())) {
+            report = runner.run(archive);
+        }
+        report.write(objectMapper, options.getReportFile());
+
+        for (RegressionResult result : report.getResults()) {
+            if (result.getOutcome() != RegressionResult.Outcome.PASSED) {
+                System.err.println(result);
+                result.getDifferences().forEach(difference -> System.err.println("  " + difference));
+            }
+        }
+        System.out.println(report.summary());
+        System.out.println("Report written to " + options.getReportFile());
+        System.exit(report.hasFailures() ? 1 : 0);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.regression;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.orkes.conductor.cicd.CommandLineArgs.value;
+
+/**
+ * Command line options of the regression runner.
+ * <pre>
+ *   --executions &lt;path&gt;       directory, zip archive or file of recorded executions (required)
+ *   --resources &lt;dir&gt;         directory containing the current workflows/ (default: src/main/resources)
+ *   --concurrency &lt;n&gt;         executions replayed in parallel (default: 8)
+ *   --ignore &lt;pattern&gt;        path excluded from the comparison, repeatable, see {@link PathPattern}
+ *                              (the asyncComplete flag added by the server to task inputs is always excluded)
+ *   --max-differences &lt;n&gt;     differences reported per execution (default: 20)
+ *   --report &lt;file&gt;           JSON report (default: build/regression/report.json)
+ *   --local                    replay with the in-process simulator instead of CONDUCTOR_SERVER_URL
+ * </pre>
+ */
+public class RegressionOptions {
+
+    public static final List<PathPattern> DEFAULT_IGNORED = List.of(new PathPattern("/tasks/*/inputData/asyncComplete"));
+
+    private Path executions;
+
+    private Path resourcesDir = Paths.get("src/main/resources");
+
+    private int concurrency = 8;
+
+    private List<PathPattern> ignored = new ArrayList<>(DEFAULT_IGNORED);
+
+    private int maxDifferences = 20;
+
+    private Path reportFile = Paths.get("build/regression/report.json");
+
+    private boolean local;
+
+    public static RegressionOptions parse(String[] args) {
+        RegressionOptions options = new RegressionOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--executions":
+                    options.setExecutions(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--resources":
+                    options.setResourcesDir(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--concurrency":
+                    options.setConcurrency(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--ignore":
+                    options.getIgnored().add(new PathPattern(value(args, ++i, arg)));
+                    break;
+                case "--max-differences":
+                    options.setMaxDifferences(Integer.parseInt(value(args, ++i, arg)));
+                    break;
+                case "--report":
+                    options.setReportFile(Paths.get(value(args, ++i, arg)));
+                    break;
+                case "--local":
+                    options.setLocal(true);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (options.getExecutions() == null) {
+            throw new IllegalArgumentException("--executions is required");
+        }
+        return options;
+    }
+
+    public Path getExecutions() {
+        return executions;
+    }
+
+    public void setExecutions(Path executions) {
+        this.executions = executions;
+    }
+
+    public Path getResourcesDir() {
+        return resourcesDir;
+    }
+
+    public void setResourcesDir(Path resourcesDir) {
+        this.resourcesDir = resourcesDir;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public List<PathPattern> getIgnored() {
+        return ignored;
+    }
+
+    public void setIgnored(List<PathPattern> ignored) {
+        this.ignored = ignored;
+    }
+
+    public int getMaxDifferences() {
+        return maxDifferences;
+    }
+
+    public void setMaxDifferences(int maxDifferences) {
+        this.maxDifferences = maxDifferences;
+    }
+
+    public Path getReportFile() {
+        return reportFile;
+    }
+
+    public void setReportFile(Path reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    public boolean isLocal() {
+        return local;
+    }
+
+    public void setLocal(boolean local) {
+        this.local = local;
+    }
+}
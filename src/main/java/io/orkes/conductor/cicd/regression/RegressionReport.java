@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.regression;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Collects the results of a regression run.
+ */
+public class RegressionReport {
+
+    private final List<RegressionResult> results = Collections.synchronizedList(new ArrayList<>());
+
+    private long totalMillis;
+
+    public void add(RegressionResult result) {
+        results.add(result);
+    }
+
+    public List<RegressionResult> getResults() {
+        synchronized (results) {
+            return new ArrayList<>(results);
+        }
+    }
+
+    public long count(RegressionResult.Outcome outcome) {
+        return getResults().stream().filter(r -> r.getOutcome() == outcome).count();
+    }
+
+    public boolean hasFailures() {
+        return count(RegressionResult.Outcome.PASSED) < getResults().size();
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void setTotalMillis(long totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public String summary() {
+        return String.format("Replayed %d execution(s): %d passed, %d failed, %d error(s), in %dms",
+                getResults().size(), count(RegressionResult.Outcome.PASSED), count(RegressionResult.Outcome.FAILED),
+                count(RegressionResult.Outcome.ERROR), totalMillis);
+    }
+
+    public void write(ObjectMapper objectMapper, Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("summary", summary());
+        report.put("passed", count(RegressionResult.Outcome.PASSED));
+        report.put("failed", count(RegressionResult.Outcome.FAILED));
+        report.put("errors", count(RegressionResult.Outcome.ERROR));
+        report.put("totalMillis", totalMillis);
+        report.put("results", getResults());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.regression;
+
+import java.util.List;
+
+/**
+ * Outcome of replaying one recorded execution.
+ */
+public class RegressionResult {
+
+    public enum Outcome {
+        PASSED, FAILED, ERROR
+    }
+
+    private final String execution;
+
+    private final String workflow;
+
+    private final Outcome outcome;
+
+    private final List<Difference> differences;
+
+    private final String error;
+
+    private final long latencyMillis;
+
+    public RegressionResult(String execution, String workflow, List<Difference> differences, long latencyMillis) {
+        this(execution, workflow, differences.isEmpty() ? Outcome.PASSED : Outcome.FAILED, differences, null,
+                latencyMillis);
+    }
+
+    private RegressionResult(String execution, String workflow, Outcome outcome, List<Difference> differences,
+                             String error, long latencyMillis) {
+        this.execution = execution;
+        this.workflow = workflow;
+        this.outcome = outcome;
+        this.differences = differences;
+        this.error = error;
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @return a result for an execution that could not be read or replayed
+     */
+    public static RegressionResult error(String execution, String workflow, Throwable error, long latencyMillis) {
+        return new RegressionResult(execution, workflow, Outcome.ERROR, List.of(), String.valueOf(error),
+                latencyMillis);
+    }
+
+    /**
+     * @return the name of the recorded execution in its archive
+     */
+    public String getExecution() {
+        return execution;
+    }
+
+    /**
+     * @return name:version of the replayed definition, null if it could not be determined
+     */
+    public String getWorkflow() {
+        return workflow;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public List<Difference> getDifferences() {
+        return differences;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    @Override
+    public String toString() {
+        String details = outcome == Outcome.ERROR ? " (" + error + ")" :
+                outcome == Outcome.FAILED ? " (" + differences.size() + " difference(s))" : "";
+        return outcome + " " + execution + " " + workflow + details + " in " + latencyMillis + "ms";
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.regression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.cicd.definitions.ExecutionFixtureReader;
+import io.orkes.conductor.cicd.definitions.ExecutionReader;
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Replays recorded executions against the current workflow definitions and compares the outcome.
+ * <p>
+ * For each execution, the recorded output of every task becomes its mock.  The runs of a task are listed in
+ * execution order under its reference, so DO_WHILE iterations and retries are replayed as they happened.  The
+ * workflow is started with the recorded input.  Then the task sequence, the input, output and status of every task,
+ * and the workflow status, output and variables are compared with {@link JsonDiff}.
+ * <p>
+ * Executions are replayed concurrently, each is read, replayed and diffed on its own so that only
+ * <code>concurrency</code> of them are in memory at any time.  The executions of a fixture file are parsed as the
+ * file is read, so reading waits while <code>concurrency</code> of them are still waiting for their replay.
+ */
+public class RegressionRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(RegressionRunner.class);
+
+    private final Function<WorkflowTestRequest, Workflow> replayer;
+
+    private final ObjectMapper objectMapper;
+
+    private final JsonDiff diff;
+
+    private final int concurrency;
+
+    private final Map<String, WorkflowDef> definitions = new HashMap<>();
+
+    /**
+     * @param replayer    runs a test request, on the server or on the local simulator
+     * @param definitions the current definitions, the latest version of a workflow is replayed; executions of other
+     *                    workflows are replayed with the definition they embed
+     */
+    public RegressionRunner(Function<WorkflowTestRequest, Workflow> replayer, Collection<WorkflowDef> definitions,
+                            ObjectMapper objectMapper, List<PathPattern> ignored, int maxDifferences,
+                            int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1, got " + concurrency);
+        }
+        this.replayer = replayer;
+        this.objectMapper = objectMapper;
+        this.diff = new JsonDiff(ignored, maxDifferences);
+        this.concurrency = concurrency;
+        for (WorkflowDef def : definitions) {
+            WorkflowDef latest = this.definitions.get(def.getName());
+            if (latest == null || latest.getVersion() < def.getVersion()) {
+                this.definitions.put(def.getName(), def);
+            }
+        }
+    }
+
+    public RegressionReport run(ExecutionArchive archive) {
+        RegressionReport report = new RegressionReport();
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        Semaphore parsed = new Semaphore(concurrency);
+        try {
+            List<Future<RegressionResult>> futures = new ArrayList<>();
+            for (String name : archive.getNames()) {
+                if (ExecutionArchive.isFixtureFile(name)) {
+                    submitFixtures(archive, name, executor, parsed, futures);
+                } else {
+                    futures.add(executor.submit(() -> replay(name, () -> {
+                        try (InputStream inputStream = archive.open(name)) {
+                            return objectMapper.readValue(inputStream, Workflow.class);
+                        }
+                    })));
+                }
+            }
+            for (Future<RegressionResult> future : futures) {
+                RegressionResult result = await(future);
+                log.info("{}", result);
+                report.add(result);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        report.setTotalMillis(System.currentTimeMillis() - start);
+        return report;
+    }
+
+    /**
+     * Replays every execution of a fixture file written by the capture tool, named <code>file#index</code>.
+     *
+     * @param parsed a permit per parsed execution not replayed yet, the file is read no further while none is left
+     */
+    private void submitFixtures(ExecutionArchive archive, String name, ExecutorService executor, Semaphore parsed,
+                                List<Future<RegressionResult>> futures) {
+        int[] index = {0};
+        try (InputStream inputStream = archive.open(name)) {
+            new ExecutionFixtureReader(objectMapper).forEach(inputStream, execution -> {
+                String executionName = name + "#" + index[0]++;
+                try {
+                    parsed.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading " + name);
+                }
+                futures.add(executor.submit(() -> {
+                    try {
+                        return replay(executionName, () -> objectMapper.treeToValue(execution, Workflow.class));
+                    } finally {
+                        parsed.release();
+                    }
+                }));
+            });
+        } catch (IOException | RuntimeException e) {
+            futures.add(CompletableFuture.completedFuture(RegressionResult.error(name, null, e, 0)));
+        }
+    }
+
+    RegressionResult replay(String name, Recording recording) {
+        long start = System.currentTimeMillis();
+        String workflow = null;
+        try {
+            Workflow recorded = recording.read();
+            WorkflowDef def = definitionOf(recorded);
+            workflow = def.getName() + ":" + def.getVersion();
+            Workflow replayed = replayer.apply(testRequest(def, recorded));
+            List<Difference> differences = diff.diff(comparable(recorded), comparable(replayed));
+            return new RegressionResult(name, workflow, differences, System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            return RegressionResult.error(name, workflow, e, System.currentTimeMillis() - start);
+        }
+    }
+
+    private WorkflowDef definitionOf(Workflow recorded) throws IOException {
+        WorkflowDef def = definitions.get(recorded.getWorkflowName());
+        if (def == null) {
+            def = recorded.getWorkflowDefinition();
+        }
+        if (def == null) {
+            throw new IOException("No definition found for workflow " + recorded.getWorkflowName());
+        }
+        return def;
+    }
+
+    /**
+     * @return a test request replaying the recorded execution with the given definition
+     */
+    public static WorkflowTestRequest testRequest(WorkflowDef def, Workflow recorded) {
+        WorkflowTestRequest testRequest = new WorkflowTestRequest();
+        testRequest.setName(def.getName());
+        testRequest.setVersion(def.getVersion());
+        testRequest.setWorkflowDef(def);
+        testRequest.setInput(recorded.getInput() == null ? new HashMap<>() : new HashMap<>(recorded.getInput()));
+
+        Map<String, List<WorkflowTestRequest.TaskMock>> taskRefToMockOutput = new HashMap<>();
+        for (Task task : inExecutionOrder(recorded)) {
+            WorkflowTestRequest.TaskMock mock = new WorkflowTestRequest.TaskMock();
+            mock.setStatus(ExecutionReader.mockStatus(task.getStatus()));
+            mock.setOutput(task.getOutputData());
+            taskRefToMockOutput.computeIfAbsent(ExecutionReader.baseRef(task.getReferenceTaskName()),
+                    ref -> new ArrayList<>()).add(mock);
+        }
+        testRequest.setTaskRefToMockOutput(taskRefToMockOutput);
+        return testRequest;
+    }
+
+    /**
+     * The parts of an execution that are compared.  Tasks are keyed by reference, a task that ran more than once
+     * (a retry) is keyed <code>ref#n</code> for its n-th extra run.
+     */
+    JsonNode comparable(Workflow workflow) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("status", workflow.getStatus() == null ? null : workflow.getStatus().name());
+        node.set("output", objectMapper.valueToTree(workflow.getOutput()));
+        node.set("variables", objectMapper.valueToTree(workflow.getVariables()));
+
+        ArrayNode sequence = node.putArray("taskSequence");
+        ObjectNode tasks = node.putObject("tasks");
+        Map<String, Integer> runs = new HashMap<>();
+        for (Task task : inExecutionOrder(workflow)) {
+            String ref = task.getReferenceTaskName();
+            int run = runs.merge(ref, 1, Integer::sum) - 1;
+            String key = run == 0 ? ref : ref + "#" + run;
+            sequence.add(key);
+            ObjectNode taskNode = tasks.putObject(key);
+            taskNode.put("taskType", task.getTaskType());
+            taskNode.put("status", task.getStatus() == null ? null : task.getStatus().name());
+            taskNode.set("inputData", objectMapper.valueToTree(task.getInputData()));
+            taskNode.set("outputData", objectMapper.valueToTree(task.getOutputData()));
+        }
+        return node;
+    }
+
+    private static List<Task> inExecutionOrder(Workflow workflow) {
+        List<Task> tasks = new ArrayList<>(workflow.getTasks());
+        tasks.sort(Comparator.comparingInt(Task::getSeq));
+        return tasks;
+    }
+
+    private interface Recording {
+        Workflow read() throws IOException;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected failure while replaying", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.simulator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves <code>${...}</code> expressions in task and workflow input parameters, e.g.
+ * <code>${workflow.input.userEmail}</code> or <code>${fetch_user_details.output.userAccount}</code>.
+ * <p>
+ * A value that consists of a single expression resolves to the referenced object as-is (maps, lists and numbers keep
+ * their type), expressions embedded in a longer string are substituted with their string value.
+ * Paths are dot separated and support list indexes and quoted keys: <code>${task.output.list[0]['a b']}</code>.
+ */
+public class ExpressionResolver {
+
+    private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([^}]+)}");
+
+    /**
+     * @param value   a parameter value, maps and lists are resolved recursively
+     * @param context root objects the expressions are resolved against, keyed by <code>workflow</code> and task
+     *                reference names
+     */
+    public Object resolve(Object value, Map<String, Object> context) {
+        if (value instanceof String) {
+            return resolveString((String) value, context);
+        }
+        if (value instanceof Map) {
+            Map<String, Object> resolved = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                resolved.put(String.valueOf(entry.getKey()), resolve(entry.getValue(), context));
+            }
+            return resolved;
+        }
+        if (value instanceof List) {
+            List<Object> resolved = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                resolved.add(resolve(element, context));
+            }
+            return resolved;
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> resolveMap(Map<String, Object> parameters, Map<String, Object> context) {
+        if (parameters == null) {
+            return new LinkedHashMap<>();
+        }
+        return (Map<String, Object>) resolve(parameters, context);
+    }
+
+    private Object resolveString(String value, Map<String, Object> context) {
+        Matcher matcher = EXPRESSION.matcher(value);
+        if (!matcher.find()) {
+            return value;
+        }
+        if (matcher.start() == 0 && matcher.end() == value.length()) {
+            return lookup(matcher.group(1), context);
+        }
+        StringBuilder sb = new StringBuilder();
+        matcher.reset();
+        while (matcher.find()) {
+            Object resolved = lookup(matcher.group(1), context);
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(resolved == null ? "" : String.valueOf(resolved)));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * @return the object at the given path, or null if any segment of the path does not exist
+     */
+    public Object lookup(String path, Map<String, Object> context) {
+        Object current = context;
+        for (Object segment : parsePath(path.trim())) {
+            if (current == null) {
+                return null;
+            }
+            if (segment instanceof Integer) {
+                if (!(current instanceof List)) {
+                    return null;
+                }
+                List<?> list = (List<?>) current;
+                int index = (Integer) segment;
+                current = index >= 0 && index < list.size() ? list.get(index) : null;
+            } else if (current instanceof Map) {
+                current = ((Map<?, ?>) current).get(segment);
+            } else {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Splits <code>a.b[0]['c.d']</code> into <code>["a", "b", 0, "c.d"]</code>.  An unquoted bracket segment that is
+     * not a number, as in <code>a[key]</code>, is a key.
+     */
+    static List<Object> parsePath(String path) {
+        List<Object> segments = new ArrayList<>();
+        StringBuilder name = new StringBuilder();
+        int i = 0;
+        while (i < path.length()) {
+            char c = path.charAt(i);
+            if (c == '.') {
+                flush(name, segments);
+                i++;
+            } else if (c == '[') {
+                flush(name, segments);
+                int close = path.indexOf(']', i);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unbalanced '[' in expression " + path);
+                }
+                String index = path.substring(i + 1, close).trim();
+                if (index.length() >= 2 && (index.startsWith("'") || index.startsWith("\""))) {
+                    segments.add(index.substring(1, index.length() - 1));
+                } else if (index.matches("-?\\d{1,9}")) {
+                    segments.add(Integer.parseInt(index));
+                } else {
+                    segments.add(index);
+                }
+                i = close + 1;
+            } else {
+                name.append(c);
+                i++;
+            }
+        }
+        flush(name, segments);
+        return segments;
+    }
+
+    private static void flush(StringBuilder name, List<Object> segments) {
+        if (name.length() > 0) {
+            segments.add(name.toString());
+            name.setLength(0);
+        }
+    }
+}
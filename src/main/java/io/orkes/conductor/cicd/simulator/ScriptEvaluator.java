@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.simulator;
+
+import javax.script.Bindings;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+/**
+ * Evaluates the javascript used by SWITCH expressions, DO_WHILE loop conditions and INLINE tasks, with the task
+ * input bound to <code>$</code> the same way the server does.
+ * <p>
+ * Script engines are not thread-safe, so each thread gets its own.
+ */
+public class ScriptEvaluator {
+
+    private static final String[] ENGINE_NAMES = {"nashorn", "javascript", "graal.js"};
+
+    private final ThreadLocal<ScriptEngine> engines = ThreadLocal.withInitial(ScriptEvaluator::createEngine);
+
+    public Object evaluate(String script, Object input) {
+        ScriptEngine engine = engines.get();
+        Bindings bindings = engine.createBindings();
+        bindings.put("$", input);
+        try {
+            return engine.eval(script, bindings);
+        } catch (ScriptException e) {
+            throw new IllegalArgumentException("Unable to evaluate script: " + script, e);
+        }
+    }
+
+    /**
+     * @return true if the script evaluates to a javascript truthy value
+     */
+    public boolean evaluateCondition(String script, Object input) {
+        Object result = evaluate(script, input);
+        if (result instanceof Boolean) {
+            return (Boolean) result;
+        }
+        if (result instanceof Number) {
+            return ((Number) result).doubleValue() != 0;
+        }
+        if (result instanceof String) {
+            return !((String) result).isEmpty();
+        }
+        return result != null;
+    }
+
+    private static ScriptEngine createEngine() {
+        ScriptEngineManager manager = new ScriptEngineManager();
+        for (String name : ENGINE_NAMES) {
+            ScriptEngine engine = manager.getEngineByName(name);
+            if (engine != null) {
+                return engine;
+            }
+        }
+        throw new IllegalStateException("No javascript engine found on the classpath");
+    }
+}
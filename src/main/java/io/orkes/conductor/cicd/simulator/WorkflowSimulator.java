@@ -0,0 +1,594 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.simulator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.cicd.definitions.ExecutionReader;
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * In-process implementation of <code>WorkflowClient.testWorkflow</code>.
+ * <p>
+ * Executes a {@link WorkflowTestRequest} without a Conductor server: task outputs come from
+ * <code>taskRefToMockOutput</code>, <code>${...}</code> inputs are resolved against the workflow input and the
+ * outputs of previous tasks, and the control flow tasks (SWITCH/DECISION, DO_WHILE, FORK_JOIN, FORK_JOIN_DYNAMIC,
+ * JOIN, SET_VARIABLE, TERMINATE, SUB_WORKFLOW) are evaluated locally.
+ * <p>
+ * Mocks are looked up by task reference name; tasks inside a DO_WHILE loop are first looked up by their iteration
+ * reference name (<code>ref__N</code>).  Consecutive FAILED mocks of a task are treated as retries.  A worker task
+ * (SIMPLE, WAIT, HUMAN, EVENT) without a mock stays scheduled and the workflow is returned as RUNNING, other system
+ * tasks without a mock complete with an empty output.
+ * <p>
+ * The request and the resulting {@link Workflow} are round-tripped through JSON so that the types seen by the test
+ * (e.g. <code>Long</code> for integral numbers) match what the server would return.
+ */
+public class WorkflowSimulator {
+
+    static final int MAX_LOOP_ITERATIONS = 1_000;
+
+    static final int MAX_SUB_WORKFLOW_DEPTH = 32;
+
+    private static final Set<String> WORKER_TASK_TYPES = Set.of(TaskType.SIMPLE.name(), TaskType.WAIT.name(),
+            TaskType.HUMAN.name(), TaskType.EVENT.name());
+
+    private final ObjectMapper objectMapper;
+
+    private final ExpressionResolver resolver = new ExpressionResolver();
+
+    private final ScriptEvaluator scriptEvaluator = new ScriptEvaluator();
+
+    private final Map<String, WorkflowDef> workflowDefs = new ConcurrentHashMap<>();
+
+    public WorkflowSimulator() {
+        this(new ObjectMapperProvider().getObjectMapper());
+    }
+
+    public WorkflowSimulator(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper.copy().enable(DeserializationFeature.USE_LONG_FOR_INTS);
+    }
+
+    /**
+     * Makes the definition available to SUB_WORKFLOW tasks that have neither an inline definition nor a sub-workflow
+     * test request.
+     */
+    public void registerWorkflowDef(WorkflowDef def) {
+        workflowDefs.put(def.getName() + ":" + def.getVersion(), def);
+        workflowDefs.merge(def.getName(), def, (a, b) -> a.getVersion() >= b.getVersion() ? a : b);
+    }
+
+    public Workflow testWorkflow(WorkflowTestRequest testRequest) {
+        WorkflowTestRequest request = roundTrip(testRequest, WorkflowTestRequest.class);
+        Workflow workflow = new Execution(request, null, 0, System.currentTimeMillis()).run();
+        return roundTrip(workflow, Workflow.class);
+    }
+
+    private <T> T roundTrip(Object value, Class<T> type) {
+        try {
+            return objectMapper.readValue(objectMapper.writeValueAsBytes(value), type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to serialize " + type.getSimpleName(), e);
+        }
+    }
+
+    private WorkflowDef findWorkflowDef(String name, Integer version) {
+        WorkflowDef def = version == null ? workflowDefs.get(name) : workflowDefs.get(name + ":" + version);
+        if (def == null) {
+            throw new IllegalArgumentException("Unknown sub workflow " + name + (version == null ? "" : ":" + version)
+                    + ", provide a subWorkflowTestRequest or register it with registerWorkflowDef");
+        }
+        return def;
+    }
+
+    /**
+     * State of a single (sub) workflow execution.
+     */
+    private class Execution {
+
+        private final WorkflowTestRequest request;
+
+        private final WorkflowDef def;
+
+        private final Workflow workflow = new Workflow();
+
+        private final Map<String, Object> context = new HashMap<>();
+
+        private final Map<String, Integer> mockCursors = new HashMap<>();
+
+        private final int depth;
+
+        private List<String> lastDynamicForkRefs = List.of();
+
+        private long clock;
+
+        private int seq;
+
+        // set when the execution cannot progress: the workflow reached a terminal state or is waiting on a task
+        private boolean stopped;
+
+        Execution(WorkflowTestRequest request, Task parentTask, int depth, long startTime) {
+            this.request = request;
+            this.def = request.getWorkflowDef();
+            this.depth = depth;
+            this.clock = startTime;
+            if (def == null) {
+                throw new IllegalArgumentException("WorkflowTestRequest " + request.getName() + " has no workflowDef");
+            }
+
+            workflow.setWorkflowId(UUID.randomUUID().toString());
+            workflow.setWorkflowDefinition(def);
+            workflow.setCorrelationId(request.getCorrelationId());
+            workflow.setInput(request.getInput() == null ? new HashMap<>() : new HashMap<>(request.getInput()));
+            workflow.setVariables(def.getVariables() == null ? new HashMap<>() : new HashMap<>(def.getVariables()));
+            workflow.setStatus(Workflow.WorkflowStatus.RUNNING);
+            workflow.setCreateTime(clock);
+            workflow.setTasks(new ArrayList<>());
+            if (parentTask != null) {
+                workflow.setParentWorkflowId(parentTask.getWorkflowInstanceId());
+                workflow.setParentWorkflowTaskId(parentTask.getTaskId());
+            }
+
+            Map<String, Object> workflowContext = new HashMap<>();
+            workflowContext.put("input", workflow.getInput());
+            workflowContext.put("variables", workflow.getVariables());
+            workflowContext.put("workflowId", workflow.getWorkflowId());
+            workflowContext.put("correlationId", workflow.getCorrelationId());
+            workflowContext.put("workflowType", def.getName());
+            workflowContext.put("version", def.getVersion());
+            context.put("workflow", workflowContext);
+        }
+
+        Workflow run() {
+            executeTasks(def.getTasks(), 0);
+            if (workflow.getStatus() == Workflow.WorkflowStatus.RUNNING && !stopped) {
+                workflow.setStatus(Workflow.WorkflowStatus.COMPLETED);
+            }
+            if (workflow.getOutput() == null || workflow.getOutput().isEmpty()) {
+                workflow.setOutput(resolver.resolveMap(def.getOutputParameters(), context));
+            }
+            if (workflow.getStatus() != Workflow.WorkflowStatus.RUNNING) {
+                workflow.setEndTime(clock);
+            }
+            return workflow;
+        }
+
+        /**
+         * @return false if the execution stopped and no further task should be scheduled
+         */
+        private boolean executeTasks(List<WorkflowTask> tasks, int iteration) {
+            if (tasks == null) {
+                return true;
+            }
+            for (WorkflowTask task : tasks) {
+                if (!execute(task, iteration) || stopped) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean execute(WorkflowTask workflowTask, int iteration) {
+            String type = workflowTask.getType();
+            if (TaskType.SWITCH.name().equals(type) || TaskType.DECISION.name().equals(type)) {
+                return executeSwitch(workflowTask, iteration);
+            } else if (TaskType.DO_WHILE.name().equals(type)) {
+                return executeDoWhile(workflowTask, iteration);
+            } else if (TaskType.FORK_JOIN.name().equals(type)) {
+                return executeFork(workflowTask, iteration);
+            } else if (TaskType.FORK_JOIN_DYNAMIC.name().equals(type)) {
+                return executeDynamicFork(workflowTask, iteration);
+            } else if (TaskType.JOIN.name().equals(type)) {
+                return executeJoin(workflowTask, iteration);
+            } else if (TaskType.SET_VARIABLE.name().equals(type)) {
+                Task task = newTask(workflowTask, iteration);
+                workflow.getVariables().putAll(task.getInputData());
+                return complete(task, Task.Status.COMPLETED, new HashMap<>());
+            } else if (TaskType.TERMINATE.name().equals(type)) {
+                return executeTerminate(workflowTask, iteration);
+            } else if (TaskType.SUB_WORKFLOW.name().equals(type)) {
+                return executeSubWorkflow(workflowTask, iteration);
+            }
+            return executeMocked(workflowTask, iteration);
+        }
+
+        private boolean executeMocked(WorkflowTask workflowTask, int iteration) {
+            List<WorkflowTestRequest.TaskMock> mocks = findMocks(workflowTask, iteration);
+            if (mocks == null) {
+                Task task = newTask(workflowTask, iteration);
+                if (TaskType.INLINE.name().equals(workflowTask.getType())) {
+                    Object result = scriptEvaluator.evaluate(String.valueOf(task.getInputData().get("expression")),
+                            task.getInputData());
+                    Map<String, Object> output = new HashMap<>();
+                    output.put("result", result);
+                    return complete(task, Task.Status.COMPLETED, output);
+                }
+                if (WORKER_TASK_TYPES.contains(workflowTask.getType())) {
+                    // Nothing to complete the task with, the server would leave it scheduled
+                    task.setStatus(Task.Status.SCHEDULED);
+                    record(task);
+                    stopped = true;
+                    return false;
+                }
+                return complete(task, Task.Status.COMPLETED, new HashMap<>());
+            }
+
+            String key = mockKey(workflowTask, iteration);
+            int cursor = mockCursors.getOrDefault(key, 0);
+            int retryCount = 0;
+            while (true) {
+                WorkflowTestRequest.TaskMock mock = mocks.get(Math.min(cursor, mocks.size() - 1));
+                cursor++;
+                Task task = newTask(workflowTask, iteration);
+                task.setRetryCount(retryCount);
+                task.setPollCount(1);
+                clock += mock.getQueueWaitTime();
+                task.setStartTime(clock);
+                clock += mock.getExecutionTime();
+
+                TaskResult.Status status = mock.getStatus() == null ? TaskResult.Status.COMPLETED : mock.getStatus();
+                Map<String, Object> output = mock.getOutput() == null ? new HashMap<>() : new HashMap<>(mock.getOutput());
+                if (status == TaskResult.Status.FAILED && cursor < mocks.size()) {
+                    task.setRetried(true);
+                    complete(task, Task.Status.FAILED, output);
+                    retryCount++;
+                    continue;
+                }
+                mockCursors.put(key, cursor);
+                return complete(task, Task.Status.valueOf(status.name()), output);
+            }
+        }
+
+        private boolean executeSwitch(WorkflowTask workflowTask, int iteration) {
+            Task task = newTask(workflowTask, iteration);
+            Map<String, Object> input = task.getInputData();
+            String caseValue;
+            if (workflowTask.getEvaluatorType() != null && !"value-param".equals(workflowTask.getEvaluatorType())) {
+                caseValue = String.valueOf(scriptEvaluator.evaluate(workflowTask.getExpression(), input));
+            } else if (workflowTask.getExpression() != null) {
+                caseValue = String.valueOf(input.get(workflowTask.getExpression()));
+            } else if (workflowTask.getCaseValueParam() != null) {
+                caseValue = String.valueOf(input.get(workflowTask.getCaseValueParam()));
+            } else {
+                caseValue = String.valueOf(scriptEvaluator.evaluate(workflowTask.getCaseExpression(), input));
+            }
+            Map<String, Object> output = new HashMap<>();
+            output.put("evaluationResult", List.of(caseValue));
+            complete(task, Task.Status.COMPLETED, output);
+
+            List<WorkflowTask> branch = workflowTask.getDecisionCases() == null ? null :
+                    workflowTask.getDecisionCases().get(caseValue);
+            return executeTasks(branch != null ? branch : workflowTask.getDefaultCase(), iteration);
+        }
+
+        private boolean executeDoWhile(WorkflowTask workflowTask, int iteration) {
+            Task loopTask = newTask(workflowTask, iteration);
+            loopTask.setStatus(Task.Status.IN_PROGRESS);
+            record(loopTask);
+            Map<String, Object> loopOutput = loopTask.getOutputData();
+
+            for (int i = 1; ; i++) {
+                if (i > MAX_LOOP_ITERATIONS) {
+                    return fail(loopTask, "DO_WHILE " + workflowTask.getTaskReferenceName() + " exceeded "
+                            + MAX_LOOP_ITERATIONS + " iterations");
+                }
+                int firstTask = workflow.getTasks().size();
+                boolean completed = executeTasks(workflowTask.getLoopOver(), i);
+
+                Map<String, Object> iterationOutput = new HashMap<>();
+                for (Task task : workflow.getTasks().subList(firstTask, workflow.getTasks().size())) {
+                    iterationOutput.put(ExecutionReader.baseRef(task.getReferenceTaskName()), task.getOutputData());
+                }
+                loopOutput.put("iteration", i);
+                loopOutput.put(String.valueOf(i), iterationOutput);
+                loopTask.setIteration(i);
+
+                if (!completed) {
+                    if (workflow.getStatus() != Workflow.WorkflowStatus.RUNNING) {
+                        loopTask.setStatus(Task.Status.CANCELED);
+                    }
+                    return false;
+                }
+
+                String condition = workflowTask.getLoopCondition();
+                if (condition == null || condition.isBlank()) {
+                    break;
+                }
+                Map<String, Object> conditionInput = new HashMap<>(loopTask.getInputData());
+                conditionInput.put(workflowTask.getTaskReferenceName(), loopOutput);
+                iterationOutput.forEach(conditionInput::put);
+                if (!scriptEvaluator.evaluateCondition(condition, conditionInput)) {
+                    break;
+                }
+            }
+            loopTask.setStatus(Task.Status.COMPLETED);
+            loopTask.setEndTime(clock);
+            return true;
+        }
+
+        private boolean executeFork(WorkflowTask workflowTask, int iteration) {
+            complete(newTask(workflowTask, iteration), Task.Status.COMPLETED, new HashMap<>());
+            if (workflowTask.getForkTasks() == null) {
+                return true;
+            }
+            for (List<WorkflowTask> branch : workflowTask.getForkTasks()) {
+                if (!executeTasks(branch, iteration)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean executeDynamicFork(WorkflowTask workflowTask, int iteration) {
+            Task forkTask = newTask(workflowTask, iteration);
+            Map<String, Object> input = forkTask.getInputData();
+            List<WorkflowTask> dynamicTasks = new ArrayList<>();
+
+            Object forkTaskName = input.get("forkTaskName");
+            Object forkTaskInputs = input.get("forkTaskInputs");
+            if (forkTaskName != null && forkTaskInputs instanceof List) {
+                List<Object> inputs = (List<Object>) forkTaskInputs;
+                for (int i = 0; i < inputs.size(); i++) {
+                    WorkflowTask dynamicTask = new WorkflowTask();
+                    dynamicTask.setName(String.valueOf(forkTaskName));
+                    dynamicTask.setTaskReferenceName("_" + forkTaskName + "_" + i);
+                    dynamicTask.setType(String.valueOf(input.getOrDefault("forkTaskType", TaskType.SIMPLE.name())));
+                    Object taskInput = inputs.get(i);
+                    dynamicTask.setInputParameters(taskInput instanceof Map ? (Map<String, Object>) taskInput :
+                            new HashMap<>(Map.of("input", taskInput)));
+                    dynamicTasks.add(dynamicTask);
+                }
+            } else if (workflowTask.getDynamicForkTasksParam() != null) {
+                Object tasks = input.get(workflowTask.getDynamicForkTasksParam());
+                Object tasksInput = workflowTask.getDynamicForkTasksInputParamName() == null ? null :
+                        input.get(workflowTask.getDynamicForkTasksInputParamName());
+                if (tasks instanceof List) {
+                    for (Object task : (List<Object>) tasks) {
+                        WorkflowTask dynamicTask = objectMapper.convertValue(task, WorkflowTask.class);
+                        if (tasksInput instanceof Map) {
+                            Object taskInput = ((Map<String, Object>) tasksInput).get(dynamicTask.getTaskReferenceName());
+                            if (taskInput instanceof Map) {
+                                dynamicTask.setInputParameters((Map<String, Object>) taskInput);
+                            }
+                        }
+                        dynamicTasks.add(dynamicTask);
+                    }
+                }
+            }
+
+            complete(forkTask, Task.Status.COMPLETED, new HashMap<>());
+            List<String> refs = new ArrayList<>();
+            for (WorkflowTask dynamicTask : dynamicTasks) {
+                refs.add(iterationRef(dynamicTask.getTaskReferenceName(), iteration));
+                if (!execute(dynamicTask, iteration) || stopped) {
+                    return false;
+                }
+            }
+            lastDynamicForkRefs = refs;
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean executeJoin(WorkflowTask workflowTask, int iteration) {
+            Task task = newTask(workflowTask, iteration);
+            List<String> joinOn = workflowTask.getJoinOn() == null || workflowTask.getJoinOn().isEmpty() ?
+                    lastDynamicForkRefs : workflowTask.getJoinOn();
+            Map<String, Object> output = new HashMap<>();
+            for (String ref : joinOn) {
+                Object joined = context.get(iterationRef(ref, iteration));
+                if (joined == null) {
+                    joined = context.get(ref);
+                }
+                if (joined instanceof Map) {
+                    output.put(ref, ((Map<String, Object>) joined).get("output"));
+                }
+            }
+            return complete(task, Task.Status.COMPLETED, output);
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean executeTerminate(WorkflowTask workflowTask, int iteration) {
+            Task task = newTask(workflowTask, iteration);
+            Map<String, Object> input = task.getInputData();
+            String status = String.valueOf(input.getOrDefault("terminationStatus", "COMPLETED"));
+            Object workflowOutput = input.get("workflowOutput");
+            Map<String, Object> output = workflowOutput instanceof Map ?
+                    new HashMap<>((Map<String, Object>) workflowOutput) : new HashMap<>();
+            complete(task, Task.Status.COMPLETED, output);
+
+            workflow.setStatus(Workflow.WorkflowStatus.valueOf(status));
+            if (input.get("terminationReason") != null) {
+                workflow.setReasonForIncompletion(String.valueOf(input.get("terminationReason")));
+            }
+            if (workflowOutput instanceof Map) {
+                workflow.setOutput(output);
+            }
+            stopped = true;
+            return false;
+        }
+
+        private boolean executeSubWorkflow(WorkflowTask workflowTask, int iteration) {
+            WorkflowTestRequest subRequest = request.getSubWorkflowTestRequest() == null ? null :
+                    request.getSubWorkflowTestRequest().get(iterationRef(workflowTask.getTaskReferenceName(), iteration));
+            if (subRequest == null && request.getSubWorkflowTestRequest() != null) {
+                subRequest = request.getSubWorkflowTestRequest().get(workflowTask.getTaskReferenceName());
+            }
+            if (subRequest == null && findMocks(workflowTask, iteration) != null) {
+                return executeMocked(workflowTask, iteration);
+            }
+
+            Task task = newTask(workflowTask, iteration);
+            if (depth + 1 > MAX_SUB_WORKFLOW_DEPTH) {
+                return fail(task, "Sub workflow nesting exceeds " + MAX_SUB_WORKFLOW_DEPTH + " levels");
+            }
+            WorkflowTestRequest effectiveRequest = new WorkflowTestRequest();
+            if (subRequest != null) {
+                effectiveRequest.setWorkflowDef(subRequest.getWorkflowDef());
+                effectiveRequest.setTaskRefToMockOutput(subRequest.getTaskRefToMockOutput());
+                effectiveRequest.setSubWorkflowTestRequest(subRequest.getSubWorkflowTestRequest());
+            }
+            if (effectiveRequest.getWorkflowDef() == null) {
+                SubWorkflowParams params = workflowTask.getSubWorkflowParam();
+                if (params == null) {
+                    return fail(task, "SUB_WORKFLOW " + workflowTask.getTaskReferenceName() + " has no subWorkflowParam");
+                }
+                try {
+                    effectiveRequest.setWorkflowDef(params.getWorkflowDefinition() instanceof WorkflowDef ?
+                            (WorkflowDef) params.getWorkflowDefinition() :
+                            findWorkflowDef(params.getName(), params.getVersion()));
+                } catch (IllegalArgumentException e) {
+                    return fail(task, e.getMessage());
+                }
+            }
+            effectiveRequest.setName(effectiveRequest.getWorkflowDef().getName());
+            effectiveRequest.setVersion(effectiveRequest.getWorkflowDef().getVersion());
+            effectiveRequest.setInput(task.getInputData());
+
+            Execution subExecution = new Execution(effectiveRequest, task, depth + 1, clock);
+            Workflow subWorkflow = subExecution.run();
+            clock = subExecution.clock;
+            task.setSubWorkflowId(subWorkflow.getWorkflowId());
+
+            Map<String, Object> output = subWorkflow.getOutput() == null ? new HashMap<>() :
+                    new HashMap<>(subWorkflow.getOutput());
+            switch (subWorkflow.getStatus()) {
+                case COMPLETED:
+                    return complete(task, Task.Status.COMPLETED, output);
+                case RUNNING:
+                case PAUSED:
+                    task.setStatus(Task.Status.IN_PROGRESS);
+                    task.setOutputData(output);
+                    record(task);
+                    stopped = true;
+                    return false;
+                default:
+                    task.setReasonForIncompletion(subWorkflow.getReasonForIncompletion());
+                    return complete(task, Task.Status.FAILED, output);
+            }
+        }
+
+        private Task newTask(WorkflowTask workflowTask, int iteration) {
+            Task task = new Task();
+            String type = workflowTask.getType() == null ? TaskType.SIMPLE.name() : workflowTask.getType();
+            task.setTaskType(TaskType.SIMPLE.name().equals(type) ? workflowTask.getName() : type);
+            task.setTaskDefName(workflowTask.getName());
+            task.setReferenceTaskName(iterationRef(workflowTask.getTaskReferenceName(), iteration));
+            task.setWorkflowTask(workflowTask);
+            task.setTaskId(UUID.randomUUID().toString());
+            task.setWorkflowInstanceId(workflow.getWorkflowId());
+            task.setWorkflowType(def.getName());
+            task.setCorrelationId(workflow.getCorrelationId());
+            task.setIteration(iteration);
+            task.setInputData(resolver.resolveMap(workflowTask.getInputParameters(), context));
+            task.setOutputData(new HashMap<>());
+            task.setScheduledTime(clock);
+            task.setStartTime(clock);
+            return task;
+        }
+
+        /**
+         * Records the task with its final status, and fails the workflow if the task failed and is not optional.
+         */
+        private boolean complete(Task task, Task.Status status, Map<String, Object> output) {
+            task.setOutputData(output);
+            task.setEndTime(clock);
+            boolean failed = !status.isSuccessful();
+            if (failed && !task.isRetried() && task.getWorkflowTask() != null && task.getWorkflowTask().isOptional()) {
+                status = Task.Status.COMPLETED_WITH_ERRORS;
+                failed = false;
+            }
+            task.setStatus(status);
+            record(task);
+            if (failed && !task.isRetried()) {
+                workflow.setStatus(Workflow.WorkflowStatus.FAILED);
+                workflow.setReasonForIncompletion("Task " + task.getReferenceTaskName() + " failed"
+                        + (task.getReasonForIncompletion() == null ? "" : ": " + task.getReasonForIncompletion()));
+                stopped = true;
+                return false;
+            }
+            if (status == Task.Status.IN_PROGRESS || status == Task.Status.SCHEDULED) {
+                stopped = true;
+                return false;
+            }
+            return true;
+        }
+
+        private boolean fail(Task task, String reason) {
+            task.setReasonForIncompletion(reason);
+            task.setStatus(Task.Status.FAILED);
+            task.setEndTime(clock);
+            if (!workflow.getTasks().contains(task)) {
+                record(task);
+            }
+            workflow.setStatus(Workflow.WorkflowStatus.FAILED);
+            workflow.setReasonForIncompletion(reason);
+            stopped = true;
+            return false;
+        }
+
+        private void record(Task task) {
+            task.setSeq(++seq);
+            workflow.getTasks().add(task);
+
+            Map<String, Object> taskContext = new HashMap<>();
+            taskContext.put("input", task.getInputData());
+            taskContext.put("output", task.getOutputData());
+            taskContext.put("status", task.getStatus() == null ? null : task.getStatus().name());
+            taskContext.put("taskId", task.getTaskId());
+            taskContext.put("referenceTaskName", task.getReferenceTaskName());
+            taskContext.put("retryCount", task.getRetryCount());
+            // the latest iteration is also reachable through the plain reference name
+            context.put(task.getReferenceTaskName(), taskContext);
+            context.put(ExecutionReader.baseRef(task.getReferenceTaskName()), taskContext);
+        }
+
+        private List<WorkflowTestRequest.TaskMock> findMocks(WorkflowTask workflowTask, int iteration) {
+            Map<String, List<WorkflowTestRequest.TaskMock>> mocks = request.getTaskRefToMockOutput();
+            if (mocks == null) {
+                return null;
+            }
+            List<WorkflowTestRequest.TaskMock> found = mocks.get(mockKey(workflowTask, iteration));
+            return found == null || found.isEmpty() ? null : found;
+        }
+
+        private String mockKey(WorkflowTask workflowTask, int iteration) {
+            String ref = workflowTask.getTaskReferenceName();
+            String iterationRef = iterationRef(ref, iteration);
+            Map<String, List<WorkflowTestRequest.TaskMock>> mocks = request.getTaskRefToMockOutput();
+            return mocks != null && mocks.containsKey(iterationRef) ? iterationRef : ref;
+        }
+    }
+
+    static String iterationRef(String ref, int iteration) {
+        return iteration > 0 ? ref + "__" + iteration : ref;
+    }
+}
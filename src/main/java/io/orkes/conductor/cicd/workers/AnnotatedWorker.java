@@ -0,0 +1,140 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.sdk.workflow.task.InputParam;
+import com.netflix.conductor.sdk.workflow.task.WorkerTask;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A method annotated with {@link WorkerTask}, invoked with the input of a polled task.
+ * <p>
+ * Parameters annotated with {@link InputParam} receive the named input converted to the parameter type, a
+ * {@link Task} parameter receives the task itself and any other parameter receives the whole input converted to its
+ * type.  A returned {@link TaskResult} is used as-is, a returned map becomes the task output and any other value is
+ * put under the <code>result</code> key of the output.
+ */
+public class AnnotatedWorker {
+
+    private final String taskType;
+
+    private final Object target;
+
+    private final Method method;
+
+    private final WorkerTask annotation;
+
+    private final ObjectMapper objectMapper;
+
+    private final JavaType[] parameterTypes;
+
+    private final String[] inputNames;
+
+    AnnotatedWorker(Object target, Method method, ObjectMapper objectMapper) {
+        this.target = target;
+        this.method = method;
+        this.annotation = method.getAnnotation(WorkerTask.class);
+        this.taskType = annotation.value();
+        this.objectMapper = objectMapper;
+
+        Parameter[] parameters = method.getParameters();
+        parameterTypes = new JavaType[parameters.length];
+        inputNames = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            parameterTypes[i] = objectMapper.constructType(parameters[i].getParameterizedType());
+            InputParam inputParam = parameters[i].getAnnotation(InputParam.class);
+            inputNames[i] = inputParam == null ? null : inputParam.value();
+        }
+        method.setAccessible(true);
+    }
+
+    /**
+     * @return a worker for every method of the object annotated with {@link WorkerTask}
+     */
+    public static List<AnnotatedWorker> scan(Object target, ObjectMapper objectMapper) {
+        List<AnnotatedWorker> workers = new ArrayList<>();
+        for (Method method : target.getClass().getMethods()) {
+            if (method.isAnnotationPresent(WorkerTask.class)) {
+                workers.add(new AnnotatedWorker(target, method, objectMapper));
+            }
+        }
+        return workers;
+    }
+
+    public String getTaskType() {
+        return taskType;
+    }
+
+    public WorkerTask getAnnotation() {
+        return annotation;
+    }
+
+    @SuppressWarnings("unchecked")
+    public TaskResult execute(Task task) {
+        TaskResult result = new TaskResult(task);
+        Object returned;
+        try {
+            returned = method.invoke(target, arguments(task));
+        } catch (InvocationTargetException e) {
+            return failed(result, e.getCause());
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            return failed(result, e);
+        }
+
+        if (returned instanceof TaskResult) {
+            return (TaskResult) returned;
+        }
+        Map<String, Object> output = new HashMap<>();
+        if (returned instanceof Map) {
+            output.putAll((Map<String, Object>) returned);
+        } else if (returned != null) {
+            output.put("result", returned);
+        }
+        result.setOutputData(output);
+        result.setStatus(TaskResult.Status.COMPLETED);
+        return result;
+    }
+
+    private Object[] arguments(Task task) {
+        Object[] args = new Object[parameterTypes.length];
+        Map<String, Object> input = task.getInputData();
+        for (int i = 0; i < args.length; i++) {
+            if (parameterTypes[i].getRawClass() == Task.class) {
+                args[i] = task;
+            } else if (inputNames[i] != null) {
+                args[i] = objectMapper.convertValue(input.get(inputNames[i]), parameterTypes[i]);
+            } else {
+                args[i] = objectMapper.convertValue(input, parameterTypes[i]);
+            }
+        }
+        return args;
+    }
+
+    private static TaskResult failed(TaskResult result, Throwable error) {
+        result.setStatus(TaskResult.Status.FAILED);
+        result.setReasonForIncompletion(String.valueOf(error));
+        return result;
+    }
+}
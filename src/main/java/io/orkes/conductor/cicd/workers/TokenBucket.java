@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket refilled continuously with <code>permits</code> tokens every <code>period</code>, holding at
+ * most <code>permits</code> tokens, i.e. the <code>rateLimitPerFrequency</code> and
+ * <code>rateLimitFrequencyInSeconds</code> of a task definition.
+ * <p>
+ * The state is a single timestamp, the time at which the bucket will be full again (the generic cell rate
+ * algorithm), updated with compare-and-set.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+
+    private final long intervalNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong fullAt;
+
+    public TokenBucket(long permits, long period, TimeUnit unit) {
+        this(permits, period, unit, System::nanoTime);
+    }
+
+    TokenBucket(long permits, long period, TimeUnit unit, LongSupplier nanoClock) {
+        if (permits < 1 || period < 1) {
+            throw new IllegalArgumentException("Invalid rate " + permits + " per " + period + " " + unit);
+        }
+        this.capacity = permits;
+        this.intervalNanos = Math.max(1, unit.toNanos(period) / permits);
+        this.nanoClock = nanoClock;
+        this.fullAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Takes up to <code>count</code> tokens without waiting.
+     *
+     * @return the number of tokens taken, 0 if the bucket is empty
+     */
+    public long tryAcquire(long count) {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = fullAt.get();
+            long from = Math.max(current, now);
+            // A token partially refilled is not available yet
+            long available = capacity - (from - now + intervalNanos - 1) / intervalNanos;
+            long taken = Math.min(count, Math.max(0, available));
+            if (taken == 0) {
+                return 0;
+            }
+            if (fullAt.compareAndSet(current, from + taken * intervalNanos)) {
+                return taken;
+            }
+        }
+    }
+
+    /**
+     * Returns tokens taken but not used, e.g. when a poll returned fewer tasks than asked for.
+     */
+    public void release(long count) {
+        if (count > 0) {
+            fullAt.addAndGet(-count * intervalNanos);
+        }
+    }
+
+    /**
+     * @return how long until at least one token is available, 0 if one is available now
+     */
+    public long nanosUntilAvailable() {
+        long now = nanoClock.getAsLong();
+        return Math.max(0, fullAt.get() - (capacity - 1) * intervalNanos - now);
+    }
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workers;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.conductor.client.http.TaskClient;
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.sdk.workflow.task.WorkerTask;
+
+import io.orkes.conductor.cicd.deploy.AdaptiveConcurrencyLimiter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Hosts the {@link WorkerTask} methods of the registered objects.
+ * <p>
+ * Each task type gets a poller thread and a fixed pool of <code>threadCount</code> execution threads.  The poller
+ * only asks the server for as many tasks as there are idle execution threads (up to <code>batchSize</code>) in a
+ * single batch poll, and backs off for <code>pollingInterval</code> when the queue is empty.  Results are sent back on
+ * a separate reporting pool so that execution threads move on to the next task right away; a slot is freed only once
+ * its result is acknowledged, which keeps the number of tasks held by this JVM bounded.
+ * <p>
+ * The limits of the task definition are enforced before asking the server, see {@link WorkerSettings}: polls take
+ * tokens from a {@link TokenBucket}, and when executions get slower than the latency threshold an
+ * {@link AdaptiveConcurrencyLimiter} lowers the number of tasks in flight, which pauses polling until it recovers.
+ * An execution still running after <code>responseTimeoutSeconds</code> is interrupted and its result dropped: the
+ * server has rescheduled the task by then.
+ * <p>
+ * Poll latency, execution time, in-flight tasks and the server queue backlog are tracked per task type in
+ * {@link WorkerMetrics}.
+ */
+public class WorkerHost implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerHost.class);
+
+    static final int POLL_TIMEOUT_MILLIS = 100;
+
+    static final int UPDATE_ATTEMPTS = 3;
+
+    private static final long BACKLOG_CHECK_SECONDS = 10;
+
+    private final TaskClient taskClient;
+
+    private final ObjectMapper objectMapper;
+
+    private final String workerId;
+
+    private final ExecutorService reporter;
+
+    private final ScheduledExecutorService backlogMonitor;
+
+    private final ScheduledThreadPoolExecutor watchdog;
+
+    private final Map<String, TaskPoller> pollers = new LinkedHashMap<>();
+
+    public WorkerHost(TaskClient taskClient) {
+        this(taskClient, new ObjectMapperProvider().getObjectMapper(), 4);
+    }
+
+    public WorkerHost(TaskClient taskClient, ObjectMapper objectMapper, int reporterThreads) {
+        this.taskClient = taskClient;
+        this.objectMapper = objectMapper;
+        this.workerId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.reporter = Executors.newFixedThreadPool(reporterThreads, threadFactory("worker-reporter"));
+        this.backlogMonitor = Executors.newSingleThreadScheduledExecutor(threadFactory("worker-backlog"));
+        this.watchdog = new ScheduledThreadPoolExecutor(1, threadFactory("worker-watchdog"));
+        this.watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Registers every {@link WorkerTask} method of the object, with the settings from {@link WorkerSettings#of}.
+     */
+    public WorkerHost register(Object workers) {
+        return register(workers, taskType -> null);
+    }
+
+    /**
+     * Registers every {@link WorkerTask} method of the object, with the limits of its task definition.
+     *
+     * @param taskDefs looks up the definition of a task type, returns null when there is none
+     */
+    public WorkerHost register(Object workers, Function<String, TaskDef> taskDefs) {
+        for (AnnotatedWorker worker : AnnotatedWorker.scan(workers, objectMapper)) {
+            register(worker, WorkerSettings.of(worker.getTaskType(), worker.getAnnotation(),
+                    taskDefs.apply(worker.getTaskType())));
+        }
+        return this;
+    }
+
+    public synchronized WorkerHost register(AnnotatedWorker worker, WorkerSettings settings) {
+        if (pollers.containsKey(worker.getTaskType())) {
+            throw new IllegalArgumentException("A worker is already registered for " + worker.getTaskType());
+        }
+        pollers.put(worker.getTaskType(), new TaskPoller(worker, settings));
+        return this;
+    }
+
+    public synchronized void start() {
+        for (TaskPoller poller : pollers.values()) {
+            poller.start();
+            log.info("Started {} worker thread(s) for {}", poller.settings.getThreadCount(), poller.worker.getTaskType());
+        }
+        backlogMonitor.scheduleWithFixedDelay(this::checkBacklog, 0, BACKLOG_CHECK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public synchronized Map<String, WorkerMetrics> getMetrics() {
+        Map<String, WorkerMetrics> metrics = new LinkedHashMap<>();
+        pollers.forEach((taskType, poller) -> metrics.put(taskType, poller.metrics));
+        return metrics;
+    }
+
+    @Override
+    public synchronized void close() {
+        backlogMonitor.shutdownNow();
+        for (TaskPoller poller : pollers.values()) {
+            poller.stop();
+        }
+        watchdog.shutdownNow();
+        reporter.shutdown();
+        try {
+            if (!reporter.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Some task results were not reported before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkBacklog() {
+        for (TaskPoller poller : getPollers()) {
+            try {
+                poller.metrics.queueBacklog.set(taskClient.getQueueSizeForTask(poller.worker.getTaskType()));
+            } catch (RuntimeException e) {
+                log.debug("Unable to get the queue size of {}", poller.worker.getTaskType(), e);
+            }
+        }
+    }
+
+    private synchronized List<TaskPoller> getPollers() {
+        return new ArrayList<>(pollers.values());
+    }
+
+    private class TaskPoller {
+
+        private final AnnotatedWorker worker;
+
+        private final WorkerSettings settings;
+
+        private final WorkerMetrics metrics;
+
+        private final Semaphore slots;
+
+        private final TokenBucket rateLimit;
+
+        private final AdaptiveConcurrencyLimiter limiter;
+
+        private final ThreadPoolExecutor executor;
+
+        private final Thread pollThread;
+
+        private volatile boolean running;
+
+        TaskPoller(AnnotatedWorker worker, WorkerSettings settings) {
+            this.worker = worker;
+            this.settings = settings;
+            this.metrics = new WorkerMetrics(worker.getTaskType());
+            this.slots = new Semaphore(settings.getThreadCount());
+            this.rateLimit = settings.getRateLimitPerFrequency() > 0 ?
+                    new TokenBucket(settings.getRateLimitPerFrequency(), settings.getRateLimitFrequencySeconds(),
+                            TimeUnit.SECONDS) : null;
+            this.limiter = settings.getLatencyThresholdMillis() > 0 ?
+                    new AdaptiveConcurrencyLimiter(settings.getThreadCount(), 1, settings.getThreadCount(),
+                            settings.getLatencyThresholdMillis()) : null;
+            this.metrics.concurrencyLimit.set(settings.getThreadCount());
+            // The semaphore bounds the queue: at most threadCount tasks are ever submitted
+            this.executor = new ThreadPoolExecutor(settings.getThreadCount(), settings.getThreadCount(), 0,
+                    TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory("worker-" + worker.getTaskType()));
+            this.pollThread = threadFactory("poller-" + worker.getTaskType()).newThread(this::pollLoop);
+        }
+
+        void start() {
+            running = true;
+            pollThread.start();
+        }
+
+        void stop() {
+            running = false;
+            pollThread.interrupt();
+            executor.shutdown();
+            try {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void pollLoop() {
+            while (running) {
+                try {
+                    int count = admit(acquireSlots());
+                    List<Task> tasks = poll(count);
+                    slots.release(count - tasks.size());
+                    if (rateLimit != null) {
+                        rateLimit.release(count - tasks.size());
+                    }
+                    if (limiter != null) {
+                        limiter.cancel(count - tasks.size());
+                    }
+                    for (Task task : tasks) {
+                        metrics.inFlight.incrementAndGet();
+                        executor.execute(() -> execute(task));
+                    }
+                    if (tasks.isEmpty() && settings.getPollingIntervalMillis() > 0) {
+                        Thread.sleep(settings.getPollingIntervalMillis());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Waits for at least one idle thread and claims as many idle threads as a batch can use.
+         */
+        private int acquireSlots() throws InterruptedException {
+            slots.acquire();
+            int count = 1 + slots.drainPermits();
+            int batch = Math.min(count, settings.getBatchSize());
+            slots.release(count - batch);
+            return batch;
+        }
+
+        /**
+         * Waits until the concurrency limit and the rate limit allow at least one task, reserves what they allow, and
+         * gives back the slots they do not allow.  The reservations are held until the polled tasks are done, so a
+         * limit lowered meanwhile never blocks a task that was already polled.
+         */
+        private int admit(int count) throws InterruptedException {
+            int admitted = count;
+            if (limiter != null) {
+                admitted = limiter.acquire(admitted);
+                metrics.concurrencyLimit.set(limiter.getLimit());
+            }
+            if (rateLimit != null) {
+                long taken;
+                while ((taken = rateLimit.tryAcquire(admitted)) == 0) {
+                    metrics.rateLimited.increment();
+                    TimeUnit.NANOSECONDS.sleep(Math.max(TimeUnit.MILLISECONDS.toNanos(1),
+                            rateLimit.nanosUntilAvailable()));
+                }
+                if (limiter != null) {
+                    limiter.cancel(admitted - (int) taken);
+                }
+                admitted = (int) taken;
+            }
+            slots.release(count - admitted);
+            return admitted;
+        }
+
+        private List<Task> poll(int count) {
+            long start = System.nanoTime();
+            try {
+                List<Task> tasks = settings.getDomain() == null ?
+                        taskClient.batchPollTasksByTaskType(worker.getTaskType(), workerId, count, POLL_TIMEOUT_MILLIS) :
+                        taskClient.batchPollTasksInDomain(worker.getTaskType(), settings.getDomain(), workerId, count,
+                                POLL_TIMEOUT_MILLIS);
+                if (tasks == null || tasks.isEmpty()) {
+                    metrics.emptyPolls.increment();
+                    return List.of();
+                }
+                metrics.tasksPolled.add(tasks.size());
+                return tasks;
+            } catch (RuntimeException e) {
+                metrics.pollErrors.increment();
+                log.debug("Poll for {} failed", worker.getTaskType(), e);
+                return List.of();
+            } finally {
+                metrics.polls.increment();
+                metrics.pollNanos.add(System.nanoTime() - start);
+            }
+        }
+
+        private void execute(Task task) {
+            long start = System.nanoTime();
+            ResponseTimeout timeout = settings.getResponseTimeoutSeconds() > 0 ?
+                    new ResponseTimeout(Thread.currentThread(), settings.getResponseTimeoutSeconds()) : null;
+            TaskResult result;
+            try {
+                result = worker.execute(task);
+            } catch (Throwable e) {
+                // Errors too: the slot, the in-flight count and the limiter are only given back once the result is
+                // reported, and the watchdog must be disarmed
+                result = new TaskResult(task);
+                result.setStatus(TaskResult.Status.FAILED);
+                result.setReasonForIncompletion(String.valueOf(e));
+            }
+            long executionNanos = System.nanoTime() - start;
+            metrics.executions.increment();
+            metrics.executionNanos.add(executionNanos);
+            long executionMillis = TimeUnit.NANOSECONDS.toMillis(executionNanos);
+            if (timeout != null && !timeout.finish()) {
+                metrics.responseTimeouts.increment();
+                log.warn("Task {} of {} exceeded its response timeout of {}s, result dropped", task.getTaskId(),
+                        worker.getTaskType(), settings.getResponseTimeoutSeconds());
+                done(executionMillis, true);
+                return;
+            }
+            if (result.getStatus() == TaskResult.Status.FAILED
+                    || result.getStatus() == TaskResult.Status.FAILED_WITH_TERMINAL_ERROR) {
+                metrics.executionFailures.increment();
+            }
+            TaskResult completed = result;
+            try {
+                reporter.execute(() -> report(completed, executionMillis));
+            } catch (RejectedExecutionException e) {
+                log.warn("Result of task {} of {} not reported, the host is shutting down", task.getTaskId(),
+                        worker.getTaskType());
+                done(executionMillis, false);
+            }
+        }
+
+        private void report(TaskResult result, long executionMillis) {
+            try {
+                for (int attempt = 1; attempt <= UPDATE_ATTEMPTS; attempt++) {
+                    try {
+                        taskClient.updateTask(result);
+                        return;
+                    } catch (RuntimeException e) {
+                        if (attempt == UPDATE_ATTEMPTS) {
+                            metrics.updateErrors.increment();
+                            log.warn("Unable to report the result of task {}", result.getTaskId(), e);
+                        } else {
+                            Thread.sleep(100L * attempt);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done(executionMillis, false);
+            }
+        }
+
+        private void done(long executionMillis, boolean overloaded) {
+            metrics.inFlight.decrementAndGet();
+            if (limiter != null) {
+                limiter.release(executionMillis, overloaded);
+            }
+            slots.release();
+        }
+    }
+
+    /**
+     * Interrupts an execution thread once the response timeout has elapsed, unless the execution finished first.
+     */
+    private class ResponseTimeout {
+
+        private final Thread thread;
+
+        private final ScheduledFuture<?> future;
+
+        private boolean finished;
+
+        ResponseTimeout(Thread thread, long timeoutSeconds) {
+            this.thread = thread;
+            this.future = watchdog.schedule(this::expire, timeoutSeconds, TimeUnit.SECONDS);
+        }
+
+        private synchronized void expire() {
+            if (!finished) {
+                finished = true;
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * @return false if the execution timed out, in which case the interrupt flag of the thread is cleared
+         */
+        synchronized boolean finish() {
+            if (finished) {
+                // The interrupt happened while holding this lock, so it cannot leak into the next execution
+                Thread.interrupted();
+                return false;
+            }
+            finished = true;
+            future.cancel(false);
+            return true;
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "worker";
+        }
+    }
+}
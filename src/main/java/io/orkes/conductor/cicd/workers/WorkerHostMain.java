@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workers;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+
+import io.orkes.conductor.cicd.instrumentation.ClientInstrumentation;
+import io.orkes.conductor.client.ApiClient;
+import io.orkes.conductor.client.MetadataClient;
+import io.orkes.conductor.client.OrkesClients;
+
+/**
+ * Runs the workers of this project against the server identified by <code>CONDUCTOR_SERVER_URL</code> until the JVM
+ * is stopped, logging the worker and API call metrics periodically.  The limits of the task definitions registered
+ * on the server are enforced by the workers, see {@link WorkerSettings}.
+ */
+public class WorkerHostMain {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerHostMain.class);
+
+    private static final long METRICS_INTERVAL_MILLIS = 30_000;
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        String serverURL = System.getenv("CONDUCTOR_SERVER_URL");
+        String authKey = System.getenv("CONDUCTOR_AUTH_KEY");
+        String authSecret = System.getenv("CONDUCTOR_AUTH_SECRET");
+        if (serverURL == null || serverURL.isBlank()) {
+            System.err.println("CONDUCTOR_SERVER_URL is not set");
+            System.exit(2);
+        }
+
+        ClientInstrumentation instrumentation = ClientInstrumentation.fromSystemProperties();
+        OrkesClients clients = new OrkesClients(instrumentation.instrument(new ApiClient(serverURL, authKey, authSecret)));
+        MetadataClient metadataClient = clients.getMetadataClient();
+        WorkerHost host = new WorkerHost(clients.getTaskClient())
+                .register(new AppWorkres(), taskType -> taskDef(metadataClient, taskType));
+        host.start();
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            host.close();
+            instrumentation.close();
+            stopped.countDown();
+        }));
+        while (stopped.getCount() > 0) {
+            host.getMetrics().values().forEach(System.out::println);
+            instrumentation.report(System.out);
+            stopped.await(METRICS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static TaskDef taskDef(MetadataClient metadataClient, String taskType) {
+        try {
+            return metadataClient.getTaskDef(taskType);
+        } catch (RuntimeException e) {
+            log.warn("No task definition for {}, running without its limits: {}", taskType, e.getMessage());
+            return null;
+        }
+    }
+}
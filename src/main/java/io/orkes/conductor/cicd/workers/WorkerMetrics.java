@@ -0,0 +1,153 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one task type, updated lock-free by the poller, execution and reporting threads.
+ */
+public class WorkerMetrics {
+
+    private final String taskType;
+
+    final LongAdder polls = new LongAdder();
+
+    final LongAdder emptyPolls = new LongAdder();
+
+    final LongAdder pollErrors = new LongAdder();
+
+    final LongAdder pollNanos = new LongAdder();
+
+    final LongAdder tasksPolled = new LongAdder();
+
+    final LongAdder executions = new LongAdder();
+
+    final LongAdder executionFailures = new LongAdder();
+
+    final LongAdder executionNanos = new LongAdder();
+
+    final LongAdder updateErrors = new LongAdder();
+
+    final LongAdder rateLimited = new LongAdder();
+
+    final LongAdder responseTimeouts = new LongAdder();
+
+    final AtomicInteger concurrencyLimit = new AtomicInteger();
+
+    final AtomicInteger inFlight = new AtomicInteger();
+
+    final AtomicLong queueBacklog = new AtomicLong(-1);
+
+    WorkerMetrics(String taskType) {
+        this.taskType = taskType;
+    }
+
+    public String getTaskType() {
+        return taskType;
+    }
+
+    public long getPolls() {
+        return polls.sum();
+    }
+
+    public long getTasksPolled() {
+        return tasksPolled.sum();
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getExecutionFailures() {
+        return executionFailures.sum();
+    }
+
+    public long getUpdateErrors() {
+        return updateErrors.sum();
+    }
+
+    public double getAveragePollLatencyMillis() {
+        long count = polls.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(pollNanos.sum()) / 1000.0 / count;
+    }
+
+    public double getAverageExecutionMillis() {
+        long count = executions.sum();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(executionNanos.sum()) / 1000.0 / count;
+    }
+
+    /**
+     * @return number of times polling waited for the rate limit of the task definition
+     */
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    /**
+     * @return executions interrupted for exceeding the response timeout of the task definition
+     */
+    public long getResponseTimeouts() {
+        return responseTimeouts.sum();
+    }
+
+    /**
+     * @return the current limit of tasks in flight, lowered when executions get slow
+     */
+    public int getConcurrencyLimit() {
+        return concurrencyLimit.get();
+    }
+
+    /**
+     * @return tasks polled and not yet reported back to the server
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the size of the server queue of this task type at the last check, -1 if unknown
+     */
+    public long getQueueBacklog() {
+        return queueBacklog.get();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("polls", getPolls());
+        snapshot.put("emptyPolls", emptyPolls.sum());
+        snapshot.put("pollErrors", pollErrors.sum());
+        snapshot.put("avgPollLatencyMs", getAveragePollLatencyMillis());
+        snapshot.put("tasksPolled", getTasksPolled());
+        snapshot.put("executions", getExecutions());
+        snapshot.put("executionFailures", getExecutionFailures());
+        snapshot.put("avgExecutionMs", getAverageExecutionMillis());
+        snapshot.put("updateErrors", getUpdateErrors());
+        snapshot.put("inFlight", getInFlight());
+        snapshot.put("concurrencyLimit", getConcurrencyLimit());
+        snapshot.put("rateLimited", getRateLimited());
+        snapshot.put("responseTimeouts", getResponseTimeouts());
+        snapshot.put("queueBacklog", getQueueBacklog());
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return taskType + " " + snapshot();
+    }
+}
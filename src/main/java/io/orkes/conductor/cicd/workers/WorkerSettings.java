@@ -0,0 +1,141 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workers;
+
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.sdk.workflow.task.WorkerTask;
+
+/**
+ * Polling and concurrency settings of one task type.
+ * <p>
+ * Defaults come from the {@link WorkerTask} annotation and can be overridden per task type with system properties:
+ * <code>conductor.worker.&lt;taskType&gt;.threadCount</code>, <code>.pollingInterval</code> (ms),
+ * <code>.batchSize</code> and <code>.domain</code>.
+ * <p>
+ * When the task definition is known, its limits are enforced locally as well: the threads are capped to
+ * <code>concurrentExecLimit</code>, polls are rate limited to <code>rateLimitPerFrequency</code> tasks per
+ * <code>rateLimitFrequencyInSeconds</code>, and executions running longer than <code>responseTimeoutSeconds</code>
+ * are interrupted.  <code>.latencyThreshold</code> (ms, default half the response timeout) is the execution time
+ * above which the number of tasks in flight is reduced.
+ */
+public class WorkerSettings {
+
+    private final int threadCount;
+
+    private final int pollingIntervalMillis;
+
+    private final int batchSize;
+
+    private final String domain;
+
+    private final int rateLimitPerFrequency;
+
+    private final int rateLimitFrequencySeconds;
+
+    private final long responseTimeoutSeconds;
+
+    private final long latencyThresholdMillis;
+
+    public WorkerSettings(int threadCount, int pollingIntervalMillis, int batchSize, String domain) {
+        this(threadCount, pollingIntervalMillis, batchSize, domain, 0, 0, 0, 0);
+    }
+
+    public WorkerSettings(int threadCount, int pollingIntervalMillis, int batchSize, String domain,
+                          int rateLimitPerFrequency, int rateLimitFrequencySeconds, long responseTimeoutSeconds,
+                          long latencyThresholdMillis) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("threadCount must be at least 1, got " + threadCount);
+        }
+        this.threadCount = threadCount;
+        this.pollingIntervalMillis = pollingIntervalMillis;
+        this.batchSize = Math.max(1, batchSize);
+        this.domain = domain == null || domain.isBlank() ? null : domain;
+        this.rateLimitPerFrequency = Math.max(0, rateLimitPerFrequency);
+        this.rateLimitFrequencySeconds = Math.max(1, rateLimitFrequencySeconds);
+        this.responseTimeoutSeconds = Math.max(0, responseTimeoutSeconds);
+        this.latencyThresholdMillis = Math.max(0, latencyThresholdMillis);
+    }
+
+    public static WorkerSettings of(String taskType, WorkerTask annotation) {
+        return of(taskType, annotation, null);
+    }
+
+    /**
+     * @param taskDef the definition of the task type, null if unknown
+     */
+    public static WorkerSettings of(String taskType, WorkerTask annotation, TaskDef taskDef) {
+        String prefix = "conductor.worker." + taskType + ".";
+        int threadCount = Integer.getInteger(prefix + "threadCount", annotation.threadCount());
+        if (taskDef != null && taskDef.concurrencyLimit() > 0) {
+            threadCount = Math.min(threadCount, taskDef.concurrencyLimit());
+        }
+        long responseTimeoutSeconds = taskDef == null ? 0 : taskDef.getResponseTimeoutSeconds();
+        return new WorkerSettings(
+                threadCount,
+                Integer.getInteger(prefix + "pollingInterval", annotation.pollingInterval()),
+                Integer.getInteger(prefix + "batchSize", threadCount),
+                System.getProperty(prefix + "domain", annotation.domain()),
+                taskDef == null || taskDef.getRateLimitPerFrequency() == null ? 0 : taskDef.getRateLimitPerFrequency(),
+                taskDef == null || taskDef.getRateLimitFrequencyInSeconds() == null ? 1 :
+                        taskDef.getRateLimitFrequencyInSeconds(),
+                responseTimeoutSeconds,
+                Long.getLong(prefix + "latencyThreshold", responseTimeoutSeconds * 1000 / 2));
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public int getPollingIntervalMillis() {
+        return pollingIntervalMillis;
+    }
+
+    /**
+     * @return the maximum number of tasks fetched by one poll, never more than the idle threads
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the domain to poll, null for the default domain
+     */
+    public String getDomain() {
+        return domain;
+    }
+
+    /**
+     * @return the number of tasks polled per {@link #getRateLimitFrequencySeconds()}, 0 for no limit
+     */
+    public int getRateLimitPerFrequency() {
+        return rateLimitPerFrequency;
+    }
+
+    public int getRateLimitFrequencySeconds() {
+        return rateLimitFrequencySeconds;
+    }
+
+    /**
+     * @return the time after which the server considers an execution lost and reschedules the task, 0 for none
+     */
+    public long getResponseTimeoutSeconds() {
+        return responseTimeoutSeconds;
+    }
+
+    /**
+     * @return the execution time above which fewer tasks are polled, 0 to always poll for every idle thread
+     */
+    public long getLatencyThresholdMillis() {
+        return latencyThresholdMillis;
+    }
+}
@@ -12,12 +12,90 @@
  */
 package io.orkes.conductor.cicd.workflows;
 
+import java.io.IOException;
+import java.nio.file.Files;
 
+import com.netflix.conductor.common.config.ObjectMapperProvider;
 
+import io.orkes.conductor.cicd.definitions.DefinitionBundle;
+import io.orkes.conductor.cicd.deploy.AdaptiveConcurrencyLimiter;
+import io.orkes.conductor.cicd.deploy.ChangeDetection;
+import io.orkes.conductor.cicd.deploy.DeployOptions;
+import io.orkes.conductor.cicd.deploy.DeployReport;
+import io.orkes.conductor.cicd.deploy.DeployResult;
+import io.orkes.conductor.cicd.deploy.HashManifest;
+import io.orkes.conductor.cicd.deploy.MetadataDeployer;
+import io.orkes.conductor.cicd.deploy.ResilientInterceptor;
+import io.orkes.conductor.cicd.deploy.RetryPolicy;
+import io.orkes.conductor.cicd.instrumentation.ClientInstrumentation;
+import io.orkes.conductor.client.ApiClient;
+import io.orkes.conductor.client.OrkesClients;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Deploys the task and workflow definitions to the server identified by <code>CONDUCTOR_SERVER_URL</code>.
+ * See {@link DeployOptions} for the supported arguments.
+ * <p>
+ * Calls are limited, retried and re-authenticated by a {@link ResilientInterceptor}, and the outcome of every file
+ * is written to the outcomes file whether the deployment succeeds or not.
+ * The latency of every API call is reported at the end, see {@link ClientInstrumentation}.
+ * When the definitions bundle built by <code>./gradlew definitionsBundle</code> is up to date, the definitions are
+ * read from it instead of being parsed, see {@link DefinitionBundle}.
+ */
 public class Main {
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
+		DeployOptions options = DeployOptions.parse(args);
+
+		String serverURL = System.getenv("CONDUCTOR_SERVER_URL");
+		String authKey = System.getenv("CONDUCTOR_AUTH_KEY");
+		String authSecret = System.getenv("CONDUCTOR_AUTH_SECRET");
+		if (serverURL == null || serverURL.isBlank()) {
+			System.err.println("CONDUCTOR_SERVER_URL is not set");
+			System.exit(2);
+		}
+
+		System.out.println("Deploying metadata from " + options.getResourcesDir() + " to " + serverURL);
+		ClientInstrumentation instrumentation = ClientInstrumentation.fromSystemProperties();
+		ApiClient apiClient = instrumentation.instrument(new ApiClient(serverURL, authKey, authSecret));
+		ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(Math.max(1, options.getConcurrency() / 2), 1,
+				options.getConcurrency(), options.getLatencyThresholdMillis());
+		ResilientInterceptor.install(apiClient, objectMapper, authKey, authSecret, limiter,
+				new RetryPolicy(options.getMaxAttempts(), 200, 10_000));
+		OrkesClients clients = new OrkesClients(apiClient);
+
+		// The manifest is checked in, only read and rewrite it when it is what the changes are detected against
+		HashManifest manifest = options.getChangeDetection() == ChangeDetection.MANIFEST ?
+				HashManifest.load(objectMapper, options.getManifestFile()) : null;
+
+		MetadataDeployer deployer = new MetadataDeployer(clients.getMetadataClient(), objectMapper,
+				options.getConcurrency(), options.getChangeDetection(), manifest);
+		deployer.setStrictReferences(options.isStrictReferences());
+		if (Files.isRegularFile(options.getBundleFile())) {
+			try {
+				deployer.setBundle(DefinitionBundle.open(options.getBundleFile()));
+			} catch (IOException e) {
+				// e.g. written by an older version, the definition files are read instead
+				System.err.println("Ignoring " + e.getMessage());
+			}
+		}
+		DeployReport report = deployer.deploy(options.getResourcesDir());
+		if (manifest != null && manifest.isModified()) {
+			manifest.save(objectMapper, options.getManifestFile());
+			System.out.println("Updated " + options.getManifestFile());
+		}
+
+		report.writeOutcomes(objectMapper, options.getOutcomesFile());
 
+		for (DeployResult failure : report.getFailures()) {
+			System.err.println(failure);
+		}
+		System.out.println(report.summary() + ", final concurrency limit " + limiter.getLimit());
+		instrumentation.report(System.out);
+		instrumentation.close();
+		System.exit(report.hasFailures() ? 1 : 0);
 	}
 
 }
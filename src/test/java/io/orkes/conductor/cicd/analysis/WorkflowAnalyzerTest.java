@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.analysis;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+
+import io.orkes.conductor.cicd.definitions.DefinitionRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkflowAnalyzerTest {
+
+    private final DefinitionRegistry definitions = DefinitionRegistry.shared();
+
+    @Test
+    void testKitchensinkShape() throws IOException {
+        WorkflowDef kitchensink = definitions.getWorkflowDef("/workflows/kitchensink.json");
+        WorkflowDef populationMinMax = definitions.getWorkflowDef("/workflows/PopulationMinMax.json");
+        WorkflowAnalyzer analyzer = new WorkflowAnalyzer(new AnalyzerOptions(), List.of(kitchensink, populationMinMax));
+
+        AnalysisReport report = new AnalysisReport();
+        WorkflowStats stats = analyzer.analyze(kitchensink, report);
+        assertEquals(20, stats.getCriticalPathLength());
+        assertEquals(3, stats.getMaxParallelism());
+        assertEquals(2, stats.getSubWorkflowDepth());
+        assertTrue(stats.getCriticalPath().contains("sub_flow_inline/sub_flow_inline_lvl2/simple_task_0"));
+
+        assertTrue(report.getFindings().stream().anyMatch(f -> f.getRule().equals("wait-on-critical-path")
+                && f.getTaskReferenceName().equals("wait")));
+        assertTrue(report.getFindings(Finding.Severity.ERROR).isEmpty(), report.getFindings().toString());
+    }
+
+    @Test
+    void testLoopBound() throws IOException {
+        WorkflowDef loan = definitions.getWorkflowDef("/workflows/calculate_loan_workflow.json");
+        WorkflowTask loop = loan.getTaskByRefName("loop_until_success");
+        assertEquals(3, WorkflowAnalyzer.loopBound(loop).iterations);
+
+        loop.setLoopCondition("$.loop_until_success.iteration <= 5000");
+        AnalysisReport report = new WorkflowAnalyzer(new AnalyzerOptions(), List.of(loan)).analyze(List.of(loan));
+        assertTrue(report.getFindings(Finding.Severity.ERROR).stream()
+                .anyMatch(f -> f.getRule().equals("loop-bound") && f.getTaskReferenceName().equals("loop_until_success")));
+        // 5001 iterations of the loop body make the critical path too long as well
+        assertEquals(5005, report.getStats().get(0).getCriticalPathLength());
+
+        loop.setLoopCondition("$.check_phone_number_valid.valid == false");
+        assertNull(WorkflowAnalyzer.loopBound(loop).iterations);
+
+        // Any alternative may keep the loop going
+        loop.setLoopCondition("$.loop_until_success['iteration'] < 10 || $.retry");
+        assertNull(WorkflowAnalyzer.loopBound(loop).iterations);
+        loop.setLoopCondition("$.loop_until_success['iteration'] < 10 || $.loop_until_success.iteration <= 20");
+        assertEquals(21, WorkflowAnalyzer.loopBound(loop).iterations);
+        loop.setLoopCondition("$.loop_until_success['iteration'] < 10 && $.retry");
+        assertEquals(10, WorkflowAnalyzer.loopBound(loop).iterations);
+    }
+
+    @Test
+    void testHttpTimeouts() throws IOException {
+        WorkflowDef workflow1 = definitions.getWorkflowDef("/workflows/workflow1.json");
+        AnalyzerOptions options = new AnalyzerOptions();
+        AnalysisReport report = new WorkflowAnalyzer(options, List.of(workflow1)).analyze(List.of(workflow1));
+        assertTrue(report.getFindings(Finding.Severity.ERROR).isEmpty());
+        assertTrue(report.getFindings().stream().anyMatch(f -> f.getRule().equals("http-timeout")));
+
+        options.setMaxHttpTimeoutMillis(1000);
+        report = new WorkflowAnalyzer(options, List.of(workflow1)).analyze(List.of(workflow1));
+        assertEquals(2, report.getFindings(Finding.Severity.ERROR).size());
+    }
+
+    @Test
+    void testRecursiveSubWorkflow() {
+        WorkflowTask self = new WorkflowTask();
+        self.setName("self");
+        self.setTaskReferenceName("self");
+        self.setType(TaskType.SUB_WORKFLOW.name());
+        SubWorkflowParams params = new SubWorkflowParams();
+        params.setName("recursive");
+        params.setVersion(1);
+        self.setSubWorkflowParam(params);
+        self.setInputParameters(Map.of());
+
+        WorkflowDef def = new WorkflowDef();
+        def.setName("recursive");
+        def.setVersion(1);
+        def.setTasks(List.of(self));
+
+        AnalysisReport report = new WorkflowAnalyzer(new AnalyzerOptions(), List.of(def)).analyze(List.of(def));
+        assertEquals("sub-workflow-depth", report.getFindings(Finding.Severity.ERROR).get(0).getRule());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.capture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.cicd.definitions.DefinitionRegistry;
+import io.orkes.conductor.cicd.definitions.ExecutionFixtureReader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionFixtureWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+    @Test
+    void testRoundTrip(@TempDir Path dir) throws IOException {
+        Workflow first = DefinitionRegistry.shared().getWorkflow("/test_data/workflow1_run.json");
+        Workflow second = DefinitionRegistry.shared().getWorkflow("/test_data/workflow1_run.json");
+        second.setWorkflowId("another-run");
+
+        ExecutionFixtureWriter writer = new ExecutionFixtureWriter(objectMapper);
+        writer.add(first);
+        writer.add(second);
+        assertEquals(2, writer.getTaskOutputCount());
+        assertEquals(1, writer.getDistinctOutputCount());
+
+        Path file = dir.resolve("test_http.fixtures.json.gz");
+        writer.write(file);
+        List<Workflow> executions;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            executions = new ExecutionFixtureReader(objectMapper).read(inputStream);
+        }
+
+        assertEquals(2, executions.size());
+        assertEquals("another-run", executions.get(1).getWorkflowId());
+        for (Workflow execution : executions) {
+            assertEquals(first.getStatus(), execution.getStatus());
+            assertEquals(first.getInput(), execution.getInput());
+            assertEquals(first.getOutput(), execution.getOutput());
+            Task task = execution.getTasks().get(0);
+            Task expected = first.getTasks().get(0);
+            assertEquals(expected.getReferenceTaskName(), task.getReferenceTaskName());
+            assertEquals(expected.getStatus(), task.getStatus());
+            assertEquals(expected.getInputData(), task.getInputData());
+            assertEquals(expected.getOutputData(), task.getOutputData());
+            // volatile fields are not kept
+            assertNull(task.getTaskId());
+            assertEquals(0, task.getStartTime());
+        }
+    }
+
+    @Test
+    void testSamplesNewPathsOnly() throws IOException {
+        Workflow completed = DefinitionRegistry.shared().getWorkflow("/test_data/workflow1_run.json");
+        Workflow failed = DefinitionRegistry.shared().getWorkflow("/test_data/workflow1_run.json");
+        failed.setStatus(Workflow.WorkflowStatus.FAILED);
+        failed.getTasks().get(0).setStatus(Task.Status.FAILED);
+
+        ExecutionSampler sampler = new ExecutionSampler(10, 1);
+        assertTrue(sampler.offer(completed));
+        assertFalse(sampler.offer(completed));
+        assertTrue(sampler.offer(failed));
+        assertEquals(2, sampler.getSampled());
+        assertTrue(ExecutionSampler.features(failed).contains("get_random_fact!FAILED"));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.definitions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefinitionBundleTest {
+
+    private static final List<String> FILES = List.of("tasks/calculate_loan_amount_task.json",
+            "workflows/kitchensink.json", "workflows/calculate_loan_workflow.json");
+
+    private static final int HASH_VERSION = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+    @Test
+    void testRoundTrip(@TempDir Path dir) throws IOException {
+        DefinitionBundle bundle = DefinitionBundle.open(bundle(dir));
+
+        assertEquals(FILES.size(), bundle.getEntries().size());
+        for (String path : FILES) {
+            DefinitionBundle.Entry entry = bundle.get(path);
+            assertEquals(objectMapper.readTree(dir.resolve(path).toFile()), bundle.readTree(objectMapper, entry));
+            assertEquals(Files.size(dir.resolve(path)), entry.getSize());
+        }
+        assertEquals("hash-of-" + FILES.get(1), bundle.getHash("key-of-" + FILES.get(1)));
+        assertNull(bundle.get("workflows/unknown.json"));
+    }
+
+    @Test
+    void testDetectsChangedFiles(@TempDir Path dir) throws IOException {
+        DefinitionBundle bundle = DefinitionBundle.open(bundle(dir));
+        List<String> dirs = List.of("tasks", "workflows");
+        assertTrue(bundle.isCurrent(dir, dirs, HASH_VERSION));
+        assertEquals(HASH_VERSION, bundle.getHashVersion());
+        // Hashes computed by another version of the hasher are not reused
+        assertFalse(bundle.isCurrent(dir, dirs, HASH_VERSION + 1));
+
+        Path workflow = dir.resolve(FILES.get(1));
+        Files.setLastModifiedTime(workflow, FileTime.fromMillis(Files.getLastModifiedTime(workflow).toMillis() + 1000));
+        assertFalse(bundle.isCurrent(dir, dirs, HASH_VERSION));
+
+        bundle = DefinitionBundle.open(bundle(dir));
+        assertTrue(bundle.isCurrent(dir, dirs, HASH_VERSION));
+        Files.writeString(dir.resolve("workflows/new.json"), "{}");
+        assertFalse(bundle.isCurrent(dir, dirs, HASH_VERSION));
+    }
+
+    @Test
+    void testRegistryReadsFromBundle(@TempDir Path dir) throws IOException {
+        DefinitionRegistry registry = new DefinitionRegistry(objectMapper, DefinitionBundle.open(bundle(dir)));
+
+        WorkflowDef bundled = registry.findWorkflowDef("kitchensink_cicd", null);
+        WorkflowDef parsed = DefinitionRegistry.shared().getWorkflowDef("/workflows/kitchensink.json");
+        assertEquals(objectMapper.valueToTree(parsed), objectMapper.valueToTree(bundled));
+        // Only the bundled workflows are indexed
+        assertEquals(2, registry.getWorkflowDefs().size());
+        // Resources outside of the bundle are still read from the classpath
+        assertNotNull(registry.getWorkflow("/test_data/workflow1_run.json"));
+    }
+
+    /**
+     * Copies some of the definitions to the directory and bundles them.
+     */
+    private Path bundle(Path dir) throws IOException {
+        DefinitionBundle.Writer writer = new DefinitionBundle.Writer(objectMapper, HASH_VERSION);
+        for (String path : FILES) {
+            Path file = dir.resolve(path);
+            if (!Files.exists(file)) {
+                Files.createDirectories(file.getParent());
+                try (InputStream inputStream = DefinitionBundleTest.class.getResourceAsStream("/" + path)) {
+                    Files.copy(inputStream, file);
+                }
+            }
+            writer.add(dir, file, objectMapper.readTree(file.toFile()), Map.of("key-of-" + path, "hash-of-" + path));
+        }
+        Path bundle = dir.resolve("build/definitions.bundle");
+        writer.write(bundle);
+        return bundle;
+    }
+}
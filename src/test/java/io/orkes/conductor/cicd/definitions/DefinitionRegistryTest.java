@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.definitions;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefinitionRegistryTest {
+
+    private final DefinitionRegistry registry = new DefinitionRegistry(new ObjectMapperProvider().getObjectMapper());
+
+    @Test
+    void testCopiesAreIndependent() throws IOException {
+        WorkflowDef first = registry.getWorkflowDef("/workflows/workflow1.json");
+        first.setDescription("modified");
+        first.getTasks().clear();
+
+        WorkflowDef second = registry.getWorkflowDef("/workflows/workflow1.json");
+        assertNotSame(first, second);
+        assertEquals("v1", second.getDescription());
+        assertEquals(1, second.getTasks().size());
+    }
+
+    @Test
+    void testFindByNameAndVersion() throws IOException {
+        WorkflowDef def = registry.findWorkflowDef("loan_calculate_workflow", 1);
+        assertEquals("loan_calculate_workflow", def.getName());
+        assertEquals("PopulationMinMax", registry.findWorkflowDef("PopulationMinMax", null).getName());
+        assertThrows(IOException.class, () -> registry.findWorkflowDef("PopulationMinMax", 42));
+    }
+
+    @Test
+    void testSubWorkflowTestRequests() throws IOException {
+        WorkflowDef def = registry.getWorkflowDef("/workflows/kitchensink.json");
+        WorkflowTestRequest first = registry.newTestRequest(def);
+        WorkflowTestRequest second = registry.newTestRequest(def);
+
+        WorkflowTestRequest subFlow = first.getSubWorkflowTestRequest().get("sub_flow");
+        assertNotNull(subFlow);
+        assertEquals("PopulationMinMax", subFlow.getWorkflowDef().getName());
+        assertNotNull(first.getSubWorkflowTestRequest().get("sub_flow_inline"));
+        assertNotSame(subFlow, second.getSubWorkflowTestRequest().get("sub_flow"));
+    }
+}
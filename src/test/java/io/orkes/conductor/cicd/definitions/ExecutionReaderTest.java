@@ -0,0 +1,105 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.definitions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+    private final ExecutionReader reader = new ExecutionReader(objectMapper);
+
+    @Test
+    void testMatchesFullBinding() throws IOException {
+        Workflow workflow = DefinitionRegistry.shared().getWorkflow("/test_data/workflow1_run.json");
+        ExecutionSummary summary = reader.read("/test_data/workflow1_run.json");
+
+        assertEquals(workflow.getWorkflowId(), summary.getWorkflowId());
+        assertEquals(workflow.getWorkflowName(), summary.getWorkflowName());
+        assertEquals(workflow.getStatus(), summary.getStatus());
+        assertEquals(workflow.getOutput(), summary.getOutput());
+        assertEquals(workflow.getTasks().size(), summary.getTasks().size());
+        for (int i = 0; i < workflow.getTasks().size(); i++) {
+            Task task = workflow.getTasks().get(i);
+            TaskSummary taskSummary = summary.getTasks().get(i);
+            assertEquals(task.getReferenceTaskName(), taskSummary.getReferenceTaskName());
+            assertEquals(task.getStatus(), taskSummary.getStatus());
+            assertEquals(task.getEndTime(), taskSummary.getEndTime());
+
+            List<WorkflowTestRequest.TaskMock> mocks = summary.getTaskRefToMockOutput().get(task.getReferenceTaskName());
+            assertEquals(TaskResult.Status.COMPLETED, mocks.get(0).getStatus());
+            assertEquals(task.getOutputData(), mocks.get(0).getOutput());
+        }
+    }
+
+    @Test
+    void testStreamsLargeExecution(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("large_run.json");
+        int taskCount = 20_000;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField("workflowId", "large");
+            generator.writeArrayFieldStart("tasks");
+            for (int i = 1; i <= taskCount; i++) {
+                generator.writeStartObject();
+                generator.writeObjectField("inputData", Map.of("payload", "x".repeat(256)));
+                generator.writeStringField("referenceTaskName", "task_in_loop__" + i);
+                generator.writeStringField("status", i == taskCount ? "FAILED" : "COMPLETED");
+                generator.writeNumberField("seq", i);
+                generator.writeObjectField("outputData", Map.of("index", i));
+                generator.writeObjectField("workflowTask", Map.of("name", "task_in_loop", "type", "SIMPLE"));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeStringField("status", "FAILED");
+            generator.writeEndObject();
+        }
+
+        AtomicInteger seen = new AtomicInteger();
+        ExecutionSummary summary;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            summary = reader.read(inputStream, task -> assertEquals(seen.incrementAndGet(), task.getSeq()));
+        }
+        assertEquals(taskCount, seen.get());
+        assertEquals(Workflow.WorkflowStatus.FAILED, summary.getStatus());
+
+        // The iterations of a loop are replayed in order from the same task reference
+        List<WorkflowTestRequest.TaskMock> mocks = summary.getTaskRefToMockOutput().get("task_in_loop");
+        assertEquals(taskCount, mocks.size());
+        assertEquals(1, mocks.get(0).getOutput().get("index"));
+        assertEquals(TaskResult.Status.FAILED, mocks.get(taskCount - 1).getStatus());
+    }
+}
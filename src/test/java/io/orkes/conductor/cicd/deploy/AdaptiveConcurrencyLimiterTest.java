@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testAdditiveIncrease() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 4, 1000, clock::get);
+        // About one more slot per round of calls completing under the threshold
+        for (int i = 0; i < 2; i++) {
+            limiter.acquire();
+            limiter.release(10, false);
+        }
+        assertEquals(2, limiter.getLimit());
+        limiter.acquire();
+        limiter.release(10, false);
+        assertEquals(3, limiter.getLimit());
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(10, false);
+        }
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testMultiplicativeDecrease() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 2, 16, 1000, clock::get);
+        limiter.acquire();
+        limiter.acquire();
+        limiter.release(10, true);
+        assertEquals(8, limiter.getLimit());
+
+        // A second signal within the cooldown is part of the same congestion event
+        limiter.release(5000, false);
+        assertEquals(8, limiter.getLimit());
+
+        for (int i = 0; i < 5; i++) {
+            clock.addAndGet(1_000_000_000L);
+            limiter.acquire();
+            limiter.release(10, true);
+        }
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void testBlocksAtLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1000, clock::get);
+        limiter.acquire();
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        waiter.join(200);
+        assertTrue(waiter.isAlive());
+
+        limiter.release(10, false);
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void testReservationsSurviveADecrease() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 8, 1000, clock::get);
+        assertEquals(3, limiter.acquire(3));
+        assertEquals(5, limiter.acquire(10));
+
+        // Another call halves the limit while the reservations are held, they stay acquired
+        limiter.release(10, true);
+        assertEquals(4, limiter.getLimit());
+        assertEquals(7, limiter.getInFlight());
+
+        // Reservations not used are given back without touching the limit
+        limiter.cancel(3);
+        assertEquals(4, limiter.getInFlight());
+        assertEquals(4, limiter.getLimit());
+        limiter.release(10, false);
+        assertEquals(1, limiter.acquire(10));
+    }
+
+    @Test
+    void testRetryDelays() {
+        RetryPolicy policy = new RetryPolicy(5, 100, 1000);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(policy.delayMillis(1, 0) <= 100);
+            assertTrue(policy.delayMillis(10, 0) <= 1000);
+            assertTrue(policy.delayMillis(1, 3000) >= 1000);
+        }
+        assertTrue(RetryPolicy.isRetryable(429));
+        assertFalse(RetryPolicy.isRetryable(400));
+        assertEquals(2000, ResilientInterceptor.retryAfterMillis("2"));
+    }
+}
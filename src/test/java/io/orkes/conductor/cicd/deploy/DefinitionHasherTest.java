@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class DefinitionHasherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+    private final DefinitionHasher hasher = new DefinitionHasher(objectMapper);
+
+    @Test
+    void testVolatileFieldsAreIgnored() throws IOException {
+        WorkflowDef def = read("/workflows/workflow1.json");
+        WorkflowDef updated = read("/workflows/workflow1.json");
+        updated.setCreateTime(System.currentTimeMillis());
+        updated.setUpdateTime(System.currentTimeMillis());
+        updated.setUpdatedBy("someone@orkes.io");
+
+        assertEquals(hasher.hash(def), hasher.hash(updated));
+    }
+
+    @Test
+    void testNestedVolatileFieldsAreIgnored() throws IOException {
+        WorkflowDef def = read("/workflows/workflow1.json");
+        WorkflowDef updated = read("/workflows/workflow1.json");
+        def.getTasks().get(0).setTaskDefinition(new TaskDef("inline_task"));
+        TaskDef taskDef = new TaskDef("inline_task");
+        taskDef.setCreateTime(System.currentTimeMillis());
+        taskDef.setOwnerApp("someone");
+        updated.getTasks().get(0).setTaskDefinition(taskDef);
+
+        assertEquals(hasher.hash(def), hasher.hash(updated));
+    }
+
+    @Test
+    void testContentChangesAreDetected() throws IOException {
+        WorkflowDef def = read("/workflows/workflow1.json");
+        WorkflowDef updated = read("/workflows/workflow1.json");
+        updated.getTasks().get(0).getInputParameters().put("timeout", 10);
+
+        assertNotEquals(hasher.hash(def), hasher.hash(updated));
+    }
+
+    private WorkflowDef read(String path) throws IOException {
+        try (InputStream inputStream = DefinitionHasherTest.class.getResourceAsStream(path)) {
+            return objectMapper.readValue(inputStream, WorkflowDef.class);
+        }
+    }
+}
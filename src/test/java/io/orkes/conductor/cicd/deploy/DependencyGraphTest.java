@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyGraphTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+    @Test
+    void testSubWorkflowsAreDeployedFirst() throws IOException {
+        Map<Path, WorkflowDef> workflows = new LinkedHashMap<>();
+        for (String name : List.of("kitchensink", "PopulationMinMax", "calculate_loan_workflow", "workflow1")) {
+            workflows.put(path(name), read("/workflows/" + name + ".json"));
+        }
+        DependencyGraph graph = DependencyGraph.build(workflows);
+
+        assertEquals(List.of(
+                List.of(path("PopulationMinMax"), path("calculate_loan_workflow"), path("workflow1")),
+                List.of(path("kitchensink"))), graph.getWaves());
+        assertEquals(Set.of(path("PopulationMinMax")), graph.getDependencies(path("kitchensink")));
+        assertTrue(graph.getCycles().isEmpty());
+        assertTrue(graph.getMissingWorkflows().isEmpty());
+        // x_test_worker_0 is the constant task name of the dynamic fork, the others are SIMPLE tasks, some inline
+        assertEquals(Set.of("x_test_worker_0", "x_test_worker_1", "x_test_worker_2"),
+                graph.getTaskDefReferences().get(path("kitchensink")));
+    }
+
+    @Test
+    void testCyclesAndMissingWorkflows() {
+        Map<Path, WorkflowDef> workflows = new LinkedHashMap<>();
+        workflows.put(path("a"), workflow("a", "b"));
+        workflows.put(path("b"), workflow("b", "a"));
+        workflows.put(path("c"), workflow("c", "a"));
+        workflows.put(path("d"), workflow("d", "d"));
+        workflows.put(path("e"), workflow("e", "missing"));
+        DependencyGraph graph = DependencyGraph.build(workflows);
+
+        // d only references itself, which needs no ordering
+        assertEquals(List.of(List.of(path("d"), path("e"))), graph.getWaves());
+        assertEquals(List.of(List.of("a:1", "b:1", "a:1")), graph.getCycles());
+        assertEquals(Set.of(path("a"), path("b"), path("c")), graph.getCyclic());
+        assertEquals(Map.of(path("e"), Set.of("missing:latest")), graph.getMissingWorkflows());
+    }
+
+    private static Path path(String name) {
+        return Paths.get("workflows", name + ".json");
+    }
+
+    private static WorkflowDef workflow(String name, String subWorkflow) {
+        SubWorkflowParams params = new SubWorkflowParams();
+        params.setName(subWorkflow);
+        WorkflowTask task = new WorkflowTask();
+        task.setName(subWorkflow);
+        task.setTaskReferenceName(subWorkflow + "_ref");
+        task.setType(TaskType.SUB_WORKFLOW.name());
+        task.setSubWorkflowParam(params);
+        WorkflowDef def = new WorkflowDef();
+        def.setName(name);
+        def.setVersion(1);
+        def.setTasks(List.of(task));
+        return def;
+    }
+
+    private WorkflowDef read(String path) throws IOException {
+        try (InputStream inputStream = DependencyGraphTest.class.getResourceAsStream(path)) {
+            return objectMapper.readValue(inputStream, WorkflowDef.class);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetadataDeployerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+    private final StubMetadataClient server = new StubMetadataClient();
+
+    @TempDir
+    Path resources;
+
+    /**
+     * Two task definitions, a workflow running each of them, and a parent of the first workflow.
+     */
+    @BeforeEach
+    void writeDefinitions() throws IOException {
+        write("tasks/tasks.json", List.of(taskDef("a_task"), taskDef("b_task")));
+        write("workflows/uses_a.json", workflow("uses_a", simple("a_task")));
+        write("workflows/uses_b.json", workflow("uses_b", simple("b_task")));
+        write("workflows/parent.json", workflow("parent", subWorkflow("uses_a")));
+    }
+
+    @Test
+    void testListJsonFiles() throws IOException {
+        Files.writeString(resources.resolve("tasks/README.md"), "not a definition");
+        write("tasks/0_first.json", List.of());
+
+        assertEquals(List.of(resources.resolve("tasks/0_first.json"), resources.resolve("tasks/tasks.json")),
+                MetadataDeployer.listJsonFiles(resources.resolve("tasks")));
+        assertEquals(List.of(), MetadataDeployer.listJsonFiles(resources.resolve("missing")));
+    }
+
+    @Test
+    void testDeploysEveryFile() throws IOException {
+        DeployReport report = new MetadataDeployer(server.client(), 4).deploy(resources);
+
+        assertEquals(4, report.getResults().size());
+        assertTrue(report.getResults().stream().allMatch(r -> r.isSuccess() && !r.isSkipped()));
+        assertEquals(List.of("a_task", "b_task"), byFileName(report).get("tasks.json").getNames());
+        assertEquals(List.of("uses_a:1"), byFileName(report).get("uses_a.json").getNames());
+        assertEquals(Set.of("a_task", "b_task"), server.taskDefs.keySet());
+        // The sub-workflow is deployed in an earlier wave than its parent
+        assertTrue(server.registeredWorkflows.indexOf("uses_a") < server.registeredWorkflows.indexOf("parent"));
+        assertFalse(report.hasFailures());
+    }
+
+    @Test
+    void testUnchangedDefinitionsAreSkipped() throws IOException {
+        MetadataDeployer deployer = new MetadataDeployer(server.client(), objectMapper, 4, ChangeDetection.SERVER,
+                null);
+        deployer.deploy(resources);
+        server.registeredWorkflows.clear();
+        write("workflows/uses_b.json", workflow("uses_b", simple("a_task")));
+
+        DeployReport report = deployer.deploy(resources);
+
+        Map<String, DeployResult> results = byFileName(report);
+        assertTrue(results.get("tasks.json").isSkipped());
+        assertTrue(results.get("uses_a.json").isSkipped());
+        assertTrue(results.get("parent.json").isSkipped());
+        assertFalse(results.get("uses_b.json").isSkipped());
+        assertTrue(results.get("uses_b.json").isSuccess());
+        assertEquals(List.of("uses_b"), server.registeredWorkflows);
+        assertFalse(report.hasFailures());
+    }
+
+    @Test
+    void testFailedWorkflowBlocksItsParent() throws IOException {
+        server.failingWorkflows.add("uses_a");
+
+        DeployReport report = new MetadataDeployer(server.client(), 4).deploy(resources);
+
+        Map<String, DeployResult> results = byFileName(report);
+        assertTrue(results.get("tasks.json").isSuccess());
+        assertTrue(results.get("uses_b.json").isSuccess());
+        assertEquals("registerWorkflowDef uses_a failed", results.get("uses_a.json").getError().getMessage());
+        assertTrue(results.get("parent.json").getError().getMessage().startsWith("Depends on "));
+        assertFalse(server.registeredWorkflows.contains("parent"));
+        // Main exits with 1 on any failure
+        assertTrue(report.hasFailures());
+        assertEquals(2, report.getFailures().size());
+        assertTrue(report.summary().startsWith("Deployed 2 file(s), 0 unchanged, 2 failed"));
+    }
+
+    @Test
+    void testFailedTaskDefsBlockDependentWorkflows() throws IOException {
+        server.failTaskDefs = true;
+
+        DeployReport report = new MetadataDeployer(server.client(), 4).deploy(resources);
+
+        Map<String, DeployResult> results = byFileName(report);
+        assertFalse(results.get("tasks.json").isSuccess());
+        assertEquals("Depends on task definition(s) [a_task], which were not deployed",
+                results.get("uses_a.json").getError().getMessage());
+        assertEquals("Depends on task definition(s) [b_task], which were not deployed",
+                results.get("uses_b.json").getError().getMessage());
+        assertTrue(results.get("parent.json").getError().getMessage().startsWith("Depends on "));
+        assertTrue(server.registeredWorkflows.isEmpty());
+        assertTrue(report.hasFailures());
+    }
+
+    private Map<String, DeployResult> byFileName(DeployReport report) {
+        return report.getResults().stream()
+                .collect(Collectors.toMap(r -> r.getFile().getFileName().toString(), Function.identity()));
+    }
+
+    private void write(String path, Object value) throws IOException {
+        Path file = resources.resolve(path);
+        Files.createDirectories(file.getParent());
+        objectMapper.writeValue(file.toFile(), value);
+    }
+
+    private static TaskDef taskDef(String name) {
+        TaskDef taskDef = new TaskDef();
+        taskDef.setName(name);
+        taskDef.setOwnerEmail("test@orkes.io");
+        return taskDef;
+    }
+
+    private static WorkflowDef workflow(String name, WorkflowTask task) {
+        WorkflowDef def = new WorkflowDef();
+        def.setName(name);
+        def.setVersion(1);
+        def.setTasks(List.of(task));
+        return def;
+    }
+
+    private static WorkflowTask simple(String name) {
+        WorkflowTask task = new WorkflowTask();
+        task.setName(name);
+        task.setTaskReferenceName(name + "_ref");
+        return task;
+    }
+
+    private static WorkflowTask subWorkflow(String name) {
+        WorkflowTask task = new WorkflowTask();
+        task.setName(name);
+        task.setTaskReferenceName(name + "_ref");
+        task.setType("SUB_WORKFLOW");
+        SubWorkflowParams params = new SubWorkflowParams();
+        params.setName(name);
+        params.setVersion(1);
+        task.setSubWorkflowParam(params);
+        return task;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.squareup.okhttp.Connection;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Protocol;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.RequestBody;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientInterceptorTest {
+
+    private static final String BASE = "http://localhost:8080/api";
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 8, 1000);
+
+    private final RetryPolicy retryPolicy = new RetryPolicy(3, 1, 1);
+
+    @AfterEach
+    void limiterIsReleased() {
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testRetriesRetryableStatusCodes() throws IOException {
+        for (int code : new int[]{408, 429, 502, 503, 504}) {
+            FakeChain chain = new FakeChain(get("/metadata/workflow/a"), code, 200);
+            Response response = new ResilientInterceptor(limiter, retryPolicy, null).intercept(chain);
+            assertEquals(200, response.code());
+            assertEquals(2, chain.requests.size());
+        }
+    }
+
+    @Test
+    void testOtherStatusCodesAreReturned() throws IOException {
+        FakeChain chain = new FakeChain(get("/metadata/workflow/a"), 500);
+        assertEquals(500, new ResilientInterceptor(limiter, retryPolicy, null).intercept(chain).code());
+        assertEquals(1, chain.requests.size());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() throws IOException {
+        FakeChain chain = new FakeChain(get("/metadata/workflow/a"), 503, 503, 503, 200);
+        assertEquals(503, new ResilientInterceptor(limiter, retryPolicy, null).intercept(chain).code());
+        assertEquals(3, chain.requests.size());
+    }
+
+    @Test
+    void testOnlyUpsertPostsAreRetried() throws IOException {
+        assertRetried(post("/metadata/taskdefs"), true);
+        assertRetried(post("/metadata/workflow?overwrite=true"), true);
+        assertRetried(post("/metadata/workflow"), false);
+        assertRetried(post("/metadata/workflow?overwrite=false"), false);
+        assertRetried(post("/workflow/start_me"), false);
+        assertRetried(post("/metadata/workflow/start_me/tags"), false);
+        assertRetried(put("/metadata/workflow"), true);
+    }
+
+    @Test
+    void testConnectionFailuresAreRetried() {
+        FakeChain chain = new FakeChain(get("/metadata/taskdefs/a"));
+        chain.failure = new IOException("Connection refused");
+
+        IOException e = assertThrows(IOException.class,
+                () -> new ResilientInterceptor(limiter, retryPolicy, null).intercept(chain));
+        assertEquals("Connection refused", e.getMessage());
+        assertEquals(3, chain.requests.size());
+    }
+
+    @Test
+    void testUnexpectedFailureReleasesTheLimiter() {
+        FakeChain chain = new FakeChain(get("/metadata/taskdefs/a"));
+        chain.failure = new IllegalStateException("bug");
+
+        assertThrows(IllegalStateException.class,
+                () -> new ResilientInterceptor(limiter, retryPolicy, null).intercept(chain));
+        assertEquals(1, chain.requests.size());
+    }
+
+    @Test
+    void testReauthenticatesOnceOn401() throws IOException {
+        FakeTokenRefresher tokenRefresher = new FakeTokenRefresher();
+        FakeChain chain = new FakeChain(post("/workflow/start_me"), 401, 401, 200);
+
+        Response response = new ResilientInterceptor(limiter, retryPolicy, tokenRefresher).intercept(chain);
+
+        assertEquals(401, response.code());
+        assertEquals(List.of("expired"), tokenRefresher.rejected);
+        assertEquals("expired", chain.requests.get(0).header("X-Authorization"));
+        assertEquals("refreshed", chain.requests.get(1).header("X-Authorization"));
+        assertEquals(2, chain.requests.size());
+    }
+
+    private void assertRetried(Request request, boolean retried) throws IOException {
+        FakeChain chain = new FakeChain(request, 503, 200);
+        Response response = new ResilientInterceptor(limiter, retryPolicy, null).intercept(chain);
+        assertEquals(retried ? 200 : 503, response.code(), request.method() + " " + request.urlString());
+    }
+
+    private static Request get(String path) {
+        return new Request.Builder().url(BASE + path).get().build();
+    }
+
+    private static Request post(String path) {
+        return new Request.Builder().url(BASE + path).post(RequestBody.create(MediaType.parse("application/json"),
+                "{}")).build();
+    }
+
+    private static Request put(String path) {
+        return new Request.Builder().url(BASE + path).put(RequestBody.create(MediaType.parse("application/json"),
+                "[]")).build();
+    }
+
+    /**
+     * Answers with the given status codes in turn, or throws <code>failure</code>.
+     */
+    private static class FakeChain implements Interceptor.Chain {
+
+        private final Request request;
+
+        private final Queue<Integer> codes;
+
+        private final List<Request> requests = new ArrayList<>();
+
+        private Exception failure;
+
+        FakeChain(Request request, Integer... codes) {
+            this.request = request;
+            this.codes = new LinkedList<>(List.of(codes));
+        }
+
+        @Override
+        public Request request() {
+            return request;
+        }
+
+        @Override
+        public Response proceed(Request request) throws IOException {
+            requests.add(request);
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure != null) {
+                throw (RuntimeException) failure;
+            }
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(codes.remove())
+                    .message("")
+                    .body(ResponseBody.create(MediaType.parse("application/json"), "{}"))
+                    .build();
+        }
+
+        @Override
+        public Connection connection() {
+            return null;
+        }
+    }
+
+    private static class FakeTokenRefresher extends TokenRefresher {
+
+        private final List<String> rejected = new ArrayList<>();
+
+        FakeTokenRefresher() {
+            super(new OkHttpClient(), new ObjectMapper(), BASE, "key", "secret");
+        }
+
+        @Override
+        String current() {
+            return rejected.isEmpty() ? "expired" : "refreshed";
+        }
+
+        @Override
+        synchronized String refresh(String rejected) {
+            this.rejected.add(rejected);
+            return "refreshed";
+        }
+    }
+}
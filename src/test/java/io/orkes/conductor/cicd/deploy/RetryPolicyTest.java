@@ -0,0 +1,56 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    @Test
+    void testRetryableStatusCodes() {
+        for (int code : new int[]{408, 429, 502, 503, 504}) {
+            assertTrue(RetryPolicy.isRetryable(code), String.valueOf(code));
+        }
+        for (int code : new int[]{200, 400, 401, 404, 409, 500}) {
+            assertFalse(RetryPolicy.isRetryable(code), String.valueOf(code));
+        }
+    }
+
+    @Test
+    void testBackoffIsCapped() {
+        RetryPolicy policy = new RetryPolicy(5, 100, 1000);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(policy.delayMillis(1, 0) <= 100);
+            assertTrue(policy.delayMillis(3, 0) <= 400);
+            assertTrue(policy.delayMillis(40, 0) <= 1000);
+        }
+    }
+
+    @Test
+    void testRetryAfterIsAFloor() {
+        RetryPolicy policy = new RetryPolicy(5, 100, 1000);
+        for (int i = 0; i < 1000; i++) {
+            long delay = policy.delayMillis(1, 500);
+            assertTrue(delay >= 500 && delay <= 1000, String.valueOf(delay));
+            // A server asking for more than the maximum delay does not stall the deployment
+            assertEquals(1000, policy.delayMillis(1, 60_000));
+        }
+    }
+
+    @Test
+    void testAtLeastOneAttempt() {
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(0, 100, 1000));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.deploy;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+
+import io.orkes.conductor.client.MetadataClient;
+
+/**
+ * In-memory {@link MetadataClient} for the deployer tests, only the calls made by {@link MetadataDeployer} are
+ * supported.
+ */
+class StubMetadataClient implements InvocationHandler {
+
+    final Map<String, TaskDef> taskDefs = new ConcurrentHashMap<>();
+
+    final Map<String, WorkflowDef> workflowDefs = new ConcurrentHashMap<>();
+
+    /**
+     * The names of the workflow definitions registered, in order.
+     */
+    final List<String> registeredWorkflows = Collections.synchronizedList(new ArrayList<>());
+
+    final Set<String> failingWorkflows = ConcurrentHashMap.newKeySet();
+
+    volatile boolean failTaskDefs;
+
+    MetadataClient client() {
+        return (MetadataClient) Proxy.newProxyInstance(MetadataClient.class.getClassLoader(),
+                new Class<?>[]{MetadataClient.class}, this);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "registerTaskDefs":
+                if (failTaskDefs) {
+                    throw new IllegalStateException("registerTaskDefs failed");
+                }
+                ((List<TaskDef>) args[0]).forEach(def -> taskDefs.put(def.getName(), def));
+                return null;
+            case "getTaskDef":
+                return taskDefs.get((String) args[0]);
+            case "registerWorkflowDef":
+                WorkflowDef def = (WorkflowDef) args[0];
+                if (failingWorkflows.contains(def.getName())) {
+                    throw new IllegalStateException("registerWorkflowDef " + def.getName() + " failed");
+                }
+                workflowDefs.put(def.getName() + ":" + def.getVersion(), def);
+                registeredWorkflows.add(def.getName());
+                return null;
+            case "getWorkflowDef":
+                String name = (String) args[0];
+                Integer version = (Integer) args[1];
+                return workflowDefs.values().stream()
+                        .filter(d -> d.getName().equals(name) && (version == null || d.getVersion() == version))
+                        .findFirst()
+                        .orElse(null);
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.fuzz;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+
+import io.orkes.conductor.cicd.definitions.DefinitionRegistry;
+import io.orkes.conductor.cicd.simulator.WorkflowSimulator;
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkflowFuzzerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+    private final WorkflowSimulator simulator = new WorkflowSimulator(objectMapper);
+
+    @Test
+    void testInputModel() {
+        InputModel model = InputModel.of(approvalWorkflow(), objectMapper);
+        assertEquals(List.of("amount", "customer"), List.copyOf(model.getInput().getFields().keySet()));
+        assertEquals(List.of("id"), List.copyOf(model.getInput().getFields().get("customer").getFields().keySet()));
+        assertEquals(List.of("check"), List.copyOf(model.getOutputs().keySet()));
+        assertTrue(model.getOutputs().get("check").getFields().containsKey("decision"));
+        assertTrue(model.getConstants().containsAll(List.of("APPROVE", "REJECT")));
+
+        CaseGenerator generator = new CaseGenerator(model, new FuzzOptions());
+        assertEquals(generator.generate(42).toString(), generator.generate(42).toString());
+    }
+
+    @Test
+    void testShrinksFailingCaseAndCoversBranches() throws IOException {
+        FuzzOptions options = new FuzzOptions();
+        options.setCases(200);
+        WorkflowFuzzer fuzzer = new WorkflowFuzzer(new DefinitionRegistry(objectMapper), objectMapper,
+                simulator::testWorkflow, options);
+
+        // A deliberately broken property: negative amounts are generated, and must be found
+        FuzzReport report = fuzzer.fuzz(approvalWorkflow(), (fuzzCase, execution) -> {
+            WorkflowFuzzer.TERMINATES.check(fuzzCase, execution);
+            Object amount = execution.getInput().get("amount");
+            if (amount instanceof Number && ((Number) amount).doubleValue() < 0) {
+                throw new AssertionError("negative amount " + amount);
+            }
+        });
+
+        assertTrue(report.hasFailures());
+        FuzzCase shrunk = report.getFailures().get(0).getShrunk();
+        assertEquals(Map.of("amount", -1L), shrunk.getInput(), shrunk.toString());
+        for (WorkflowTestRequest.TaskMock mock : shrunk.getMocks().get("check")) {
+            assertEquals(TaskResult.Status.COMPLETED, mock.getStatus());
+            assertTrue(mock.getOutput().isEmpty());
+        }
+        assertEquals(1, shrunk.getMocks().get("check").size());
+        assertTrue(report.getCoverage().getUncovered().isEmpty(), report.getCoverage().toString());
+    }
+
+    @Test
+    void testSimplifications() {
+        assertEquals(List.of(Map.of(), Map.of("a", ""), Map.of("a", "x")), Shrinker.simplifications(Map.of("a", "xy")));
+        assertEquals(List.of(0L, 5L), Shrinker.simplifications(10L));
+        assertTrue(Shrinker.simplifications(false).isEmpty());
+    }
+
+    private static WorkflowDef approvalWorkflow() {
+        WorkflowTask check = new WorkflowTask();
+        check.setName("check_customer");
+        check.setTaskReferenceName("check");
+        check.setType(TaskType.SIMPLE.name());
+        check.setInputParameters(Map.of("amount", "${workflow.input.amount}",
+                "customerId", "${workflow.input.customer.id}"));
+
+        WorkflowTask approve = new WorkflowTask();
+        approve.setName("approve");
+        approve.setTaskReferenceName("approve");
+        approve.setType(TaskType.SET_VARIABLE.name());
+        approve.setInputParameters(Map.of("approved", true));
+
+        WorkflowTask decide = new WorkflowTask();
+        decide.setName("decide");
+        decide.setTaskReferenceName("decide");
+        decide.setType(TaskType.SWITCH.name());
+        decide.setEvaluatorType("value-param");
+        decide.setExpression("decision");
+        decide.setInputParameters(Map.of("decision", "${check.output.decision}"));
+        decide.setDecisionCases(Map.of("APPROVE", List.of(approve), "REJECT", List.of()));
+
+        WorkflowDef def = new WorkflowDef();
+        def.setName("approval");
+        def.setVersion(1);
+        def.setTasks(List.of(check, decide));
+        return def;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.instrumentation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientInstrumentationTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+    @Test
+    void testRoutes() {
+        assertEquals("/api/metadata/workflow", Routes.route("/api/metadata/workflow"));
+        assertEquals("/api/workflow/{id}", Routes.route("/api/workflow/6f1c2b9e-2c4d-4e5f-8a9b-0c1d2e3f4a5b"));
+        assertEquals("/api/metadata/workflow/loan_banking/{id}", Routes.route("/api/metadata/workflow/loan_banking/3"));
+        assertEquals("/", Routes.route(""));
+    }
+
+    @Test
+    void testRecordsMetricsAndSpans(@TempDir Path dir) throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Path traceFile = dir.resolve("trace.jsonl");
+        try (ClientInstrumentation instrumentation = new ClientInstrumentation(registry, traceFile)) {
+            long now = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+            instrumentation.record("POST", "/api/workflow/test", "http://localhost/api/workflow/test", 200, null, now,
+                    TimeUnit.MILLISECONDS.toNanos(120), 512, 2048, 1);
+            instrumentation.record("POST", "/api/workflow/test", "http://localhost/api/workflow/test", 200, null, now,
+                    TimeUnit.MILLISECONDS.toNanos(80), 512, 1024, 2);
+            instrumentation.record("GET", "/api/metadata/taskdefs/{id}", "http://localhost/api/metadata/taskdefs/x",
+                    0, "java.net.ConnectException", now, TimeUnit.MILLISECONDS.toNanos(5), 0, -1, 1);
+
+            Timer timer = registry.find(ClientInstrumentation.REQUESTS).tags("route", "/api/workflow/test").timer();
+            assertNotNull(timer);
+            assertEquals(2, timer.count());
+            assertEquals(200, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+            assertEquals(3072, registry.find(ClientInstrumentation.RESPONSE_SIZE).summary().totalAmount());
+            assertEquals(1, registry.find(ClientInstrumentation.RETRIES).counter().count());
+            assertNotNull(registry.find(ClientInstrumentation.REQUESTS).tags("outcome", "IO_ERROR").timer());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            instrumentation.report(new PrintStream(out, true, StandardCharsets.UTF_8));
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertEquals(3, lines.length);
+            assertTrue(lines[1].contains("/api/workflow/test"), lines[1]);
+        }
+
+        List<String> spans = Files.readAllLines(traceFile);
+        assertEquals(3, spans.size());
+        JsonNode span = objectMapper.readTree(spans.get(1));
+        assertEquals("POST /api/workflow/test", span.get("name").asText());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(80),
+                span.get("endTimeUnixNano").asLong() - span.get("startTimeUnixNano").asLong());
+        assertEquals(200, span.get("attributes").get("http.status_code").asInt());
+        assertEquals(1, span.get("attributes").get("http.resend_count").asInt());
+        assertEquals("STATUS_CODE_ERROR", objectMapper.readTree(spans.get(2)).get("status").get("code").asText());
+    }
+}
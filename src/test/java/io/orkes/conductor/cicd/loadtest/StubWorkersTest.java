@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+
+import io.orkes.conductor.cicd.definitions.DefinitionRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StubWorkersTest {
+
+    private final DefinitionRegistry definitions = DefinitionRegistry.shared();
+
+    @Test
+    void testKitchensinkWorkerTaskNames() throws IOException {
+        WorkflowDef kitchensink = definitions.getWorkflowDef("/workflows/kitchensink.json");
+        List<String> lookedUp = new ArrayList<>();
+
+        Set<String> names = StubWorkers.workerTaskNames(kitchensink, params -> {
+            lookedUp.add(params.getName());
+            return find(params);
+        });
+
+        // x_test_worker_0 is the forkTaskName of the dynamic fork, the inline sub_flow_inline runs the other two
+        assertEquals(Set.of("x_test_worker_0", "x_test_worker_1", "x_test_worker_2"), names);
+        assertEquals(List.of("PopulationMinMax"), lookedUp);
+    }
+
+    @Test
+    void testNamedSubWorkflowTasks() {
+        WorkflowTask child = new WorkflowTask();
+        child.setName("child_worker");
+        child.setTaskReferenceName("child_worker_ref");
+        WorkflowDef childDef = new WorkflowDef();
+        childDef.setName("child");
+        childDef.setVersion(1);
+        childDef.setTasks(List.of(child));
+
+        WorkflowTask subWorkflow = new WorkflowTask();
+        subWorkflow.setName("child");
+        subWorkflow.setTaskReferenceName("child_ref");
+        subWorkflow.setType("SUB_WORKFLOW");
+        SubWorkflowParams params = new SubWorkflowParams();
+        params.setName("child");
+        params.setVersion(1);
+        subWorkflow.setSubWorkflowParam(params);
+        WorkflowDef parent = new WorkflowDef();
+        parent.setName("parent");
+        parent.setTasks(List.of(subWorkflow));
+
+        assertEquals(Set.of("child_worker"), StubWorkers.workerTaskNames(parent, p -> childDef));
+        assertEquals(Set.of(), StubWorkers.workerTaskNames(parent, p -> null));
+    }
+
+    private WorkflowDef find(SubWorkflowParams params) {
+        try {
+            return definitions.findWorkflowDef(params.getName(), params.getVersion());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
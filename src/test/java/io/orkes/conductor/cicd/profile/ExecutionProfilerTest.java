@@ -0,0 +1,172 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.profile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.cicd.definitions.DefinitionRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionProfilerTest {
+
+    /** Times in the executions below are relative to this, timestamps of zero meaning not set. */
+    private static final long EPOCH = 1_675_900_000_000L;
+
+    private final ExecutionProfiler profiler = new ExecutionProfiler();
+
+    @Test
+    void testRecordedExecution() throws IOException {
+        Workflow execution = DefinitionRegistry.shared().getWorkflow("/test_data/workflow1_run.json");
+        ExecutionProfile profile = profiler.profile(execution);
+
+        assertEquals(783, profile.getDurationMillis());
+        assertEquals(1, profile.getCriticalPath().size());
+        CriticalPathStep step = profile.getCriticalPath().get(0);
+        assertEquals("test_http;get_random_fact", step.getKey());
+        assertEquals(3, step.getGapMillis());
+        assertEquals(7, step.getQueueMillis());
+        assertEquals(768, step.getExecutionMillis());
+        assertEquals(Map.of("test_http;get_random_fact;queued", 7L, "test_http;get_random_fact;running", 768L),
+                profile.getFoldedStacks());
+    }
+
+    @Test
+    void testCriticalPathThroughForkWaitAndLoop() {
+        ExecutionProfile profile = profiler.profile(forkWaitLoop());
+
+        assertEquals(List.of("A", "B", "W", "D", "D"), profile.getCriticalPath().stream()
+                .map(CriticalPathStep::getRef)
+                .collect(Collectors.toList()));
+        // A 0+10+100, B 1+0+200, W 1+0+1000, D 2+0+20, D 6+0+20
+        assertEquals(1360, profile.getCriticalPathMillis());
+        assertEquals(10, profile.getSchedulingMillis());
+        assertEquals(10, profile.getCriticalQueueMillis());
+        assertEquals(1000, profile.getWaitMillis());
+        // 87ms of loop, of which 40ms running the two iterations
+        assertEquals(47, profile.getLoopOverheadMillis());
+
+        Map<String, Long> folded = profile.getFoldedStacks();
+        assertEquals(39, folded.get("wf;C;queued"));
+        assertEquals(50, folded.get("wf;C;running"));
+        assertEquals(40, folded.get("wf;loop;D;running"));
+        assertEquals(47, folded.get("wf;loop;overhead"));
+        assertFalse(folded.containsKey("wf;fork;running"));
+    }
+
+    @Test
+    void testExpandsSubWorkflows() {
+        Workflow child = workflow("child", 10, 200, task("X", "SIMPLE", 1, 10, 20, 190));
+        child.setParentWorkflowId("parent-id");
+        Task subWorkflowTask = task("S", "SUB_WORKFLOW", 1, 0, 5, 205);
+        subWorkflowTask.setSubWorkflowId(child.getWorkflowId());
+        Workflow parent = workflow("parent", 0, 210, subWorkflowTask);
+
+        ExecutionProfile profile = new ExecutionProfiler(id -> id.equals(child.getWorkflowId()) ? child : null)
+                .profile(parent);
+
+        assertEquals(1, profile.getSubWorkflows().size());
+        assertEquals(List.of("parent;S", "parent;S;child;X"), profile.getCriticalPath().stream()
+                .map(CriticalPathStep::getKey)
+                .collect(Collectors.toList()));
+        // The 200ms of the sub-workflow task less the 180ms of the critical path of the sub-workflow
+        assertEquals(20, profile.getCriticalPath().get(0).getExecutionMillis());
+        assertEquals(205, profile.getCriticalPathMillis());
+        assertEquals(Map.of("parent;S;queued", 5L, "parent;S;child;X;queued", 10L,
+                "parent;S;child;X;running", 170L), profile.getFoldedStacks());
+
+        ExecutionProfile unexpanded = profiler.profile(parent);
+        assertEquals(200, unexpanded.getCriticalPath().get(0).getExecutionMillis());
+        assertEquals(200, unexpanded.getFoldedStacks().get("parent;S;running"));
+    }
+
+    @Test
+    void testAggregatesProfiles(@TempDir Path dir) throws IOException {
+        ProfileReport report = new ProfileReport();
+        report.add(profiler.profile(forkWaitLoop()));
+        report.add(profiler.profile(forkWaitLoop()));
+
+        assertEquals(2, report.getExecutions());
+        ProfileReport.TaskStats loopTask = report.getTasks().get("wf;D");
+        assertEquals(4, loopTask.getRuns());
+        assertEquals(4, loopTask.getCriticalCount());
+        assertEquals(96, loopTask.getCriticalMillis());
+        assertEquals(0, report.getTasks().get("wf;C").getCriticalCount());
+        assertEquals(100, report.getTasks().get("wf;A").getExecution().getValueAtPercentile(99));
+        assertEquals(80, report.getFoldedStacks().get("wf;loop;D;running"));
+
+        Path folded = dir.resolve("profile.folded");
+        report.writeFolded(folded);
+        assertTrue(Files.readAllLines(folded).contains("wf;W;running 2000"));
+    }
+
+    /**
+     * A, then B and C in parallel, then a 1s WAIT, then two iterations of D in a loop.
+     */
+    private static Workflow forkWaitLoop() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(task("A", "SIMPLE", 1, 0, 10, 110));
+        tasks.add(task("fork", "FORK", 2, 110, 110, 110));
+        tasks.add(task("B", "SIMPLE", 3, 111, 111, 311));
+        tasks.add(task("C", "SIMPLE", 4, 111, 150, 200));
+        tasks.add(task("join", "JOIN", 5, 111, 111, 312));
+        tasks.add(task("W", "WAIT", 6, 312, 312, 1312));
+        Task loop = task("loop", "DO_WHILE", 7, 1313, 1313, 1400);
+        loop.setIteration(2);
+        tasks.add(loop);
+        Task first = task("D__1", "SIMPLE", 8, 1314, 1314, 1334);
+        first.setIteration(1);
+        tasks.add(first);
+        Task second = task("D__2", "SIMPLE", 9, 1340, 1340, 1360);
+        second.setIteration(2);
+        tasks.add(second);
+        return workflow("wf", 0, 1400, tasks.toArray(new Task[0]));
+    }
+
+    private static Workflow workflow(String name, long start, long end, Task... tasks) {
+        WorkflowDef def = new WorkflowDef();
+        def.setName(name);
+        Workflow workflow = new Workflow();
+        workflow.setWorkflowId(name + "-id");
+        workflow.setWorkflowDefinition(def);
+        workflow.setCreateTime(EPOCH + start);
+        workflow.setStartTime(EPOCH + start);
+        workflow.setEndTime(EPOCH + end);
+        workflow.setTasks(new ArrayList<>(List.of(tasks)));
+        return workflow;
+    }
+
+    private static Task task(String ref, String type, int seq, long scheduled, long start, long end) {
+        Task task = new Task();
+        task.setReferenceTaskName(ref);
+        task.setTaskType(type);
+        task.setSeq(seq);
+        task.setScheduledTime(EPOCH + scheduled);
+        task.setStartTime(EPOCH + start);
+        task.setEndTime(EPOCH + end);
+        return task;
+    }
+}
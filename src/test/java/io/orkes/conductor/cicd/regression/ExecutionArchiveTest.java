@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.regression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionArchiveTest {
+
+    @Test
+    void testOpensBareRelativeFileName() throws IOException {
+        // As passed by --executions run.json, relative to the working directory
+        Path file = Files.createTempFile(Paths.get("").toAbsolutePath(), "execution", ".json");
+        try {
+            Files.writeString(file, "{}");
+            try (ExecutionArchive archive = ExecutionArchive.open(Paths.get(file.getFileName().toString()))) {
+                assertEquals(List.of(file.getFileName().toString()), archive.getNames());
+                try (InputStream inputStream = archive.open(archive.getNames().get(0))) {
+                    assertEquals("{}", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testOpensDirectory(@TempDir Path dir) throws IOException {
+        Files.createDirectories(dir.resolve("nested"));
+        Files.writeString(dir.resolve("nested/b.json"), "{}");
+        Files.writeString(dir.resolve("a.fixtures.json.gz"), "");
+        Files.writeString(dir.resolve("notes.txt"), "");
+
+        try (ExecutionArchive archive = ExecutionArchive.open(dir)) {
+            assertEquals(List.of("a.fixtures.json.gz", Paths.get("nested", "b.json").toString()), archive.getNames());
+            assertTrue(ExecutionArchive.isFixtureFile(archive.getNames().get(0)));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.regression;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonDiffTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+    @Test
+    void testDifferences() throws IOException {
+        JsonDiff diff = new JsonDiff(List.of(), 10);
+        List<Difference> differences = diff.diff(
+                objectMapper.readTree("{\"a\": 1, \"b\": [1, 2], \"c\": {\"d\": \"x\"}, \"e\": {}}"),
+                objectMapper.readTree("{\"a\": 1.0, \"b\": [1], \"c\": {\"d\": \"y\"}, \"f\": true}"));
+
+        assertEquals(3, differences.size(), differences.toString());
+        assertEquals("/b/1", differences.get(0).getPath());
+        assertNull(differences.get(0).getActual());
+        assertEquals("/c/d", differences.get(1).getPath());
+        assertEquals("/f", differences.get(2).getPath());
+    }
+
+    @Test
+    void testIgnoredPaths() throws IOException {
+        JsonDiff diff = new JsonDiff(List.of(new PathPattern("/tasks/*/inputData/asyncComplete"),
+                new PathPattern("**/timestamp")), 10);
+        List<Difference> differences = diff.diff(
+                objectMapper.readTree("{\"tasks\": {\"http\": {\"inputData\": {\"asyncComplete\": false}}},"
+                        + " \"output\": {\"result\": {\"timestamp\": 1}}}"),
+                objectMapper.readTree("{\"tasks\": {\"http\": {\"inputData\": {}}},"
+                        + " \"output\": {\"result\": {\"timestamp\": 2}}}"));
+        assertTrue(differences.isEmpty(), differences.toString());
+    }
+
+    @Test
+    void testPathPattern() {
+        assertTrue(new PathPattern("/tasks/*/outputData").matches("/tasks/ref#1/outputData"));
+        assertFalse(new PathPattern("/tasks/*/outputData").matches("/tasks/ref/inputData"));
+        assertTrue(new PathPattern("/**/headers").matches("/tasks/http/outputData/response/headers"));
+        assertTrue(new PathPattern("/output/**").matches("/output"));
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.simulator;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExpressionResolverTest {
+
+    private final ExpressionResolver resolver = new ExpressionResolver();
+
+    private final Map<String, Object> context = Map.of(
+            "workflow", Map.of("input", Map.of("userEmail", "user@example.com")),
+            "fetch_user_details", Map.of("output", Map.of("userAccount", 12345L, "tags", List.of("a", "b"))));
+
+    @Test
+    void testSingleExpressionKeepsType() {
+        assertEquals(12345L, resolver.resolve("${fetch_user_details.output.userAccount}", context));
+        assertEquals(List.of("a", "b"), resolver.resolve("${fetch_user_details.output.tags}", context));
+    }
+
+    @Test
+    void testEmbeddedExpressionsAreSubstituted() {
+        assertEquals("user@example.com has b", resolver.resolve("${workflow.input.userEmail} has ${fetch_user_details.output.tags[1]}", context));
+    }
+
+    @Test
+    void testNestedParameters() {
+        Map<String, Object> parameters = Map.of("email", "${workflow.input.userEmail}", "list", List.of("${fetch_user_details.output['userAccount']}"));
+        assertEquals(Map.of("email", "user@example.com", "list", List.of(12345L)), resolver.resolve(parameters, context));
+    }
+
+    @Test
+    void testUnquotedBracketKey() {
+        assertEquals(12345L, resolver.resolve("${fetch_user_details.output[userAccount]}", context));
+        assertNull(resolver.resolve("${fetch_user_details.output.tags[first]}", context));
+        assertNull(resolver.resolve("${fetch_user_details.output.tags[99999999999]}", context));
+    }
+
+    @Test
+    void testMissingPathResolvesToNull() {
+        assertNull(resolver.resolve("${get_data.output.number}", context));
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.simulator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkflowSimulatorTest {
+
+    private final WorkflowSimulator simulator = new WorkflowSimulator();
+
+    @Test
+    void testSwitchBranches() {
+        WorkflowTask decide = task("decide", TaskType.SWITCH);
+        decide.setEvaluatorType("value-param");
+        decide.setExpression("kind");
+        decide.setInputParameters(Map.of("kind", "${workflow.input.kind}"));
+        decide.setDecisionCases(Map.of("a", List.of(simple("a_task"))));
+        decide.setDefaultCase(List.of(simple("default_task")));
+        WorkflowDef def = workflow("switch", decide);
+        Map<String, List<WorkflowTestRequest.TaskMock>> mocks = Map.of("a_task", List.of(mock(Map.of())),
+                "default_task", List.of(mock(Map.of())));
+
+        Workflow matched = run(def, Map.of("kind", "a"), mocks);
+        assertEquals(List.of("decide", "a_task"), refs(matched));
+        assertEquals(List.of("a"), matched.getTasks().get(0).getOutputData().get("evaluationResult"));
+
+        Workflow otherwise = run(def, Map.of("kind", "z"), mocks);
+        assertEquals(List.of("decide", "default_task"), refs(otherwise));
+        assertEquals(Workflow.WorkflowStatus.COMPLETED, otherwise.getStatus());
+    }
+
+    @Test
+    void testDoWhileIterationRefs() {
+        WorkflowTask loop = task("loop", TaskType.DO_WHILE);
+        loop.setLoopCondition("$.loop['iteration'] < 3");
+        loop.setLoopOver(List.of(simple("step")));
+        Map<String, List<WorkflowTestRequest.TaskMock>> mocks = Map.of("step", List.of(mock(Map.of("n", 0))),
+                "step__2", List.of(mock(Map.of("n", 2))));
+
+        Workflow workflow = run(workflow("loop", loop), Map.of(), mocks);
+
+        assertEquals(Workflow.WorkflowStatus.COMPLETED, workflow.getStatus());
+        assertEquals(List.of("loop", "step__1", "step__2", "step__3"), refs(workflow));
+        assertEquals(Map.of("n", 2L), workflow.getTasks().get(2).getOutputData());
+        assertEquals(Map.of("n", 0L), workflow.getTasks().get(3).getOutputData());
+        Task loopTask = workflow.getTasks().get(0);
+        assertEquals(Task.Status.COMPLETED, loopTask.getStatus());
+        assertEquals(3, loopTask.getIteration());
+        assertEquals(Map.of("step", Map.of("n", 2L)), loopTask.getOutputData().get("2"));
+    }
+
+    @Test
+    void testDoWhileIterationCap() {
+        WorkflowTask loop = task("loop", TaskType.DO_WHILE);
+        loop.setLoopCondition("true");
+        loop.setLoopOver(List.of(simple("step")));
+
+        Workflow workflow = run(workflow("loop", loop), Map.of(), Map.of("step", List.of(mock(Map.of()))));
+
+        assertEquals(Workflow.WorkflowStatus.FAILED, workflow.getStatus());
+        assertEquals("DO_WHILE loop exceeded " + WorkflowSimulator.MAX_LOOP_ITERATIONS + " iterations",
+                workflow.getReasonForIncompletion());
+        assertEquals(1 + WorkflowSimulator.MAX_LOOP_ITERATIONS, workflow.getTasks().size());
+    }
+
+    @Test
+    void testForkJoin() {
+        WorkflowTask fork = task("fork", TaskType.FORK_JOIN);
+        fork.setForkTasks(List.of(List.of(simple("left")), List.of(simple("right"))));
+        WorkflowTask join = task("join", TaskType.JOIN);
+        join.setJoinOn(List.of("left", "right"));
+        Map<String, List<WorkflowTestRequest.TaskMock>> mocks = Map.of("left", List.of(mock(Map.of("side", "l"))),
+                "right", List.of(mock(Map.of("side", "r"))));
+
+        Workflow workflow = run(workflow("fork", fork, join), Map.of(), mocks);
+
+        assertEquals(Workflow.WorkflowStatus.COMPLETED, workflow.getStatus());
+        assertEquals(List.of("fork", "left", "right", "join"), refs(workflow));
+        assertEquals(Map.of("left", Map.of("side", "l"), "right", Map.of("side", "r")),
+                workflow.getTasks().get(3).getOutputData());
+    }
+
+    @Test
+    void testDynamicFork() {
+        WorkflowTask fork = task("fork", TaskType.FORK_JOIN_DYNAMIC);
+        fork.setInputParameters(Map.of("forkTaskName", "worker", "forkTaskInputs", "${workflow.input.items}"));
+        WorkflowTask join = task("join", TaskType.JOIN);
+        Map<String, List<WorkflowTestRequest.TaskMock>> mocks = Map.of("_worker_0", List.of(mock(Map.of("i", 1))),
+                "_worker_1", List.of(mock(Map.of("i", 2))));
+
+        Workflow workflow = run(workflow("dynamic", fork, join),
+                Map.of("items", List.of(Map.of("i", 1), Map.of("i", 2))), mocks);
+
+        assertEquals(Workflow.WorkflowStatus.COMPLETED, workflow.getStatus());
+        assertEquals(List.of("fork", "_worker_0", "_worker_1", "join"), refs(workflow));
+        assertEquals("worker", workflow.getTasks().get(1).getTaskType());
+        assertEquals(Map.of("i", 2L), workflow.getTasks().get(2).getInputData());
+        assertEquals(Map.of("_worker_0", Map.of("i", 1L), "_worker_1", Map.of("i", 2L)),
+                workflow.getTasks().get(3).getOutputData());
+    }
+
+    @Test
+    void testTerminate() {
+        WorkflowTask terminate = task("terminate", TaskType.TERMINATE);
+        terminate.setInputParameters(Map.of("terminationStatus", "FAILED", "terminationReason", "stopped early",
+                "workflowOutput", Map.of("result", "partial")));
+
+        Workflow workflow = run(workflow("terminate", terminate, simple("never")), Map.of(), Map.of());
+
+        assertEquals(Workflow.WorkflowStatus.FAILED, workflow.getStatus());
+        assertEquals("stopped early", workflow.getReasonForIncompletion());
+        assertEquals(Map.of("result", "partial"), workflow.getOutput());
+        assertEquals(List.of("terminate"), refs(workflow));
+    }
+
+    @Test
+    void testSubWorkflowDepthIsCapped() {
+        WorkflowTask child = task("child", TaskType.SUB_WORKFLOW);
+        SubWorkflowParams params = new SubWorkflowParams();
+        params.setName("recursive");
+        params.setVersion(1);
+        child.setSubWorkflowParam(params);
+        WorkflowDef def = workflow("recursive", child);
+        simulator.registerWorkflowDef(def);
+
+        Workflow workflow = run(def, Map.of(), Map.of());
+
+        assertEquals(Workflow.WorkflowStatus.FAILED, workflow.getStatus());
+        assertTrue(workflow.getReasonForIncompletion().endsWith("Sub workflow nesting exceeds "
+                + WorkflowSimulator.MAX_SUB_WORKFLOW_DEPTH + " levels"), workflow.getReasonForIncompletion());
+        assertEquals(Task.Status.FAILED, workflow.getTasks().get(0).getStatus());
+        assertNotNull(workflow.getTasks().get(0).getSubWorkflowId());
+    }
+
+    @Test
+    void testFailedMocksAreRetries() {
+        WorkflowTestRequest.TaskMock failed = mock(Map.of());
+        failed.setStatus(TaskResult.Status.FAILED);
+        WorkflowDef def = workflow("flaky", simple("flaky"));
+
+        Workflow recovered = run(def, Map.of(), Map.of("flaky", List.of(failed, failed, mock(Map.of("ok", true)))));
+        assertEquals(Workflow.WorkflowStatus.COMPLETED, recovered.getStatus());
+        assertEquals(List.of(Task.Status.FAILED, Task.Status.FAILED, Task.Status.COMPLETED),
+                recovered.getTasks().stream().map(Task::getStatus).collect(Collectors.toList()));
+        assertEquals(List.of(0, 1, 2),
+                recovered.getTasks().stream().map(Task::getRetryCount).collect(Collectors.toList()));
+        assertTrue(recovered.getTasks().get(0).isRetried());
+        assertEquals(Map.of("ok", true), recovered.getTasks().get(2).getOutputData());
+
+        Workflow exhausted = run(def, Map.of(), Map.of("flaky", List.of(failed, failed)));
+        assertEquals(Workflow.WorkflowStatus.FAILED, exhausted.getStatus());
+        assertEquals(2, exhausted.getTasks().size());
+        assertFalse(exhausted.getTasks().get(1).isRetried());
+    }
+
+    @Test
+    void testUnmockedWorkerTaskStaysScheduled() {
+        Workflow workflow = run(workflow("waiting", simple("unmocked"), simple("after")), Map.of(), Map.of());
+
+        assertEquals(Workflow.WorkflowStatus.RUNNING, workflow.getStatus());
+        assertEquals(List.of("unmocked"), refs(workflow));
+        assertEquals(Task.Status.SCHEDULED, workflow.getTasks().get(0).getStatus());
+        assertEquals(0, workflow.getEndTime());
+    }
+
+    private Workflow run(WorkflowDef def, Map<String, Object> input,
+                         Map<String, List<WorkflowTestRequest.TaskMock>> mocks) {
+        WorkflowTestRequest request = new WorkflowTestRequest();
+        request.setName(def.getName());
+        request.setVersion(def.getVersion());
+        request.setWorkflowDef(def);
+        request.setInput(new HashMap<>(input));
+        request.setTaskRefToMockOutput(new HashMap<>(mocks));
+        return simulator.testWorkflow(request);
+    }
+
+    private static List<String> refs(Workflow workflow) {
+        return workflow.getTasks().stream().map(Task::getReferenceTaskName).collect(Collectors.toList());
+    }
+
+    private static WorkflowTestRequest.TaskMock mock(Map<String, Object> output) {
+        WorkflowTestRequest.TaskMock mock = new WorkflowTestRequest.TaskMock();
+        mock.setStatus(TaskResult.Status.COMPLETED);
+        mock.setOutput(output);
+        return mock;
+    }
+
+    private static WorkflowDef workflow(String name, WorkflowTask... tasks) {
+        WorkflowDef def = new WorkflowDef();
+        def.setName(name);
+        def.setVersion(1);
+        def.setTasks(new ArrayList<>(List.of(tasks)));
+        return def;
+    }
+
+    private static WorkflowTask simple(String ref) {
+        return task(ref, TaskType.SIMPLE);
+    }
+
+    private static WorkflowTask task(String ref, TaskType type) {
+        WorkflowTask task = new WorkflowTask();
+        task.setName(ref);
+        task.setTaskReferenceName(ref);
+        task.setType(type.name());
+        return task;
+    }
+}
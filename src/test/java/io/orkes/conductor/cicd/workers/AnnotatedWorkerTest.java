@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workers;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnnotatedWorkerTest {
+
+    @Test
+    void testExecuteGreetings() {
+        List<AnnotatedWorker> workers = AnnotatedWorker.scan(new AppWorkres(), new ObjectMapperProvider().getObjectMapper());
+        assertEquals(1, workers.size());
+        AnnotatedWorker worker = workers.get(0);
+        assertEquals("greetings", worker.getTaskType());
+
+        Task task = new Task();
+        task.setTaskId("task-1");
+        task.setWorkflowInstanceId("workflow-1");
+        task.setInputData(Map.of("name", "Orkes"));
+
+        TaskResult result = worker.execute(task);
+        assertEquals(TaskResult.Status.COMPLETED, result.getStatus());
+        assertEquals("Hello, Orkes", result.getOutputData().get("result"));
+        assertEquals("task-1", result.getTaskId());
+    }
+
+    @Test
+    void testSettingsOverrides() {
+        AnnotatedWorker worker = AnnotatedWorker.scan(new AppWorkres(), new ObjectMapperProvider().getObjectMapper()).get(0);
+        System.setProperty("conductor.worker.test_type.threadCount", "16");
+        System.setProperty("conductor.worker.test_type.batchSize", "32");
+        try {
+            WorkerSettings settings = WorkerSettings.of("test_type", worker.getAnnotation());
+            assertEquals(16, settings.getThreadCount());
+            assertEquals(32, settings.getBatchSize());
+        } finally {
+            System.clearProperty("conductor.worker.test_type.threadCount");
+            System.clearProperty("conductor.worker.test_type.batchSize");
+        }
+    }
+
+    @Test
+    void testSettingsFromTaskDef() {
+        AnnotatedWorker worker = AnnotatedWorker.scan(new AppWorkres(), new ObjectMapperProvider().getObjectMapper()).get(0);
+        TaskDef taskDef = new TaskDef("test_type");
+        taskDef.setConcurrentExecLimit(1);
+        taskDef.setRateLimitPerFrequency(5);
+        taskDef.setRateLimitFrequencyInSeconds(2);
+        taskDef.setResponseTimeoutSeconds(60);
+
+        WorkerSettings settings = WorkerSettings.of("test_type", worker.getAnnotation(), taskDef);
+        assertEquals(1, settings.getThreadCount());
+        assertEquals(1, settings.getBatchSize());
+        assertEquals(5, settings.getRateLimitPerFrequency());
+        assertEquals(2, settings.getRateLimitFrequencySeconds());
+        assertEquals(60, settings.getResponseTimeoutSeconds());
+        assertEquals(30_000, settings.getLatencyThresholdMillis());
+
+        WorkerSettings unlimited = WorkerSettings.of("test_type", worker.getAnnotation());
+        assertEquals(0, unlimited.getRateLimitPerFrequency());
+        assertEquals(0, unlimited.getResponseTimeoutSeconds());
+        assertEquals(0, unlimited.getLatencyThresholdMillis());
+    }
+}
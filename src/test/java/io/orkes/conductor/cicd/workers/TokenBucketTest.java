@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final TokenBucket bucket = new TokenBucket(10, 1, TimeUnit.SECONDS, clock::get);
+
+    @Test
+    void testRefillsContinuously() {
+        assertEquals(4, bucket.tryAcquire(4));
+        assertEquals(6, bucket.tryAcquire(10));
+        assertEquals(0, bucket.tryAcquire(1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.nanosUntilAvailable());
+
+        // Half a token is not a token
+        clock.set(TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(0, bucket.tryAcquire(1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), bucket.nanosUntilAvailable());
+
+        clock.set(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, bucket.nanosUntilAvailable());
+        assertEquals(1, bucket.tryAcquire(5));
+    }
+
+    @Test
+    void testReleaseAndCapacity() {
+        assertEquals(10, bucket.tryAcquire(10));
+        bucket.release(3);
+        assertEquals(3, bucket.tryAcquire(10));
+
+        // Idle time does not accumulate more than the capacity
+        clock.set(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(10, bucket.tryAcquire(20));
+        assertEquals(0, bucket.tryAcquire(1));
+    }
+
+    @Test
+    void testConcurrentAcquireNeverExceedsCapacity() throws InterruptedException {
+        AtomicLong taken = new AtomicLong();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    taken.addAndGet(bucket.tryAcquire(1));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(10, taken.get());
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.netflix.conductor.client.http.TaskClient;
+import com.netflix.conductor.common.config.ObjectMapperProvider;
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.tasks.TaskDef;
+import com.netflix.conductor.common.metadata.tasks.TaskResult;
+import com.netflix.conductor.sdk.workflow.task.InputParam;
+import com.netflix.conductor.sdk.workflow.task.WorkerTask;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkerHostTest {
+
+    private static final String TASK_TYPE = "sleep_task";
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().getObjectMapper();
+
+    private final FakeTaskClient taskClient = new FakeTaskClient();
+
+    private final SleepWorkers workers = new SleepWorkers();
+
+    private final WorkerHost host = new WorkerHost(taskClient, objectMapper, 2);
+
+    @AfterEach
+    void close() {
+        host.close();
+    }
+
+    @Test
+    void testErrorFailsTheTaskAndFreesTheSlot() throws Exception {
+        AnnotatedWorker failing = new AnnotatedWorker(workers, SleepWorkers.class.getMethod("sleep", long.class),
+                objectMapper) {
+            @Override
+            public TaskResult execute(Task task) {
+                throw new AssertionError("boom");
+            }
+        };
+        host.register(failing, new WorkerSettings(1, 10, 1, null, 0, 1, 1, 0)).start();
+        taskClient.add("t1", 0);
+        taskClient.add("t2", 0);
+        taskClient.add("t3", 0);
+
+        // A single slot, so every task after the first needs the previous one to give its slot back
+        await().atMost(10, TimeUnit.SECONDS).until(() -> taskClient.updates.size() == 3);
+        for (TaskResult result : taskClient.updates) {
+            assertEquals(TaskResult.Status.FAILED, result.getStatus());
+            assertEquals("java.lang.AssertionError: boom", result.getReasonForIncompletion());
+        }
+        WorkerMetrics metrics = host.getMetrics().get(TASK_TYPE);
+        await().atMost(10, TimeUnit.SECONDS).until(() -> metrics.getInFlight() == 0);
+        assertEquals(3, metrics.getExecutionFailures());
+        assertEquals(0, metrics.getResponseTimeouts());
+    }
+
+    @Test
+    void testResponseTimeoutDropsTheResult() {
+        host.register(worker(), new WorkerSettings(1, 10, 1, null, 0, 1, 1, 0)).start();
+        taskClient.add("slow", 5_000);
+        taskClient.add("fast", 10);
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> taskClient.updates.size() == 1);
+        assertEquals("fast", taskClient.updates.get(0).getTaskId());
+        assertEquals(TaskResult.Status.COMPLETED, taskClient.updates.get(0).getStatus());
+        WorkerMetrics metrics = host.getMetrics().get(TASK_TYPE);
+        assertEquals(1, metrics.getResponseTimeouts());
+        await().atMost(10, TimeUnit.SECONDS).until(() -> metrics.getInFlight() == 0);
+    }
+
+    @Test
+    void testUpdatesAreRetried() {
+        host.register(worker(), new WorkerSettings(1, 10, 1, null)).start();
+        taskClient.failingUpdates.set(WorkerHost.UPDATE_ATTEMPTS - 1);
+        taskClient.add("retried", 0);
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> taskClient.updates.size() == 1);
+        assertEquals(WorkerHost.UPDATE_ATTEMPTS, taskClient.updateAttempts.get());
+        assertEquals(0, host.getMetrics().get(TASK_TYPE).getUpdateErrors());
+
+        // An update failing every attempt is given up, and its slot is still freed for the next task
+        taskClient.failingUpdates.set(WorkerHost.UPDATE_ATTEMPTS);
+        taskClient.add("lost", 0);
+        await().atMost(10, TimeUnit.SECONDS).until(() -> host.getMetrics().get(TASK_TYPE).getUpdateErrors() == 1);
+        taskClient.add("next", 0);
+        await().atMost(10, TimeUnit.SECONDS).until(() -> taskClient.updates.size() == 2);
+        assertEquals(List.of("retried", "next"),
+                taskClient.updates.stream().map(TaskResult::getTaskId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testConcurrentExecLimitCapsTasksInFlight() {
+        TaskDef taskDef = new TaskDef(TASK_TYPE);
+        taskDef.setConcurrentExecLimit(2);
+        host.register(workers, taskType -> taskDef).start();
+        for (int i = 0; i < 10; i++) {
+            taskClient.add("t" + i, 50);
+        }
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> taskClient.updates.size() == 10);
+        // The annotation asks for 8 threads
+        assertEquals(2, workers.maxRunning.get());
+        assertEquals(2, taskClient.maxPollCount.get());
+    }
+
+    @Test
+    void testResponseTimeoutFromTaskDefDropsTheResult() {
+        TaskDef taskDef = new TaskDef(TASK_TYPE);
+        taskDef.setResponseTimeoutSeconds(1);
+        host.register(workers, taskType -> taskDef).start();
+        taskClient.add("overrun", 5_000);
+        taskClient.add("in_time", 10);
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> taskClient.updates.size() == 1);
+        assertEquals("in_time", taskClient.updates.get(0).getTaskId());
+        WorkerMetrics metrics = host.getMetrics().get(TASK_TYPE);
+        assertEquals(1, metrics.getResponseTimeouts());
+        await().atMost(10, TimeUnit.SECONDS).until(() -> metrics.getInFlight() == 0);
+        assertEquals(1, taskClient.updates.size());
+    }
+
+    @Test
+    void testLimitLoweredWhilePolling() {
+        // Every execution is slower than the threshold, so each completion may halve the limit while polling
+        host.register(worker(), new WorkerSettings(4, 10, 4, null, 0, 1, 0, 20)).start();
+        for (int i = 0; i < 20; i++) {
+            taskClient.add("t" + i, 50);
+        }
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> taskClient.updates.size() == 20);
+        WorkerMetrics metrics = host.getMetrics().get(TASK_TYPE);
+        await().atMost(10, TimeUnit.SECONDS).until(() -> metrics.getInFlight() == 0);
+        assertTrue(metrics.getConcurrencyLimit() < 4, String.valueOf(metrics.getConcurrencyLimit()));
+        assertTrue(workers.maxRunning.get() <= 4);
+        assertEquals(0, metrics.getResponseTimeouts());
+    }
+
+    private AnnotatedWorker worker() {
+        return AnnotatedWorker.scan(workers, objectMapper).get(0);
+    }
+
+    public static class SleepWorkers {
+
+        final AtomicInteger running = new AtomicInteger();
+
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        @WorkerTask(value = TASK_TYPE, threadCount = 8, pollingInterval = 10)
+        public Map<String, Object> sleep(@InputParam("millis") long millis) throws InterruptedException {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(millis);
+            } finally {
+                running.decrementAndGet();
+            }
+            return Map.of("slept", millis);
+        }
+    }
+
+    /**
+     * Serves the tasks added to its queue and records the results, failing the next <code>failingUpdates</code>
+     * updates.
+     */
+    static class FakeTaskClient extends TaskClient {
+
+        final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+
+        final List<TaskResult> updates = Collections.synchronizedList(new ArrayList<>());
+
+        final AtomicInteger updateAttempts = new AtomicInteger();
+
+        final AtomicInteger failingUpdates = new AtomicInteger();
+
+        final AtomicInteger maxPollCount = new AtomicInteger();
+
+        FakeTaskClient() {
+            // Only the queue size is asked to the server, nothing listens there
+            setRootURI("http://127.0.0.1:1/api/");
+        }
+
+        void add(String taskId, long millis) {
+            Task task = new Task();
+            task.setTaskId(taskId);
+            task.setTaskType(TASK_TYPE);
+            task.setWorkflowInstanceId("workflow-" + taskId);
+            task.setInputData(Map.of("millis", millis));
+            queue.add(task);
+        }
+
+        @Override
+        public List<Task> batchPollTasksByTaskType(String taskType, String workerId, int count,
+                                                   int timeoutInMillisecond) {
+            maxPollCount.accumulateAndGet(count, Math::max);
+            List<Task> tasks = new ArrayList<>();
+            Task task;
+            while (tasks.size() < count && (task = queue.poll()) != null) {
+                tasks.add(task);
+            }
+            return tasks;
+        }
+
+        @Override
+        public void updateTask(TaskResult taskResult) {
+            updateAttempts.incrementAndGet();
+            if (failingUpdates.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new IllegalStateException("update failed");
+            }
+            updates.add(taskResult);
+        }
+    }
+}
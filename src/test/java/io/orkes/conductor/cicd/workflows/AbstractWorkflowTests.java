@@ -13,42 +13,31 @@
 package io.orkes.conductor.cicd.workflows;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
 
 import org.jetbrains.annotations.NotNull;
-import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.TestInstance;
-import org.testcontainers.containers.GenericContainer;
-import org.testcontainers.containers.wait.strategy.HttpWaitStrategy;
-import org.testcontainers.utility.DockerImageName;
 
 import com.netflix.conductor.common.config.ObjectMapperProvider;
-import com.netflix.conductor.common.metadata.tasks.TaskResult;
-import com.netflix.conductor.common.metadata.tasks.TaskType;
+import com.netflix.conductor.common.metadata.workflow.SubWorkflowParams;
 import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
-import com.netflix.conductor.common.metadata.workflow.WorkflowTask;
 import com.netflix.conductor.common.run.Workflow;
-import com.netflix.conductor.sdk.healthcheck.HealthCheckClient;
 
-import io.orkes.conductor.client.ApiClient;
+import io.orkes.conductor.cicd.definitions.DefinitionRegistry;
+import io.orkes.conductor.cicd.definitions.ExecutionReader;
+import io.orkes.conductor.cicd.definitions.ExecutionSummary;
+import io.orkes.conductor.cicd.deploy.DependencyGraph;
 import io.orkes.conductor.client.MetadataClient;
-import io.orkes.conductor.client.OrkesClients;
 import io.orkes.conductor.client.WorkflowClient;
 import io.orkes.conductor.client.model.WorkflowTestRequest;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import static org.awaitility.Awaitility.await;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public abstract class AbstractWorkflowTests {
 
@@ -57,92 +46,90 @@ public abstract class AbstractWorkflowTests {
     protected static TypeReference<Map<String, List<WorkflowTestRequest.TaskMock>>> mockType = new TypeReference<Map<String, List<WorkflowTestRequest.TaskMock>>>() {
     };
 
+    /**
+     * Parsed definitions and fixtures, shared by all the test classes.  The definitions are decoded from the
+     * memory-mapped definitions bundle when the build provides one.
+     */
+    protected static DefinitionRegistry definitions = DefinitionRegistry.shared();
+
+    protected static ExecutionReader executions = new ExecutionReader(objectMapper);
+
     protected MetadataClient metadataClient;
 
     protected WorkflowClient workflowClient;
 
     @BeforeAll
     public void setup() {
+        ConductorTestClients clients = ConductorTestClients.get();
+        metadataClient = clients.getMetadataClient();
+        workflowClient = clients.getWorkflowClient();
+    }
 
-        String serverURL = System.getenv("CONDUCTOR_SERVER_URL");
-        String authKey = System.getenv("CONDUCTOR_AUTH_KEY");
-        String authSecret = System.getenv("CONDUCTOR_AUTH_SECRET");
+    /**
+     * Runs the test request on the server, sharing the concurrency cap with the other test classes, or on the local
+     * simulator when no server is configured.
+     */
+    protected Workflow testWorkflow(WorkflowTestRequest testRequest) {
+        return ConductorTestClients.get().testWorkflow(testRequest);
+    }
 
-        ApiClient apiClient = new ApiClient(serverURL, authKey, authSecret);
+    protected void registerWorkflowDef(WorkflowDef def) {
+        ConductorTestClients.get().registerWorkflowDef(def);
+    }
 
-        OrkesClients clients = new OrkesClients(apiClient);
-        metadataClient = clients.getMetadataClient();
-        workflowClient = clients.getWorkflowClient();
+    /**
+     * Registers the sub-workflows referenced by name from the definition, recursively, the deepest ones first.
+     */
+    protected void registerSubWorkflows(WorkflowDef def) throws IOException {
+        registerSubWorkflows(def, new HashSet<>(Set.of(def.getName() + ":" + def.getVersion())));
     }
 
-    @NotNull
-    protected WorkflowTestRequest getWorkflowTestRequest(WorkflowDef def) throws IOException {
-        WorkflowTestRequest testRequest = new WorkflowTestRequest();
-        testRequest.setInput(new HashMap<>());
-        testRequest.setName(def.getName());
-        testRequest.setVersion(def.getVersion());
-        testRequest.setWorkflowDef(def);
-
-        Map<String, List<WorkflowTestRequest.TaskMock>> taskRefToMockOutput = new HashMap<>();
-        for (WorkflowTask task : def.collectTasks()) {
-            List<WorkflowTestRequest.TaskMock> taskRuns = new ArrayList<>();
-            WorkflowTestRequest.TaskMock mock = new WorkflowTestRequest.TaskMock();
-            mock.setStatus(TaskResult.Status.COMPLETED);
-            Map<String, Object> output = new HashMap<>();
-
-            output.put("response", Map.of());
-            mock.setOutput(output);
-            taskRuns.add(mock);
-            taskRefToMockOutput.put(task.getTaskReferenceName(), taskRuns);
-
-            if (task.getType().equals(TaskType.SUB_WORKFLOW.name())) {
-                Object inlineSubWorkflowDefObj = task.getSubWorkflowParam().getWorkflowDefinition();
-                if (inlineSubWorkflowDefObj != null) {
-                    //If not null, it represents WorkflowDef object
-                    WorkflowDef inlineSubWorkflowDef = (WorkflowDef) inlineSubWorkflowDefObj;
-                    WorkflowTestRequest subWorkflowTestRequest = getWorkflowTestRequest(inlineSubWorkflowDef);
-                    testRequest.getSubWorkflowTestRequest().put(task.getTaskReferenceName(), subWorkflowTestRequest);
-                } else {
-                    //Inline definition is null
-                    String subWorkflowName = task.getSubWorkflowParam().getName();
-                    //Load up the sub workflow from the JSON
-                    WorkflowDef subWorkflowDef = getWorkflowDef("/workflows/" + subWorkflowName + ".json");
-                    assertNotNull(subWorkflowDef);
-                    WorkflowTestRequest subWorkflowTestRequest = getWorkflowTestRequest(subWorkflowDef);
-                    testRequest.getSubWorkflowTestRequest().put(task.getTaskReferenceName(), subWorkflowTestRequest);
-                }
+    private void registerSubWorkflows(WorkflowDef def, Set<String> visited) throws IOException {
+        for (SubWorkflowParams params : DependencyGraph.referencedWorkflows(def)) {
+            WorkflowDef subWorkflowDef = definitions.findWorkflowDef(params.getName(), params.getVersion());
+            if (visited.add(subWorkflowDef.getName() + ":" + subWorkflowDef.getVersion())) {
+                registerSubWorkflows(subWorkflowDef, visited);
+                registerWorkflowDef(subWorkflowDef);
             }
         }
-        testRequest.setTaskRefToMockOutput(taskRefToMockOutput);
-        return testRequest;
     }
 
+    /**
+     * Builds a test request with a COMPLETED mock for every task of the workflow, including the sub-workflows.
+     * Named sub-workflows are resolved (and their test requests built) once per test run, see
+     * {@link DefinitionRegistry}.
+     */
+    @NotNull
+    protected WorkflowTestRequest getWorkflowTestRequest(WorkflowDef def) throws IOException {
+        return definitions.newTestRequest(def);
+    }
 
-    protected WorkflowDef getWorkflowDef(String path) throws IOException {
-        InputStream inputStream = AbstractWorkflowTests.class.getResourceAsStream(path);
-        if (inputStream == null) {
-            throw new IOException("No file found at " + path);
-        }
-        return objectMapper.readValue(new InputStreamReader(inputStream), WorkflowDef.class);
 
+    protected WorkflowDef getWorkflowDef(String path) throws IOException {
+        return definitions.getWorkflowDef(path);
     }
 
     protected Workflow getWorkflow(String path) throws IOException {
-        InputStream inputStream = AbstractWorkflowTests.class.getResourceAsStream(path);
-        if (inputStream == null) {
-            throw new IOException("No file found at " + path);
-        }
-        return objectMapper.readValue(new InputStreamReader(inputStream), Workflow.class);
+        return definitions.getWorkflow(path);
+    }
 
+    /**
+     * Streams a (possibly very large) execution snapshot, keeping only what is needed to replay and verify it.
+     */
+    protected ExecutionSummary readExecution(String path) throws IOException {
+        return executions.read(path);
     }
 
-    protected Map<String, List<WorkflowTestRequest.TaskMock>> getTestInputs(String path) throws IOException {
-        InputStream inputStream = AbstractWorkflowTests.class.getResourceAsStream(path);
-        if (inputStream == null) {
-            throw new IOException("No file found at " + path);
-        }
-        return objectMapper.readValue(new InputStreamReader(inputStream), mockType);
+    /**
+     * @return the executions of a fixture file captured from a server, see
+     * {@link io.orkes.conductor.cicd.capture.CaptureMain}
+     */
+    protected List<Workflow> getRecordedExecutions(String path) throws IOException {
+        return definitions.getExecutions(path);
+    }
 
+    protected Map<String, List<WorkflowTestRequest.TaskMock>> getTestInputs(String path) throws IOException {
+        return definitions.read(path, mockType);
     }
 
 
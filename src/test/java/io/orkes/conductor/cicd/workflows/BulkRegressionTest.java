@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workflows;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import io.orkes.conductor.cicd.regression.ExecutionArchive;
+import io.orkes.conductor.cicd.regression.RegressionOptions;
+import io.orkes.conductor.cicd.regression.RegressionReport;
+import io.orkes.conductor.cicd.regression.RegressionResult;
+import io.orkes.conductor.cicd.regression.RegressionRunner;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Replays every recorded execution found at the <code>conductor.regression.executions</code> system property (a
+ * directory or zip archive of executions), or the golden run of {@link RegressionTest} by default, against the
+ * current workflow definitions.
+ */
+public class BulkRegressionTest extends AbstractWorkflowTests {
+
+    @Test
+    public void replayRecordedExecutions() throws IOException, URISyntaxException {
+        String location = System.getProperty("conductor.regression.executions");
+        Path executions = location != null ? Paths.get(location) :
+                Paths.get(BulkRegressionTest.class.getResource("/test_data/workflow1_run.json").toURI());
+
+        RegressionRunner runner = new RegressionRunner(this::testWorkflow, definitions.getWorkflowDefs(), objectMapper,
+                RegressionOptions.DEFAULT_IGNORED, 20, Integer.getInteger("conductor.test.concurrency", 4));
+        RegressionReport report;
+        try (ExecutionArchive archive = ExecutionArchive.open(executions)) {
+            report = runner.run(archive);
+        }
+
+        StringBuilder failures = new StringBuilder(report.summary());
+        for (RegressionResult result : report.getResults()) {
+            if (result.getOutcome() != RegressionResult.Outcome.PASSED) {
+                failures.append('\n').append(result);
+                result.getDifferences().forEach(difference -> failures.append("\n  ").append(difference));
+            }
+        }
+        assertFalse(report.hasFailures(), failures.toString());
+    }
+}
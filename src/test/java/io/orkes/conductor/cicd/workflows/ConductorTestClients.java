@@ -0,0 +1,136 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workflows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Semaphore;
+
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.cicd.instrumentation.ClientInstrumentation;
+import io.orkes.conductor.cicd.simulator.WorkflowSimulator;
+import io.orkes.conductor.client.ApiClient;
+import io.orkes.conductor.client.MetadataClient;
+import io.orkes.conductor.client.OrkesClients;
+import io.orkes.conductor.client.WorkflowClient;
+import io.orkes.conductor.client.model.WorkflowTestRequest;
+
+/**
+ * Clients shared by all the workflow test classes of a test run.
+ * <p>
+ * Tests run against the server at <code>CONDUCTOR_SERVER_URL</code>, or in-process against the
+ * {@link WorkflowSimulator} when the variable is not set or the <code>conductor.test.mode</code> system property is
+ * <code>local</code>.
+ * <p>
+ * The {@link ApiClient} is created (and authenticated) once and its connection pool is reused by every test class,
+ * which matters when the classes run concurrently under JUnit parallel execution.
+ * The number of <code>testWorkflow</code> calls in flight is capped by the <code>conductor.test.concurrency</code>
+ * system property (default 4).
+ * <p>
+ * In server mode the latency of every API call is recorded by a {@link ClientInstrumentation} and printed when the
+ * test JVM exits.
+ */
+final class ConductorTestClients {
+
+    private static final class Holder {
+        private static final ConductorTestClients INSTANCE = new ConductorTestClients();
+    }
+
+    private final MetadataClient metadataClient;
+
+    private final WorkflowClient workflowClient;
+
+    private final WorkflowSimulator simulator;
+
+    private final Semaphore permits;
+
+    private ConductorTestClients() {
+        String serverURL = System.getenv("CONDUCTOR_SERVER_URL");
+        String authKey = System.getenv("CONDUCTOR_AUTH_KEY");
+        String authSecret = System.getenv("CONDUCTOR_AUTH_SECRET");
+        String mode = System.getProperty("conductor.test.mode", serverURL == null ? "local" : "server");
+
+        if ("local".equalsIgnoreCase(mode)) {
+            metadataClient = null;
+            workflowClient = null;
+            simulator = new WorkflowSimulator(AbstractWorkflowTests.objectMapper);
+        } else {
+            ClientInstrumentation instrumentation;
+            try {
+                instrumentation = ClientInstrumentation.fromSystemProperties();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ApiClient apiClient = instrumentation.instrument(new ApiClient(serverURL, authKey, authSecret));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                instrumentation.report(System.out);
+                instrumentation.close();
+            }));
+
+            OrkesClients clients = new OrkesClients(apiClient);
+            metadataClient = clients.getMetadataClient();
+            workflowClient = clients.getWorkflowClient();
+            simulator = null;
+        }
+        permits = new Semaphore(Integer.getInteger("conductor.test.concurrency", 4), true);
+    }
+
+    static ConductorTestClients get() {
+        return Holder.INSTANCE;
+    }
+
+    boolean isLocal() {
+        return simulator != null;
+    }
+
+    /**
+     * @return the metadata client, null when running against the local simulator
+     */
+    MetadataClient getMetadataClient() {
+        return metadataClient;
+    }
+
+    /**
+     * @return the workflow client, null when running against the local simulator
+     */
+    WorkflowClient getWorkflowClient() {
+        return workflowClient;
+    }
+
+    void registerWorkflowDef(WorkflowDef def) {
+        if (isLocal()) {
+            simulator.registerWorkflowDef(def);
+        } else {
+            metadataClient.registerWorkflowDef(def);
+        }
+    }
+
+    Workflow testWorkflow(WorkflowTestRequest testRequest) {
+        if (isLocal()) {
+            return simulator.testWorkflow(testRequest);
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to run " + testRequest.getName(), e);
+        }
+        try {
+            return workflowClient.testWorkflow(testRequest);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -56,7 +56,7 @@ public class LoanWorkflowTest extends AbstractWorkflowTests {
         testRequest.setName(def.getName());
         testRequest.setVersion(def.getVersion());
 
-        Workflow execution = workflowClient.testWorkflow(testRequest);
+        Workflow execution = testWorkflow(testRequest);
         assertNotNull(execution);
 
         //Assert that the workflow completed successfully
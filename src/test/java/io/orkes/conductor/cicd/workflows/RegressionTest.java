@@ -13,20 +13,16 @@
 package io.orkes.conductor.cicd.workflows;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 import org.junit.jupiter.api.Test;
 
-import com.netflix.conductor.common.metadata.tasks.Task;
-import com.netflix.conductor.common.metadata.tasks.TaskResult;
 import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
 import com.netflix.conductor.common.run.Workflow;
 
+import io.orkes.conductor.cicd.definitions.ExecutionSummary;
 import io.orkes.conductor.client.model.WorkflowTestRequest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -46,8 +42,8 @@ public class RegressionTest extends AbstractWorkflowTests {
         //Workflow Definition
         WorkflowDef def = getWorkflowDef("/workflows/workflow1.json");
 
-        //Golden output to verify against
-        Workflow workflow = getWorkflow("/test_data/workflow1_run.json");
+        //Golden output to verify against, streamed so that large executions do not need to fit in memory
+        ExecutionSummary golden = readExecution("/test_data/workflow1_run.json");
 
         WorkflowTestRequest testRequest = new WorkflowTestRequest();
         testRequest.setInput(new HashMap<>());
@@ -55,20 +51,15 @@ public class RegressionTest extends AbstractWorkflowTests {
         testRequest.setVersion(def.getVersion());
         testRequest.setWorkflowDef(def);
 
-        Map<String, List<WorkflowTestRequest.TaskMock>> taskRefToMockOutput = new HashMap<>();
-        for (Task task : workflow.getTasks()) {
-            List<WorkflowTestRequest.TaskMock> taskRuns = new ArrayList<>();
-            WorkflowTestRequest.TaskMock mock = new WorkflowTestRequest.TaskMock();
-            mock.setStatus(TaskResult.Status.valueOf(task.getStatus().name()));
-            mock.setOutput(task.getOutputData());
-            taskRuns.add(mock);
-            taskRefToMockOutput.put(def.getTasks().get(0).getTaskReferenceName(), taskRuns);
-        }
-
-        testRequest.setTaskRefToMockOutput(taskRefToMockOutput);
-        Workflow execution = workflowClient.testWorkflow(testRequest);
+        //The output of every task of the golden run becomes its mock
+        testRequest.setTaskRefToMockOutput(golden.getTaskRefToMockOutput());
+        Workflow execution = testWorkflow(testRequest);
         assertNotNull(execution);
-        assertEquals(workflow.getTasks().size(), execution.getTasks().size());
+        assertEquals(golden.getTasks().size(), execution.getTasks().size());
+        for (int i = 0; i < golden.getTasks().size(); i++) {
+            assertEquals(golden.getTasks().get(i).getReferenceTaskName(),
+                    execution.getTasks().get(i).getReferenceTaskName());
+        }
     }
 
 
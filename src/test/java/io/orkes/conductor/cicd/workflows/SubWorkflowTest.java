@@ -35,8 +35,7 @@ public class SubWorkflowTest extends AbstractWorkflowTests {
         WorkflowDef def = getWorkflowDef("/workflows/kitchensink.json");
         assertNotNull(def);
 
-        WorkflowDef subWorkflowDef = getWorkflowDef("/workflows/PopulationMinMax.json");
-        metadataClient.registerWorkflowDef(subWorkflowDef);
+        registerSubWorkflows(def);
 
 
         WorkflowTestRequest testRequest = getWorkflowTestRequest(def);
@@ -49,7 +48,7 @@ public class SubWorkflowTest extends AbstractWorkflowTests {
         testRequest.getTaskRefToMockOutput().put("simple_task_5", List.of(new WorkflowTestRequest.TaskMock()));
 
 
-        Workflow execution = workflowClient.testWorkflow(testRequest);
+        Workflow execution = testWorkflow(testRequest);
         assertNotNull(execution);
 
 
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 Orkes, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package io.orkes.conductor.cicd.workflows;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.netflix.conductor.common.metadata.tasks.Task;
+import com.netflix.conductor.common.metadata.workflow.WorkflowDef;
+import com.netflix.conductor.common.run.Workflow;
+
+import io.orkes.conductor.cicd.fuzz.FuzzOptions;
+import io.orkes.conductor.cicd.fuzz.FuzzReport;
+import io.orkes.conductor.cicd.fuzz.WorkflowFuzzer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the workflows with thousands of generated inputs and task outcomes (failures and retries included), see
+ * {@link WorkflowFuzzer}.  The number of cases is set by the <code>conductor.fuzz.cases</code> system property
+ * (default 1000), and the seed of the first case by <code>conductor.fuzz.seed</code>.
+ */
+public class WorkflowFuzzTest extends AbstractWorkflowTests {
+
+    private static final List<String> LOAN_STEPS = List.of("fetch_user_details", "get_credit_score",
+            "calculate_loan_amount");
+
+    @Test
+    public void fuzzLoanWorkflow() throws IOException {
+        WorkflowDef def = getWorkflowDef("/workflows/calculate_loan_workflow.json");
+
+        // Whatever the inputs and outcomes, a completed loan went through every step successfully
+        FuzzReport report = fuzzer().fuzz(def, (fuzzCase, execution) -> {
+            WorkflowFuzzer.TERMINATES.check(fuzzCase, execution);
+            if (execution.getStatus() != Workflow.WorkflowStatus.COMPLETED) {
+                return;
+            }
+            for (String step : LOAN_STEPS) {
+                Task last = execution.getTasks().stream()
+                        .filter(t -> t.getReferenceTaskName().equals(step))
+                        .reduce((first, second) -> second)
+                        .orElseThrow(() -> new AssertionError(step + " did not run"));
+                if (last.getStatus() != Task.Status.COMPLETED) {
+                    throw new AssertionError(step + " ended " + last.getStatus());
+                }
+            }
+        });
+
+        assertFalse(report.hasFailures(), report.summary());
+    }
+
+    @Test
+    public void fuzzKitchensink() throws IOException {
+        WorkflowDef def = getWorkflowDef("/workflows/kitchensink.json");
+        registerSubWorkflows(def);
+
+        FuzzReport report = fuzzer().fuzz(def, WorkflowFuzzer.TERMINATES);
+        assertFalse(report.hasFailures(), report.summary());
+    }
+
+    private WorkflowFuzzer fuzzer() {
+        FuzzOptions options = new FuzzOptions();
+        options.setCases(Integer.getInteger("conductor.fuzz.cases", 1000));
+        options.setSeed(Long.getLong("conductor.fuzz.seed", 1L));
+        options.setParallelism(Integer.getInteger("conductor.test.concurrency", 4));
+        return new WorkflowFuzzer(definitions, objectMapper, this::testWorkflow, options);
+    }
+}